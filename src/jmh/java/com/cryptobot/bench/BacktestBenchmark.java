@@ -0,0 +1,58 @@
+package com.cryptobot.bench;
+
+import com.cryptobot.backtest.BacktestParams;
+import com.cryptobot.backtest.BacktestResult;
+import com.cryptobot.backtest.Backtester;
+import com.cryptobot.backtest.PriceColumns;
+import com.cryptobot.backtest.RsiKernel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// ✅ Throughput del backtest: columna RSI completa y recorrido de reglas sobre N velas
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BacktestBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int bars;
+
+    private PriceColumns columns;
+    private double[] closes;
+    private double[] rsi;
+    private double[] kernelOut;
+    private double[] gains;
+    private double[] losses;
+    private final BacktestParams params = new BacktestParams(14, 30, 70, 1.0, 15, 10);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        closes = BenchData.randomWalk(bars, 42);
+        columns = new PriceColumns(BenchData.hourlyTimes(bars), closes, bars);
+        rsi = new double[bars];
+        kernelOut = new double[bars];
+        gains = new double[bars];
+        losses = new double[bars];
+        RsiKernel.compute(closes, bars, 14, rsi, gains, losses);
+    }
+
+    @Benchmark
+    public double rsiKernel() {
+        RsiKernel.compute(closes, bars, 14, kernelOut, gains, losses);
+        return kernelOut[bars - 1];
+    }
+
+    @Benchmark
+    public BacktestResult rulesOnPrecomputedRsi() {
+        return Backtester.run(columns, rsi, params, false);
+    }
+
+    @Benchmark
+    public BacktestResult fullBacktest() {
+        return Backtester.run(columns, params, false);
+    }
+}
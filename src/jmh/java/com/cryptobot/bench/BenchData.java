@@ -0,0 +1,62 @@
+package com.cryptobot.bench;
+
+import com.cryptobot.model.PricePoint;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// ✅ Datos sintéticos deterministas para los benchmarks (paseo aleatorio horario)
+final class BenchData {
+
+    static final long HOUR_MILLIS = Duration.ofHours(1).toMillis();
+    static final long START_MILLIS = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+
+    private BenchData() {}
+
+    static double[] randomWalk(int n, long seed) {
+        Random random = new Random(seed);
+        double[] out = new double[n];
+        double price = 40_000;
+        for (int i = 0; i < n; i++) {
+            price *= 1 + random.nextGaussian() * 0.01;
+            out[i] = price;
+        }
+        return out;
+    }
+
+    static long[] hourlyTimes(int n) {
+        long[] out = new long[n];
+        for (int i = 0; i < n; i++) out[i] = START_MILLIS + i * HOUR_MILLIS;
+        return out;
+    }
+
+    static List<PricePoint> pricePoints(long[] times, double[] closes) {
+        List<PricePoint> out = new ArrayList<>(times.length);
+        for (int i = 0; i < times.length; i++) {
+            out.add(new PricePoint(Instant.ofEpochMilli(times[i]), closes[i]));
+        }
+        return out;
+    }
+
+    // ✅ JSON con la forma de /coins/{id}/market_chart
+    static String marketChartJson(long[] times, double[] closes) {
+        StringBuilder sb = new StringBuilder(times.length * 96);
+        String[] arrays = {"prices", "market_caps", "total_volumes"};
+        double[] factor = {1, 19_000_000, 25_000};
+        sb.append('{');
+        for (int a = 0; a < arrays.length; a++) {
+            if (a > 0) sb.append(',');
+            sb.append('"').append(arrays[a]).append("\":[");
+            for (int i = 0; i < times.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append('[').append(times[i]).append(',').append(closes[i] * factor[a]).append(']');
+            }
+            sb.append(']');
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,141 @@
+package com.cryptobot.bench;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.config.ConfigSnapshot;
+import com.cryptobot.indicator.IndicatorState;
+import com.cryptobot.indicator.StudyGraph;
+import com.cryptobot.indicator.Timeframe;
+import com.cryptobot.model.PricePoint;
+import com.cryptobot.service.SignalEvaluatorService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ✅ Coste de calcular el RSI sobre series de distinta longitud:
+// recálculo completo (ta4j vs motor en streaming) y actualización por tick, también con los indicadores
+// de indicator.studies en todas las temporalidades.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndicatorBenchmark {
+
+    @Param({"48", "1000", "10000", "100000"})
+    public int seriesLength;
+
+    private final BotProperties config = new BotProperties();
+    private SignalEvaluatorService evaluator;
+
+    private long[] times;
+    private double[] closes;
+    private List<PricePoint> points;
+
+    private IndicatorState warmState;
+    private IndicatorState multiState;
+    private long multiTime;
+    private IndicatorState studyState;
+    private StudyGraph signalStudies;
+    private int[] studySlots;
+    private long studyTime;
+    private LegacyRsi.Incremental legacyIncremental;
+    private long nextTime;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        evaluator = new SignalEvaluatorService(ConfigService.fixed(config));
+        times = BenchData.hourlyTimes(seriesLength);
+        closes = BenchData.randomWalk(seriesLength, 42);
+        points = BenchData.pricePoints(times, closes);
+
+        warmState = newState();
+        for (int i = 0; i < seriesLength; i++) warmState.onPrice(times[i], closes[i]);
+        nextTime = times[seriesLength - 1] + BenchData.HOUR_MILLIS;
+
+        // ✅ Las 6 temporalidades a la vez, alimentadas con un tick cada segundo
+        multiState = new IndicatorState(config.getBitcoin().getRsi().getPeriod(), config.getIndicator().getHistorySize(),
+                config.getBitcoin().getRsi().getMinDataPoints(), Timeframe.H1, List.of(Timeframe.values()));
+        multiTime = times[0];
+        for (int i = 0; i < seriesLength; i++) multiState.onTick(multiTime += 1000, closes[i], 0.1);
+
+        ConfigSnapshot snapshot = ConfigService.fixed(config).current();
+        studyState = new IndicatorState(snapshot.rsiPeriod(), snapshot.historySize(), snapshot.rsiMinDataPoints(),
+                Timeframe.H1, List.of(Timeframe.values()), snapshot.studies());
+        studyTime = times[0];
+        for (int i = 0; i < seriesLength; i++) studyState.onTick(studyTime += 1000, closes[i], 0.1);
+        signalStudies = studyState.signalBars().studies();
+        studySlots = signalStudies.keys().stream().mapToInt(signalStudies::slot).toArray();
+
+        BotProperties.Bitcoin.Rsi rsi = config.getBitcoin().getRsi();
+        legacyIncremental = new LegacyRsi.Incremental(
+                config.getBitcoin().getPrice().getRecentPricesLimit(), rsi.getMinDataPoints(), rsi.getPeriod());
+        for (double c : closes) legacyIncremental.updateRsiIncremental(c);
+    }
+
+    private IndicatorState newState() {
+        BotProperties.Bitcoin.Rsi rsi = config.getBitcoin().getRsi();
+        return new IndicatorState(rsi.getPeriod(), config.getIndicator().getHistorySize(),
+                rsi.getMinDataPoints(), BenchData.HOUR_MILLIS);
+    }
+
+    // ---- Recálculo completo de la serie ----
+
+    @Benchmark
+    public double legacyTa4jCalculateRsi() {
+        return LegacyRsi.calculateRSI(new ArrayList<>(points), config.getBitcoin().getRsi().getPeriod());
+    }
+
+    @Benchmark
+    public Object legacyTa4jBuildBarSeries() {
+        return LegacyRsi.buildBarSeries(points);
+    }
+
+    @Benchmark
+    public double streamingFullReplay() {
+        IndicatorState state = newState();
+        for (int i = 0; i < seriesLength; i++) state.onPrice(times[i], closes[i]);
+        return state.rsi();
+    }
+
+    // ---- Un tick nuevo sobre estado ya caliente ----
+
+    @Benchmark
+    public double streamingTick() {
+        double price = closes[cursor++ % seriesLength];
+        warmState.onPrice(nextTime, price);
+        nextTime += BenchData.HOUR_MILLIS;
+        return warmState.rsi();
+    }
+
+    @Benchmark
+    public double streamingTickAllTimeframes() {
+        double price = closes[cursor++ % seriesLength];
+        multiState.onTick(multiTime += 1000, price, 0.1);
+        return multiState.rsi();
+    }
+
+    // ✅ Tick en las 6 temporalidades con todos los indicadores por defecto, leyendo cada salida en la de señales
+    @Benchmark
+    public double streamingTickAllStudies() {
+        double price = closes[cursor++ % seriesLength];
+        studyState.onTick(studyTime += 1000, price, 0.1);
+        double sum = 0;
+        for (int slot : studySlots) sum += signalStudies.value(slot);
+        return sum;
+    }
+
+    @Benchmark
+    public double legacyUpdateRsiIncremental() {
+        return legacyIncremental.updateRsiIncremental(closes[cursor++ % seriesLength]);
+    }
+
+    @Benchmark
+    public SignalEvaluatorService.Signal evaluateRsiSignal() {
+        return evaluator.evaluateRsiSignal(warmState);
+    }
+}
@@ -0,0 +1,65 @@
+package com.cryptobot.bench;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.journal.EventJournal;
+import com.cryptobot.journal.JournalReader;
+import com.cryptobot.journal.JournalReplayer;
+import com.cryptobot.service.SignalEvaluatorService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// ✅ Reconstruir el estado desde el diario: un mes de un símbolo con un tick por segundo (~2,6 M ticks)
+// y una evaluación por tick, con todas las temporalidades por defecto.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JournalBenchmark {
+
+    private static final int TICKS = 30 * 24 * 3600;
+
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("journal-bench");
+        BotProperties config = new BotProperties();
+        config.getJournal().setDirectory(dir.toString());
+        config.getJournal().setFsync(false);
+        EventJournal journal = new EventJournal(config, ConfigService.fixed(config), new SimpleMeterRegistry());
+        journal.start();
+
+        double[] prices = BenchData.randomWalk(TICKS, 11);
+        for (int i = 0; i < TICKS; i++) {
+            // ✅ Paseo horario comprimido a segundos: la variación por tick es exagerada, pero el coste no depende de ello
+            double price = prices[i];
+            journal.tick("bitcoin", BenchData.START_MILLIS + i * 1000L, price, 0.5, EventJournal.Origin.STREAM);
+            journal.evaluation("bitcoin", price, price, 50, true, SignalEvaluatorService.Signal.Type.HOLD, 0.0, i, false, false);
+        }
+        journal.shutdown();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public JournalReplayer replayMonth() throws IOException {
+        JournalReplayer replayer = new JournalReplayer();
+        JournalReader.replay(dir, Long.MAX_VALUE, replayer);
+        return replayer;
+    }
+}
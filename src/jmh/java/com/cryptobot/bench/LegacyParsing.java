@@ -0,0 +1,30 @@
+package com.cryptobot.bench;
+
+import com.cryptobot.model.PricePoint;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// ✅ Camino de parsing anterior al decodificador en streaming (databind a List<List<Object>>), como línea base
+final class LegacyParsing {
+
+    private LegacyParsing() {}
+
+    record CoinGeckoResponse(List<List<Object>> prices) {}
+
+    static List<PricePoint> toPricePoints(CoinGeckoResponse response) {
+        if (response == null || response.prices() == null) {
+            throw new RuntimeException("Respuesta inválida de CoinGecko");
+        }
+
+        List<PricePoint> prices = new ArrayList<>();
+        for (List<Object> entry : response.prices()) {
+            long timestamp = ((Number) entry.get(0)).longValue();
+            Instant instant = Instant.ofEpochMilli(timestamp);
+            double price = ((Number) entry.get(1)).doubleValue();
+            prices.add(new PricePoint(instant, price));
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,110 @@
+package com.cryptobot.bench;
+
+import com.cryptobot.model.PricePoint;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeriesBuilder;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// ✅ Copia literal de los caminos de cálculo anteriores al motor en streaming, como línea base:
+// SignalEvaluatorService.calculateRSI/buildBarSeries (ta4j) y BitcoinPriceService.updateRsiIncremental.
+final class LegacyRsi {
+
+    private LegacyRsi() {}
+
+    static double calculateRSI(List<PricePoint> prices, int rsiPeriod) {
+        prices.sort((a, b) -> a.dateTime().compareTo(b.dateTime()));
+
+        BarSeries series = buildBarSeries(prices);
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+        RSIIndicator rsiIndicator = new RSIIndicator(closePrice, rsiPeriod);
+
+        double rsi = rsiIndicator.getValue(series.getEndIndex()).doubleValue();
+        return Double.isNaN(rsi) ? -1 : rsi;
+    }
+
+    static BarSeries buildBarSeries(List<PricePoint> prices) {
+        BarSeries series = new BaseBarSeriesBuilder().withName("BTC-USD").build();
+
+        for (PricePoint p : prices) {
+            ZonedDateTime zdt = p.dateTime().atZone(ZoneId.of("UTC"));
+            series.addBar(Duration.ofHours(1), zdt, p.price(), p.price(), p.price(), p.price(), 0);
+        }
+
+        return series;
+    }
+
+    // ✅ RSI incremental con List<Double> y Double boxeados
+    static final class Incremental {
+        private final int recentLimit;
+        private final int minDataPoints;
+        private final int period;
+
+        private Double avgGain = null;
+        private Double avgLoss = null;
+        private Double lastRsiValue = null;
+        private final List<Double> recentPrices = new ArrayList<>();
+
+        Incremental(int recentLimit, int minDataPoints, int period) {
+            this.recentLimit = recentLimit;
+            this.minDataPoints = minDataPoints;
+            this.period = period;
+        }
+
+        double updateRsiIncremental(double newPrice) {
+            recentPrices.add(newPrice);
+            if (recentPrices.size() > recentLimit) {
+                recentPrices.remove(0);
+            }
+            if (recentPrices.size() < minDataPoints) {
+                return calculateInitialRsi();
+            }
+
+            double prevPrice = recentPrices.get(recentPrices.size() - 2);
+            double change = newPrice - prevPrice;
+            double gain = Math.max(change, 0);
+            double loss = Math.max(-change, 0);
+
+            if (avgGain == null || avgLoss == null) {
+                return calculateInitialRsi();
+            }
+
+            avgGain = ((avgGain * (period - 1)) + gain) / period;
+            avgLoss = ((avgLoss * (period - 1)) + loss) / period;
+
+            if (avgLoss == 0) {
+                lastRsiValue = 100.0;
+                return lastRsiValue;
+            }
+
+            double rs = avgGain / avgLoss;
+            lastRsiValue = 100 - (100 / (1 + rs));
+            return lastRsiValue;
+        }
+
+        private double calculateInitialRsi() {
+            if (recentPrices.size() < minDataPoints) {
+                return 50.0;
+            }
+            double gains = 0;
+            double losses = 0;
+            for (int i = 1; i < minDataPoints; i++) {
+                double diff = recentPrices.get(i) - recentPrices.get(i - 1);
+                if (diff > 0) gains += diff;
+                else losses -= diff;
+            }
+            avgGain = gains / period;
+            avgLoss = losses / period;
+            if (avgLoss == 0) return 100.0;
+            double rs = avgGain / avgLoss;
+            lastRsiValue = 100 - (100 / (1 + rs));
+            return lastRsiValue;
+        }
+    }
+}
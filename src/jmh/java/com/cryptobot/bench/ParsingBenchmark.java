@@ -0,0 +1,49 @@
+package com.cryptobot.bench;
+
+import com.cryptobot.client.CoinGeckoJson;
+import com.cryptobot.model.MarketChart;
+import com.cryptobot.model.PricePoint;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ✅ JSON de market_chart: databind a List<List<Object>> + List<PricePoint> (camino anterior)
+// frente al decodificador en streaming a columnas primitivas que usa CoinGeckoClient
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+
+    @Param({"48", "1000", "10000", "100000"})
+    public int seriesLength;
+
+    // ✅ Igual que el conversor de RestTemplate: ignora market_caps/total_volumes
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        long[] times = BenchData.hourlyTimes(seriesLength);
+        double[] closes = BenchData.randomWalk(seriesLength, 42);
+        json = BenchData.marketChartJson(times, closes).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<PricePoint> legacyDatabindToPricePoints() throws Exception {
+        var response = mapper.readValue(json, LegacyParsing.CoinGeckoResponse.class);
+        return LegacyParsing.toPricePoints(response);
+    }
+
+    @Benchmark
+    public MarketChart streamingToColumns() throws Exception {
+        return CoinGeckoJson.parseMarketChart(json);
+    }
+}
@@ -0,0 +1,67 @@
+package com.cryptobot.bench;
+
+import com.cryptobot.indicator.IndicatorState;
+import com.cryptobot.indicator.Timeframe;
+import com.cryptobot.rule.RuleCompiler;
+import com.cryptobot.rule.RuleContext;
+import com.cryptobot.rule.RuleSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ✅ Coste de evaluar N reglas declarativas de un símbolo en un tick (indicadores compartidos entre reglas)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleBenchmark {
+
+    private static final long MINUTE_MILLIS = 60_000L;
+    private static final List<Timeframe> FRAMES = List.of(Timeframe.M1, Timeframe.M15, Timeframe.H1, Timeframe.H4);
+
+    @Param({"10", "100", "500"})
+    public int rules;
+
+    private RuleSet ruleSet;
+    private IndicatorState state;
+    private RuleContext ctx;
+    private double[] prices;
+    private long nextTime;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<String> definitions = new ArrayList<>();
+        for (int k = 0; k < rules; k++) {
+            definitions.add(switch (k % 4) {
+                case 0 -> "r" + k + ": rsi(14, 1h) crosses_below " + (60 + k % 20) + " and pct_change(4h) < -" + (1 + k % 5);
+                case 1 -> "r" + k + ": rsi(15m) crosses_above " + (20 + k % 20) + " or price > high(4h) * " + (1 + (k % 7) / 100.0);
+                case 2 -> "r" + k + ": pct_change(1h) > " + (k % 9) / 2.0 + " and not rsi(7, 1h) > " + (50 + k % 30);
+                default -> "r" + k + ": (price - low(1h)) / price * 100 > " + (k % 11) / 4.0;
+            });
+        }
+        ruleSet = new RuleCompiler(Timeframe.H1, FRAMES, 14, 256).compile(definitions);
+
+        state = new IndicatorState(14, 256, 15, Timeframe.H1, FRAMES);
+        int warmup = 24 * 60;
+        prices = BenchData.randomWalk(warmup + 10_000, 7);
+        for (int i = 0; i < warmup; i++) {
+            state.onPrice(BenchData.START_MILLIS + i * MINUTE_MILLIS, prices[i]);
+        }
+        nextTime = BenchData.START_MILLIS + warmup * MINUTE_MILLIS;
+        cursor = warmup;
+        ctx = ruleSet.newContext(state);
+    }
+
+    @Benchmark
+    public boolean evaluate() {
+        state.onPrice(nextTime, prices[cursor]);
+        nextTime += MINUTE_MILLIS;
+        if (++cursor == prices.length) cursor = 24 * 60;
+        return ruleSet.evaluate(ctx);
+    }
+}
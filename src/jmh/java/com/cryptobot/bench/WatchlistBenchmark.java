@@ -0,0 +1,61 @@
+package com.cryptobot.bench;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.indicator.IndicatorState;
+import com.cryptobot.service.SignalEvaluatorService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// ✅ Coste de un ciclo completo (un tick + RSI + señal) para N símbolos de la watchlist
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WatchlistBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int symbols;
+
+    @Param({"48", "1000"})
+    public int historyPerSymbol;
+
+    private final BotProperties config = new BotProperties();
+    private SignalEvaluatorService evaluator;
+    private IndicatorState[] states;
+    private double[][] closes;
+    private long nextTime;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        evaluator = new SignalEvaluatorService(ConfigService.fixed(config));
+        BotProperties.Bitcoin.Rsi rsi = config.getBitcoin().getRsi();
+        long[] times = BenchData.hourlyTimes(historyPerSymbol);
+
+        states = new IndicatorState[symbols];
+        closes = new double[symbols][];
+        for (int s = 0; s < symbols; s++) {
+            closes[s] = BenchData.randomWalk(historyPerSymbol, s);
+            states[s] = new IndicatorState(rsi.getPeriod(), config.getIndicator().getHistorySize(),
+                    rsi.getMinDataPoints(), BenchData.HOUR_MILLIS);
+            for (int i = 0; i < historyPerSymbol; i++) states[s].onPrice(times[i], closes[s][i]);
+        }
+        nextTime = times[historyPerSymbol - 1] + BenchData.HOUR_MILLIS;
+    }
+
+    @Benchmark
+    public int cycle() {
+        int active = 0;
+        int i = cursor++ % historyPerSymbol;
+        for (int s = 0; s < symbols; s++) {
+            states[s].onPrice(nextTime, closes[s][i]);
+            if (evaluator.evaluateRsiSignal(states[s]).isActive()) active++;
+        }
+        nextTime += BenchData.HOUR_MILLIS;
+        return active;
+    }
+}
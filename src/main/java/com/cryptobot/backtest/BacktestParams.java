@@ -0,0 +1,27 @@
+package com.cryptobot.backtest;
+
+import com.cryptobot.config.BotProperties;
+
+// ✅ Parámetros de una ejecución del backtest (los mismos que usa el bot en vivo + comisión)
+public record BacktestParams(int rsiPeriod,
+                             double oversoldLevel,
+                             double overboughtLevel,
+                             double changeThreshold,
+                             int minDataPoints,
+                             double feeBps) {
+
+    public static BacktestParams from(BotProperties config) {
+        BotProperties.Bitcoin.Rsi rsi = config.getBitcoin().getRsi();
+        return new BacktestParams(
+                rsi.getPeriod(),
+                rsi.getOversoldLevel(),
+                rsi.getOverboughtLevel(),
+                config.getBitcoin().getPrice().getChangeThreshold(),
+                rsi.getMinDataPoints(),
+                config.getBacktest().getFeeBps());
+    }
+
+    public BacktestParams withRsiPeriod(int period) {
+        return new BacktestParams(period, oversoldLevel, overboughtLevel, changeThreshold, minDataPoints, feeBps);
+    }
+}
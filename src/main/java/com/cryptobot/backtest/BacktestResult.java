@@ -0,0 +1,31 @@
+package com.cryptobot.backtest;
+
+import java.util.List;
+
+// ✅ Resultado de un backtest. Los rendimientos y el drawdown van en porcentaje.
+public record BacktestResult(BacktestParams params,
+                             int bars,
+                             int trades,
+                             int wins,
+                             double totalReturnPct,
+                             double maxDrawdownPct,
+                             int buySignals,
+                             int sellSignals,
+                             int priceAlerts,
+                             int rsiCrossUps,
+                             int rsiCrossDowns,
+                             List<Trade> tradeLog,
+                             long elapsedNanos) {
+
+    // ✅ exitReason: SELL (señal de venta), DROP (alerta de caída fuerte) o END (posición abierta al final)
+    public record Trade(long entryTime, double entryPrice, long exitTime, double exitPrice,
+                        double returnPct, String exitReason) {}
+
+    public double hitRate() {
+        return trades == 0 ? 0 : (double) wins / trades;
+    }
+
+    public double barsPerSecond() {
+        return elapsedNanos == 0 ? 0 : bars * 1e9 / elapsedNanos;
+    }
+}
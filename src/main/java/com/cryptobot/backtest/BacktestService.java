@@ -0,0 +1,71 @@
+package com.cryptobot.backtest;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.indicator.IndicatorEngine;
+import com.cryptobot.indicator.Timeframe;
+import com.cryptobot.store.PriceHistoryStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ForkJoinPool;
+
+// ✅ Backtest y optimización sobre el histórico persistido de un símbolo, agrupado en velas de la temporalidad pedida
+@Service
+public class BacktestService {
+
+    private static final Logger log = LoggerFactory.getLogger(BacktestService.class);
+
+    private final PriceHistoryStore historyStore;
+    private final IndicatorEngine indicatorEngine;
+    private final BotProperties config;
+    private final ForkJoinPool sweepPool;
+
+    public BacktestService(PriceHistoryStore historyStore, IndicatorEngine indicatorEngine, BotProperties config) {
+        this.historyStore = historyStore;
+        this.indicatorEngine = indicatorEngine;
+        this.config = config;
+
+        int parallelism = config.getBacktest().getSweep().getParallelism();
+        this.sweepPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public Timeframe timeframeOrDefault(Timeframe timeframe) {
+        return timeframe != null ? timeframe : indicatorEngine.signalTimeframe();
+    }
+
+    public PriceColumns loadBars(String symbol, Timeframe timeframe) {
+        return PriceColumns.fromStore(historyStore, symbol).resample(timeframeOrDefault(timeframe).millis());
+    }
+
+    public BacktestResult run(String symbol, Timeframe timeframe, BacktestParams params) {
+        PriceColumns bars = loadBars(symbol, timeframe);
+        BacktestResult result = Backtester.run(bars, params, true);
+        if (log.isInfoEnabled()) {
+            log.info(String.format("🧪 Backtest %s: %d velas, %d operaciones, %.2f%% en %.1f ms (%.1f M velas/s)",
+                    symbol, result.bars(), result.trades(), result.totalReturnPct(),
+                    result.elapsedNanos() / 1e6, result.barsPerSecond() / 1e6));
+        }
+        return result;
+    }
+
+    public ParameterSweep.Result sweep(String symbol, Timeframe timeframe, ParameterGrid grid,
+                                       ParameterSweep.Objective objective, int topN) {
+        PriceColumns bars = loadBars(symbol, timeframe);
+        BacktestParams base = BacktestParams.from(config);
+        int minTrades = config.getBacktest().getSweep().getMinTrades();
+
+        ParameterSweep.Result result = ParameterSweep.run(bars, grid, base, objective, minTrades, topN, sweepPool);
+        if (log.isInfoEnabled()) {
+            log.info(String.format("🔬 Optimización %s: %d combinaciones sobre %d velas en %.1f s (%.0f combinaciones/s)",
+                    symbol, result.evaluated(), bars.size(), result.elapsedNanos() / 1e9, result.combinationsPerSecond()));
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweepPool.shutdownNow();
+    }
+}
@@ -0,0 +1,132 @@
+package com.cryptobot.backtest;
+
+import com.cryptobot.service.SignalRules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// ✅ Backtest de las reglas del bot sobre columnas primitivas.
+//
+// Cada vela cerrada se evalúa como un ciclo del bot, con las mismas reglas que en vivo (SignalRules):
+// - alerta de precio: cambio respecto al cierre anterior >= changeThreshold
+// - cruces RSI de sobrecompra/sobreventa (se cuentan, no operan)
+// - señal clásica: sólo actúa cuando cambia respecto a la anterior (igual que la notificación)
+// Estrategia long-only: entra con BUY, sale con SELL o con una alerta de precio a la baja.
+// Un RSI NaN (antes de minDataPoints) se trata como 50, igual que BitcoinPriceService.
+//
+// Lo que NO reproduce del bot en vivo (los resultados son una cota optimista de cuántas señales se ven):
+// - sólo velas cerradas: en vivo el RSI incluye la vela en formación y la señal puede saltar a mitad de vela;
+// - sin AlertSuppressor: ni histéresis, ni intervalo mínimo, ni escalado entre alertas repetidas;
+// - la referencia del cambio de precio es el cierre anterior, no el de la última actualización periódica o alerta;
+// - sin reglas declarativas (RuleEngine) ni otras temporalidades.
+// Se deja así a propósito: el optimizador recorre miles de combinaciones sobre columnas primitivas.
+// LIVE_DIVERGENCE lo resume para la salida de la CLI y de la API.
+public final class Backtester {
+
+    public static final String LIVE_DIVERGENCE = "Backtest sobre velas cerradas, sin RSI de la vela en formación, "
+            + "sin supresión de alertas (histéresis, intervalo mínimo) ni reglas declarativas: "
+            + "en vivo habrá menos avisos y pueden llegar antes";
+
+    private Backtester() {}
+
+    public static BacktestResult run(PriceColumns bars, BacktestParams params, boolean recordTrades) {
+        double[] rsi = RsiKernel.rsi(bars.closes(), bars.size(), params.rsiPeriod());
+        return run(bars, rsi, params, recordTrades);
+    }
+
+    // ✅ Con la columna RSI ya calculada (el optimizador la reutiliza entre combinaciones del mismo período)
+    public static BacktestResult run(PriceColumns bars, double[] rsi, BacktestParams params, boolean recordTrades) {
+        long start = System.nanoTime();
+
+        final long[] times = bars.times();
+        final double[] closes = bars.closes();
+        final int n = bars.size();
+        final double oversold = params.oversoldLevel();
+        final double overbought = params.overboughtLevel();
+        final double threshold = params.changeThreshold();
+        final int firstReady = Math.max(params.minDataPoints(), 1) - 1;
+        final double feeFactor = 1 - params.feeBps() / 10_000.0;
+
+        List<BacktestResult.Trade> log = recordTrades ? new ArrayList<>() : null;
+
+        double lastPrice = 0.0;
+        double lastRsi = 50.0;
+        int lastSignal = SignalRules.HOLD;
+
+        boolean inPosition = false;
+        long entryTime = 0;
+        double entryPrice = 0;
+        double equity = 1.0;          // capital fuera de posición (1.0 = 100 %)
+        double peak = 1.0;
+        double maxDrawdown = 0;
+
+        int trades = 0, wins = 0, buys = 0, sells = 0, priceAlerts = 0, crossUps = 0, crossDowns = 0;
+
+        for (int i = 0; i < n; i++) {
+            double price = closes[i];
+            double r = i < firstReady ? Double.NaN : rsi[i];
+            double rsiOrNeutral = Double.isNaN(r) ? 50.0 : r;
+
+            // ✅ Alerta por cambio de precio; a la baja cierra la posición
+            double change = SignalRules.priceChangePct(lastPrice, price);
+            boolean drop = false;
+            if (!Double.isNaN(change) && SignalRules.isPriceAlert(change, threshold)) {
+                priceAlerts++;
+                drop = change < 0;
+            }
+
+            // ✅ Cruces RSI
+            if (SignalRules.crossedDownFromOverbought(lastRsi, rsiOrNeutral, overbought)) crossDowns++;
+            if (SignalRules.crossedUpFromOversold(lastRsi, rsiOrNeutral, oversold)) crossUps++;
+
+            // ✅ Señal clásica, sólo en el cambio
+            int signal = SignalRules.classify(r, oversold, overbought);
+            boolean fresh = signal != SignalRules.HOLD && signal != lastSignal;
+            lastSignal = signal;
+            if (fresh) {
+                if (signal == SignalRules.BUY) buys++;
+                else sells++;
+            }
+
+            if (inPosition && (drop || (fresh && signal == SignalRules.SELL))) {
+                double ret = price / entryPrice * feeFactor * feeFactor - 1;
+                equity *= 1 + ret;
+                trades++;
+                if (ret > 0) wins++;
+                if (log != null) {
+                    log.add(new BacktestResult.Trade(entryTime, entryPrice, times[i], price, ret * 100, drop ? "DROP" : "SELL"));
+                }
+                inPosition = false;
+            } else if (!inPosition && fresh && signal == SignalRules.BUY) {
+                inPosition = true;
+                entryTime = times[i];
+                entryPrice = price;
+            }
+
+            // ✅ Drawdown sobre el valor de la cartera a precio de mercado
+            double value = inPosition ? equity * (price / entryPrice) * feeFactor : equity;
+            if (value > peak) peak = value;
+            double dd = (peak - value) / peak;
+            if (dd > maxDrawdown) maxDrawdown = dd;
+
+            lastPrice = price;
+            lastRsi = rsiOrNeutral;
+        }
+
+        // ✅ Posición abierta al final: se valora al último cierre
+        if (inPosition && n > 0) {
+            double price = closes[n - 1];
+            double ret = price / entryPrice * feeFactor * feeFactor - 1;
+            equity *= 1 + ret;
+            trades++;
+            if (ret > 0) wins++;
+            if (log != null) {
+                log.add(new BacktestResult.Trade(entryTime, entryPrice, times[n - 1], price, ret * 100, "END"));
+            }
+        }
+
+        return new BacktestResult(params, n, trades, wins, (equity - 1) * 100, maxDrawdown * 100,
+                buys, sells, priceAlerts, crossUps, crossDowns,
+                log != null ? log : List.of(), System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,74 @@
+package com.cryptobot.backtest;
+
+import java.util.Arrays;
+
+// ✅ Rejilla de parámetros del optimizador. Cada eje se define como lista ("7,14,21")
+// o como rango inclusivo "inicio:fin:paso" ("20:35:5").
+public record ParameterGrid(int[] periods, int[] oversoldLevels, int[] overboughtLevels, double[] changeThresholds) {
+
+    public static ParameterGrid parse(String periods, String oversold, String overbought, String changeThresholds) {
+        return new ParameterGrid(
+                toInts(parseAxis(periods)),
+                toInts(parseAxis(oversold)),
+                toInts(parseAxis(overbought)),
+                parseAxis(changeThresholds));
+    }
+
+    // ✅ Combinaciones por período (sólo cuentan las que tienen sobreventa < sobrecompra)
+    public int combinationsPerPeriod() {
+        int levels = 0;
+        for (int os : oversoldLevels) {
+            for (int ob : overboughtLevels) {
+                if (os < ob) levels++;
+            }
+        }
+        return levels * changeThresholds.length;
+    }
+
+    public long size() {
+        return (long) periods.length * combinationsPerPeriod();
+    }
+
+    static double[] parseAxis(String spec) {
+        if (spec == null || spec.isBlank()) {
+            throw new IllegalArgumentException("Eje de la rejilla vacío");
+        }
+        String s = spec.trim();
+        if (s.contains(":")) {
+            String[] parts = s.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Rango inválido (inicio:fin:paso): " + spec);
+            }
+            double start = Double.parseDouble(parts[0].trim());
+            double end = Double.parseDouble(parts[1].trim());
+            double step = Double.parseDouble(parts[2].trim());
+            if (step <= 0 || end < start) {
+                throw new IllegalArgumentException("Rango inválido (inicio:fin:paso): " + spec);
+            }
+            int count = (int) Math.floor((end - start) / step + 1e-9) + 1;
+            double[] out = new double[count];
+            for (int i = 0; i < count; i++) {
+                // redondeo para evitar 0.30000000000000004 en los pasos decimales
+                out[i] = Math.round((start + i * step) * 1e9) / 1e9;
+            }
+            return out;
+        }
+        return Arrays.stream(s.split(","))
+                .map(String::trim)
+                .filter(v -> !v.isEmpty())
+                .mapToDouble(Double::parseDouble)
+                .distinct()
+                .toArray();
+    }
+
+    private static int[] toInts(double[] values) {
+        int[] out = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != Math.rint(values[i])) {
+                throw new IllegalArgumentException("Se esperaba un entero: " + values[i]);
+            }
+            out[i] = (int) values[i];
+        }
+        return out;
+    }
+}
@@ -0,0 +1,211 @@
+package com.cryptobot.backtest;
+
+import com.cryptobot.indicator.Timeframe;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+// ✅ Optimizador de parámetros: recorre la rejilla completa sobre un ForkJoinPool.
+//
+// - Las variaciones (ganancias/pérdidas) se calculan una sola vez para toda la rejilla.
+// - Cada período calcula su columna RSI una vez y la comparten todas sus combinaciones
+//   de niveles y umbral de cambio de precio.
+// - Cada hoja guarda sólo su top-N en un heap acotado y los heaps se fusionan al volver,
+//   así que la memoria no crece con el tamaño de la rejilla.
+public final class ParameterSweep {
+
+    public enum Objective {
+        RETURN,
+        RETURN_OVER_DRAWDOWN,
+        HIT_RATE;
+
+        double score(BacktestResult r) {
+            return switch (this) {
+                case RETURN -> r.totalReturnPct();
+                case RETURN_OVER_DRAWDOWN -> r.totalReturnPct() / Math.max(r.maxDrawdownPct(), 1.0);
+                case HIT_RATE -> r.hitRate();
+            };
+        }
+
+        public static Objective parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    public record Result(List<BacktestResult> best, long evaluated, long elapsedNanos) {
+        public double combinationsPerSecond() {
+            return elapsedNanos == 0 ? 0 : evaluated * 1e9 / elapsedNanos;
+        }
+    }
+
+    // ✅ Combinaciones por hoja: suficiente trabajo para amortizar el fork
+    private static final int LEAF_COMBINATIONS = 64;
+
+    private ParameterSweep() {}
+
+    public static Result run(PriceColumns bars, ParameterGrid grid, BacktestParams base,
+                             Objective objective, int minTrades, int topN, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        Context ctx = new Context(bars, grid, base, objective, minTrades, topN);
+        TopResults top = grid.periods().length == 0 || ctx.combinations == 0
+                ? new TopResults(topN)
+                : pool.invoke(new PeriodsTask(ctx, 0, grid.periods().length));
+        return new Result(top.sorted(), ctx.evaluated.sum(), System.nanoTime() - start);
+    }
+
+    // ✅ Estado compartido (de sólo lectura salvo el contador)
+    private static final class Context {
+        final PriceColumns bars;
+        final int n;
+        final int[] periods;
+        final double[] gains;
+        final double[] losses;
+        final int[] oversold;       // pares (sobreventa, sobrecompra) válidos
+        final int[] overbought;
+        final double[] thresholds;
+        final int combinations;     // por período
+        final BacktestParams base;
+        final Objective objective;
+        final int minTrades;
+        final int topN;
+        final LongAdder evaluated = new LongAdder();
+
+        Context(PriceColumns bars, ParameterGrid grid, BacktestParams base, Objective objective, int minTrades, int topN) {
+            this.bars = bars;
+            this.n = bars.size();
+            this.periods = grid.periods();
+            this.gains = new double[n];
+            this.losses = new double[n];
+            RsiKernel.changes(bars.closes(), n, gains, losses);
+
+            int pairs = 0;
+            int[] os = new int[grid.oversoldLevels().length * grid.overboughtLevels().length];
+            int[] ob = new int[os.length];
+            for (int o : grid.oversoldLevels()) {
+                for (int b : grid.overboughtLevels()) {
+                    if (o < b) {
+                        os[pairs] = o;
+                        ob[pairs] = b;
+                        pairs++;
+                    }
+                }
+            }
+            this.oversold = Arrays.copyOf(os, pairs);
+            this.overbought = Arrays.copyOf(ob, pairs);
+            this.thresholds = grid.changeThresholds();
+            this.combinations = pairs * thresholds.length;
+            this.base = base;
+            this.objective = objective;
+            this.minTrades = minTrades;
+            this.topN = topN;
+        }
+    }
+
+    // ✅ Divide por períodos; cada período calcula su columna RSI y reparte sus combinaciones
+    private static final class PeriodsTask extends RecursiveTask<TopResults> {
+        private final Context ctx;
+        private final int from;
+        private final int to;
+
+        PeriodsTask(Context ctx, int from, int to) {
+            this.ctx = ctx;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopResults compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                PeriodsTask left = new PeriodsTask(ctx, from, mid);
+                left.fork();
+                TopResults right = new PeriodsTask(ctx, mid, to).compute();
+                return left.join().merge(right);
+            }
+
+            int period = ctx.periods[from];
+            double[] rsi = new double[ctx.n];
+            RsiKernel.smooth(ctx.gains, ctx.losses, ctx.n, period, rsi);
+            return new CombinationsTask(ctx, period, rsi, 0, ctx.combinations).compute();
+        }
+    }
+
+    private static final class CombinationsTask extends RecursiveTask<TopResults> {
+        private final Context ctx;
+        private final int period;
+        private final double[] rsi;
+        private final int from;
+        private final int to;
+
+        CombinationsTask(Context ctx, int period, double[] rsi, int from, int to) {
+            this.ctx = ctx;
+            this.period = period;
+            this.rsi = rsi;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopResults compute() {
+            if (to - from > LEAF_COMBINATIONS) {
+                int mid = (from + to) >>> 1;
+                CombinationsTask left = new CombinationsTask(ctx, period, rsi, from, mid);
+                left.fork();
+                TopResults right = new CombinationsTask(ctx, period, rsi, mid, to).compute();
+                return left.join().merge(right);
+            }
+
+            TopResults top = new TopResults(ctx.topN);
+            int thresholds = ctx.thresholds.length;
+            for (int k = from; k < to; k++) {
+                int pair = k / thresholds;
+                BacktestParams params = new BacktestParams(period,
+                        ctx.oversold[pair], ctx.overbought[pair], ctx.thresholds[k % thresholds],
+                        ctx.base.minDataPoints(), ctx.base.feeBps());
+                BacktestResult result = Backtester.run(ctx.bars, rsi, params, false);
+                if (result.trades() >= ctx.minTrades) {
+                    top.offer(ctx.objective.score(result), result);
+                }
+            }
+            ctx.evaluated.add(to - from);
+            return top;
+        }
+    }
+
+    // ✅ Mejor combinación en formato application.properties.
+    // No hay ajustes por símbolo: signal.timeframe, bitcoin.rsi.* y bitcoin.price.* valen para toda la watchlist.
+    // Optimizados con el histórico de un solo símbolo, sólo se escriben activos si se pide expresamente (global);
+    // si no, van comentados para que nadie cambie los umbrales de todos los símbolos sin querer.
+    public static String toProperties(String symbol, Timeframe timeframe, BacktestResult best, boolean global) {
+        BacktestParams p = best.params();
+        String key = global ? "" : "# ";
+        String note = global
+                ? String.format(Locale.ROOT, "# Claves globales: se aplican a toda la watchlist, no sólo a %s%n", symbol)
+                : String.format(Locale.ROOT, "# Claves globales (toda la watchlist) optimizadas sólo con %s: "
+                        + "comentadas, repite con --global (global=true) para activarlas%n", symbol);
+        return String.format(Locale.ROOT,
+                "# Optimizado para %s (%s): retorno %.2f%%, drawdown %.2f%%, %d operaciones, acierto %.0f%%%n"
+                        + "%s"
+                        + "%ssignal.timeframe=%s%n"
+                        + "%sbitcoin.rsi.period=%d%n"
+                        + "%sbitcoin.rsi.oversold-level=%d%n"
+                        + "%sbitcoin.rsi.overbought-level=%d%n"
+                        + "%sbitcoin.price.change-threshold=%s%n",
+                symbol, timeframe.label(), best.totalReturnPct(), best.maxDrawdownPct(), best.trades(), best.hitRate() * 100,
+                note,
+                key, timeframe.label(),
+                key, p.rsiPeriod(),
+                key, (int) p.oversoldLevel(),
+                key, (int) p.overboughtLevel(),
+                key, stripZeros(p.changeThreshold()));
+    }
+
+    private static String stripZeros(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+}
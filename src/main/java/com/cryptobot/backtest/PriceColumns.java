@@ -0,0 +1,117 @@
+package com.cryptobot.backtest;
+
+import com.cryptobot.store.PriceHistoryFile;
+import com.cryptobot.store.PriceHistoryStore;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// ✅ Serie de precios en columnas primitivas (timestamps crecientes), sin un objeto por punto.
+// Es la entrada del backtest: se carga del histórico en disco o de un CSV y se agrupa en velas.
+public final class PriceColumns {
+
+    private final long[] times;
+    private final double[] closes;
+    private final int size;
+
+    public PriceColumns(long[] times, double[] closes, int size) {
+        this.times = times;
+        this.closes = closes;
+        this.size = size;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public long time(int i) { return times[i]; }
+    public double close(int i) { return closes[i]; }
+
+    // ✅ Acceso directo a las columnas para los bucles del backtest (no modificar)
+    long[] times() { return times; }
+    double[] closes() { return closes; }
+
+    // ✅ Una vela por bucket de `barMillis` con el último precio del bucket como cierre;
+    // el timestamp de cada vela es su apertura (mismo alineamiento que TimeframeBars)
+    public PriceColumns resample(long barMillis) {
+        if (size == 0) return this;
+        long[] outTimes = new long[size];
+        double[] outCloses = new double[size];
+        int n = 0;
+        long bucket = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            long b = Math.floorDiv(times[i], barMillis);
+            if (b != bucket) {
+                bucket = b;
+                outTimes[n] = b * barMillis;
+                n++;
+            }
+            outCloses[n - 1] = closes[i];
+        }
+        return new PriceColumns(outTimes, outCloses, n);
+    }
+
+    public static PriceColumns fromStore(PriceHistoryStore store, String symbol) {
+        Builder builder = new Builder(4096);
+        store.replay(symbol, builder::add);
+        return builder.build();
+    }
+
+    // ✅ Lectura directa de un fichero del histórico (p.ej. desde la línea de comandos, sin Spring)
+    public static PriceColumns fromFile(Path path) throws IOException {
+        try (PriceHistoryFile file = new PriceHistoryFile(path, 1)) {
+            Builder builder = new Builder(Math.max(file.size(), 1));
+            file.forEach(builder::add);
+            return builder.build();
+        }
+    }
+
+    // ✅ CSV "epochMillis,precio" (se ignoran cabecera, líneas vacías y comentarios con #)
+    public static PriceColumns fromCsv(Path path) throws IOException {
+        Builder builder = new Builder(4096);
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma <= 0 || line.startsWith("#")) continue;
+                try {
+                    long ts = Long.parseLong(line.substring(0, comma).trim());
+                    double price = Double.parseDouble(line.substring(comma + 1).trim());
+                    builder.add(ts, price);
+                } catch (NumberFormatException e) {
+                    // cabecera u otra línea no numérica
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    // ✅ Acumula puntos en arrays que crecen por duplicación; descarta timestamps no crecientes
+    public static final class Builder {
+        private long[] times;
+        private double[] closes;
+        private int size = 0;
+
+        public Builder(int initialCapacity) {
+            this.times = new long[Math.max(initialCapacity, 16)];
+            this.closes = new double[times.length];
+        }
+
+        public void add(long epochMillis, double price) {
+            if (size > 0 && epochMillis <= times[size - 1]) return;
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                closes = Arrays.copyOf(closes, size * 2);
+            }
+            times[size] = epochMillis;
+            closes[size] = price;
+            size++;
+        }
+
+        public PriceColumns build() {
+            return new PriceColumns(times, closes, size);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.cryptobot.backtest;
+
+import com.cryptobot.indicator.RsiIndicator;
+
+import java.util.Arrays;
+
+// ✅ RSI de Wilder sobre una columna completa de cierres, mismo resultado que RsiIndicator.
+// Dos pasadas: ganancias/pérdidas sin dependencias entre iteraciones (el JIT las vectoriza)
+// y después el suavizado, que es una recurrencia secuencial pero sin objetos ni ramas costosas.
+public final class RsiKernel {
+
+    private RsiKernel() {}
+
+    public static double[] rsi(double[] closes, int n, int period) {
+        double[] out = new double[n];
+        compute(closes, n, period, out, new double[n], new double[n]);
+        return out;
+    }
+
+    // ✅ out[i] = RSI tras el cierre i (NaN hasta i = period); gains/losses son buffers de trabajo de tamaño >= n
+    public static void compute(double[] closes, int n, int period, double[] out, double[] gains, double[] losses) {
+        changes(closes, n, gains, losses);
+        smooth(gains, losses, n, period, out);
+    }
+
+    // ✅ Pasada 1: variaciones (gains[i]/losses[i] = variación entre i-1 e i). No depende del período,
+    // así que se puede calcular una vez y compartir entre varios períodos.
+    public static void changes(double[] closes, int n, double[] gains, double[] losses) {
+        if (n == 0) return;
+        gains[0] = 0;
+        losses[0] = 0;
+        for (int i = 1; i < n; i++) {
+            double change = closes[i] - closes[i - 1];
+            gains[i] = Math.max(change, 0);
+            losses[i] = Math.max(-change, 0);
+        }
+    }
+
+    // ✅ Pasada 2: siembra SMA con las primeras `period` variaciones y suavizado de Wilder
+    public static void smooth(double[] gains, double[] losses, int n, int period, double[] out) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("El período RSI debe ser positivo: " + period);
+        }
+        Arrays.fill(out, 0, n, Double.NaN);
+        if (n <= period) return;
+
+        double sumGain = 0;
+        double sumLoss = 0;
+        for (int i = 1; i <= period; i++) {
+            sumGain += gains[i];
+            sumLoss += losses[i];
+        }
+        double avgGain = sumGain / period;
+        double avgLoss = sumLoss / period;
+        out[period] = RsiIndicator.toRsi(avgGain, avgLoss);
+
+        double keep = period - 1;
+        for (int i = period + 1; i < n; i++) {
+            avgGain = (avgGain * keep + gains[i]) / period;
+            avgLoss = (avgLoss * keep + losses[i]) / period;
+            out[i] = RsiIndicator.toRsi(avgGain, avgLoss);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.cryptobot.backtest;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.indicator.Timeframe;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+// ✅ Optimizador desde la línea de comandos, sin arrancar Spring.
+//
+//   mvn -q compile exec:java -Dexec.mainClass=com.cryptobot.backtest.SweepCli \
+//       -Dexec.args="--history=data/prices/bitcoin.bin --timeframe=1h --out=best.properties"
+//
+// Opciones: --history=<fichero .bin> | --csv=<epochMillis,precio>, --symbol, --timeframe,
+// --periods, --oversold, --overbought, --thresholds, --objective, --top, --min-trades, --fee-bps, --out, --global.
+// Los valores por defecto son los de BotProperties.
+// Las claves resultantes son globales (no hay ajustes por símbolo): sin --global salen comentadas.
+public final class SweepCli {
+
+    private SweepCli() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        BotProperties defaults = new BotProperties();
+        BotProperties.Backtest.Sweep sweep = defaults.getBacktest().getSweep();
+
+        PriceColumns raw;
+        if (opts.containsKey("history")) {
+            raw = PriceColumns.fromFile(Paths.get(opts.get("history")));
+        } else if (opts.containsKey("csv")) {
+            raw = PriceColumns.fromCsv(Paths.get(opts.get("csv")));
+        } else {
+            System.err.println("Uso: SweepCli --history=<fichero.bin> | --csv=<fichero.csv> [opciones]");
+            System.exit(2);
+            return;
+        }
+
+        Timeframe timeframe = Timeframe.parse(opts.getOrDefault("timeframe", "1h"));
+        PriceColumns bars = raw.resample(timeframe.millis());
+        String symbol = opts.getOrDefault("symbol", "bitcoin");
+
+        ParameterGrid grid = ParameterGrid.parse(
+                opts.getOrDefault("periods", sweep.getPeriods()),
+                opts.getOrDefault("oversold", sweep.getOversoldLevels()),
+                opts.getOrDefault("overbought", sweep.getOverboughtLevels()),
+                opts.getOrDefault("thresholds", sweep.getChangeThresholds()));
+        ParameterSweep.Objective objective = ParameterSweep.Objective.parse(opts.getOrDefault("objective", sweep.getObjective()));
+        int topN = Integer.parseInt(opts.getOrDefault("top", String.valueOf(sweep.getTopN())));
+        int minTrades = Integer.parseInt(opts.getOrDefault("min-trades", String.valueOf(sweep.getMinTrades())));
+
+        BacktestParams base = BacktestParams.from(defaults);
+        if (opts.containsKey("fee-bps")) {
+            double fee = Double.parseDouble(opts.get("fee-bps"));
+            base = new BacktestParams(base.rsiPeriod(), base.oversoldLevel(), base.overboughtLevel(),
+                    base.changeThreshold(), base.minDataPoints(), fee);
+        }
+
+        System.out.printf("🔬 %d velas de %s, %d combinaciones, objetivo %s%n",
+                bars.size(), timeframe.label(), grid.size(), objective);
+        System.out.println("ℹ️ " + Backtester.LIVE_DIVERGENCE);
+
+        ParameterSweep.Result result = ParameterSweep.run(bars, grid, base, objective, minTrades, topN, ForkJoinPool.commonPool());
+
+        System.out.printf("✅ %d combinaciones en %.2f s (%.0f/s)%n%n",
+                result.evaluated(), result.elapsedNanos() / 1e9, result.combinationsPerSecond());
+        System.out.println(" #  período  sobreventa  sobrecompra  umbral  operaciones  acierto  retorno%  drawdown%");
+        int rank = 1;
+        for (BacktestResult r : result.best()) {
+            BacktestParams p = r.params();
+            System.out.printf("%2d  %7d  %10.0f  %11.0f  %6.2f  %11d  %6.0f%%  %8.2f  %9.2f%n",
+                    rank++, p.rsiPeriod(), p.oversoldLevel(), p.overboughtLevel(), p.changeThreshold(),
+                    r.trades(), r.hitRate() * 100, r.totalReturnPct(), r.maxDrawdownPct());
+        }
+
+        if (result.best().isEmpty()) {
+            System.out.println("⚠️ Ninguna combinación alcanzó el mínimo de " + minTrades + " operaciones");
+            return;
+        }
+
+        boolean global = Boolean.parseBoolean(opts.getOrDefault("global", "false"));
+        String properties = ParameterSweep.toProperties(symbol, timeframe, result.best().get(0), global);
+        System.out.println();
+        if (!global) {
+            System.out.println("⚠️ Estas claves se aplican a TODA la watchlist, no sólo a " + symbol
+                    + ": se muestran comentadas. Usa --global para generarlas activas.");
+        }
+        System.out.print(properties);
+        if (opts.containsKey("out")) {
+            Path out = Paths.get(opts.get("out"));
+            Files.writeString(out, properties, StandardCharsets.UTF_8);
+            System.out.println("💾 Configuración guardada en " + out);
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) continue;
+            int eq = arg.indexOf('=');
+            if (eq < 0) opts.put(arg.substring(2), "true");
+            else opts.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return opts;
+    }
+}
@@ -0,0 +1,45 @@
+package com.cryptobot.backtest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// ✅ Los N mejores resultados según una puntuación, en un min-heap acotado:
+// la memoria no depende del tamaño de la rejilla. No es thread-safe; cada tarea usa el suyo y se fusionan.
+final class TopResults {
+
+    private record Scored(double score, BacktestResult result) {}
+
+    private final int limit;
+    private final PriorityQueue<Scored> heap;
+
+    TopResults(int limit) {
+        this.limit = Math.max(1, limit);
+        this.heap = new PriorityQueue<>(this.limit + 1, Comparator.comparingDouble(Scored::score));
+    }
+
+    void offer(double score, BacktestResult result) {
+        if (Double.isNaN(score)) return;
+        if (heap.size() < limit) {
+            heap.add(new Scored(score, result));
+        } else if (score > heap.peek().score()) {
+            heap.poll();
+            heap.add(new Scored(score, result));
+        }
+    }
+
+    TopResults merge(TopResults other) {
+        for (Scored s : other.heap) offer(s.score(), s.result());
+        return this;
+    }
+
+    // ✅ De mejor a peor
+    List<BacktestResult> sorted() {
+        List<Scored> all = new ArrayList<>(heap);
+        all.sort(Comparator.comparingDouble(Scored::score).reversed());
+        List<BacktestResult> out = new ArrayList<>(all.size());
+        for (Scored s : all) out.add(s.result());
+        return out;
+    }
+}
@@ -0,0 +1,254 @@
+package com.cryptobot.client;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.execution.Threads;
+import com.cryptobot.http.OutboundHttp;
+import com.cryptobot.model.PricePoint;
+import com.cryptobot.service.PipelineMetrics;
+import com.cryptobot.service.PipelineMetrics.Event;
+import com.cryptobot.service.PipelineMetrics.Stage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// ✅ Último precio de muchos símbolos con el menor número de llamadas HTTP posible.
+// Las peticiones concurrentes se acumulan durante `linger-ms` y se envían juntas a /simple/price
+// en lotes de como mucho `max-ids-per-call` ids. Cada resultado se guarda en la caché de su símbolo.
+@Component
+public class CoinGeckoBatchFetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(CoinGeckoBatchFetcher.class);
+
+    // ✅ Transporte de /simple/price: HTTP en producción, sustituible por un stub local en tests
+    @FunctionalInterface
+    public interface SimplePriceTransport {
+        Map<String, PricePoint> fetch(List<String> ids) throws Exception;
+    }
+
+    private final BotProperties config;
+    private final TokenBucket rateLimiter;
+    private final SimplePriceTransport transport;
+    private final PipelineMetrics metrics;
+
+    private final Map<String, PricePoint> latest = new ConcurrentHashMap<>();
+    private final Map<String, Instant> fetchedAt = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<PricePoint>> pending = new ConcurrentHashMap<>();
+    // ✅ Ids ya enviados en un lote y aún sin respuesta: quien los pida se une a esa petición en lugar de reenviarla
+    private final Map<String, CompletableFuture<PricePoint>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "coingecko-batch");
+        t.setDaemon(true);
+        return t;
+    });
+    // ✅ Sólo con hilos virtuales: los trozos de un lote grande se piden a la vez (el token bucket sigue mandando)
+    private final ExecutorService chunkFetchers;
+
+    @Autowired
+    public CoinGeckoBatchFetcher(BotProperties config, CoinGeckoRateLimiter rateLimiter, PipelineMetrics metrics, OutboundHttp http) {
+        this(config, rateLimiter, httpTransport(config, rateLimiter, metrics, http), metrics);
+    }
+
+    CoinGeckoBatchFetcher(BotProperties config, TokenBucket rateLimiter, SimplePriceTransport transport) {
+        this(config, rateLimiter, transport, PipelineMetrics.disabled());
+    }
+
+    CoinGeckoBatchFetcher(BotProperties config, TokenBucket rateLimiter, SimplePriceTransport transport, PipelineMetrics metrics) {
+        this(config, rateLimiter, transport, metrics,
+                Threads.virtual(config) ? Threads.executor("coingecko-batch-", 0, true) : null);
+    }
+
+    CoinGeckoBatchFetcher(BotProperties config, TokenBucket rateLimiter, SimplePriceTransport transport, PipelineMetrics metrics,
+                          ExecutorService chunkFetchers) {
+        this.config = config;
+        this.rateLimiter = rateLimiter;
+        this.transport = transport;
+        this.metrics = metrics;
+        this.chunkFetchers = chunkFetchers;
+    }
+
+    // ✅ Último precio de un símbolo: caché si es reciente, si no se une al próximo lote
+    public CompletableFuture<PricePoint> request(String id) {
+        PricePoint cached = freshCached(id);
+        if (cached != null) {
+            metrics.count(Event.PRICE_CACHE_HIT, id);
+            return CompletableFuture.completedFuture(cached);
+        }
+        metrics.count(Event.PRICE_CACHE_MISS, id);
+
+        CompletableFuture<PricePoint> running = inFlight.get(id);
+        if (running != null) return running;
+
+        CompletableFuture<PricePoint> future = pending.computeIfAbsent(id, k -> new CompletableFuture<>());
+        scheduleFlush();
+        return future;
+    }
+
+    // ✅ Encola todos los ids de golpe (p.ej. al inicio de un ciclo de la watchlist)
+    public Map<String, CompletableFuture<PricePoint>> requestAll(Collection<String> ids) {
+        Map<String, CompletableFuture<PricePoint>> futures = new HashMap<>();
+        for (String id : ids) {
+            futures.put(id, request(id));
+        }
+        return futures;
+    }
+
+    // ✅ Versión bloqueante con plazo; null si no hay dato
+    public PricePoint fetch(String id) {
+        try {
+            return request(id).get(config.getCoingecko().getBatch().getRequestTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metrics.count(Event.PRICE_CACHE_STALE, id);
+            return latest.get(id);
+        } catch (Exception e) {
+            log.warn("⚠️ Precio por lotes no disponible para {}: {}", id, e.getMessage());
+            return null;
+        }
+    }
+
+    public PricePoint cached(String id) {
+        return latest.get(id);
+    }
+
+    private PricePoint freshCached(String id) {
+        Instant at = fetchedAt.get(id);
+        int ttl = config.getCoingecko().getBatch().getCacheTtlSeconds();
+        if (at == null || Instant.now().minusSeconds(ttl).isAfter(at)) {
+            return null;
+        }
+        return latest.get(id);
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            flusher.schedule(this::flush, config.getCoingecko().getBatch().getLingerMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+
+        // ✅ Sacar de `pending` los ids acumulados hasta ahora y pasarlos a `inFlight` antes de lanzar nada:
+        // los trozos asíncronos siguen en curso al salir de aquí y no deben volver a enviarse.
+        // Los que lleguen después irán al siguiente lote.
+        Map<String, CompletableFuture<PricePoint>> batch = new LinkedHashMap<>();
+        for (String id : new ArrayList<>(pending.keySet())) {
+            CompletableFuture<PricePoint> future = pending.get(id);
+            if (future == null) continue;
+            inFlight.put(id, future);
+            pending.remove(id, future);
+            batch.put(id, future);
+        }
+        if (batch.isEmpty()) return;
+
+        List<String> ids = new ArrayList<>(batch.keySet());
+        int maxIds = Math.max(1, config.getCoingecko().getBatch().getMaxIdsPerCall());
+        for (int from = 0; from < ids.size(); from += maxIds) {
+            Map<String, CompletableFuture<PricePoint>> chunk = new LinkedHashMap<>();
+            for (String id : ids.subList(from, Math.min(from + maxIds, ids.size()))) chunk.put(id, batch.get(id));
+            if (chunkFetchers != null && ids.size() > maxIds) chunkFetchers.execute(() -> fetchChunk(chunk));
+            else fetchChunk(chunk);
+        }
+
+        if (!pending.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    private void fetchChunk(Map<String, CompletableFuture<PricePoint>> chunk) {
+        Map<String, PricePoint> result;
+        try {
+            Duration wait = Duration.ofSeconds(config.getCoingecko().getBatch().getRequestTimeoutSeconds());
+            if (!rateLimiter.acquire(wait)) {
+                failChunk(chunk, new IllegalStateException("Rate limit CoinGecko: sin tokens disponibles"));
+                return;
+            }
+            log.debug("🌐 CoinGecko /simple/price con {} ids", chunk.size());
+            long fetchStart = metrics.start();
+            result = transport.fetch(List.copyOf(chunk.keySet()));
+            metrics.record(Stage.FETCH, PipelineMetrics.ALL, fetchStart);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failChunk(chunk, e);
+            return;
+        } catch (Exception e) {
+            failChunk(chunk, e);
+            return;
+        }
+
+        // ✅ Reparto a las cachés por símbolo y a quien esté esperando
+        Instant now = Instant.now();
+        for (Map.Entry<String, CompletableFuture<PricePoint>> entry : chunk.entrySet()) {
+            String id = entry.getKey();
+            CompletableFuture<PricePoint> future = entry.getValue();
+            PricePoint point = result != null ? result.get(id) : null;
+            if (point != null) {
+                latest.put(id, point);
+                fetchedAt.put(id, now);
+            }
+            inFlight.remove(id, future);
+            if (point != null) future.complete(point);
+            else future.completeExceptionally(new IllegalStateException("Sin precio para " + id));
+        }
+    }
+
+    private void failChunk(Map<String, CompletableFuture<PricePoint>> chunk, Exception e) {
+        log.warn("⚠️ Error en lote CoinGecko ({} ids): {}", chunk.size(), e.getMessage());
+        chunk.forEach((id, future) -> {
+            inFlight.remove(id, future);
+            future.completeExceptionally(e);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        if (chunkFetchers != null) chunkFetchers.shutdownNow();
+    }
+
+    private static SimplePriceTransport httpTransport(BotProperties config, CoinGeckoRateLimiter rateLimiter,
+                                                      PipelineMetrics metrics, OutboundHttp http) {
+        Duration deadline = Duration.ofSeconds(config.getCoingecko().getBatch().getRequestTimeoutSeconds());
+
+        return ids -> {
+            Map<String, PricePoint> prices;
+            try {
+                prices = http.get(OutboundHttp.expand(config.getCoingecko().getApi().getSimplePriceUrl(), String.join(",", ids)),
+                        deadline, (status, body) -> {
+                            long parseStart = metrics.start();
+                            Map<String, PricePoint> parsed = CoinGeckoJson.parseSimplePrice(body, "usd");
+                            metrics.record(Stage.PARSE, PipelineMetrics.ALL, parseStart);
+                            return parsed;
+                        });
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                rateLimiter.onRateLimited();
+                log.warn("❌ Rate Limit detectado. Activando cooldown de {}s", rateLimiter.cooldown().toSeconds());
+                throw e;
+            }
+            if (prices == null) {
+                throw new IllegalStateException("Respuesta inválida de CoinGecko /simple/price");
+            }
+            return prices;
+        };
+    }
+}
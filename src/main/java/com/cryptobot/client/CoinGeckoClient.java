@@ -1,103 +1,241 @@
 package com.cryptobot.client;
 
 import com.cryptobot.config.BotProperties;
-import com.cryptobot.model.PricePoint;
+import com.cryptobot.execution.Threads;
+import com.cryptobot.http.OutboundHttp;
+import com.cryptobot.model.MarketChart;
+import com.cryptobot.service.PipelineMetrics;
+import com.cryptobot.service.PipelineMetrics.Event;
+import com.cryptobot.service.PipelineMetrics.Stage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 
-import java.time.Instant;
-import java.util.ArrayList;
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// ✅ Histórico market_chart con caché stale-while-revalidate y descarga incremental.
+// Con serie en caché sólo se piden a market_chart/range los puntos posteriores a su último timestamp
+// (menos `revision-window-minutes` para recoger revisiones tardías) y se fusionan con lo que ya había.
+// Quien llama recibe siempre lo último que hay en caché sin esperar a la red; cuando la serie se acerca
+// al TTL (o ya lo ha pasado) se lanza en segundo plano una única recarga por símbolo (single-flight),
+// de modo que varias peticiones simultáneas nunca disparan varias llamadas. Los reintentos con sus
+// esperas ocurren en el hilo de recarga. Sólo se espera si no hay nada servible (primera carga o
+// datos más viejos que `max-stale-seconds`). Las series (MarketChart) son inmutables y se comparten tal cual.
 @Component
 public class CoinGeckoClient {
 
-    private final BotProperties config;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private static final Logger log = LoggerFactory.getLogger(CoinGeckoClient.class);
+
+    // ✅ Transporte de market_chart: HTTP en producción, sustituible por un stub local en tests.
+    // fromMillis == 0 pide la ventana completa; si no, sólo desde ese instante hasta ahora.
+    @FunctionalInterface
+    public interface ChartTransport {
+        MarketChart fetch(String coinId, long fromMillis) throws Exception;
+    }
 
-    // ✅ Caché interna
-    private List<PricePoint> cachedPrices = new ArrayList<>();
-    private Instant lastCacheUpdate = Instant.EPOCH;
-    private Instant lastRateLimitHit = null;
+    private record CachedSeries(MarketChart prices, long updatedAtMillis) {}
+
+    private static final CachedSeries EMPTY = new CachedSeries(MarketChart.EMPTY, 0L);
+
+    private final BotProperties config;
+    private final CoinGeckoRateLimiter rateLimiter;
+    private final ChartTransport transport;
+    private final PipelineMetrics metrics;
+
+    // ✅ Caché interna por símbolo; el presupuesto de peticiones (token bucket) es global
+    private final Map<String, CachedSeries> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<MarketChart>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService refresher;
+
+    @Autowired
+    public CoinGeckoClient(BotProperties config, CoinGeckoRateLimiter rateLimiter, PipelineMetrics metrics, OutboundHttp http) {
+        this(config, rateLimiter, httpTransport(config, metrics, http), metrics);
+    }
 
-    public CoinGeckoClient(BotProperties config) {
+    CoinGeckoClient(BotProperties config, CoinGeckoRateLimiter rateLimiter, ChartTransport transport, PipelineMetrics metrics) {
         this.config = config;
+        this.rateLimiter = rateLimiter;
+        this.transport = transport;
+        this.metrics = metrics;
+
+        // ✅ Con hilos virtuales cada recarga tiene su hilo y refresh-threads deja de limitar
+        this.refresher = Threads.executor("coingecko-refresh-",
+                config.getCoingecko().getCache().getRefreshThreads(), Threads.virtual(config));
     }
 
-    public List<PricePoint> getLastHourlyPrices(int hours) {
-        // ✅ 1. Cooldown si hubo rate limit reciente
-        int cooldownSeconds = config.getCoingecko().getRateLimit().getCooldownSeconds();
-        if (lastRateLimitHit != null &&
-                Instant.now().minusSeconds(cooldownSeconds).isBefore(lastRateLimitHit)) {
-            System.out.println("⏳ Cooldown activo (" + cooldownSeconds + "s), devolviendo caché");
-            return cachedPrices;
+    public MarketChart getLastHourlyPrices(String coinId, int hours) {
+        BotProperties.CoinGecko.Cache cfg = config.getCoingecko().getCache();
+        CachedSeries cached = cache.getOrDefault(coinId, EMPTY);
+        long ageMillis = System.currentTimeMillis() - cached.updatedAtMillis();
+        long ttlMillis = cfg.getTtlSeconds() * 1000L;
+
+        // ✅ 1. Serie reciente → usarla; si está cerca de caducar, recargar ya en segundo plano
+        if (!cached.prices().isEmpty() && ageMillis < ttlMillis) {
+            metrics.count(Event.CHART_CACHE_HIT, coinId);
+            if (ageMillis >= ttlMillis * cfg.getRefreshAheadRatio()) {
+                refresh(coinId);
+            }
+            return cached.prices();
+        }
+
+        // ✅ 2. Caducada pero aún servible → devolverla y revalidar en segundo plano
+        if (!cached.prices().isEmpty() && ageMillis < ttlMillis + cfg.getMaxStaleSeconds() * 1000L) {
+            metrics.count(Event.CHART_CACHE_STALE, coinId);
+            log.debug("♻️ Serie caducada de {} servida mientras se recarga ({} s)", coinId, ageMillis / 1000);
+            refresh(coinId);
+            return cached.prices();
         }
 
-        // ✅ 2. Si la caché es reciente → usarla
-        int cacheTtl = config.getCoingecko().getCache().getTtlSeconds();
-        if (Instant.now().minusSeconds(cacheTtl).isBefore(lastCacheUpdate)) {
-            System.out.println("✅ Caché válida (TTL: " + cacheTtl + "s)");
-            return cachedPrices;
+        // ✅ 3. Nada servible → esperar a la recarga (compartida con cualquier otra petición simultánea)
+        metrics.count(Event.CHART_CACHE_MISS, coinId);
+        try {
+            return refresh(coinId).get(cfg.getLoadTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            log.warn("⏱️ Carga de market_chart de {} sin respuesta en {} s", coinId, cfg.getLoadTimeoutSeconds());
+        } catch (Exception e) {
+            log.warn("⚠️ Carga de market_chart de {} fallida: {}", coinId, e.getMessage());
+        }
+        return cache.getOrDefault(coinId, EMPTY).prices();
+    }
+
+    // ✅ Una sola recarga en vuelo por símbolo; el resto de peticiones reciben la misma
+    CompletableFuture<MarketChart> refresh(String coinId) {
+        CompletableFuture<MarketChart> existing = inFlight.get(coinId);
+        if (existing != null) return existing;
+
+        CompletableFuture<MarketChart> flight = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(coinId, flight);
+        if (existing != null) return existing;
+
+        try {
+            refresher.execute(() -> {
+                // ✅ Se retira del mapa ANTES de completarla: una recarga terminada nunca se devuelve
+                // como si siguiera en vuelo (eso saltaría la siguiente revalidación)
+                MarketChart loaded;
+                try {
+                    loaded = load(coinId);
+                } catch (Throwable t) {
+                    inFlight.remove(coinId, flight);
+                    flight.completeExceptionally(t);
+                    return;
+                }
+                inFlight.remove(coinId, flight);
+                flight.complete(loaded);
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(coinId, flight);
+            flight.completeExceptionally(e);
         }
+        return flight;
+    }
+
+    boolean refreshing(String coinId) {
+        return inFlight.containsKey(coinId);
+    }
 
-        // ✅ 3. Intentos con backoff configurado
+    // ✅ Intentos con backoff configurado; si todos fallan se queda la serie que hubiera en caché
+    private MarketChart load(String coinId) {
         List<Integer> delays = config.getCoingecko().getRetry().getDelays();
         int maxAttempts = Math.min(config.getCoingecko().getRetry().getMaxAttempts(), delays.size());
-        
-        String apiUrl = config.getCoingecko().getApi().getUrl();
+        BotProperties.CoinGecko.Delta delta = config.getCoingecko().getDelta();
 
         for (int i = 0; i < maxAttempts; i++) {
+            // ✅ Presupuesto compartido agotado o cooldown por 429 → caché
+            if (!rateLimiter.tryAcquire()) {
+                log.info("⏳ Sin presupuesto de peticiones CoinGecko, se mantiene la caché de {}", coinId);
+                break;
+            }
+
             try {
-                System.out.println("🌐 Llamando a CoinGecko (intento " + (i + 1) + "/" + maxAttempts + ")");
-                
-                var response = restTemplate.getForObject(apiUrl, CoinGeckoResponse.class);
-                
-                if (response == null || response.prices() == null) {
-                    throw new RuntimeException("Respuesta inválida de CoinGecko");
-                }
+                log.debug("🌐 Llamando a CoinGecko para {} (intento {}/{})", coinId, i + 1, maxAttempts);
+
+                // ✅ Marca de agua: último timestamp de la serie en caché, si aún cae dentro de la ventana
+                MarketChart current = cache.getOrDefault(coinId, EMPTY).prices();
+                long now = System.currentTimeMillis();
+                long windowStart = now - delta.getWindowHours() * 3_600_000L;
+                boolean incremental = delta.isEnabled() && !current.isEmpty() && current.lastTime() > windowStart;
+                long from = incremental ? current.lastTime() - delta.getRevisionWindowMinutes() * 60_000L : 0L;
 
-                List<PricePoint> prices = new ArrayList<>();
-                for (List<Object> entry : response.prices()) {
-                    long timestamp = ((Number) entry.get(0)).longValue();
-                    Instant instant = Instant.ofEpochMilli(timestamp);
-                    double price = ((Number) entry.get(1)).doubleValue();
-                    prices.add(new PricePoint(instant, price));
+                long fetchStart = metrics.start();
+                MarketChart fetched = transport.fetch(coinId, from);
+                metrics.record(Stage.FETCH, coinId, fetchStart);
+
+                if (fetched == null) {
+                    throw new IllegalStateException("Respuesta inválida de CoinGecko");
                 }
 
+                metrics.count(incremental ? Event.CHART_FETCH_DELTA : Event.CHART_FETCH_FULL, coinId);
+                MarketChart prices = incremental ? current.merge(fetched, windowStart) : fetched;
+
                 // ✅ Actualizar caché
-                cachedPrices = prices;
-                lastCacheUpdate = Instant.now();
-                System.out.println("✅ Datos obtenidos de CoinGecko: " + prices.size() + " puntos");
-                
+                cache.put(coinId, new CachedSeries(prices, now));
+                log.debug("✅ Datos obtenidos de CoinGecko para {}: {} puntos ({}), serie de {} puntos",
+                        coinId, fetched.size(), incremental ? "delta" : "completa", prices.size());
                 return prices;
 
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                // ✅ NO reintentar si es 429
+                rateLimiter.onRateLimited();
+                log.warn("❌ Rate Limit detectado. Activando cooldown de {}s", rateLimiter.cooldown().toSeconds());
+                break;
             } catch (Exception e) {
-                System.err.println("⚠️ Error CoinGecko (intento " + (i + 1) + "): " + e.getMessage());
-
-                // ✅ Detectar rate limit
-                if (e.getMessage() != null && e.getMessage().contains("429")) {
-                    lastRateLimitHit = Instant.now();
-                    System.err.println("❌ Rate Limit detectado. Activando cooldown de " + cooldownSeconds + "s");
-                    break; // ✅ NO reintentar si es 429
-                }
+                log.warn("⚠️ Error CoinGecko {} (intento {}): {}", coinId, i + 1, e.getMessage());
 
                 // ✅ Esperar antes del siguiente intento
                 if (i < maxAttempts - 1) {
                     try {
                         int delay = delays.get(i);
-                        System.out.println("⏳ Esperando " + delay + "ms antes del siguiente intento...");
+                        log.debug("⏳ Esperando {}ms antes del siguiente intento...", delay);
                         Thread.sleep(delay);
                     } catch (InterruptedException ignored) {
                         Thread.currentThread().interrupt();
+                        break;
                     }
                 }
             }
         }
 
-        // ✅ 4. Si todos los intentos fallan → devolver caché
-        System.out.println("✅ Usando caché como fallback (" + cachedPrices.size() + " puntos)");
-        return cachedPrices;
+        MarketChart fallback = cache.getOrDefault(coinId, EMPTY).prices();
+        log.info("✅ Usando caché como fallback para {} ({} puntos)", coinId, fallback.size());
+        return fallback;
     }
 
-    public record CoinGeckoResponse(List<List<Object>> prices) {}
-}
\ No newline at end of file
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private static ChartTransport httpTransport(BotProperties config, PipelineMetrics metrics, OutboundHttp http) {
+        Duration deadline = Duration.ofSeconds(config.getCoingecko().getCache().getLoadTimeoutSeconds());
+
+        return (coinId, fromMillis) -> {
+            // ✅ /range trabaja en segundos
+            URI uri = fromMillis <= 0
+                    ? OutboundHttp.expand(config.getCoingecko().getApi().getUrl(), coinId)
+                    : OutboundHttp.expand(config.getCoingecko().getApi().getRangeUrl(),
+                            coinId, fromMillis / 1000, System.currentTimeMillis() / 1000);
+
+            // ✅ Decodificación en streaming directamente a columnas primitivas (ya descomprimida)
+            return http.get(uri, deadline, (status, body) -> {
+                long parseStart = metrics.start();
+                MarketChart parsed = CoinGeckoJson.parseMarketChart(body);
+                metrics.record(Stage.PARSE, coinId, parseStart);
+                return parsed;
+            });
+        };
+    }
+}
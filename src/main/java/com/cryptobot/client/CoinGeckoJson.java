@@ -0,0 +1,198 @@
+package com.cryptobot.client;
+
+import com.cryptobot.model.MarketChart;
+import com.cryptobot.model.PricePoint;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// ✅ Decodificadores en streaming (JsonParser) de las respuestas de CoinGecko.
+// Leen directamente a arrays primitivos: sin List<List<Object>> ni Number boxeados intermedios.
+public final class CoinGeckoJson {
+
+    // ✅ Parser rápido de doubles (FastDoubleParser): evita crear un String por cada número
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER)
+            .build();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private CoinGeckoJson() {}
+
+    // ✅ {"prices":[[ts,p],...],"market_caps":[[ts,c],...],"total_volumes":[[ts,v],...]}
+    public static MarketChart parseMarketChart(InputStream in) throws IOException {
+        try (JsonParser p = FACTORY.createParser(in)) {
+            return parseMarketChart(p);
+        }
+    }
+
+    public static MarketChart parseMarketChart(byte[] json) throws IOException {
+        try (JsonParser p = FACTORY.createParser(json)) {
+            return parseMarketChart(p);
+        }
+    }
+
+    private static MarketChart parseMarketChart(JsonParser p) throws IOException {
+        if (p.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Respuesta inválida de CoinGecko: se esperaba un objeto");
+        }
+
+        long[] times = new long[INITIAL_CAPACITY];
+        double[] prices = new double[INITIAL_CAPACITY];
+        double[] caps = new double[0];
+        double[] volumes = new double[0];
+        int size = -1;
+        int capCount = 0;
+        int volumeCount = 0;
+
+        // ✅ Columnas de tiempo de market_caps/total_volumes: sólo para realinearlas con prices si hace falta
+        long[] capTimes = new long[INITIAL_CAPACITY];
+        long[] volumeTimes = new long[INITIAL_CAPACITY];
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if (value != JsonToken.START_ARRAY) {
+                p.skipChildren();
+                continue;
+            }
+
+            switch (field) {
+                case "prices" -> {
+                    Pairs pairs = readPairs(p, times, prices);
+                    times = pairs.times;
+                    prices = pairs.values;
+                    size = pairs.count;
+                }
+                case "market_caps" -> {
+                    Pairs pairs = readPairs(p, capTimes, new double[Math.max(prices.length, INITIAL_CAPACITY)]);
+                    capTimes = pairs.times;
+                    caps = pairs.values;
+                    capCount = pairs.count;
+                }
+                case "total_volumes" -> {
+                    Pairs pairs = readPairs(p, volumeTimes, new double[Math.max(prices.length, INITIAL_CAPACITY)]);
+                    volumeTimes = pairs.times;
+                    volumes = pairs.values;
+                    volumeCount = pairs.count;
+                }
+                default -> p.skipChildren();
+            }
+        }
+
+        if (size < 0) {
+            throw new IOException("Respuesta inválida de CoinGecko: falta 'prices'");
+        }
+        if (!aligned(times, size, capTimes, capCount)) {
+            caps = align(times, size, capTimes, caps, capCount);
+            capCount = size;
+        }
+        if (!aligned(times, size, volumeTimes, volumeCount)) {
+            volumes = align(times, size, volumeTimes, volumes, volumeCount);
+            volumeCount = size;
+        }
+        return new MarketChart(times, prices, caps, volumes, size, capCount, volumeCount);
+    }
+
+    // ✅ Columna alineada por índice con prices (o más corta, como la devuelve CoinGecko): no hay que tocarla
+    private static boolean aligned(long[] times, int size, long[] columnTimes, int count) {
+        return count <= size && Arrays.equals(times, 0, count, columnTimes, 0, count);
+    }
+
+    // ✅ Si se saltó algún par (vacío o no finito) en alguna columna, se casan por timestamp; NaN donde falte
+    private static double[] align(long[] times, int size, long[] columnTimes, double[] values, int count) {
+        double[] out = new double[size];
+        Arrays.fill(out, Double.NaN);
+        for (int i = 0, j = 0; i < size; i++) {
+            while (j < count && columnTimes[j] < times[i]) j++;
+            if (j < count && columnTimes[j] == times[i]) out[i] = values[j];
+        }
+        return out;
+    }
+
+    private record Pairs(long[] times, double[] values, int count) {}
+
+    // ✅ Lee [[ts, v], ...] con el parser posicionado en el START_ARRAY exterior
+    private static Pairs readPairs(JsonParser p, long[] times, double[] values) throws IOException {
+        int n = 0;
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) throw new IOException("Respuesta de CoinGecko truncada");
+            if (token != JsonToken.START_ARRAY) {
+                p.skipChildren();
+                continue;
+            }
+
+            // ✅ Par vacío [] o incompleto [ts]: se salta (no hay de dónde sacar el valor)
+            if (p.nextToken() == JsonToken.END_ARRAY) continue;
+            long ts = p.getValueAsLong();
+            if (p.nextToken() == JsonToken.END_ARRAY) continue;
+            double v = p.currentToken() == JsonToken.VALUE_NULL ? Double.NaN : p.getValueAsDouble(Double.NaN);
+            boolean finite = Double.isFinite(v);
+
+            // ✅ Elementos extra dentro del par: ignorar hasta cerrar
+            while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) throw new IOException("Respuesta de CoinGecko truncada");
+                p.skipChildren();
+            }
+            // ✅ [ts, null] o valores no numéricos: también se saltan, un NaN envenenaría RSI y estudios
+            if (!finite) continue;
+
+            if (n == times.length) {
+                times = Arrays.copyOf(times, n * 2);
+            }
+            if (n == values.length) {
+                values = Arrays.copyOf(values, Math.max(n * 2, INITIAL_CAPACITY));
+            }
+            times[n] = ts;
+            values[n] = v;
+            n++;
+        }
+        return new Pairs(times, values, n);
+    }
+
+    // ✅ /simple/price: {"bitcoin":{"usd":43000.1,"last_updated_at":1700000000}, ...}
+    public static Map<String, PricePoint> parseSimplePrice(InputStream in, String currency) throws IOException {
+        try (JsonParser p = FACTORY.createParser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Respuesta inválida de CoinGecko /simple/price");
+            }
+
+            Map<String, PricePoint> out = new HashMap<>();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String id = p.currentName();
+                if (p.nextToken() != JsonToken.START_OBJECT) {
+                    p.skipChildren();
+                    continue;
+                }
+
+                double price = Double.NaN;
+                long updatedAt = -1;
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    p.nextToken();
+                    if (currency.equals(field)) {
+                        price = p.getValueAsDouble(Double.NaN);
+                    } else if ("last_updated_at".equals(field)) {
+                        updatedAt = p.getValueAsLong(-1);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+
+                if (!Double.isNaN(price)) {
+                    Instant ts = updatedAt > 0 ? Instant.ofEpochSecond(updatedAt) : Instant.now();
+                    out.put(id, new PricePoint(ts, price));
+                }
+            }
+            return out;
+        }
+    }
+}
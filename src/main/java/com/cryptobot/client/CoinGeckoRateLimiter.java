@@ -0,0 +1,26 @@
+package com.cryptobot.client;
+
+import com.cryptobot.config.BotProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// ✅ Presupuesto de peticiones a CoinGecko compartido por el cliente de históricos y el fetch por lotes
+@Component
+public class CoinGeckoRateLimiter extends TokenBucket {
+
+    private final Duration cooldown;
+
+    public CoinGeckoRateLimiter(BotProperties config) {
+        super(config.getCoingecko().getRateLimit().getCapacity(),
+                config.getCoingecko().getRateLimit().getRefillPerMinute());
+        this.cooldown = Duration.ofSeconds(config.getCoingecko().getRateLimit().getCooldownSeconds());
+    }
+
+    // ✅ CoinGecko respondió 429: no volver a llamar hasta que pase el cooldown
+    public void onRateLimited() {
+        pause(cooldown);
+    }
+
+    public Duration cooldown() { return cooldown; }
+}
@@ -0,0 +1,92 @@
+package com.cryptobot.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// ✅ Token bucket compartido entre todos los llamadores de una API.
+// Cada petición consume un token; los tokens se reponen de forma continua hasta `capacity`.
+// Tras un 429 el bucket se vacía y queda bloqueado durante el cooldown.
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNanos;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    public TokenBucket(int capacity, double refillPerMinute) {
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            throw new IllegalArgumentException("capacity y refillPerMinute deben ser positivos");
+        }
+        this.capacity = capacity;
+        this.refillPerNanos = refillPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+        this.pausedUntilNanos = lastRefillNanos;
+    }
+
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        refill(now);
+        if (now - pausedUntilNanos < 0 || tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    // ✅ Espera como máximo `timeout` a que haya un token disponible
+    public boolean acquire(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                if (tryAcquire()) return true;
+                waitNanos = nanosUntilNextToken(System.nanoTime());
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || waitNanos > remaining) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+    }
+
+    // ✅ Tras un rate limit del servidor: vaciar y bloquear durante `cooldown`
+    public synchronized void pause(Duration cooldown) {
+        long now = System.nanoTime();
+        tokens = 0;
+        lastRefillNanos = now;
+        pausedUntilNanos = now + cooldown.toNanos();
+    }
+
+    public synchronized boolean isPaused() {
+        return System.nanoTime() - pausedUntilNanos < 0;
+    }
+
+    public synchronized double availableTokens() {
+        refill(System.nanoTime());
+        return tokens;
+    }
+
+    private void refill(long now) {
+        if (now - pausedUntilNanos < 0) {
+            lastRefillNanos = now;
+            return;
+        }
+        long from = Math.max(lastRefillNanos, pausedUntilNanos);
+        long elapsed = now - from;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNanos);
+            lastRefillNanos = now;
+        }
+    }
+
+    private long nanosUntilNextToken(long now) {
+        long pause = pausedUntilNanos - now;
+        double missing = Math.max(0, 1 - tokens);
+        long refillWait = (long) Math.ceil(missing / refillPerNanos);
+        return Math.max(pause, 0) + refillWait;
+    }
+}
@@ -0,0 +1,159 @@
+package com.cryptobot.cluster;
+
+import com.cryptobot.config.BotProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// ✅ Modo cluster: varios nodos se reparten la watchlist por hashing consistente.
+// Sólo el dueño de un símbolo lo consulta, lo evalúa y envía sus alertas. Cada cambio de miembros
+// crea una vista nueva (epoch + anillo); se guardan las últimas para saber si un símbolo ha sido
+// nuestro sin interrupción desde una vista dada. Desactivado, este nodo es dueño de todo.
+@Component
+public class ClusterService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterService.class);
+    private static final int HISTORY = 16;
+
+    public record View(long epoch, HashRing ring) {}
+
+    private final BotProperties.Cluster config;
+    private final boolean enabled;
+    private final String nodeId;
+    private final Membership membership;
+    private final ScheduledExecutorService heartbeat;
+    private final long startedAtMillis = System.currentTimeMillis();
+
+    // ✅ Vistas de la más reciente a la más antigua; se sustituye entera en cada cambio
+    private volatile View[] views;
+
+    public ClusterService(BotProperties config, MeterRegistry registry) {
+        this.config = config.getCluster();
+        this.enabled = this.config.isEnabled();
+        this.nodeId = resolveNodeId(this.config.getNodeId());
+        this.membership = enabled ? membership(this.config) : null;
+        this.heartbeat = enabled ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cluster-heartbeat");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+
+        // ✅ Hasta que pase el periodo de gracia del arranque no hay anillo: no se es dueño de nada
+        // (así un nodo que arranca no duplica el trabajo de los que ya estaban)
+        HashRing initial = new HashRing(enabled ? List.of() : List.of(nodeId), this.config.getVirtualNodes());
+        this.views = new View[]{new View(0, initial)};
+
+        Gauge.builder("cluster_members", this, c -> c.view().ring().nodes().size())
+                .description("Nodos vivos en la vista actual del cluster")
+                .register(registry);
+        Gauge.builder("cluster_epoch", this, c -> c.view().epoch())
+                .description("Número de cambios de miembros observados")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        log.info("🧩 Cluster activo: nodo {} ({}), latido cada {} ms", nodeId, membership.name(), config.getHeartbeatIntervalMs());
+        heartbeat.scheduleAtFixedRate(this::tick, 0, config.getHeartbeatIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    void tick() {
+        long now = System.currentTimeMillis();
+        try {
+            membership.heartbeat(nodeId, now);
+            if (now - startedAtMillis < config.getStartupGraceMs()) return;
+
+            Set<String> live = new HashSet<>(membership.liveNodes(now));
+            live.add(nodeId);
+            update(live);
+        } catch (Exception e) {
+            log.warn("⚠️ Error en el latido del cluster: {}", e.getMessage());
+        }
+    }
+
+    // ✅ Nueva vista sólo si el conjunto de nodos vivos ha cambiado
+    synchronized void update(Set<String> live) {
+        View current = view();
+        if (new HashSet<>(current.ring().nodes()).equals(live)) return;
+
+        View next = new View(current.epoch() + 1, new HashRing(live, config.getVirtualNodes()));
+        View[] old = views;
+        View[] updated = new View[Math.min(old.length + 1, HISTORY)];
+        updated[0] = next;
+        System.arraycopy(old, 0, updated, 1, updated.length - 1);
+        views = updated;
+
+        log.info("🧩 Cluster epoch {}: {} nodos {}", next.epoch(), live.size(), next.ring().nodes());
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public String nodeId() { return nodeId; }
+    public View view() { return views[0]; }
+    public long epoch() { return view().epoch(); }
+
+    public boolean owns(String symbolId) {
+        return !enabled || nodeId.equals(view().ring().owner(symbolId));
+    }
+
+    public String owner(String symbolId) {
+        return enabled ? view().ring().owner(symbolId) : nodeId;
+    }
+
+    // ✅ true si el símbolo ha sido de este nodo en todas las vistas desde `epoch` hasta la actual.
+    // false si cambió de manos entremedias o si esa vista ya no está en el historial.
+    public boolean ownedSince(String symbolId, long epoch) {
+        if (!enabled) return true;
+        View[] snapshot = views;
+        for (View v : snapshot) {
+            if (!nodeId.equals(v.ring().owner(symbolId))) return false;
+            if (v.epoch() <= epoch) return true;
+        }
+        return false;
+    }
+
+    public List<String> members() {
+        return new ArrayList<>(view().ring().nodes());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) return;
+        heartbeat.shutdownNow();
+        membership.leave(nodeId);
+    }
+
+    private static Membership membership(BotProperties.Cluster config) {
+        return switch (config.getMembership().trim().toLowerCase(Locale.ROOT)) {
+            case "file" -> new FileMembership(Paths.get(config.getDirectory()), config.getFailureTimeoutMs());
+            case "static" -> new StaticMembership(config.getPeers(), config.getFailureTimeoutMs(),
+                    Duration.ofMillis(config.getProbeTimeoutMs()));
+            default -> throw new IllegalArgumentException("cluster.membership desconocido: " + config.getMembership());
+        };
+    }
+
+    private static String resolveNodeId(String configured) {
+        if (configured != null && !configured.isBlank()) return configured.trim();
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node-" + ProcessHandle.current().pid();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.cryptobot.cluster;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+
+// ✅ Membresía sobre un directorio compartido (volumen común o disco local en tests):
+// cada nodo escribe `<nodo>.node` con la hora de su último latido. Está vivo si el latido
+// tiene menos de `failureTimeoutMs`; al salir de forma ordenada borra su fichero.
+public class FileMembership implements Membership {
+
+    private static final String SUFFIX = ".node";
+
+    private final Path directory;
+    private final long failureTimeoutMs;
+
+    public FileMembership(Path directory, long failureTimeoutMs) {
+        this.directory = directory;
+        this.failureTimeoutMs = failureTimeoutMs;
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public void heartbeat(String nodeId, long nowMillis) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(nodeId + SUFFIX);
+        Path tmp = directory.resolve(nodeId + SUFFIX + ".tmp");
+        Files.writeString(tmp, Long.toString(nowMillis), StandardCharsets.UTF_8);
+        // ✅ Reemplazo atómico: quien lee nunca ve un fichero a medio escribir
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public Set<String> liveNodes(long nowMillis) throws IOException {
+        Set<String> live = new HashSet<>();
+        if (!Files.isDirectory(directory)) return live;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                long beat;
+                try {
+                    beat = Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim());
+                } catch (NoSuchFileException | NumberFormatException e) {
+                    continue;
+                }
+                if (nowMillis - beat < failureTimeoutMs) {
+                    String name = file.getFileName().toString();
+                    live.add(name.substring(0, name.length() - SUFFIX.length()));
+                }
+            }
+        }
+        return live;
+    }
+
+    @Override
+    public void leave(String nodeId) {
+        try {
+            Files.deleteIfExists(directory.resolve(nodeId + SUFFIX));
+        } catch (IOException ignored) {
+            // ✅ Si no se puede borrar, los demás lo darán por caído al vencer el timeout
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.cryptobot.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+// ✅ Anillo de hashing consistente con nodos virtuales. Inmutable: cada cambio de miembros crea uno nuevo.
+// Al entrar o salir un nodo sólo cambian de dueño ~1/N de los símbolos, los de los tramos que ocupaba.
+public final class HashRing {
+
+    private final long[] points;
+    private final String[] owners;
+    private final List<String> nodes;
+
+    public HashRing(Collection<String> nodes, int virtualNodes) {
+        this.nodes = List.copyOf(new TreeSet<>(nodes));
+        int vnodes = Math.max(1, virtualNodes);
+
+        long[] hashes = new long[this.nodes.size() * vnodes];
+        String[] names = new String[hashes.length];
+        int n = 0;
+        for (String node : this.nodes) {
+            for (int v = 0; v < vnodes; v++) {
+                hashes[n] = hash(node + "#" + v);
+                names[n] = node;
+                n++;
+            }
+        }
+
+        // ✅ Ordenar los puntos llevando consigo su nodo
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compareUnsigned(hashes[a], hashes[b]));
+        this.points = new long[n];
+        this.owners = new String[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = hashes[order[i]];
+            owners[i] = names[order[i]];
+        }
+    }
+
+    // ✅ Primer punto del anillo en sentido horario desde el hash de la clave; null si no hay nodos
+    public String owner(String key) {
+        if (points.length == 0) return null;
+        long h = hash(key);
+        int lo = 0;
+        int hi = points.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(points[mid], h) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return owners[lo == points.length ? 0 : lo];
+    }
+
+    public List<String> nodes() { return nodes; }
+    public boolean isEmpty() { return nodes.isEmpty(); }
+
+    // ✅ FNV-1a de 64 bits + mezcla final de splitmix64 para repartir bien claves parecidas
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 30;
+        h *= 0xbf58476d1ce4e5b9L;
+        h ^= h >>> 27;
+        h *= 0x94d049bb133111ebL;
+        h ^= h >>> 31;
+        return h;
+    }
+}
@@ -0,0 +1,18 @@
+package com.cryptobot.cluster;
+
+import java.io.IOException;
+import java.util.Set;
+
+// ✅ Descubrimiento de nodos del cluster: cada nodo se anuncia periódicamente y consulta quién sigue vivo
+public interface Membership {
+
+    String name();
+
+    void heartbeat(String nodeId, long nowMillis) throws IOException;
+
+    // ✅ Nodos con latido reciente (incluido el propio si se ha anunciado)
+    Set<String> liveNodes(long nowMillis) throws IOException;
+
+    // ✅ Salida ordenada: los demás reparten sus símbolos sin esperar al timeout
+    void leave(String nodeId);
+}
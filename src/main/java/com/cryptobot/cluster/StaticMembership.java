@@ -0,0 +1,85 @@
+package com.cryptobot.cluster;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ✅ Lista fija de pares ("nodo=http://host:puerto"). En cada latido se sondea GET /cluster/ping de todos
+// en paralelo; un par está vivo si respondió con su propio id hace menos de `failureTimeoutMs`.
+public class StaticMembership implements Membership {
+
+    private final Map<String, URI> peers;
+    private final long failureTimeoutMs;
+    private final HttpClient httpClient;
+    private final Duration probeTimeout;
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+
+    public StaticMembership(List<String> entries, long failureTimeoutMs, Duration probeTimeout) {
+        this.peers = parsePeers(entries);
+        this.failureTimeoutMs = failureTimeoutMs;
+        this.probeTimeout = probeTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(probeTimeout)
+                .build();
+    }
+
+    @Override
+    public String name() {
+        return "static";
+    }
+
+    @Override
+    public void heartbeat(String nodeId, long nowMillis) {
+        lastSeen.put(nodeId, nowMillis);
+        peers.forEach((peer, uri) -> {
+            if (peer.equals(nodeId)) return;
+            HttpRequest request = HttpRequest.newBuilder(uri.resolve("/cluster/ping"))
+                    .timeout(probeTimeout)
+                    .GET()
+                    .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenAccept(response -> {
+                        if (response.statusCode() / 100 == 2 && peer.equals(response.body().trim())) {
+                            lastSeen.put(peer, System.currentTimeMillis());
+                        }
+                    });
+        });
+    }
+
+    @Override
+    public Set<String> liveNodes(long nowMillis) {
+        Set<String> live = new HashSet<>();
+        lastSeen.forEach((node, seen) -> {
+            if (nowMillis - seen < failureTimeoutMs) live.add(node);
+        });
+        return live;
+    }
+
+    @Override
+    public void leave(String nodeId) {
+        lastSeen.remove(nodeId);
+    }
+
+    // ✅ "node-a=http://10.0.0.1:8080" -> node-a => http://10.0.0.1:8080
+    static Map<String, URI> parsePeers(List<String> entries) {
+        Map<String, URI> peers = new LinkedHashMap<>();
+        if (entries == null) return peers;
+        for (String entry : entries) {
+            if (entry == null || entry.isBlank()) continue;
+            String[] parts = entry.trim().split("=", 2);
+            if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+                throw new IllegalArgumentException("Entrada de cluster.peers inválida: " + entry);
+            }
+            peers.put(parts[0].trim(), URI.create(parts[1].trim()));
+        }
+        return peers;
+    }
+}
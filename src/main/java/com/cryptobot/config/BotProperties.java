@@ -3,7 +3,10 @@ package com.cryptobot.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @ConfigurationProperties(prefix = "")
@@ -13,6 +16,21 @@ public class BotProperties {
     private Bitcoin bitcoin = new Bitcoin();
     private WhatsApp whatsapp = new WhatsApp();
     private Notification notification = new Notification();
+    private Indicator indicator = new Indicator();
+    private Watchlist watchlist = new Watchlist();
+    private Store store = new Store();
+    private Stream stream = new Stream();
+    private Signal signal = new Signal();
+    private Backtest backtest = new Backtest();
+    private Metrics metrics = new Metrics();
+    private Cluster cluster = new Cluster();
+    private Alerts alerts = new Alerts();
+    private Rules rules = new Rules();
+    private Reload reload = new Reload();
+    private Journal journal = new Journal();
+    private Execution execution = new Execution();
+    private Outbound http = new Outbound();
+    private PriceSources priceSource = new PriceSources();
 
     // Getters y Setters
     public CoinGecko getCoingecko() { return coingecko; }
@@ -23,6 +41,36 @@ public class BotProperties {
     public void setWhatsapp(WhatsApp whatsapp) { this.whatsapp = whatsapp; }
     public Notification getNotification() { return notification; }
     public void setNotification(Notification notification) { this.notification = notification; }
+    public Indicator getIndicator() { return indicator; }
+    public void setIndicator(Indicator indicator) { this.indicator = indicator; }
+    public Watchlist getWatchlist() { return watchlist; }
+    public void setWatchlist(Watchlist watchlist) { this.watchlist = watchlist; }
+    public Store getStore() { return store; }
+    public void setStore(Store store) { this.store = store; }
+    public Stream getStream() { return stream; }
+    public void setStream(Stream stream) { this.stream = stream; }
+    public Signal getSignal() { return signal; }
+    public void setSignal(Signal signal) { this.signal = signal; }
+    public Backtest getBacktest() { return backtest; }
+    public void setBacktest(Backtest backtest) { this.backtest = backtest; }
+    public Metrics getMetrics() { return metrics; }
+    public void setMetrics(Metrics metrics) { this.metrics = metrics; }
+    public Cluster getCluster() { return cluster; }
+    public void setCluster(Cluster cluster) { this.cluster = cluster; }
+    public Alerts getAlerts() { return alerts; }
+    public void setAlerts(Alerts alerts) { this.alerts = alerts; }
+    public Rules getRules() { return rules; }
+    public void setRules(Rules rules) { this.rules = rules; }
+    public Reload getReload() { return reload; }
+    public void setReload(Reload reload) { this.reload = reload; }
+    public Journal getJournal() { return journal; }
+    public void setJournal(Journal journal) { this.journal = journal; }
+    public Execution getExecution() { return execution; }
+    public void setExecution(Execution execution) { this.execution = execution; }
+    public Outbound getHttp() { return http; }
+    public void setHttp(Outbound http) { this.http = http; }
+    public PriceSources getPriceSource() { return priceSource; }
+    public void setPriceSource(PriceSources priceSource) { this.priceSource = priceSource; }
 
     // ===================================
     // COINGECKO
@@ -32,9 +80,15 @@ public class BotProperties {
         private Cache cache = new Cache();
         private RateLimit rateLimit = new RateLimit();
         private Retry retry = new Retry();
+        private Batch batch = new Batch();
+        private Delta delta = new Delta();
 
         public Api getApi() { return api; }
         public void setApi(Api api) { this.api = api; }
+        public Batch getBatch() { return batch; }
+        public void setBatch(Batch batch) { this.batch = batch; }
+        public Delta getDelta() { return delta; }
+        public void setDelta(Delta delta) { this.delta = delta; }
         public Cache getCache() { return cache; }
         public void setCache(Cache cache) { this.cache = cache; }
         public RateLimit getRateLimit() { return rateLimit; }
@@ -43,21 +97,76 @@ public class BotProperties {
         public void setRetry(Retry retry) { this.retry = retry; }
 
         public static class Api {
-            private String url = "https://api.coingecko.com/api/v3/coins/bitcoin/market_chart?vs_currency=usd&days=2";
+            private String url = "https://api.coingecko.com/api/v3/coins/{id}/market_chart?vs_currency=usd&days=2";
+            private String simplePriceUrl = "https://api.coingecko.com/api/v3/simple/price?ids={ids}&vs_currencies=usd&include_last_updated_at=true";
+            private String rangeUrl = "https://api.coingecko.com/api/v3/coins/{id}/market_chart/range?vs_currency=usd&from={from}&to={to}";
             public String getUrl() { return url; }
             public void setUrl(String url) { this.url = url; }
+            public String getRangeUrl() { return rangeUrl; }
+            public void setRangeUrl(String rangeUrl) { this.rangeUrl = rangeUrl; }
+            public String getSimplePriceUrl() { return simplePriceUrl; }
+            public void setSimplePriceUrl(String simplePriceUrl) { this.simplePriceUrl = simplePriceUrl; }
+        }
+
+        public static class Batch {
+            private int maxIdsPerCall = 250;
+            private int lingerMs = 50;
+            private int cacheTtlSeconds = 30;
+            private int requestTimeoutSeconds = 30;
+            public int getMaxIdsPerCall() { return maxIdsPerCall; }
+            public void setMaxIdsPerCall(int maxIdsPerCall) { this.maxIdsPerCall = maxIdsPerCall; }
+            public int getLingerMs() { return lingerMs; }
+            public void setLingerMs(int lingerMs) { this.lingerMs = lingerMs; }
+            public int getCacheTtlSeconds() { return cacheTtlSeconds; }
+            public void setCacheTtlSeconds(int cacheTtlSeconds) { this.cacheTtlSeconds = cacheTtlSeconds; }
+            public int getRequestTimeoutSeconds() { return requestTimeoutSeconds; }
+            public void setRequestTimeoutSeconds(int requestTimeoutSeconds) { this.requestTimeoutSeconds = requestTimeoutSeconds; }
+        }
+
+        public static class Delta {
+            private boolean enabled = true;
+            // Solape con lo ya descargado para recoger revisiones del último punto
+            private int revisionWindowMinutes = 10;
+            // Antigüedad máxima de la serie en caché; más allá se descarga entera
+            private int windowHours = 48;
+            public boolean isEnabled() { return enabled; }
+            public void setEnabled(boolean enabled) { this.enabled = enabled; }
+            public int getRevisionWindowMinutes() { return revisionWindowMinutes; }
+            public void setRevisionWindowMinutes(int revisionWindowMinutes) { this.revisionWindowMinutes = revisionWindowMinutes; }
+            public int getWindowHours() { return windowHours; }
+            public void setWindowHours(int windowHours) { this.windowHours = windowHours; }
         }
 
         public static class Cache {
             private int ttlSeconds = 600;
+            // Fracción del TTL a partir de la cual se recarga en segundo plano
+            private double refreshAheadRatio = 0.8;
+            // Tiempo tras el TTL durante el que aún se sirve la serie mientras se recarga
+            private int maxStaleSeconds = 3600;
+            private int loadTimeoutSeconds = 30;
+            private int refreshThreads = 2;
             public int getTtlSeconds() { return ttlSeconds; }
             public void setTtlSeconds(int ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+            public double getRefreshAheadRatio() { return refreshAheadRatio; }
+            public void setRefreshAheadRatio(double refreshAheadRatio) { this.refreshAheadRatio = refreshAheadRatio; }
+            public int getMaxStaleSeconds() { return maxStaleSeconds; }
+            public void setMaxStaleSeconds(int maxStaleSeconds) { this.maxStaleSeconds = maxStaleSeconds; }
+            public int getLoadTimeoutSeconds() { return loadTimeoutSeconds; }
+            public void setLoadTimeoutSeconds(int loadTimeoutSeconds) { this.loadTimeoutSeconds = loadTimeoutSeconds; }
+            public int getRefreshThreads() { return refreshThreads; }
+            public void setRefreshThreads(int refreshThreads) { this.refreshThreads = refreshThreads; }
         }
 
         public static class RateLimit {
             private int cooldownSeconds = 120;
+            private int capacity = 10;
+            private double refillPerMinute = 10;
             public int getCooldownSeconds() { return cooldownSeconds; }
             public void setCooldownSeconds(int cooldownSeconds) { this.cooldownSeconds = cooldownSeconds; }
+            public int getCapacity() { return capacity; }
+            public void setCapacity(int capacity) { this.capacity = capacity; }
+            public double getRefillPerMinute() { return refillPerMinute; }
+            public void setRefillPerMinute(double refillPerMinute) { this.refillPerMinute = refillPerMinute; }
         }
 
         public static class Retry {
@@ -116,6 +225,7 @@ public class BotProperties {
             private int maxJitterSeconds = 60;
             private boolean skipFirstRun = true;
             private int resetFailuresAfterHours = 2;
+            private Adaptive adaptive = new Adaptive();
 
             public String getCron() { return cron; }
             public void setCron(String cron) { this.cron = cron; }
@@ -129,9 +239,480 @@ public class BotProperties {
             public void setSkipFirstRun(boolean skipFirstRun) { this.skipFirstRun = skipFirstRun; }
             public int getResetFailuresAfterHours() { return resetFailuresAfterHours; }
             public void setResetFailuresAfterHours(int resetFailuresAfterHours) { this.resetFailuresAfterHours = resetFailuresAfterHours; }
+            public Adaptive getAdaptive() { return adaptive; }
+            public void setAdaptive(Adaptive adaptive) { this.adaptive = adaptive; }
+
+            // ✅ Consulta por símbolo con intervalo según la volatilidad (sustituye al cron si está activo)
+            public static class Adaptive {
+                private boolean enabled = true;
+                private int minIntervalSeconds = 60;
+                private int maxIntervalSeconds = 1800;
+                // Hasta tener dos precios con los que medir la volatilidad
+                private int initialIntervalSeconds = 300;
+                // Movimiento esperado entre consultas, como fracción del umbral de alerta de precio
+                private double thresholdFraction = 0.25;
+                private double volatilityHalfLifeMinutes = 60;
+                // Consultas de símbolos por minuto entre toda la watchlist (0 = sin límite)
+                private double budgetPerMinute = 10;
+                // Peso de cada símbolo (id de CoinGecko) al repartir el presupuesto; 1 por defecto
+                private Map<String, Double> priorities = new HashMap<>();
+                // Actualización periódica y precio de referencia del cambio de precio: cada tanto tiempo de reloj,
+                // no en cada consulta (con el cron, cada ciclo es periódico)
+                private int periodicIntervalMinutes = 30;
+
+                public boolean isEnabled() { return enabled; }
+                public void setEnabled(boolean enabled) { this.enabled = enabled; }
+                public int getMinIntervalSeconds() { return minIntervalSeconds; }
+                public void setMinIntervalSeconds(int minIntervalSeconds) { this.minIntervalSeconds = minIntervalSeconds; }
+                public int getMaxIntervalSeconds() { return maxIntervalSeconds; }
+                public void setMaxIntervalSeconds(int maxIntervalSeconds) { this.maxIntervalSeconds = maxIntervalSeconds; }
+                public int getInitialIntervalSeconds() { return initialIntervalSeconds; }
+                public void setInitialIntervalSeconds(int initialIntervalSeconds) { this.initialIntervalSeconds = initialIntervalSeconds; }
+                public double getThresholdFraction() { return thresholdFraction; }
+                public void setThresholdFraction(double thresholdFraction) { this.thresholdFraction = thresholdFraction; }
+                public double getVolatilityHalfLifeMinutes() { return volatilityHalfLifeMinutes; }
+                public void setVolatilityHalfLifeMinutes(double volatilityHalfLifeMinutes) { this.volatilityHalfLifeMinutes = volatilityHalfLifeMinutes; }
+                public double getBudgetPerMinute() { return budgetPerMinute; }
+                public void setBudgetPerMinute(double budgetPerMinute) { this.budgetPerMinute = budgetPerMinute; }
+                public Map<String, Double> getPriorities() { return priorities; }
+                public void setPriorities(Map<String, Double> priorities) { this.priorities = priorities; }
+                public int getPeriodicIntervalMinutes() { return periodicIntervalMinutes; }
+                public void setPeriodicIntervalMinutes(int periodicIntervalMinutes) { this.periodicIntervalMinutes = periodicIntervalMinutes; }
+            }
+        }
+    }
+
+    // ===================================
+    // INDICATORS
+    // ===================================
+    public static class Indicator {
+        private int historySize = 256;
+        private List<String> timeframes = List.of("1m", "5m", "15m", "1h", "4h", "1d");
+        // Specs de StudyGraph: ema(p), sma(p), bollinger(p,k), macd(f,s,g), atr(p), stoch_rsi(r,s,k,d), vwap
+        private List<String> studies = List.of("ema(9)", "ema(21)", "sma(50)", "macd", "bollinger", "atr", "stoch_rsi", "vwap");
+        public int getHistorySize() { return historySize; }
+        public void setHistorySize(int historySize) { this.historySize = historySize; }
+        public List<String> getTimeframes() { return timeframes; }
+        public void setTimeframes(List<String> timeframes) { this.timeframes = timeframes; }
+        public List<String> getStudies() { return studies; }
+        public void setStudies(List<String> studies) { this.studies = studies; }
+    }
+
+    // ===================================
+    // SIGNAL
+    // ===================================
+    public static class Signal {
+        // "1m", "5m", "15m", "1h", "4h", "1d"; vacío = usar barDurationHours
+        private String timeframe = "";
+        private int barDurationHours = 1;
+        public String getTimeframe() { return timeframe; }
+        public void setTimeframe(String timeframe) { this.timeframe = timeframe; }
+        public int getBarDurationHours() { return barDurationHours; }
+        public void setBarDurationHours(int barDurationHours) { this.barDurationHours = barDurationHours; }
+    }
+
+    // ===================================
+    // ALERTS (supresión de repetidas)
+    // ===================================
+    public static class Alerts {
+        private boolean enabled = true;
+        private int minIntervalSeconds = 1800;
+        // Se avisa antes del intervalo si el movimiento es este factor mayor que el último avisado
+        private double escalationFactor = 1.5;
+        // Cambio de precio: se rearma cuando el cambio baja de umbral * ratio
+        private double priceHysteresisRatio = 0.5;
+        // Cruces y señales RSI: se rearma al alejarse del nivel estos puntos
+        private double rsiHysteresisPoints = 5;
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getMinIntervalSeconds() { return minIntervalSeconds; }
+        public void setMinIntervalSeconds(int minIntervalSeconds) { this.minIntervalSeconds = minIntervalSeconds; }
+        public double getEscalationFactor() { return escalationFactor; }
+        public void setEscalationFactor(double escalationFactor) { this.escalationFactor = escalationFactor; }
+        public double getPriceHysteresisRatio() { return priceHysteresisRatio; }
+        public void setPriceHysteresisRatio(double priceHysteresisRatio) { this.priceHysteresisRatio = priceHysteresisRatio; }
+        public double getRsiHysteresisPoints() { return rsiHysteresisPoints; }
+        public void setRsiHysteresisPoints(double rsiHysteresisPoints) { this.rsiHysteresisPoints = rsiHysteresisPoints; }
+    }
+
+    // ===================================
+    // RULES (reglas de alerta declarativas)
+    // ===================================
+    public static class Rules {
+        private boolean enabled = true;
+        // "nombre: expresión", p.ej. "caida: rsi(14, 1h) crosses_below 70 and pct_change(4h) < -3"
+        private List<String> definitions = List.of();
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public List<String> getDefinitions() { return definitions; }
+        public void setDefinitions(List<String> definitions) { this.definitions = definitions; }
+    }
+
+    // ===================================
+    // RELOAD (configuración en caliente; ver ConfigSnapshot para lo recargable)
+    // ===================================
+    public static class Reload {
+        private boolean watch = true;
+        private List<String> files = List.of("config/application.properties");
+        private long debounceMs = 500;
+        // Vacío = /admin/config/reload sin token; si no, cabecera X-Admin-Token
+        private String adminToken = "";
+        public boolean isWatch() { return watch; }
+        public void setWatch(boolean watch) { this.watch = watch; }
+        public List<String> getFiles() { return files; }
+        public void setFiles(List<String> files) { this.files = files; }
+        public long getDebounceMs() { return debounceMs; }
+        public void setDebounceMs(long debounceMs) { this.debounceMs = debounceMs; }
+        public String getAdminToken() { return adminToken; }
+        public void setAdminToken(String adminToken) { this.adminToken = adminToken; }
+    }
+
+    // ===================================
+    // CLUSTER
+    // ===================================
+    public static class Cluster {
+        private boolean enabled = false;
+        // Vacío = nombre del host
+        private String nodeId = "";
+        // file (directorio compartido) | static (lista de pares sondeados por HTTP)
+        private String membership = "file";
+        private String directory = "data/cluster";
+        // "nodo=http://host:puerto"
+        private List<String> peers = List.of();
+        private long heartbeatIntervalMs = 2000;
+        private long failureTimeoutMs = 6000;
+        private long startupGraceMs = 3000;
+        private long probeTimeoutMs = 1000;
+        private int virtualNodes = 128;
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getNodeId() { return nodeId; }
+        public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+        public String getMembership() { return membership; }
+        public void setMembership(String membership) { this.membership = membership; }
+        public String getDirectory() { return directory; }
+        public void setDirectory(String directory) { this.directory = directory; }
+        public List<String> getPeers() { return peers; }
+        public void setPeers(List<String> peers) { this.peers = peers; }
+        public long getHeartbeatIntervalMs() { return heartbeatIntervalMs; }
+        public void setHeartbeatIntervalMs(long heartbeatIntervalMs) { this.heartbeatIntervalMs = heartbeatIntervalMs; }
+        public long getFailureTimeoutMs() { return failureTimeoutMs; }
+        public void setFailureTimeoutMs(long failureTimeoutMs) { this.failureTimeoutMs = failureTimeoutMs; }
+        public long getStartupGraceMs() { return startupGraceMs; }
+        public void setStartupGraceMs(long startupGraceMs) { this.startupGraceMs = startupGraceMs; }
+        public long getProbeTimeoutMs() { return probeTimeoutMs; }
+        public void setProbeTimeoutMs(long probeTimeoutMs) { this.probeTimeoutMs = probeTimeoutMs; }
+        public int getVirtualNodes() { return virtualNodes; }
+        public void setVirtualNodes(int virtualNodes) { this.virtualNodes = virtualNodes; }
+    }
+
+    // ===================================
+    // METRICS
+    // ===================================
+    public static class Metrics {
+        // Timers por etapa y símbolo; desactivado no cuesta más que una comprobación por llamada
+        private boolean pipelineEnabled = true;
+        private boolean percentileHistogram = true;
+        public boolean isPipelineEnabled() { return pipelineEnabled; }
+        public void setPipelineEnabled(boolean pipelineEnabled) { this.pipelineEnabled = pipelineEnabled; }
+        public boolean isPercentileHistogram() { return percentileHistogram; }
+        public void setPercentileHistogram(boolean percentileHistogram) { this.percentileHistogram = percentileHistogram; }
+    }
+
+    // ===================================
+    // BACKTEST
+    // ===================================
+    public static class Backtest {
+        // Comisión por operación (entrada y salida) en puntos básicos
+        private double feeBps = 10;
+        private int maxTradesInResponse = 100;
+        private Sweep sweep = new Sweep();
+        public double getFeeBps() { return feeBps; }
+        public void setFeeBps(double feeBps) { this.feeBps = feeBps; }
+        public int getMaxTradesInResponse() { return maxTradesInResponse; }
+        public void setMaxTradesInResponse(int maxTradesInResponse) { this.maxTradesInResponse = maxTradesInResponse; }
+        public Sweep getSweep() { return sweep; }
+        public void setSweep(Sweep sweep) { this.sweep = sweep; }
+
+        // Ejes como lista ("7,14,21") o rango "inicio:fin:paso"
+        public static class Sweep {
+            private String periods = "7:28:1";
+            private String oversoldLevels = "15:40:5";
+            private String overboughtLevels = "60:85:5";
+            private String changeThresholds = "0.5:3:0.5";
+            private int topN = 10;
+            private int minTrades = 3;
+            // RETURN | RETURN_OVER_DRAWDOWN | HIT_RATE
+            private String objective = "RETURN_OVER_DRAWDOWN";
+            // 0 = un hilo por núcleo
+            private int parallelism = 0;
+
+            public String getPeriods() { return periods; }
+            public void setPeriods(String periods) { this.periods = periods; }
+            public String getOversoldLevels() { return oversoldLevels; }
+            public void setOversoldLevels(String oversoldLevels) { this.oversoldLevels = oversoldLevels; }
+            public String getOverboughtLevels() { return overboughtLevels; }
+            public void setOverboughtLevels(String overboughtLevels) { this.overboughtLevels = overboughtLevels; }
+            public String getChangeThresholds() { return changeThresholds; }
+            public void setChangeThresholds(String changeThresholds) { this.changeThresholds = changeThresholds; }
+            public int getTopN() { return topN; }
+            public void setTopN(int topN) { this.topN = topN; }
+            public int getMinTrades() { return minTrades; }
+            public void setMinTrades(int minTrades) { this.minTrades = minTrades; }
+            public String getObjective() { return objective; }
+            public void setObjective(String objective) { this.objective = objective; }
+            public int getParallelism() { return parallelism; }
+            public void setParallelism(int parallelism) { this.parallelism = parallelism; }
         }
     }
 
+    // ===================================
+    // WATCHLIST
+    // ===================================
+    public static class Watchlist {
+        // Entradas "idCoinGecko:ETIQUETA", p.ej. "bitcoin:BTC"
+        private List<String> symbols = List.of("bitcoin:BTC");
+        private int parallelism = 8;
+        private int symbolTimeoutSeconds = 60;
+
+        public List<String> getSymbols() { return symbols; }
+        public void setSymbols(List<String> symbols) { this.symbols = symbols; }
+        public int getParallelism() { return parallelism; }
+        public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+        public int getSymbolTimeoutSeconds() { return symbolTimeoutSeconds; }
+        public void setSymbolTimeoutSeconds(int symbolTimeoutSeconds) { this.symbolTimeoutSeconds = symbolTimeoutSeconds; }
+    }
+
+    // ===================================
+    // PRICE HISTORY STORE
+    // ===================================
+    public static class Store {
+        private boolean enabled = true;
+        private String directory = "data/prices";
+        private int retentionDays = 30;
+        private int growRecords = 4096;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getDirectory() { return directory; }
+        public void setDirectory(String directory) { this.directory = directory; }
+        public int getRetentionDays() { return retentionDays; }
+        public void setRetentionDays(int retentionDays) { this.retentionDays = retentionDays; }
+        public int getGrowRecords() { return growRecords; }
+        public void setGrowRecords(int growRecords) { this.growRecords = growRecords; }
+    }
+
+    // ===================================
+    // DIARIO DE EVENTOS (ticks, evaluaciones, alertas y entregas; ver JournalCli)
+    // ===================================
+    public static class Journal {
+        private boolean enabled = true;
+        private String directory = "data/journal";
+        private int segmentSizeMb = 64;
+        private int bufferKb = 1024;
+        // Group commit: un write + force por intervalo para todo lo registrado en él
+        private long flushIntervalMs = 200;
+        private boolean fsync = true;
+        private int retentionDays = 30;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getDirectory() { return directory; }
+        public void setDirectory(String directory) { this.directory = directory; }
+        public int getSegmentSizeMb() { return segmentSizeMb; }
+        public void setSegmentSizeMb(int segmentSizeMb) { this.segmentSizeMb = segmentSizeMb; }
+        public int getBufferKb() { return bufferKb; }
+        public void setBufferKb(int bufferKb) { this.bufferKb = bufferKb; }
+        public long getFlushIntervalMs() { return flushIntervalMs; }
+        public void setFlushIntervalMs(long flushIntervalMs) { this.flushIntervalMs = flushIntervalMs; }
+        public boolean isFsync() { return fsync; }
+        public void setFsync(boolean fsync) { this.fsync = fsync; }
+        public int getRetentionDays() { return retentionDays; }
+        public void setRetentionDays(int retentionDays) { this.retentionDays = retentionDays; }
+    }
+
+    // ===================================
+    // EJECUCIÓN (hilos para E/S bloqueante y @Scheduled)
+    // ===================================
+    public static class Execution {
+        // Hilos virtuales (Java 21+) para el scheduler, las evaluaciones, recargas y envíos; en Java 17 se ignora
+        private boolean virtualThreads = false;
+        // Hilos del scheduler con hilos de plataforma: una tarea bloqueada no para a las demás
+        private int schedulerPoolSize = 4;
+
+        public boolean isVirtualThreads() { return virtualThreads; }
+        public void setVirtualThreads(boolean virtualThreads) { this.virtualThreads = virtualThreads; }
+        public int getSchedulerPoolSize() { return schedulerPoolSize; }
+        public void setSchedulerPoolSize(int schedulerPoolSize) { this.schedulerPoolSize = schedulerPoolSize; }
+    }
+
+    // ===================================
+    // CLIENTE HTTP SALIENTE (CoinGecko, WhatsApp)
+    // ===================================
+    public static class Outbound {
+        // Conexión TCP + TLS nueva; las ya abiertas se reutilizan (keep-alive / HTTP/2)
+        private int connectTimeoutMs = 5000;
+        // Plazo de una llamada sin plazo propio (incluye la espera por el límite de host)
+        private int defaultDeadlineMs = 30000;
+        // Peticiones simultáneas a un mismo host
+        private int maxConcurrentPerHost = 16;
+        private boolean http2 = true;
+        // Accept-Encoding: gzip, deflate
+        private boolean compression = true;
+
+        public int getConnectTimeoutMs() { return connectTimeoutMs; }
+        public void setConnectTimeoutMs(int connectTimeoutMs) { this.connectTimeoutMs = connectTimeoutMs; }
+        public int getDefaultDeadlineMs() { return defaultDeadlineMs; }
+        public void setDefaultDeadlineMs(int defaultDeadlineMs) { this.defaultDeadlineMs = defaultDeadlineMs; }
+        public int getMaxConcurrentPerHost() { return maxConcurrentPerHost; }
+        public void setMaxConcurrentPerHost(int maxConcurrentPerHost) { this.maxConcurrentPerHost = maxConcurrentPerHost; }
+        public boolean isHttp2() { return http2; }
+        public void setHttp2(boolean http2) { this.http2 = http2; }
+        public boolean isCompression() { return compression; }
+        public void setCompression(boolean compression) { this.compression = compression; }
+    }
+
+    // ===================================
+    // FUENTES DE PRECIO (último precio con varios proveedores)
+    // ===================================
+    public static class PriceSources {
+        // Orden de preferencia; "coingecko" usa /simple/price por lotes, el resto sus endpoints públicos
+        private List<String> providers = List.of("coingecko", "binance", "kraken", "coinbase");
+        // Plazo total de una consulta, contando las peticiones de cobertura
+        private int deadlineMs = 5000;
+        // Una respuesta más antigua no cuenta como buena; también es el aviso de datos viejos al evaluar
+        private int maxAgeSeconds = 120;
+        private Hedge hedge = new Hedge();
+        private Breaker breaker = new Breaker();
+        private Map<String, Endpoint> endpoints = defaultEndpoints();
+
+        public List<String> getProviders() { return providers; }
+        public void setProviders(List<String> providers) { this.providers = providers; }
+        public int getDeadlineMs() { return deadlineMs; }
+        public void setDeadlineMs(int deadlineMs) { this.deadlineMs = deadlineMs; }
+        public int getMaxAgeSeconds() { return maxAgeSeconds; }
+        public void setMaxAgeSeconds(int maxAgeSeconds) { this.maxAgeSeconds = maxAgeSeconds; }
+        public Hedge getHedge() { return hedge; }
+        public void setHedge(Hedge hedge) { this.hedge = hedge; }
+        public Breaker getBreaker() { return breaker; }
+        public void setBreaker(Breaker breaker) { this.breaker = breaker; }
+        public Map<String, Endpoint> getEndpoints() { return endpoints; }
+        public void setEndpoints(Map<String, Endpoint> endpoints) { this.endpoints = endpoints; }
+
+        private static Map<String, Endpoint> defaultEndpoints() {
+            Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+            endpoints.put("binance", new Endpoint("https://api.binance.com/api/v3/ticker/price?symbol={symbol}",
+                    "{LABEL}USDT", "price"));
+            Endpoint kraken = new Endpoint("https://api.kraken.com/0/public/Ticker?pair={symbol}", "{LABEL}USD", "c");
+            kraken.getSymbols().put("bitcoin", "XBTUSD");
+            endpoints.put("kraken", kraken);
+            endpoints.put("coinbase", new Endpoint("https://api.coinbase.com/v2/prices/{symbol}/spot",
+                    "{LABEL}-USD", "amount"));
+            return endpoints;
+        }
+
+        // ✅ Petición de cobertura: si el proveedor en curso no responde en su percentil de latencia, se lanza el siguiente
+        public static class Hedge {
+            private boolean enabled = true;
+            private double percentile = 0.95;
+            // Espera mínima y espera mientras no hay latencias medidas
+            private int minDelayMs = 100;
+            private int initialDelayMs = 800;
+
+            public boolean isEnabled() { return enabled; }
+            public void setEnabled(boolean enabled) { this.enabled = enabled; }
+            public double getPercentile() { return percentile; }
+            public void setPercentile(double percentile) { this.percentile = percentile; }
+            public int getMinDelayMs() { return minDelayMs; }
+            public void setMinDelayMs(int minDelayMs) { this.minDelayMs = minDelayMs; }
+            public int getInitialDelayMs() { return initialDelayMs; }
+            public void setInitialDelayMs(int initialDelayMs) { this.initialDelayMs = initialDelayMs; }
+        }
+
+        // ✅ Circuit breaker por proveedor: abierto tras `failure-threshold` fallos seguidos durante `open-seconds`
+        public static class Breaker {
+            private int failureThreshold = 3;
+            private int openSeconds = 60;
+
+            public int getFailureThreshold() { return failureThreshold; }
+            public void setFailureThreshold(int failureThreshold) { this.failureThreshold = failureThreshold; }
+            public int getOpenSeconds() { return openSeconds; }
+            public void setOpenSeconds(int openSeconds) { this.openSeconds = openSeconds; }
+        }
+
+        // ✅ API REST pública: url con {symbol}; symbol con {LABEL} (etiqueta en mayúsculas) o {id};
+        // field es el campo JSON con el precio (si es un array, su primer elemento)
+        public static class Endpoint {
+            private String url;
+            private String symbol;
+            private String field;
+            // Símbolo propio del proveedor por id de CoinGecko cuando la plantilla no sirve
+            private Map<String, String> symbols = new HashMap<>();
+
+            public Endpoint() {}
+
+            Endpoint(String url, String symbol, String field) {
+                this.url = url;
+                this.symbol = symbol;
+                this.field = field;
+            }
+
+            public String getUrl() { return url; }
+            public void setUrl(String url) { this.url = url; }
+            public String getSymbol() { return symbol; }
+            public void setSymbol(String symbol) { this.symbol = symbol; }
+            public String getField() { return field; }
+            public void setField(String field) { this.field = field; }
+            public Map<String, String> getSymbols() { return symbols; }
+            public void setSymbols(Map<String, String> symbols) { this.symbols = symbols; }
+        }
+    }
+
+    // ===================================
+    // STREAM DE TICKS EN TIEMPO REAL
+    // ===================================
+    public static class Stream {
+        private boolean enabled = false;
+        // binance | replay
+        private String source = "binance";
+        private String url = "wss://stream.binance.com:9443/stream";
+        private String channel = "aggTrade";
+        // Entradas "idCoinGecko:simboloDelStream", p.ej. "bitcoin:btcusdt"
+        private List<String> symbols = List.of("bitcoin:btcusdt");
+        private long reconnectInitialMs = 1000;
+        private long reconnectMaxMs = 60000;
+        private int queueCapacity = 10000;
+        private int staleAfterSeconds = 120;
+        private long persistIntervalMs = 60000;
+        private String replayFile = "";
+        private double replaySpeed = 1.0;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getSource() { return source; }
+        public void setSource(String source) { this.source = source; }
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+        public String getChannel() { return channel; }
+        public void setChannel(String channel) { this.channel = channel; }
+        public List<String> getSymbols() { return symbols; }
+        public void setSymbols(List<String> symbols) { this.symbols = symbols; }
+        public long getReconnectInitialMs() { return reconnectInitialMs; }
+        public void setReconnectInitialMs(long reconnectInitialMs) { this.reconnectInitialMs = reconnectInitialMs; }
+        public long getReconnectMaxMs() { return reconnectMaxMs; }
+        public void setReconnectMaxMs(long reconnectMaxMs) { this.reconnectMaxMs = reconnectMaxMs; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+        public int getStaleAfterSeconds() { return staleAfterSeconds; }
+        public void setStaleAfterSeconds(int staleAfterSeconds) { this.staleAfterSeconds = staleAfterSeconds; }
+        public long getPersistIntervalMs() { return persistIntervalMs; }
+        public void setPersistIntervalMs(long persistIntervalMs) { this.persistIntervalMs = persistIntervalMs; }
+        public String getReplayFile() { return replayFile; }
+        public void setReplayFile(String replayFile) { this.replayFile = replayFile; }
+        public double getReplaySpeed() { return replaySpeed; }
+        public void setReplaySpeed(double replaySpeed) { this.replaySpeed = replaySpeed; }
+    }
+
     // ===================================
     // WHATSAPP
     // ===================================
@@ -142,9 +723,12 @@ public class BotProperties {
         private Http http = new Http();
         private RateLimit rateLimit = new RateLimit();
         private Retry retry = new Retry();
+        private Dispatcher dispatcher = new Dispatcher();
 
         public Api getApi() { return api; }
         public void setApi(Api api) { this.api = api; }
+        public Dispatcher getDispatcher() { return dispatcher; }
+        public void setDispatcher(Dispatcher dispatcher) { this.dispatcher = dispatcher; }
         public Instance getInstance() { return instance; }
         public void setInstance(Instance instance) { this.instance = instance; }
         public Recipient getRecipient() { return recipient; }
@@ -203,6 +787,25 @@ public class BotProperties {
             public int getMaxDelayMs() { return maxDelayMs; }
             public void setMaxDelayMs(int maxDelayMs) { this.maxDelayMs = maxDelayMs; }
         }
+
+        public static class Dispatcher {
+            private int queueCapacity = 100;
+            // DROP_NEWEST | DROP_OLDEST | BLOCK
+            private String overflowPolicy = "DROP_OLDEST";
+            private long blockTimeoutMs = 1000;
+            private int maxBatchSize = 10;
+            private String separator = "\\n\\n----------\\n\\n";
+            public int getQueueCapacity() { return queueCapacity; }
+            public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+            public String getOverflowPolicy() { return overflowPolicy; }
+            public void setOverflowPolicy(String overflowPolicy) { this.overflowPolicy = overflowPolicy; }
+            public long getBlockTimeoutMs() { return blockTimeoutMs; }
+            public void setBlockTimeoutMs(long blockTimeoutMs) { this.blockTimeoutMs = blockTimeoutMs; }
+            public int getMaxBatchSize() { return maxBatchSize; }
+            public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+            public String getSeparator() { return separator; }
+            public void setSeparator(String separator) { this.separator = separator; }
+        }
     }
 
     // ===================================
@@ -219,6 +822,8 @@ public class BotProperties {
             private String rsiDown70 = "** RSI bajo 70 **\\n\\nPrecio: $%,.0f\\nRSI: %.2f";
             private String rsiUp30 = "** RSI sobre 30 **\\n\\nPrecio: $%,.0f\\nRSI: %.2f";
             private String classicSignal = "** SENAL BTC **\\n\\n%s\\n\\nPrecio: $%,.0f\\nRSI: %.2f";
+            // Regla declarativa: nombre, expresión, precio, RSI
+            private String rule = "** REGLA %s **\\n\\n%s\\n\\nPrecio: $%,.0f\\nRSI: %.2f";
 
             public String getPeriodic() { return periodic; }
             public void setPeriodic(String periodic) { this.periodic = periodic; }
@@ -230,6 +835,8 @@ public class BotProperties {
             public void setRsiUp30(String rsiUp30) { this.rsiUp30 = rsiUp30; }
             public String getClassicSignal() { return classicSignal; }
             public void setClassicSignal(String classicSignal) { this.classicSignal = classicSignal; }
+            public String getRule() { return rule; }
+            public void setRule(String rule) { this.rule = rule; }
         }
     }
 }
\ No newline at end of file
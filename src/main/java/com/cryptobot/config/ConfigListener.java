@@ -0,0 +1,12 @@
+package com.cryptobot.config;
+
+// ✅ Interesado en las recargas de configuración (ConfigService.addListener)
+@FunctionalInterface
+public interface ConfigListener {
+
+    // ✅ Antes de publicar: una IllegalArgumentException rechaza la recarga entera y se sigue con la anterior
+    default void validate(ConfigSnapshot next) {}
+
+    // ✅ Después de publicar, en el hilo que recarga (no bloquear: lo costoso, en segundo plano)
+    void onConfigChange(ConfigSnapshot previous, ConfigSnapshot next);
+}
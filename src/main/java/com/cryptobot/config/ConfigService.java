@@ -0,0 +1,243 @@
+package com.cryptobot.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// ✅ Configuración recargable en caliente. La vigente es un ConfigSnapshot inmutable que se sustituye de golpe
+// cuando cambia alguno de `reload.files` (WatchService) o se llama a POST /admin/config/reload.
+// Los ficheros se vuelven a leer y se enlazan con el resto del Environment, con la misma prioridad que al
+// arrancar (línea de comandos y variables de entorno siguen ganando). Una recarga inválida no se publica.
+@Component
+public class ConfigService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigService.class);
+
+    // ✅ Fuente que Spring añade para envolver a todas las demás; se omite para no enlazar dos veces
+    private static final String ATTACHED_SOURCE = "configurationProperties";
+    private static final String BOOT_CONFIG_PREFIX = "Config resource";
+
+    private final ConfigurableEnvironment environment;
+    private final BotProperties.Reload settings;
+    private final List<Path> files;
+    private final AtomicReference<ConfigSnapshot> current;
+    private final List<ConfigListener> listeners = new CopyOnWriteArrayList<>();
+
+    private WatchService watchService;
+    private Thread watcher;
+
+    @Autowired
+    public ConfigService(BotProperties config, ConfigurableEnvironment environment) {
+        this.environment = environment;
+        this.settings = config.getReload();
+        this.files = settings.getFiles().stream()
+                .filter(f -> f != null && !f.isBlank())
+                .map(f -> Paths.get(f.trim()).toAbsolutePath().normalize())
+                .toList();
+        this.current = new AtomicReference<>(ConfigSnapshot.from(1, bind()));
+    }
+
+    private ConfigService(ConfigSnapshot fixed) {
+        this.environment = null;
+        this.settings = new BotProperties.Reload();
+        this.files = List.of();
+        this.current = new AtomicReference<>(fixed);
+    }
+
+    // ✅ Configuración fija, sin ficheros ni recargas (tests y benchmarks)
+    public static ConfigService fixed(BotProperties config) {
+        return new ConfigService(ConfigSnapshot.from(1, config));
+    }
+
+    public ConfigSnapshot current() {
+        return current.get();
+    }
+
+    public void addListener(ConfigListener listener) {
+        listeners.add(listener);
+    }
+
+    public record ReloadResult(boolean changed, long version, String error) {}
+
+    // ✅ Relee, valida y publica. Sin cambios efectivos no se crea versión nueva.
+    public synchronized ReloadResult reload(String reason) {
+        ConfigSnapshot previous = current.get();
+        if (environment == null) return new ReloadResult(false, previous.version(), null);
+
+        ConfigSnapshot next;
+        try {
+            next = ConfigSnapshot.from(previous.version() + 1, bind());
+            if (next.sameSettings(previous)) {
+                log.info("🔧 Recarga ({}): sin cambios, sigue la v{}", reason, previous.version());
+                return new ReloadResult(false, previous.version(), null);
+            }
+            for (ConfigListener listener : listeners) {
+                listener.validate(next);
+            }
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Recarga de configuración rechazada ({}): {}", reason, e.getMessage());
+            return new ReloadResult(false, previous.version(), e.getMessage());
+        }
+
+        current.set(next);
+        log.info("🔧 Configuración v{} publicada ({})", next.version(), reason);
+        for (ConfigListener listener : listeners) {
+            try {
+                listener.onConfigChange(previous, next);
+            } catch (RuntimeException e) {
+                log.error("❌ Error aplicando la configuración v{}: {}", next.version(), e.getMessage(), e);
+            }
+        }
+        return new ReloadResult(true, next.version(), null);
+    }
+
+    // ===================================
+    // VIGILANCIA DE FICHEROS
+    // ===================================
+
+    @PostConstruct
+    public void start() {
+        if (environment == null || !settings.isWatch() || files.isEmpty()) return;
+
+        Set<Path> directories = new LinkedHashSet<>();
+        for (Path file : files) {
+            Path dir = file.getParent();
+            if (dir != null && Files.isDirectory(dir)) directories.add(dir);
+        }
+        if (directories.isEmpty()) {
+            log.info("🔧 Ningún directorio de reload.files existe todavía; recarga sólo vía /admin/config/reload");
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (Path dir : directories) {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ No se pueden vigilar los ficheros de configuración: {}", e.getMessage());
+            return;
+        }
+
+        watcher = new Thread(this::watch, "config-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("🔧 Vigilando {} para recargar la configuración", files);
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean relevant = relevant(key);
+                key.reset();
+                if (!relevant) continue;
+
+                // ✅ Los editores guardan en varias escrituras: esperar a que el directorio se calme
+                WatchKey more;
+                while ((more = watchService.poll(settings.getDebounceMs(), TimeUnit.MILLISECONDS)) != null) {
+                    more.pollEvents();
+                    more.reset();
+                }
+                reload("fichero modificado");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // ✅ Parada ordenada
+        }
+    }
+
+    private boolean relevant(WatchKey key) {
+        Path dir = (Path) key.watchable();
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path name && files.contains(dir.resolve(name).normalize())) {
+                relevant = true;
+            }
+        }
+        return relevant;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (watcher != null) watcher.interrupt();
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+                // ✅ Se está cerrando la aplicación
+            }
+        }
+    }
+
+    // ===================================
+    // ENLACE DE PROPIEDADES
+    // ===================================
+
+    private BotProperties bind() {
+        List<PropertySource<?>> fresh = loadFiles();
+        MutablePropertySources sources = new MutablePropertySources();
+        boolean inserted = false;
+        for (PropertySource<?> source : environment.getPropertySources()) {
+            if (ATTACHED_SOURCE.equals(source.getName())) continue;
+            // ✅ Los ficheros recién leídos, justo antes de los que Spring cargó al arrancar
+            if (!inserted && source.getName().startsWith(BOOT_CONFIG_PREFIX)) {
+                fresh.forEach(sources::addLast);
+                inserted = true;
+            }
+            sources.addLast(source);
+        }
+        if (!inserted) fresh.forEach(sources::addLast);
+
+        Binder binder = new Binder(ConfigurationPropertySources.from(sources),
+                new PropertySourcesPlaceholdersResolver(sources));
+        return binder.bind("", Bindable.ofInstance(new BotProperties())).orElseGet(BotProperties::new);
+    }
+
+    private List<PropertySource<?>> loadFiles() {
+        PropertiesPropertySourceLoader loader = new PropertiesPropertySourceLoader();
+        List<PropertySource<?>> sources = new ArrayList<>();
+        for (Path file : files) {
+            if (!Files.isRegularFile(file)) continue;
+            try {
+                sources.addAll(loader.load("reload [" + file + "]", new FileSystemResource(file)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer " + file, e);
+            }
+        }
+        return sources;
+    }
+}
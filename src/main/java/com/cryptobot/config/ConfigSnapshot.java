@@ -0,0 +1,133 @@
+package com.cryptobot.config;
+
+import com.cryptobot.indicator.StudyGraph;
+import com.cryptobot.indicator.Timeframe;
+
+import java.util.List;
+import java.util.Objects;
+
+// ✅ Configuración recargable ya resuelta (temporalidades parseadas, segundos pasados a ms...).
+// Inmutable: se sustituye entera en cada recarga y el camino caliente lee sus campos sin cadenas de getters
+// ni riesgo de ver mitad configuración vieja, mitad nueva. Lo que no está aquí sólo cambia reiniciando.
+public record ConfigSnapshot(long version,
+                             // Indicadores (cambiarlos obliga a reconstruir el estado desde el histórico)
+                             int rsiPeriod,
+                             int rsiMinDataPoints,
+                             int historySize,
+                             Timeframe signalTimeframe,
+                             List<Timeframe> timeframes,
+                             List<String> studies,
+                             // Señales y alertas
+                             double priceChangeThreshold,
+                             int overboughtLevel,
+                             int oversoldLevel,
+                             boolean alertsEnabled,
+                             long alertMinIntervalMillis,
+                             double alertEscalationFactor,
+                             double priceHysteresisRatio,
+                             double rsiHysteresisPoints,
+                             boolean rulesEnabled,
+                             List<String> ruleDefinitions,
+                             // Stream
+                             long persistIntervalMs,
+                             long streamStaleAfterMillis,
+                             // Mensajes
+                             String periodicTemplate,
+                             String priceChangeTemplate,
+                             String rsiDownTemplate,
+                             String rsiUpTemplate,
+                             String classicSignalTemplate,
+                             String ruleTemplate) {
+
+    public ConfigSnapshot {
+        if (rsiPeriod <= 0) throw new IllegalArgumentException("bitcoin.rsi.period debe ser positivo: " + rsiPeriod);
+        if (historySize <= 0) throw new IllegalArgumentException("indicator.history-size debe ser positivo: " + historySize);
+        if (oversoldLevel >= overboughtLevel) {
+            throw new IllegalArgumentException("bitcoin.rsi.oversold-level (" + oversoldLevel
+                    + ") debe ser menor que overbought-level (" + overboughtLevel + ")");
+        }
+    }
+
+    public static ConfigSnapshot from(long version, BotProperties config) {
+        BotProperties.Bitcoin.Rsi rsi = config.getBitcoin().getRsi();
+        BotProperties.Alerts alerts = config.getAlerts();
+        BotProperties.Notification.Template template = config.getNotification().getTemplate();
+        return new ConfigSnapshot(
+                version,
+                rsi.getPeriod(),
+                rsi.getMinDataPoints(),
+                config.getIndicator().getHistorySize(),
+                signalTimeframe(config.getSignal()),
+                config.getIndicator().getTimeframes().stream()
+                        .filter(tf -> tf != null && !tf.isBlank())
+                        .map(Timeframe::parse)
+                        .distinct()
+                        .toList(),
+                studies(config.getIndicator().getStudies()),
+                config.getBitcoin().getPrice().getChangeThreshold(),
+                rsi.getOverboughtLevel(),
+                rsi.getOversoldLevel(),
+                alerts.isEnabled(),
+                alerts.getMinIntervalSeconds() * 1000L,
+                alerts.getEscalationFactor(),
+                alerts.getPriceHysteresisRatio(),
+                alerts.getRsiHysteresisPoints(),
+                config.getRules().isEnabled(),
+                List.copyOf(config.getRules().getDefinitions()),
+                config.getStream().getPersistIntervalMs(),
+                config.getStream().getStaleAfterSeconds() * 1000L,
+                template.getPeriodic(),
+                template.getPriceChange(),
+                template.getRsiDown70(),
+                template.getRsiUp30(),
+                template.getClassicSignal(),
+                template.getRule());
+    }
+
+    // ✅ `signal.timeframe` tiene prioridad; si está vacío se usa `signal.bar-duration-hours`
+    static Timeframe signalTimeframe(BotProperties.Signal signal) {
+        String timeframe = signal.getTimeframe();
+        if (timeframe != null && !timeframe.isBlank()) {
+            return Timeframe.parse(timeframe);
+        }
+        return Timeframe.ofHours(signal.getBarDurationHours());
+    }
+
+    // ✅ Specs canónicas (parámetros por defecto explícitos) y sin repetidos
+    static List<String> studies(List<String> specs) {
+        return specs.stream()
+                .filter(spec -> spec != null && !spec.isBlank())
+                .map(spec -> {
+                    try {
+                        return StudyGraph.canonical(spec);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("indicator.studies: " + e.getMessage(), e);
+                    }
+                })
+                .distinct()
+                .toList();
+    }
+
+    // ✅ true si el estado de indicadores construido con `other` no sirve para esta configuración
+    public boolean indicatorsDiffer(ConfigSnapshot other) {
+        return rsiPeriod != other.rsiPeriod
+                || rsiMinDataPoints != other.rsiMinDataPoints
+                || historySize != other.historySize
+                || signalTimeframe != other.signalTimeframe
+                || !timeframes.equals(other.timeframes)
+                || !studies.equals(other.studies);
+    }
+
+    // ✅ Igualdad de contenido sin tener en cuenta la versión (recargar un fichero sin cambios no publica nada)
+    public boolean sameSettings(ConfigSnapshot other) {
+        return Objects.equals(withVersion(0), other.withVersion(0));
+    }
+
+    ConfigSnapshot withVersion(long v) {
+        return new ConfigSnapshot(v, rsiPeriod, rsiMinDataPoints, historySize, signalTimeframe, timeframes, studies,
+                priceChangeThreshold, overboughtLevel, oversoldLevel, alertsEnabled, alertMinIntervalMillis,
+                alertEscalationFactor, priceHysteresisRatio, rsiHysteresisPoints, rulesEnabled, ruleDefinitions,
+                persistIntervalMs, streamStaleAfterMillis, periodicTemplate, priceChangeTemplate, rsiDownTemplate,
+                rsiUpTemplate, classicSignalTemplate, ruleTemplate);
+    }
+}
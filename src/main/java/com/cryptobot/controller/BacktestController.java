@@ -0,0 +1,160 @@
+package com.cryptobot.controller;
+
+import com.cryptobot.backtest.BacktestParams;
+import com.cryptobot.backtest.BacktestResult;
+import com.cryptobot.backtest.Backtester;
+import com.cryptobot.backtest.BacktestService;
+import com.cryptobot.backtest.ParameterGrid;
+import com.cryptobot.backtest.ParameterSweep;
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.indicator.Timeframe;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+public class BacktestController {
+
+    private final BacktestService backtestService;
+    private final BotProperties config;
+
+    public BacktestController(BacktestService backtestService, BotProperties config) {
+        this.backtestService = backtestService;
+        this.config = config;
+    }
+
+    // ✅ Parámetros no indicados = los de la configuración actual del bot
+    @GetMapping("/backtest")
+    public Map<String, Object> backtest(@RequestParam(defaultValue = "bitcoin") String symbol,
+                                        @RequestParam(required = false) String timeframe,
+                                        @RequestParam(required = false) Integer period,
+                                        @RequestParam(required = false) Double oversold,
+                                        @RequestParam(required = false) Double overbought,
+                                        @RequestParam(required = false) Double changeThreshold,
+                                        @RequestParam(required = false) Double feeBps) {
+
+        Map<String, Object> response = new LinkedHashMap<>();
+
+        BacktestParams defaults = BacktestParams.from(config);
+        BacktestParams params = new BacktestParams(
+                period != null ? period : defaults.rsiPeriod(),
+                oversold != null ? oversold : defaults.oversoldLevel(),
+                overbought != null ? overbought : defaults.overboughtLevel(),
+                changeThreshold != null ? changeThreshold : defaults.changeThreshold(),
+                defaults.minDataPoints(),
+                feeBps != null ? feeBps : defaults.feeBps());
+
+        Timeframe tf;
+        try {
+            tf = timeframe != null ? Timeframe.parse(timeframe) : null;
+        } catch (IllegalArgumentException e) {
+            response.put("status", "ERROR");
+            response.put("message", e.getMessage());
+            return response;
+        }
+
+        BacktestResult result = backtestService.run(symbol, tf, params);
+
+        response.put("status", "OK");
+        response.put("symbol", symbol);
+        response.put("note", Backtester.LIVE_DIVERGENCE);
+        response.put("params", params);
+        response.put("bars", result.bars());
+        response.put("trades", result.trades());
+        response.put("hitRate", result.hitRate());
+        response.put("totalReturnPct", result.totalReturnPct());
+        response.put("maxDrawdownPct", result.maxDrawdownPct());
+        response.put("buySignals", result.buySignals());
+        response.put("sellSignals", result.sellSignals());
+        response.put("priceAlerts", result.priceAlerts());
+        response.put("rsiCrossUps", result.rsiCrossUps());
+        response.put("rsiCrossDowns", result.rsiCrossDowns());
+        response.put("elapsedMs", result.elapsedNanos() / 1e6);
+
+        // ✅ Sólo las últimas operaciones, para no devolver respuestas enormes
+        List<BacktestResult.Trade> log = result.tradeLog();
+        int from = Math.max(0, log.size() - config.getBacktest().getMaxTradesInResponse());
+        List<Map<String, Object>> trades = new ArrayList<>();
+        for (BacktestResult.Trade t : log.subList(from, log.size())) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("entry", Instant.ofEpochMilli(t.entryTime()).toString());
+            entry.put("entryPrice", t.entryPrice());
+            entry.put("exit", Instant.ofEpochMilli(t.exitTime()).toString());
+            entry.put("exitPrice", t.exitPrice());
+            entry.put("returnPct", t.returnPct());
+            entry.put("exitReason", t.exitReason());
+            trades.add(entry);
+        }
+        response.put("tradeLog", trades);
+
+        return response;
+    }
+
+    // ✅ Optimización por rejilla; ejes no indicados = los de backtest.sweep.*
+    @GetMapping("/backtest/sweep")
+    public Map<String, Object> sweep(@RequestParam(defaultValue = "bitcoin") String symbol,
+                                     @RequestParam(required = false) String timeframe,
+                                     @RequestParam(required = false) String periods,
+                                     @RequestParam(required = false) String oversold,
+                                     @RequestParam(required = false) String overbought,
+                                     @RequestParam(required = false) String changeThresholds,
+                                     @RequestParam(required = false) String objective,
+                                     @RequestParam(required = false) Integer topN,
+                                     @RequestParam(defaultValue = "false") boolean global) {
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        BotProperties.Backtest.Sweep defaults = config.getBacktest().getSweep();
+
+        Timeframe tf;
+        ParameterGrid grid;
+        ParameterSweep.Objective goal;
+        try {
+            tf = backtestService.timeframeOrDefault(timeframe != null ? Timeframe.parse(timeframe) : null);
+            grid = ParameterGrid.parse(
+                    periods != null ? periods : defaults.getPeriods(),
+                    oversold != null ? oversold : defaults.getOversoldLevels(),
+                    overbought != null ? overbought : defaults.getOverboughtLevels(),
+                    changeThresholds != null ? changeThresholds : defaults.getChangeThresholds());
+            goal = ParameterSweep.Objective.parse(objective != null ? objective : defaults.getObjective());
+        } catch (IllegalArgumentException e) {
+            response.put("status", "ERROR");
+            response.put("message", e.getMessage());
+            return response;
+        }
+
+        ParameterSweep.Result result = backtestService.sweep(symbol, tf, grid, goal,
+                topN != null ? topN : defaults.getTopN());
+
+        response.put("status", "OK");
+        response.put("symbol", symbol);
+        response.put("timeframe", tf.label());
+        response.put("objective", goal.name());
+        response.put("note", Backtester.LIVE_DIVERGENCE);
+        response.put("combinations", result.evaluated());
+        response.put("elapsedMs", result.elapsedNanos() / 1e6);
+
+        List<Map<String, Object>> best = new ArrayList<>();
+        for (BacktestResult r : result.best()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("params", r.params());
+            entry.put("trades", r.trades());
+            entry.put("hitRate", r.hitRate());
+            entry.put("totalReturnPct", r.totalReturnPct());
+            entry.put("maxDrawdownPct", r.maxDrawdownPct());
+            best.add(entry);
+        }
+        response.put("best", best);
+        if (!result.best().isEmpty()) {
+            // ✅ Claves globales: comentadas salvo global=true
+            response.put("properties", ParameterSweep.toProperties(symbol, tf, result.best().get(0), global));
+        }
+
+        return response;
+    }
+}
@@ -0,0 +1,45 @@
+package com.cryptobot.controller;
+
+import com.cryptobot.cluster.ClusterService;
+import com.cryptobot.model.WatchedSymbol;
+import com.cryptobot.service.BitcoinPriceService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class ClusterController {
+
+    private final ClusterService cluster;
+    private final BitcoinPriceService service;
+
+    public ClusterController(ClusterService cluster, BitcoinPriceService service) {
+        this.cluster = cluster;
+        this.service = service;
+    }
+
+    // ✅ Sondeo de la membresía estática: responde con el id del nodo
+    @GetMapping("/cluster/ping")
+    public String ping() {
+        return cluster.nodeId();
+    }
+
+    @GetMapping("/cluster")
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", cluster.isEnabled());
+        status.put("node", cluster.nodeId());
+        status.put("epoch", cluster.epoch());
+        status.put("members", cluster.members());
+
+        // ✅ Dueño actual de cada símbolo de la watchlist
+        Map<String, Object> owners = new LinkedHashMap<>();
+        for (WatchedSymbol symbol : service.getWatchlist()) {
+            owners.put(symbol.label(), cluster.owner(symbol.id()));
+        }
+        status.put("owners", owners);
+        return status;
+    }
+}
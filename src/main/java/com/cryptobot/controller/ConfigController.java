@@ -0,0 +1,52 @@
+package com.cryptobot.controller;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.config.ConfigSnapshot;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class ConfigController {
+
+    private final ConfigService configs;
+    private final String adminToken;
+
+    public ConfigController(ConfigService configs, BotProperties config) {
+        this.configs = configs;
+        this.adminToken = config.getReload().getAdminToken();
+    }
+
+    // ✅ Configuración recargable vigente
+    @GetMapping("/admin/config")
+    public ConfigSnapshot current() {
+        return configs.current();
+    }
+
+    @PostMapping("/admin/config/reload")
+    public ResponseEntity<Map<String, Object>> reload(@RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (adminToken != null && !adminToken.isBlank() && !adminToken.equals(token)) {
+            response.put("status", "ERROR");
+            response.put("message", "Token de administración incorrecto");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+
+        ConfigService.ReloadResult result = configs.reload("/admin/config/reload");
+        response.put("status", result.error() == null ? "OK" : "ERROR");
+        response.put("changed", result.changed());
+        response.put("version", result.version());
+        if (result.error() != null) {
+            response.put("message", result.error());
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,6 +1,6 @@
 package com.cryptobot.controller;
 
-import com.cryptobot.notification.WhatsAppNotifier;
+import com.cryptobot.notification.NotificationDispatcher;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -12,11 +12,11 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/notify")
 public class NotifyController {
 
-    private final WhatsAppNotifier notifier;
+    private final NotificationDispatcher dispatcher;
 
     @Autowired
-    public NotifyController(WhatsAppNotifier notifier) {
-        this.notifier = notifier;
+    public NotifyController(NotificationDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
     }
 
     @GetMapping
@@ -30,7 +30,12 @@ public class NotifyController {
             return response;
         }
 
-        notifier.sendMessage(msg);
+        // ✅ Se encola; el envío real lo hace el dispatcher en segundo plano
+        if (!dispatcher.submit(msg)) {
+            response.put("status", "ERROR");
+            response.put("message", "Cola de notificaciones llena, mensaje descartado");
+            return response;
+        }
 
         response.put("status", "OK");
         response.put("sent", msg);
@@ -49,7 +54,12 @@ public class NotifyController {
         }
 
         String msg = body.get("msg");
-        notifier.sendMessage(msg);
+        // ✅ Se encola; el envío real lo hace el dispatcher en segundo plano
+        if (!dispatcher.submit(msg)) {
+            response.put("status", "ERROR");
+            response.put("message", "Cola de notificaciones llena, mensaje descartado");
+            return response;
+        }
 
         response.put("status", "OK");
         response.put("sent", msg);
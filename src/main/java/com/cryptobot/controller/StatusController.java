@@ -1,9 +1,12 @@
 package com.cryptobot.controller;
 
+import com.cryptobot.model.WatchedSymbol;
 import com.cryptobot.service.BitcoinPriceService;
+import com.cryptobot.service.EvaluationSnapshot;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -21,15 +24,33 @@ public class StatusController {
 
         Map<String, Object> status = new LinkedHashMap<>();
 
-        Double price = service.getLastKnownPrice();
-        Double rsi = service.getLastKnownRsi();
-        var signal = service.getLastSignalType();
-        var lastExec = service.getLastExecutionTime();
-
-        status.put("price", price != null ? price : "Aún no disponible");
-        status.put("rsi", rsi != null ? rsi : "Pendiente de primera ejecución");
-        status.put("signal", signal != null ? signal.name() : "Sin señal todavía");
-        status.put("lastExecution", lastExec != null ? lastExec.toString() : "Scheduler aún no ha corrido");
+        // ✅ Una única lectura por símbolo: precio, RSI y señal siempre de la misma evaluación
+        EvaluationSnapshot primary = service.snapshot();
+
+        status.put("price", primary.hasData() ? primary.price() : "Aún no disponible");
+        status.put("rsi", primary.hasData() ? primary.rsi() : "Pendiente de primera ejecución");
+        status.put("signal", primary.hasData() ? primary.signal().name() : "Sin señal todavía");
+        status.put("lastExecution", primary.hasData()
+                ? Instant.ofEpochMilli(primary.evaluatedAtMillis()).toString()
+                : "Scheduler aún no ha corrido");
+        status.put("version", primary.version());
+        status.put("source", primary.source());
+        status.put("dataAgeSeconds", primary.dataAgeMillis() / 1000);
+
+        // ✅ Resumen por símbolo de la watchlist
+        Map<String, Object> symbols = new LinkedHashMap<>();
+        for (WatchedSymbol symbol : service.getWatchlist()) {
+            EvaluationSnapshot s = service.snapshot(symbol);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("price", s.price());
+            entry.put("rsi", s.rsi());
+            entry.put("signal", s.signal().name());
+            entry.put("version", s.version());
+            entry.put("source", s.source());
+            entry.put("dataAgeSeconds", s.dataAgeMillis() / 1000);
+            symbols.put(symbol.label(), entry);
+        }
+        status.put("symbols", symbols);
         status.put("status", "OK");
 
         return status;
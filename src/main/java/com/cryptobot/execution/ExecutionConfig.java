@@ -0,0 +1,42 @@
+package com.cryptobot.execution;
+
+import com.cryptobot.config.BotProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+// ✅ Scheduler de los @Scheduled. El de Spring por defecto tiene un único hilo: un ciclo de la watchlist bloqueado
+// en CoinGecko (o durmiendo el jitter) retrasaba el healthCheck y la compactación del histórico.
+// Con hilos virtuales cada ejecución va en su propio hilo; si no, un pool de execution.scheduler-pool-size.
+@Configuration
+public class ExecutionConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    @Bean
+    public TaskScheduler taskScheduler(BotProperties config) {
+        BotProperties.Execution execution = config.getExecution();
+        if (execution.isVirtualThreads() && !Threads.virtualAvailable()) {
+            log.warn("⚠️ execution.virtual-threads=true pero la JVM ({}) no tiene hilos virtuales; se usan hilos de plataforma",
+                    System.getProperty("java.version"));
+        }
+
+        if (Threads.virtual(config)) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setVirtualThreads(true);
+            scheduler.setThreadNamePrefix("scheduling-");
+            log.info("🧵 Ejecución con hilos virtuales");
+            return scheduler;
+        }
+
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(Math.max(1, execution.getSchedulerPoolSize()));
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.setDaemon(true);
+        return scheduler;
+    }
+}
@@ -0,0 +1,87 @@
+package com.cryptobot.execution;
+
+import com.cryptobot.config.BotProperties;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// ✅ Hilos para E/S bloqueante: virtuales si execution.virtual-threads=true y la JVM los tiene (Java 21+),
+// de plataforma si no. El proyecto compila con Java 17, así que la API de hilos virtuales se resuelve por reflexión
+// una sola vez al cargar la clase; en Java 17 todo cae al modelo de siempre sin cambiar de comportamiento.
+public final class Threads {
+
+    private static final Method OF_VIRTUAL = method(Thread.class, "ofVirtual");
+    private static final Method BUILDER_NAME = method(builderClass(), "name", String.class, long.class);
+    private static final Method BUILDER_FACTORY = method(builderClass(), "factory");
+    private static final Method PER_TASK = method(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private Threads() {}
+
+    public static boolean virtualAvailable() {
+        return OF_VIRTUAL != null && BUILDER_NAME != null && BUILDER_FACTORY != null && PER_TASK != null;
+    }
+
+    // ✅ Modo efectivo: pedido en la configuración y soportado por la JVM
+    public static boolean virtual(BotProperties config) {
+        return config.getExecution().isVirtualThreads() && virtualAvailable();
+    }
+
+    // ✅ Hilos "prefijo1", "prefijo2"...; los de plataforma son daemon (los virtuales siempre lo son)
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        if (virtual && virtualAvailable()) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 1L);
+                return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("No se pudo crear la factoría de hilos virtuales", e);
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // ✅ Hilo suelto de larga duración (bucles de trabajo); arrancado
+    public static Thread start(String name, boolean virtual, Runnable task) {
+        Thread t = factory(name, virtual).newThread(task);
+        t.setName(name);
+        t.start();
+        return t;
+    }
+
+    // ✅ Virtual: un hilo nuevo por tarea, sin límite (el límite de concurrencia lo pone quien envía).
+    // Plataforma: pool fijo de `platformThreads`.
+    public static ExecutorService executor(String prefix, int platformThreads, boolean virtual) {
+        if (virtual && virtualAvailable()) {
+            try {
+                return (ExecutorService) PER_TASK.invoke(null, factory(prefix, true));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("No se pudo crear el executor de hilos virtuales", e);
+            }
+        }
+        return Executors.newFixedThreadPool(Math.max(1, platformThreads), factory(prefix, false));
+    }
+
+    private static Class<?> builderClass() {
+        try {
+            return Class.forName("java.lang.Thread$Builder");
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Method method(Class<?> owner, String name, Class<?>... parameters) {
+        if (owner == null) return null;
+        try {
+            return owner.getMethod(name, parameters);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.cryptobot.http;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.execution.Threads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.TrustManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+// ✅ Capa HTTP saliente compartida (CoinGecko y WhatsApp) sobre un único java.net.http.HttpClient:
+// - conexiones keep-alive reutilizadas entre llamadas y HTTP/2 (multiplexa varias peticiones por conexión) con ALPN;
+// - respuestas comprimidas (gzip / deflate) descomprimidas en streaming antes de llegar al parser;
+// - límite de peticiones simultáneas por host (esperar un hueco cuenta contra el plazo de la llamada);
+// - plazo por llamada hasta recibir la respuesta.
+// Los errores HTTP se lanzan con las excepciones de Spring (HttpClientErrorException.TooManyRequests para 429...)
+// para que los llamadores sigan tratándolos como con RestTemplate.
+//
+// Métricas: http_client_request_latency (host, versión, resultado), http_client_in_flight y
+// http_client_permit_wait por host, y http_client_tls_connections_total: handshakes TLS, es decir, conexiones
+// nuevas; con la reutilización funcionando crece mucho más despacio que el número de peticiones.
+@Component
+public class OutboundHttp {
+
+    private static final int ERROR_BODY_LIMIT = 4 * 1024;
+
+    // ✅ Lee el cuerpo (ya descomprimido) de una respuesta 2xx/3xx
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(int status, InputStream body) throws IOException;
+    }
+
+    private final BotProperties.Outbound config;
+    private final MeterRegistry registry;
+    private final HttpClient client;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    private static final class Host {
+        final Semaphore permits;
+        final Timer permitWait;
+        final Counter tlsConnections;
+
+        Host(Semaphore permits, Timer permitWait, Counter tlsConnections) {
+            this.permits = permits;
+            this.permitWait = permitWait;
+            this.tlsConnections = tlsConnections;
+        }
+    }
+
+    public OutboundHttp(BotProperties config, MeterRegistry registry) {
+        this.config = config.getHttp();
+        this.registry = registry;
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(this.config.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(this.config.getConnectTimeoutMs()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .sslContext(countingSslContext());
+        if (Threads.virtual(config)) {
+            builder.executor(Threads.executor("http-", 0, true));
+        }
+        this.client = builder.build();
+    }
+
+    public Duration defaultDeadline() {
+        return Duration.ofMillis(config.getDefaultDeadlineMs());
+    }
+
+    // ✅ Plantilla con {variables} como las de RestTemplate (p. ej. coingecko.api.url)
+    public static URI expand(String template, Object... variables) {
+        return UriComponentsBuilder.fromUriString(template).buildAndExpand(variables).encode().toUri();
+    }
+
+    public <T> T get(URI uri, Duration deadline, BodyReader<T> reader) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri).GET().header("Accept", "application/json"), deadline, reader);
+    }
+
+    public <T> T postJson(URI uri, String json, Duration deadline, BodyReader<T> reader) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri)
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json"), deadline, reader);
+    }
+
+    public <T> T send(HttpRequest.Builder request, Duration deadline, BodyReader<T> reader)
+            throws IOException, InterruptedException {
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + deadline.toNanos();
+        URI uri = request.build().uri();
+        String hostName = uri.getHost() == null ? "unknown" : uri.getHost().toLowerCase(Locale.ROOT);
+        Host host = host(hostName);
+
+        if (!host.permits.tryAcquire(deadline.toNanos(), TimeUnit.NANOSECONDS)) {
+            record(hostName, "-", "throttled", startNanos);
+            throw new HttpTimeoutException("Sin hueco para " + hostName + " en " + deadline.toMillis()
+                    + " ms (http.max-concurrent-per-host=" + config.getMaxConcurrentPerHost() + ")");
+        }
+        host.permitWait.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+
+        String version = "-";
+        try {
+            long remaining = Math.max(deadlineNanos - System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(1));
+            request.timeout(Duration.ofNanos(remaining));
+            if (config.isCompression()) request.setHeader("Accept-Encoding", "gzip, deflate");
+
+            HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            version = response.version().name();
+            int status = response.statusCode();
+            try (InputStream body = decode(response)) {
+                if (status >= 400) throw error(response, body);
+                T result = reader.read(status, body);
+                // ✅ Consumir el resto para que la conexión vuelva al pool
+                body.transferTo(OutputStream.nullOutputStream());
+                record(hostName, version, (status / 100) + "xx", startNanos);
+                return result;
+            }
+        } catch (HttpTimeoutException e) {
+            record(hostName, version, "timeout", startNanos);
+            throw e;
+        } catch (HttpClientErrorException | HttpServerErrorException | UnknownHttpStatusCodeException e) {
+            record(hostName, version, (e.getStatusCode().value() / 100) + "xx", startNanos);
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            record(hostName, version, "error", startNanos);
+            throw e;
+        } finally {
+            host.permits.release();
+        }
+    }
+
+    private Host host(String name) {
+        return hosts.computeIfAbsent(name, h -> {
+            int limit = Math.max(1, config.getMaxConcurrentPerHost());
+            Semaphore permits = new Semaphore(limit, true);
+            Gauge.builder("http_client_in_flight", permits, p -> limit - p.availablePermits())
+                    .description("Peticiones HTTP en curso por host")
+                    .tag("host", h)
+                    .register(registry);
+            Timer permitWait = Timer.builder("http_client_permit_wait")
+                    .description("Espera por un hueco del límite de concurrencia por host")
+                    .tag("host", h)
+                    .register(registry);
+            Counter tls = Counter.builder("http_client_tls_connections_total")
+                    .description("Conexiones TLS nuevas (handshakes completos o reanudados)")
+                    .tag("host", h)
+                    .register(registry);
+            return new Host(permits, permitWait, tls);
+        });
+    }
+
+    private void record(String host, String version, String outcome, long startNanos) {
+        Timer.builder("http_client_request_latency")
+                .description("Duración de las llamadas HTTP salientes (incluye la espera por límite de host)")
+                .tags("host", host, "version", version, "outcome", outcome)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static InputStream decode(HttpResponse<InputStream> response) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(response.body(), 64 * 1024);
+            case "deflate" -> new InflaterInputStream(response.body());
+            default -> response.body();
+        };
+    }
+
+    private static RuntimeException error(HttpResponse<InputStream> response, InputStream body) throws IOException {
+        byte[] bytes = body.readNBytes(ERROR_BODY_LIMIT);
+        HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        int status = response.statusCode();
+        HttpStatus known = HttpStatus.resolve(status);
+        String text = known != null ? known.getReasonPhrase() : "";
+        if (status >= 400 && status < 500) {
+            return HttpClientErrorException.create(HttpStatusCode.valueOf(status), text, headers, bytes, StandardCharsets.UTF_8);
+        }
+        if (status >= 500 && status < 600) {
+            return HttpServerErrorException.create(HttpStatusCode.valueOf(status), text, headers, bytes, StandardCharsets.UTF_8);
+        }
+        return new UnknownHttpStatusCodeException(status, text, headers, bytes, StandardCharsets.UTF_8);
+    }
+
+    // ✅ El HttpClient crea un SSLEngine por conexión TLS nueva: contarlos da los handshakes por host
+    private SSLContext countingSslContext() {
+        try {
+            SSLContext delegate = SSLContext.getDefault();
+            return new SSLContext(new CountingSpi(delegate), delegate.getProvider(), delegate.getProtocol()) {};
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SSLContext por defecto no disponible", e);
+        }
+    }
+
+    private final class CountingSpi extends SSLContextSpi {
+        private final SSLContext delegate;
+
+        CountingSpi(SSLContext delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine(String host, int port) {
+            if (host != null) host(host.toLowerCase(Locale.ROOT)).tlsConnections.increment();
+            return delegate.createSSLEngine(host, port);
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine() { return delegate.createSSLEngine(); }
+
+        @Override
+        protected void engineInit(KeyManager[] km, TrustManager[] tm, SecureRandom random) {
+            throw new UnsupportedOperationException("El SSLContext por defecto ya está inicializado");
+        }
+
+        @Override
+        protected SSLSocketFactory engineGetSocketFactory() { return delegate.getSocketFactory(); }
+
+        @Override
+        protected SSLServerSocketFactory engineGetServerSocketFactory() { return delegate.getServerSocketFactory(); }
+
+        @Override
+        protected SSLSessionContext engineGetServerSessionContext() { return delegate.getServerSessionContext(); }
+
+        @Override
+        protected SSLSessionContext engineGetClientSessionContext() { return delegate.getClientSessionContext(); }
+
+        @Override
+        protected SSLParameters engineGetDefaultSSLParameters() { return delegate.getDefaultSSLParameters(); }
+
+        @Override
+        protected SSLParameters engineGetSupportedSSLParameters() { return delegate.getSupportedSSLParameters(); }
+    }
+}
@@ -0,0 +1,58 @@
+package com.cryptobot.indicator;
+
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.config.ConfigSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ✅ Motor de indicadores en streaming: un único IndicatorState por símbolo,
+// compartido por las alertas, las señales y /status.
+// Todas las temporalidades de `indicator.timeframes` se mantienen a la vez; las señales usan `signal.timeframe`.
+// Si una recarga cambia período, temporalidades o tamaño, BitcoinPriceService construye estados nuevos
+// (newState) desde el histórico y los sustituye aquí (replace).
+@Component
+public class IndicatorEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicatorEngine.class);
+
+    private final ConfigService configs;
+    private final ConcurrentHashMap<String, IndicatorState> states = new ConcurrentHashMap<>();
+
+    public IndicatorEngine(ConfigService configs) {
+        this.configs = configs;
+        ConfigSnapshot config = configs.current();
+        log.info("🕯️ Velas {}, señales en {}", config.timeframes().stream().map(Timeframe::label).toList(),
+                config.signalTimeframe().label());
+    }
+
+    public Timeframe signalTimeframe() {
+        return configs.current().signalTimeframe();
+    }
+
+    public List<Timeframe> timeframes() {
+        return configs.current().timeframes();
+    }
+
+    public IndicatorState state(String symbol) {
+        return states.computeIfAbsent(symbol, s -> newState(configs.current()));
+    }
+
+    public void replace(String symbol, IndicatorState state) {
+        states.put(symbol, state);
+    }
+
+    public IndicatorState newState(ConfigSnapshot config) {
+        return new IndicatorState(
+                config.rsiPeriod(),
+                config.historySize(),
+                config.rsiMinDataPoints(),
+                config.signalTimeframe(),
+                config.timeframes(),
+                config.studies()
+        );
+    }
+}
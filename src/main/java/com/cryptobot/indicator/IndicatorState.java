@@ -0,0 +1,127 @@
+package com.cryptobot.indicator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// ✅ Estado de indicadores de un símbolo.
+// Un mismo flujo de precios alimenta a la vez velas OHLCV de varias temporalidades (TimeframeBars);
+// cada tick cuesta O(temporalidades) y nada de lo que ocurre en onTick() reserva memoria.
+// Las señales usan la temporalidad configurada (rsi(), barCount()...), pero cualquier otra es consultable.
+public final class IndicatorState {
+
+    private final int minDataPoints;
+    private final TimeframeBars[] frames;
+    private final Timeframe[] timeframes;
+    private final TimeframeBars signal;
+
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    // ✅ Varias temporalidades; la de señales se añade si no está en la lista
+    public IndicatorState(int rsiPeriod, int historySize, int minDataPoints, Timeframe signalTimeframe, List<Timeframe> timeframes) {
+        this(rsiPeriod, historySize, minDataPoints, signalTimeframe, timeframes, List.of());
+    }
+
+    // ✅ `studies` (ver StudyGraph) se calculan en todas las temporalidades
+    public IndicatorState(int rsiPeriod, int historySize, int minDataPoints, Timeframe signalTimeframe,
+                          List<Timeframe> timeframes, List<String> studies) {
+        List<Timeframe> all = new ArrayList<>(timeframes);
+        if (!all.contains(signalTimeframe)) all.add(signalTimeframe);
+
+        this.minDataPoints = minDataPoints;
+        this.timeframes = all.toArray(new Timeframe[0]);
+        this.frames = new TimeframeBars[this.timeframes.length];
+        TimeframeBars signalFrame = null;
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = new TimeframeBars(this.timeframes[i].millis(), historySize, rsiPeriod, studies);
+            if (this.timeframes[i] == signalTimeframe) signalFrame = frames[i];
+        }
+        this.signal = signalFrame;
+    }
+
+    // ✅ Una única temporalidad de duración arbitraria (tests y benchmarks)
+    public IndicatorState(int rsiPeriod, int historySize, int minDataPoints, long barMillis) {
+        this.minDataPoints = minDataPoints;
+        this.timeframes = new Timeframe[0];
+        this.signal = new TimeframeBars(barMillis, historySize, rsiPeriod);
+        this.frames = new TimeframeBars[]{signal};
+    }
+
+    // ✅ Devuelve false si el precio es anterior o igual al último procesado (ya visto) o no es finito
+    public boolean onPrice(long epochMillis, double price) {
+        return onTick(epochMillis, price, 0);
+    }
+
+    public boolean onTick(long epochMillis, double price, double volume) {
+        // ✅ Un NaN o infinito no se puede deshacer: envenenaría para siempre las medias del RSI y los estudios
+        if (epochMillis <= lastTimestamp || !Double.isFinite(price)) {
+            return false;
+        }
+        if (!Double.isFinite(volume)) volume = 0;
+        for (TimeframeBars frame : frames) {
+            frame.onTick(epochMillis, price, volume);
+        }
+        lastTimestamp = epochMillis;
+        return true;
+    }
+
+    // ✅ RSI de la temporalidad de señales incluyendo la vela en formación; NaN si aún no hay datos suficientes
+    public double rsi() {
+        if (barCount() < minDataPoints) {
+            return Double.NaN;
+        }
+        return signal.rsi();
+    }
+
+    public double rsi(Timeframe timeframe) {
+        TimeframeBars frame = bars(timeframe);
+        return frame.barCount() < minDataPoints ? Double.NaN : frame.rsi();
+    }
+
+    // ✅ Salida de StudyGraph (p. ej. "macd_hist(12,26,9)") con la vela en formación; NaN si no está configurada
+    public double study(Timeframe timeframe, String key) {
+        StudyGraph studies = bars(timeframe).studies();
+        int slot = studies.slot(key);
+        return slot < 0 ? Double.NaN : studies.value(slot);
+    }
+
+    public boolean isRsiReady() {
+        return !Double.isNaN(rsi());
+    }
+
+    public double lastPrice() {
+        return signal.lastPrice();
+    }
+
+    public long lastTimestamp() { return lastTimestamp; }
+
+    // ✅ Velas cerradas + la vela en curso de la temporalidad de señales
+    public long barCount() {
+        return signal.barCount();
+    }
+
+    public TimeframeBars signalBars() { return signal; }
+
+    public TimeframeBars bars(Timeframe timeframe) {
+        for (int i = 0; i < timeframes.length; i++) {
+            if (timeframes[i] == timeframe) return frames[i];
+        }
+        throw new IllegalArgumentException("Temporalidad no configurada: " + timeframe.label());
+    }
+
+    public boolean hasTimeframe(Timeframe timeframe) {
+        for (Timeframe tf : timeframes) {
+            if (tf == timeframe) return true;
+        }
+        return false;
+    }
+
+    public int rsiPeriod() { return signal.rsiPeriod(); }
+    public long barMillis() { return signal.barMillis(); }
+
+    public void reset() {
+        for (TimeframeBars frame : frames) {
+            frame.reset();
+        }
+        lastTimestamp = Long.MIN_VALUE;
+    }
+}
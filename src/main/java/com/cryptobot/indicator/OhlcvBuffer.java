@@ -0,0 +1,68 @@
+package com.cryptobot.indicator;
+
+// ✅ Buffer circular de velas OHLCV cerradas, una columna primitiva por campo.
+// Capacidad fija: una vez lleno, cada add() sobrescribe la vela más antigua sin reservar memoria.
+public final class OhlcvBuffer {
+
+    private final long[] openTimes;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final double[] volumes;
+    private int head = 0;   // posición donde se escribirá la siguiente vela
+    private int size = 0;
+
+    public OhlcvBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacity);
+        }
+        this.openTimes = new long[capacity];
+        this.opens = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.closes = new double[capacity];
+        this.volumes = new double[capacity];
+    }
+
+    public void add(long openTime, double open, double high, double low, double close, double volume) {
+        openTimes[head] = openTime;
+        opens[head] = open;
+        highs[head] = high;
+        lows[head] = low;
+        closes[head] = close;
+        volumes[head] = volume;
+        head = (head + 1) % openTimes.length;
+        if (size < openTimes.length) size++;
+    }
+
+    // ✅ Índice 0 = vela más antigua, size()-1 = más reciente
+    public long openTime(int index) { return openTimes[physical(index)]; }
+    public double open(int index) { return opens[physical(index)]; }
+    public double high(int index) { return highs[physical(index)]; }
+    public double low(int index) { return lows[physical(index)]; }
+    public double close(int index) { return closes[physical(index)]; }
+    public double volume(int index) { return volumes[physical(index)]; }
+
+    public double lastClose() {
+        return close(size - 1);
+    }
+
+    public int size() { return size; }
+    public int capacity() { return openTimes.length; }
+    public boolean isEmpty() { return size == 0; }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private int physical(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Índice " + index + " fuera de rango (size=" + size + ")");
+        }
+        int start = head - size;
+        if (start < 0) start += openTimes.length;
+        return (start + index) % openTimes.length;
+    }
+}
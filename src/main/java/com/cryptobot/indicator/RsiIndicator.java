@@ -0,0 +1,93 @@
+package com.cryptobot.indicator;
+
+// ✅ RSI de Wilder en streaming: O(1) por cierre y sin reservar memoria.
+// Las primeras `period` variaciones se promedian (SMA) y a partir de ahí se aplica el suavizado de Wilder.
+public final class RsiIndicator {
+
+    private final int period;
+
+    private int count = 0;          // cierres consolidados
+    private double prevClose = Double.NaN;
+    private double sumGain = 0;     // acumuladores durante la fase de siembra
+    private double sumLoss = 0;
+    private double avgGain = Double.NaN;
+    private double avgLoss = Double.NaN;
+    private double value = Double.NaN;
+
+    public RsiIndicator(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("El período RSI debe ser positivo: " + period);
+        }
+        this.period = period;
+    }
+
+    // ✅ Consolida un nuevo cierre y devuelve el RSI resultante (NaN mientras no haya datos suficientes)
+    public double update(double close) {
+        if (count == 0) {
+            prevClose = close;
+            count = 1;
+            return value;
+        }
+
+        double change = close - prevClose;
+        double gain = Math.max(change, 0);
+        double loss = Math.max(-change, 0);
+        int changes = count; // variaciones tras añadir este cierre
+
+        if (changes < period) {
+            sumGain += gain;
+            sumLoss += loss;
+        } else if (changes == period) {
+            avgGain = (sumGain + gain) / period;
+            avgLoss = (sumLoss + loss) / period;
+            value = toRsi(avgGain, avgLoss);
+        } else {
+            avgGain = (avgGain * (period - 1) + gain) / period;
+            avgLoss = (avgLoss * (period - 1) + loss) / period;
+            value = toRsi(avgGain, avgLoss);
+        }
+
+        prevClose = close;
+        count++;
+        return value;
+    }
+
+    // ✅ RSI que resultaría si `close` fuese el siguiente cierre, sin modificar el estado (vela en formación)
+    public double peek(double close) {
+        if (count == 0) return Double.NaN;
+
+        double change = close - prevClose;
+        double gain = Math.max(change, 0);
+        double loss = Math.max(-change, 0);
+        int changes = count;
+
+        if (changes < period) return Double.NaN;
+        if (changes == period) {
+            return toRsi((sumGain + gain) / period, (sumLoss + loss) / period);
+        }
+        return toRsi((avgGain * (period - 1) + gain) / period,
+                (avgLoss * (period - 1) + loss) / period);
+    }
+
+    public double value() { return value; }
+    public boolean isReady() { return count > period; }
+    public int period() { return period; }
+
+    public void reset() {
+        count = 0;
+        prevClose = Double.NaN;
+        sumGain = 0;
+        sumLoss = 0;
+        avgGain = Double.NaN;
+        avgLoss = Double.NaN;
+        value = Double.NaN;
+    }
+
+    public static double toRsi(double avgGain, double avgLoss) {
+        if (avgLoss == 0) {
+            return avgGain == 0 ? 50.0 : 100.0;
+        }
+        double rs = avgGain / avgLoss;
+        return 100 - (100 / (1 + rs));
+    }
+}
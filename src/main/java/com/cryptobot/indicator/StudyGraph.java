@@ -0,0 +1,729 @@
+package com.cryptobot.indicator;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// ✅ Indicadores en streaming de una temporalidad (EMA, SMA, Bollinger, MACD, ATR, RSI estocástico, VWAP)
+// organizados como un grafo de dependencias: cada nodo guarda estado primitivo y se actualiza en O(1) al cerrarse
+// una vela, después de sus entradas (el orden de registro ya es topológico). Las entradas compartidas son un único
+// nodo: las bandas de Bollinger reutilizan la ventana de sma(p), macd / macd_signal / macd_hist la misma línea,
+// y ema(12) es la misma aunque la pidan la configuración y el MACD.
+//
+// Los valores incluyen la vela en formación: se calculan al consultarlos sin tocar el estado (como RsiIndicator.peek)
+// y se memorizan hasta el siguiente tick, así que cada nodo se evalúa como mucho una vez por tick.
+//
+// Familias (spec → salidas consultables con value(slot("...")):
+//   ema(p) → ema(p)                      sma(p) → sma(p)
+//   bollinger(p,k) → bb_upper(p,k), bb_middle(p,k), bb_lower(p,k)   (k por defecto 2; p por defecto 20)
+//   macd(f,s,g) → macd(f,s,g), macd_signal(f,s,g), macd_hist(f,s,g)  (12,26,9 por defecto)
+//   atr(p) → atr(p)                      (14 por defecto)
+//   stoch_rsi(r,s,k,d) → stoch_rsi(r,s,k,d), stoch_rsi_d(r,s,k,d)    (14,14,3,3 por defecto; escala 0-100)
+//   vwap → vwap                          (sesión = día UTC; NaN sin volumen)
+//
+// Un grafo "seguidor" (follow()) no recibe los cierres: los toma del buffer de velas cerradas de la temporalidad
+// al consultarlo. Lo usan las reglas que piden indicadores no configurados.
+public final class StudyGraph {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final int MAX_PERIOD = 10_000;
+
+    // ✅ Función consultable → familia que la calcula
+    private static final Map<String, String> FAMILIES = Map.ofEntries(
+            Map.entry("ema", "ema"), Map.entry("sma", "sma"),
+            Map.entry("bb_upper", "bollinger"), Map.entry("bb_middle", "bollinger"), Map.entry("bb_lower", "bollinger"),
+            Map.entry("macd", "macd"), Map.entry("macd_signal", "macd"), Map.entry("macd_hist", "macd"),
+            Map.entry("atr", "atr"), Map.entry("stoch_rsi", "stoch_rsi"), Map.entry("stoch_rsi_d", "stoch_rsi"),
+            Map.entry("vwap", "vwap"));
+
+    // ✅ Salida de una familia: spec canónica de la familia y clave de la salida (ambas con los parámetros completos)
+    public record Output(String family, String key) {}
+
+    private final TimeframeBars source;
+    private final boolean follower;
+    private final Close close = new Close();
+    private final Map<String, Node> byKey = new HashMap<>();
+    private final Map<String, Integer> outputs = new HashMap<>();
+    private final Set<String> families = new HashSet<>();
+    private Node[] nodes = new Node[0];
+
+    // ✅ Vela que se está consolidando (la leen los nodos en commit())
+    private long barTime;
+    private double barHigh;
+    private double barLow;
+    private double barClose;
+    private double barVolume;
+
+    private long committed = 0;
+    private boolean stale = false;
+
+    StudyGraph(TimeframeBars source, boolean follower) {
+        this.source = source;
+        this.follower = follower;
+        register(close);
+    }
+
+    // ✅ Grafo privado sobre las velas de `source`; se pone al día al consultarlo
+    public static StudyGraph follow(TimeframeBars source) {
+        return new StudyGraph(source, true);
+    }
+
+    // ✅ Registra una familia (ver specs arriba); repetirla no hace nada
+    public void add(String spec) {
+        Parsed p = parse(spec);
+        double[] a = defaults(p.name, p.args);
+        String family = format(p.name, a);
+        if (families.contains(family)) return;
+        if (!follower && committed > 0) {
+            throw new IllegalStateException("Los indicadores compartidos se registran antes de la primera vela: " + family);
+        }
+        families.add(family);
+
+        switch (p.name) {
+            case "ema" -> output(family, ema((int) a[0], close));
+            case "sma" -> output(family, sma((int) a[0], close));
+            case "bollinger" -> {
+                Window window = sma((int) a[0], close);
+                double k = a[1];
+                String upper = format("bb_upper", a);
+                String lower = format("bb_lower", a);
+                output(format("bb_middle", a), window);
+                output(upper, intern(upper, () -> new Band(upper, window, k)));
+                output(lower, intern(lower, () -> new Band(lower, window, -k)));
+            }
+            case "macd" -> {
+                Node line = diff(ema((int) a[0], close), ema((int) a[1], close));
+                Node signal = ema((int) a[2], line);
+                output(format("macd", a), line);
+                output(format("macd_signal", a), signal);
+                output(format("macd_hist", a), diff(line, signal));
+            }
+            case "atr" -> {
+                Node trueRange = intern("true_range", TrueRange::new);
+                int period = (int) a[0];
+                String key = "wilder(" + period + "," + trueRange.key + ")";
+                output(family, intern(key, () -> new Smoothed(key, trueRange, period, 1.0 / period)));
+            }
+            case "stoch_rsi" -> {
+                Node rsi = rsi((int) a[0]);
+                int range = (int) a[1];
+                String rawKey = "stoch(" + range + "," + rsi.key + ")";
+                Node raw = intern(rawKey, () -> new StochRaw(rawKey, rsi, range));
+                Window k = sma((int) a[2], raw);
+                output(format("stoch_rsi", a), k);
+                output(format("stoch_rsi_d", a), sma((int) a[3], k));
+            }
+            case "vwap" -> output(family, intern("vwap", Vwap::new));
+            default -> throw new IllegalArgumentException("Indicador desconocido: " + p.name);
+        }
+        // ✅ Un seguidor recalcula todo desde el buffer para que lo nuevo tenga historia
+        if (follower) stale = true;
+    }
+
+    // ✅ Posición de una salida para value(); -1 si no está registrada
+    public int slot(String key) {
+        Integer slot = outputs.get(key);
+        return slot == null ? -1 : slot;
+    }
+
+    public boolean has(String key) {
+        return outputs.containsKey(key);
+    }
+
+    // ✅ Valor incluyendo la vela en formación; NaN mientras no haya datos suficientes
+    public double value(int slot) {
+        if (follower) sync();
+        return nodes[slot].current(this);
+    }
+
+    public Set<String> keys() {
+        return outputs.keySet();
+    }
+
+    // ✅ Llamado por TimeframeBars al cerrarse una vela, después de actualizar su RSI
+    void commit(long openTime, double high, double low, double close, double volume) {
+        barTime = openTime;
+        barHigh = high;
+        barLow = low;
+        barClose = close;
+        barVolume = volume;
+        for (Node node : nodes) {
+            node.commit(this);
+        }
+        committed++;
+    }
+
+    void reset() {
+        for (Node node : nodes) {
+            node.reset();
+        }
+        committed = 0;
+    }
+
+    // ✅ Seguidor: consolida las velas que la temporalidad cerró desde la última consulta; si faltan más de las que
+    // guarda el buffer (o se reinició), vuelve a empezar con todo el buffer
+    private void sync() {
+        long target = source.committedBars();
+        if (!stale && committed == target) return;
+        OhlcvBuffer bars = source.closed();
+        long missing = target - committed;
+        if (stale || missing < 0 || missing > bars.size()) {
+            reset();
+            committed = target - bars.size();
+            missing = bars.size();
+            stale = false;
+        }
+        for (int i = bars.size() - (int) missing; i < bars.size(); i++) {
+            commit(bars.openTime(i), bars.high(i), bars.low(i), bars.close(i), bars.volume(i));
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------------
+    // Construcción del grafo
+
+    private void output(String key, Node node) {
+        outputs.put(key, node.slot);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <N extends Node> N intern(String key, Supplier<N> factory) {
+        Node existing = byKey.get(key);
+        if (existing != null) return (N) existing;
+        N node = factory.get();
+        register(node);
+        return node;
+    }
+
+    private void register(Node node) {
+        node.slot = nodes.length;
+        Node[] grown = new Node[nodes.length + 1];
+        System.arraycopy(nodes, 0, grown, 0, nodes.length);
+        grown[nodes.length] = node;
+        nodes = grown;
+        byKey.put(node.key, node);
+    }
+
+    private Node ema(int period, Node in) {
+        String key = in == close ? "ema(" + period + ")" : "ema(" + period + "," + in.key + ")";
+        return intern(key, () -> new Smoothed(key, in, period, 2.0 / (period + 1)));
+    }
+
+    private Window sma(int period, Node in) {
+        String key = in == close ? "sma(" + period + ")" : "sma(" + period + "," + in.key + ")";
+        return intern(key, () -> new Window(key, in, period));
+    }
+
+    private Node diff(Node a, Node b) {
+        String key = "diff(" + a.key + "," + b.key + ")";
+        return intern(key, () -> new Diff(key, a, b));
+    }
+
+    // ✅ El RSI del grafo compartido es el de la temporalidad si coincide el período; el seguidor siempre tiene el suyo
+    private Node rsi(int period) {
+        String key = "rsi(" + period + ")";
+        RsiIndicator shared = !follower && source.rsiPeriod() == period ? source.rsiIndicator() : null;
+        return intern(key, () -> new Rsi(key, shared != null ? shared : new RsiIndicator(period), shared == null));
+    }
+
+    // ----------------------------------------------------------------------------------------------------------
+    // Specs
+
+    private record Parsed(String name, double[] args) {}
+
+    // ✅ Spec con los parámetros por defecto explícitos, p. ej. "macd" → "macd(12,26,9)"
+    public static String canonical(String spec) {
+        Parsed p = parse(spec);
+        return format(p.name, defaults(p.name, p.args));
+    }
+
+    // ✅ null si `function` no es una salida de indicador; IllegalArgumentException si los parámetros no valen
+    public static Output output(String function, double[] args) {
+        String family = FAMILIES.get(function);
+        if (family == null) return null;
+        double[] full = defaults(family, args);
+        return new Output(format(family, full), format(function, full));
+    }
+
+    private static Parsed parse(String spec) {
+        String s = spec.trim().toLowerCase();
+        int open = s.indexOf('(');
+        if (open < 0) return new Parsed(s, new double[0]);
+        if (!s.endsWith(")")) throw new IllegalArgumentException("Falta ')' en el indicador: " + spec);
+        String inner = s.substring(open + 1, s.length() - 1).trim();
+        String[] parts = inner.isEmpty() ? new String[0] : inner.split(",");
+        double[] args = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                args[i] = Double.parseDouble(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Parámetro no numérico en el indicador: " + spec);
+            }
+        }
+        return new Parsed(s.substring(0, open).trim(), args);
+    }
+
+    private static double[] defaults(String family, double[] args) {
+        double[] a = switch (family) {
+            case "ema", "sma" -> exactly(family, args, 1, null);
+            case "bollinger" -> upTo(family, args, 20, 2);
+            case "macd" -> exactly(family, args, 3, new double[]{12, 26, 9});
+            case "atr" -> upTo(family, args, 14);
+            case "stoch_rsi" -> exactly(family, args, 4, new double[]{14, 14, 3, 3});
+            case "vwap" -> exactly(family, args, 0, null);
+            default -> throw new IllegalArgumentException("Indicador desconocido: " + family);
+        };
+        // ✅ Todos los parámetros son períodos salvo la k de Bollinger
+        for (int i = 0; i < a.length; i++) {
+            if (family.equals("bollinger") && i == 1) {
+                if (!(a[i] > 0) || Double.isInfinite(a[i])) {
+                    throw new IllegalArgumentException("La k de Bollinger debe ser positiva: " + format(family, a));
+                }
+            } else if (a[i] != Math.rint(a[i]) || a[i] < 1 || a[i] > MAX_PERIOD) {
+                throw new IllegalArgumentException("Los períodos deben ser enteros entre 1 y " + MAX_PERIOD + ": "
+                        + format(family, a));
+            }
+        }
+        if (family.equals("macd") && a[0] >= a[1]) {
+            throw new IllegalArgumentException("La EMA rápida del MACD debe ser más corta que la lenta: " + format(family, a));
+        }
+        return a;
+    }
+
+    // ✅ O todos los parámetros o ninguno (defaults)
+    private static double[] exactly(String family, double[] args, int count, double[] defaults) {
+        if (args.length == count) return args.clone();
+        if (args.length == 0 && defaults != null) return defaults.clone();
+        throw new IllegalArgumentException(family + " espera " + count + " parámetros");
+    }
+
+    // ✅ Parámetros opcionales por la derecha
+    private static double[] upTo(String family, double[] args, double... defaults) {
+        if (args.length > defaults.length) {
+            throw new IllegalArgumentException(family + " espera como mucho " + defaults.length + " parámetros");
+        }
+        double[] a = defaults.clone();
+        System.arraycopy(args, 0, a, 0, args.length);
+        return a;
+    }
+
+    private static String format(String name, double[] args) {
+        if (args.length == 0) return name;
+        StringBuilder sb = new StringBuilder(name).append('(');
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) sb.append(',');
+            double v = args[i];
+            sb.append(v == Math.rint(v) ? Long.toString((long) v) : BigDecimal.valueOf(v).stripTrailingZeros().toPlainString());
+        }
+        return sb.append(')').toString();
+    }
+
+    // ----------------------------------------------------------------------------------------------------------
+    // Nodos
+
+    abstract static class Node {
+        final String key;
+        int slot;
+        double last = Double.NaN;      // valor con la última vela cerrada
+        private double forming = Double.NaN;
+        private long stamp = -1;
+
+        Node(String key) {
+            this.key = key;
+        }
+
+        // ✅ Consolida la vela de g (las entradas ya están consolidadas)
+        abstract void commit(StudyGraph g);
+
+        // ✅ Valor con la vela en formación, sin modificar el estado
+        abstract double peek(StudyGraph g);
+
+        final double current(StudyGraph g) {
+            long ticks = g.source.ticks();
+            if (stamp != ticks) {
+                forming = g.source.isForming() ? peek(g) : last;
+                stamp = ticks;
+            }
+            return forming;
+        }
+
+        void reset() {
+            last = Double.NaN;
+            stamp = -1;
+        }
+    }
+
+    static final class Close extends Node {
+        Close() { super("close"); }
+
+        @Override
+        void commit(StudyGraph g) { last = g.barClose; }
+
+        @Override
+        double peek(StudyGraph g) { return g.source.formingClose(); }
+    }
+
+    // ✅ Media exponencial sembrada con la media simple de los `period` primeros valores:
+    // alpha = 2/(p+1) para EMA, 1/p para el suavizado de Wilder (ATR)
+    static final class Smoothed extends Node {
+        private final Node in;
+        private final int period;
+        private final double alpha;
+        private int count = 0;
+        private double sum = 0;
+
+        Smoothed(String key, Node in, int period, double alpha) {
+            super(key);
+            this.in = in;
+            this.period = period;
+            this.alpha = alpha;
+        }
+
+        @Override
+        void commit(StudyGraph g) {
+            double x = in.last;
+            if (Double.isNaN(x)) return;
+            if (count < period) {
+                sum += x;
+                if (++count == period) last = sum / period;
+            } else {
+                last += alpha * (x - last);
+            }
+        }
+
+        @Override
+        double peek(StudyGraph g) {
+            double x = in.current(g);
+            if (Double.isNaN(x) || count < period - 1) return Double.NaN;
+            if (count == period - 1) return (sum + x) / period;
+            return last + alpha * (x - last);
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            count = 0;
+            sum = 0;
+        }
+    }
+
+    // ✅ Ventana deslizante: media simple y varianza poblacional con sumas acumuladas.
+    // Las sumas se recalculan desde el anillo cada `period` cierres para que el error de redondeo no crezca.
+    static final class Window extends Node {
+        private final Node in;
+        private final int period;
+        private final double[] ring;
+        private int head = 0;
+        private int size = 0;
+        private int sinceExact = 0;
+        private double sum = 0;
+        private double sumSq = 0;
+        private double lastVariance = Double.NaN;
+        private double formingVariance = Double.NaN;
+
+        Window(String key, Node in, int period) {
+            super(key);
+            this.in = in;
+            this.period = period;
+            this.ring = new double[period];
+        }
+
+        @Override
+        void commit(StudyGraph g) {
+            double x = in.last;
+            if (Double.isNaN(x)) return;
+            if (size == period) {
+                double old = ring[head];
+                sum -= old;
+                sumSq -= old * old;
+            } else {
+                size++;
+            }
+            ring[head] = x;
+            head = (head + 1) % period;
+            sum += x;
+            sumSq += x * x;
+            if (++sinceExact >= period) {
+                sum = 0;
+                sumSq = 0;
+                for (int i = 0; i < size; i++) {
+                    sum += ring[i];
+                    sumSq += ring[i] * ring[i];
+                }
+                sinceExact = 0;
+            }
+            if (size == period) {
+                last = sum / period;
+                lastVariance = Math.max(sumSq / period - last * last, 0);
+            }
+        }
+
+        @Override
+        double peek(StudyGraph g) {
+            double x = in.current(g);
+            if (Double.isNaN(x) || size < period - 1) {
+                formingVariance = Double.NaN;
+                return Double.NaN;
+            }
+            double s = sum + x;
+            double q = sumSq + x * x;
+            if (size == period) {
+                double old = ring[head];
+                s -= old;
+                q -= old * old;
+            }
+            double mean = s / period;
+            formingVariance = Math.max(q / period - mean * mean, 0);
+            return mean;
+        }
+
+        double variance(StudyGraph g) {
+            current(g);
+            return g.source.isForming() ? formingVariance : lastVariance;
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            head = 0;
+            size = 0;
+            sinceExact = 0;
+            sum = 0;
+            sumSq = 0;
+            lastVariance = Double.NaN;
+            formingVariance = Double.NaN;
+        }
+    }
+
+    // ✅ Banda de Bollinger: media ± k desviaciones (k negativa para la inferior)
+    static final class Band extends Node {
+        private final Window window;
+        private final double k;
+
+        Band(String key, Window window, double k) {
+            super(key);
+            this.window = window;
+            this.k = k;
+        }
+
+        @Override
+        void commit(StudyGraph g) {
+            last = window.last + k * Math.sqrt(window.lastVariance);
+        }
+
+        @Override
+        double peek(StudyGraph g) {
+            double mean = window.current(g);
+            return mean + k * Math.sqrt(window.variance(g));
+        }
+    }
+
+    static final class Diff extends Node {
+        private final Node a;
+        private final Node b;
+
+        Diff(String key, Node a, Node b) {
+            super(key);
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        void commit(StudyGraph g) { last = a.last - b.last; }
+
+        @Override
+        double peek(StudyGraph g) { return a.current(g) - b.current(g); }
+    }
+
+    // ✅ Rango verdadero; la primera vela usa high - low
+    static final class TrueRange extends Node {
+        private double prevClose = Double.NaN;
+
+        TrueRange() { super("true_range"); }
+
+        @Override
+        void commit(StudyGraph g) {
+            last = range(g.barHigh, g.barLow);
+            prevClose = g.barClose;
+        }
+
+        @Override
+        double peek(StudyGraph g) {
+            return range(g.source.formingHigh(), g.source.formingLow());
+        }
+
+        private double range(double high, double low) {
+            if (Double.isNaN(prevClose)) return high - low;
+            return Math.max(high - low, Math.max(Math.abs(high - prevClose), Math.abs(low - prevClose)));
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            prevClose = Double.NaN;
+        }
+    }
+
+    // ✅ RSI como nodo; si no es propio, TimeframeBars ya lo actualizó antes de commit()
+    static final class Rsi extends Node {
+        private final RsiIndicator rsi;
+        private final boolean owned;
+
+        Rsi(String key, RsiIndicator rsi, boolean owned) {
+            super(key);
+            this.rsi = rsi;
+            this.owned = owned;
+        }
+
+        @Override
+        void commit(StudyGraph g) {
+            last = owned ? rsi.update(g.barClose) : rsi.value();
+        }
+
+        @Override
+        double peek(StudyGraph g) { return rsi.peek(g.source.formingClose()); }
+
+        @Override
+        void reset() {
+            super.reset();
+            if (owned) rsi.reset();
+        }
+    }
+
+    // ✅ Estocástico crudo: posición (0-100) del valor entre el mínimo y el máximo de los últimos `period`.
+    // Los `period - 1` anteriores se guardan en dos colas monótonas (O(1) amortizado); 50 si el rango es nulo.
+    static final class StochRaw extends Node {
+        private final Node in;
+        private final int period;
+        private final MonotonicDeque min;
+        private final MonotonicDeque max;
+        private long index = 0;
+
+        StochRaw(String key, Node in, int period) {
+            super(key);
+            this.in = in;
+            this.period = period;
+            this.min = new MonotonicDeque(period, false);
+            this.max = new MonotonicDeque(period, true);
+        }
+
+        @Override
+        void commit(StudyGraph g) {
+            double x = in.last;
+            if (Double.isNaN(x)) return;
+            last = stoch(x);
+            min.push(index, x);
+            max.push(index, x);
+            // ✅ Para el siguiente valor sólo cuentan los `period - 1` últimos
+            min.evict(index - period + 2);
+            max.evict(index - period + 2);
+            index++;
+        }
+
+        @Override
+        double peek(StudyGraph g) {
+            double x = in.current(g);
+            return Double.isNaN(x) ? Double.NaN : stoch(x);
+        }
+
+        private double stoch(double x) {
+            if (index < period - 1) return Double.NaN;
+            double lo = min.isEmpty() ? x : Math.min(min.front(), x);
+            double hi = max.isEmpty() ? x : Math.max(max.front(), x);
+            return hi == lo ? 50.0 : 100.0 * (x - lo) / (hi - lo);
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            min.clear();
+            max.clear();
+            index = 0;
+        }
+    }
+
+    // ✅ Cola de (índice, valor) con valores monótonos: el frente es el mínimo (o máximo) de la ventana
+    static final class MonotonicDeque {
+        private final long[] indexes;
+        private final double[] values;
+        private final boolean keepMax;
+        private int head = 0;
+        private int size = 0;
+
+        MonotonicDeque(int capacity, boolean keepMax) {
+            this.indexes = new long[capacity];
+            this.values = new double[capacity];
+            this.keepMax = keepMax;
+        }
+
+        void push(long index, double value) {
+            while (size > 0) {
+                double back = values[(head + size - 1) % values.length];
+                if (keepMax ? back > value : back < value) break;
+                size--;
+            }
+            int tail = (head + size) % values.length;
+            indexes[tail] = index;
+            values[tail] = value;
+            size++;
+        }
+
+        // ✅ Descarta los índices anteriores a `oldest`
+        void evict(long oldest) {
+            while (size > 0 && indexes[head] < oldest) {
+                head = (head + 1) % values.length;
+                size--;
+            }
+        }
+
+        boolean isEmpty() { return size == 0; }
+        double front() { return values[head]; }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+    }
+
+    // ✅ VWAP de la sesión (día UTC) con el precio típico (high + low + close) / 3
+    static final class Vwap extends Node {
+        private long day = Long.MIN_VALUE;
+        private double priceVolume = 0;
+        private double volume = 0;
+
+        Vwap() { super("vwap"); }
+
+        @Override
+        void commit(StudyGraph g) {
+            long barDay = Math.floorDiv(g.barTime, DAY_MILLIS);
+            if (barDay != day) {
+                day = barDay;
+                priceVolume = 0;
+                volume = 0;
+            }
+            priceVolume += (g.barHigh + g.barLow + g.barClose) / 3 * g.barVolume;
+            volume += g.barVolume;
+            last = volume > 0 ? priceVolume / volume : Double.NaN;
+        }
+
+        @Override
+        double peek(StudyGraph g) {
+            TimeframeBars s = g.source;
+            boolean sameDay = Math.floorDiv(s.formingOpenTime(), DAY_MILLIS) == day;
+            double pv = (sameDay ? priceVolume : 0)
+                    + (s.formingHigh() + s.formingLow() + s.formingClose()) / 3 * s.formingVolume();
+            double v = (sameDay ? volume : 0) + s.formingVolume();
+            return v > 0 ? pv / v : Double.NaN;
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            day = Long.MIN_VALUE;
+            priceVolume = 0;
+            volume = 0;
+        }
+    }
+}
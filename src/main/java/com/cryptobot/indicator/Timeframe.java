@@ -0,0 +1,43 @@
+package com.cryptobot.indicator;
+
+import java.time.Duration;
+import java.util.Locale;
+
+// ✅ Temporalidades soportadas para velas e indicadores ("1m", "5m", "15m", "1h", "4h", "1d").
+// Las velas se alinean a múltiplos de la duración desde el epoch (UTC).
+public enum Timeframe {
+
+    M1("1m", Duration.ofMinutes(1)),
+    M5("5m", Duration.ofMinutes(5)),
+    M15("15m", Duration.ofMinutes(15)),
+    H1("1h", Duration.ofHours(1)),
+    H4("4h", Duration.ofHours(4)),
+    D1("1d", Duration.ofDays(1));
+
+    private final String label;
+    private final long millis;
+
+    Timeframe(String label, Duration duration) {
+        this.label = label;
+        this.millis = duration.toMillis();
+    }
+
+    public String label() { return label; }
+    public long millis() { return millis; }
+
+    public static Timeframe parse(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        for (Timeframe tf : values()) {
+            if (tf.label.equals(v)) return tf;
+        }
+        throw new IllegalArgumentException("Temporalidad desconocida: " + value);
+    }
+
+    public static Timeframe ofHours(int hours) {
+        long millis = Duration.ofHours(hours).toMillis();
+        for (Timeframe tf : values()) {
+            if (tf.millis == millis) return tf;
+        }
+        throw new IllegalArgumentException("No hay temporalidad de " + hours + "h");
+    }
+}
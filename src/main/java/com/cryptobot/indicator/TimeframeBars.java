@@ -0,0 +1,112 @@
+package com.cryptobot.indicator;
+
+import java.util.List;
+
+// ✅ Velas de una temporalidad construidas tick a tick, con su propio RSI y el resto de indicadores (StudyGraph).
+// La vela en curso se mantiene "en formación" (open/high/low/close/volume se actualizan con cada tick)
+// y se consolida en el buffer y en el RSI al llegar un tick de la vela siguiente. onTick() no reserva memoria.
+public final class TimeframeBars {
+
+    private final long barMillis;
+    private final OhlcvBuffer closed;
+    private final RsiIndicator rsi;
+    private final StudyGraph studies;
+
+    private boolean forming = false;
+    private long formingBucket;
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+    private double volume;
+    private long committedBars = 0;
+    private long ticks = 0;
+
+    public TimeframeBars(long barMillis, int historySize, int rsiPeriod) {
+        this(barMillis, historySize, rsiPeriod, List.of());
+    }
+
+    // ✅ `studies`: specs de StudyGraph (ema(9), macd, bollinger(20,2)...)
+    public TimeframeBars(long barMillis, int historySize, int rsiPeriod, List<String> studies) {
+        if (barMillis <= 0) {
+            throw new IllegalArgumentException("La duración de vela debe ser positiva: " + barMillis);
+        }
+        this.barMillis = barMillis;
+        this.closed = new OhlcvBuffer(Math.max(historySize, rsiPeriod + 1));
+        this.rsi = new RsiIndicator(rsiPeriod);
+        this.studies = new StudyGraph(this, false);
+        for (String spec : studies) {
+            this.studies.add(spec);
+        }
+    }
+
+    // ✅ El llamador garantiza timestamps crecientes
+    void onTick(long epochMillis, double price, double qty) {
+        ticks++;
+        long bucket = Math.floorDiv(epochMillis, barMillis);
+        if (forming && bucket == formingBucket) {
+            if (price > high) high = price;
+            if (price < low) low = price;
+            close = price;
+            volume += qty;
+            return;
+        }
+
+        if (forming) {
+            commit();
+        }
+        forming = true;
+        formingBucket = bucket;
+        open = high = low = close = price;
+        volume = qty;
+    }
+
+    private void commit() {
+        closed.add(formingBucket * barMillis, open, high, low, close, volume);
+        rsi.update(close);
+        studies.commit(formingBucket * barMillis, high, low, close, volume);
+        committedBars++;
+    }
+
+    // ✅ RSI incluyendo la vela en formación; NaN si aún no hay datos suficientes
+    public double rsi() {
+        return forming ? rsi.peek(close) : rsi.value();
+    }
+
+    public boolean isForming() { return forming; }
+    public long formingOpenTime() { return formingBucket * barMillis; }
+    public double formingOpen() { return open; }
+    public double formingHigh() { return high; }
+    public double formingLow() { return low; }
+    public double formingClose() { return close; }
+    public double formingVolume() { return volume; }
+
+    public double lastPrice() {
+        if (forming) return close;
+        return closed.isEmpty() ? Double.NaN : closed.lastClose();
+    }
+
+    // ✅ Velas cerradas + la vela en curso
+    public long barCount() {
+        return committedBars + (forming ? 1 : 0);
+    }
+
+    public OhlcvBuffer closed() { return closed; }
+    public long barMillis() { return barMillis; }
+    public int rsiPeriod() { return rsi.period(); }
+    RsiIndicator rsiIndicator() { return rsi; }
+
+    public StudyGraph studies() { return studies; }
+    // ✅ Cambia con cada tick (memoización de los valores en formación)
+    public long ticks() { return ticks; }
+    // ✅ Velas consolidadas desde el último reset (aunque ya no estén en el buffer)
+    public long committedBars() { return committedBars; }
+
+    public void reset() {
+        closed.clear();
+        rsi.reset();
+        studies.reset();
+        forming = false;
+        committedBars = 0;
+    }
+}
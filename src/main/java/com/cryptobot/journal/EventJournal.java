@@ -0,0 +1,496 @@
+package com.cryptobot.journal;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.config.ConfigSnapshot;
+import com.cryptobot.indicator.Timeframe;
+import com.cryptobot.service.SignalEvaluatorService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// ✅ Diario de eventos append-only: ticks aceptados, evaluaciones (indicadores y señal), alertas (enviadas,
+// suprimidas, silenciadas) y entregas de notificaciones. Sirve para reconstruir con JournalReplayer el estado de
+// BitcoinPriceService en cualquier instante y explicar a posteriori una alerta de más o de menos.
+//
+// Los productores sólo codifican el registro en un buffer en memoria (sin E/S ni reservas de memoria);
+// un hilo escritor lo vuelca cada `flush-interval-ms` con una única escritura secuencial + force
+// (group commit: todos los eventos del intervalo comparten el fsync). Segmentos de `segment-size-mb`;
+// cada arranque abre uno nuevo. Si el disco no da abasto, los productores esperan a que se vacíe el buffer.
+@Component
+public class EventJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+
+    // ✅ Origen de un tick (el replay lo aplica al estado vivo o al que se está reconstruyendo)
+    public enum Origin { STREAM, POLL, CHART, WARM_START, REBUILD }
+
+    public enum Alert { PERIODIC, PRICE_UP, PRICE_DOWN, RSI_CROSS_DOWN, RSI_CROSS_UP, SIGNAL_BUY, SIGNAL_SELL, RULE }
+
+    // ✅ SENT: encolada; DROPPED: cola llena; MUTED: cebado tras cambio de dueño en el cluster;
+    // SUPPRESSED: la condición se cumplió pero AlertSuppressor no dejó avisar
+    public enum Outcome { SENT, DROPPED, MUTED, SUPPRESSED }
+
+    // ✅ Entregas de la cola de notificaciones: DROPPED por desbordamiento, un ATTEMPT_* por intento HTTP
+    // y DELIVERED / FAILED / RATE_LIMITED por envío (que puede agrupar varios mensajes)
+    public enum Delivery { DROPPED, ATTEMPT_OK, ATTEMPT_FAILED, RATE_LIMITED, DELIVERED, FAILED }
+
+    private static final SignalEvaluatorService.Signal.Type[] SIGNALS = SignalEvaluatorService.Signal.Type.values();
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentBytes;
+    private final long flushIntervalNanos;
+    private final boolean fsync;
+    private final int retentionDays;
+    private final ConfigService configs;
+
+    // ✅ Doble buffer: los productores escriben en `active` con el lock; el escritor vuelca `flushing` sin él
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushRequested = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer active;
+    private ByteBuffer flushing;
+    private boolean committing;
+    private final Map<String, Short> symbolIds = new HashMap<>();
+    private String[] symbols = new String[16];
+    private int symbolCount;
+
+    private final Counter bytesWritten;
+    private final Counter dropped;
+    private final Timer commitLatency;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    // ✅ Sólo los usa el hilo escritor
+    private FileChannel channel;
+    private long segmentNumber;
+    private long segmentSize;
+    private long segmentPreamble;
+    private final CRC32C writerCrc = new CRC32C();
+
+    public EventJournal(BotProperties config, ConfigService configs, MeterRegistry registry) {
+        BotProperties.Journal settings = config.getJournal();
+        this.enabled = settings.isEnabled();
+        this.directory = Paths.get(settings.getDirectory());
+        this.segmentBytes = Math.max(1, settings.getSegmentSizeMb()) * 1024L * 1024L;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, settings.getFlushIntervalMs()));
+        this.fsync = settings.isFsync();
+        this.retentionDays = settings.getRetentionDays();
+        this.configs = configs;
+
+        int bufferBytes = Math.max(64, settings.getBufferKb()) * 1024;
+        this.active = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+        this.flushing = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+
+        this.bytesWritten = Counter.builder("journal_bytes_written_total").register(registry);
+        this.dropped = Counter.builder("journal_dropped_total")
+                .description("Eventos no registrados (diario parado o error de disco)")
+                .register(registry);
+        this.commitLatency = Timer.builder("journal_commit_latency")
+                .description("Escritura + force de cada lote del diario")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        try {
+            Files.createDirectories(directory);
+            segmentNumber = lastSegmentNumber();
+            openNextSegment();
+        } catch (IOException e) {
+            log.error("❌ No se puede abrir el diario de eventos en {}: {}", directory, e.getMessage());
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        // ✅ Cada arranque empieza con START + la configuración vigente; cada recarga añade otro CONFIG
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            if (reserve(JournalFormat.BODY_HEADER)) {
+                JournalFormat.finish(active, JournalFormat.begin(active, JournalFormat.START, now, JournalFormat.NO_SYMBOL), crc);
+            }
+        } finally {
+            lock.unlock();
+        }
+        config(configs.current());
+        configs.addListener((previous, next) -> config(next));
+        log.info("📒 Diario de eventos en {} (segmento {})", directory.toAbsolutePath(), segmentNumber);
+    }
+
+    // ===================================
+    // EVENTOS
+    // ===================================
+
+    public void config(ConfigSnapshot c) {
+        if (!running) return;
+        byte[] signal = JournalFormat.text(c.signalTimeframe().label());
+        byte[] frames = JournalFormat.text(c.timeframes().stream().map(Timeframe::label).collect(Collectors.joining(",")));
+        byte[] studies = JournalFormat.text(String.join(";", c.studies()));
+        lock.lock();
+        try {
+            if (!reserve(JournalFormat.BODY_HEADER + 8 + 4 * 5 + 8
+                    + JournalFormat.textSize(signal) + JournalFormat.textSize(frames) + JournalFormat.textSize(studies))) return;
+            int start = JournalFormat.begin(active, JournalFormat.CONFIG, System.currentTimeMillis(), JournalFormat.NO_SYMBOL);
+            active.putLong(c.version()).putInt(c.rsiPeriod()).putInt(c.rsiMinDataPoints()).putInt(c.historySize())
+                    .putInt(c.overboughtLevel()).putInt(c.oversoldLevel()).putDouble(c.priceChangeThreshold());
+            JournalFormat.putText(active, signal);
+            JournalFormat.putText(active, frames);
+            JournalFormat.putText(active, studies);
+            JournalFormat.finish(active, start, crc);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ✅ Sólo ticks aceptados por IndicatorState: el replay vuelve a obtener exactamente el mismo estado
+    public void tick(String symbol, long epochMillis, double price, double volume, Origin origin) {
+        if (!running) return;
+        lock.lock();
+        try {
+            short id = symbolId(symbol);
+            if (!reserve(JournalFormat.BODY_HEADER + 8 + 8 + 8 + 1)) return;
+            int start = JournalFormat.begin(active, JournalFormat.TICK, System.currentTimeMillis(), id);
+            active.putLong(epochMillis).putDouble(price).putDouble(volume).put((byte) origin.ordinal());
+            JournalFormat.finish(active, start, crc);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ✅ Resultado de una evaluación: precio y RSI usados, precio de referencia y señal que quedan para la siguiente
+    public void evaluation(String symbol, double price, double referencePrice, double rsi, boolean rsiReady,
+                           SignalEvaluatorService.Signal.Type signal, double changePct, long barCount,
+                           boolean periodic, boolean muted) {
+        if (!running) return;
+        int flags = (periodic ? JournalFormat.FLAG_PERIODIC : 0) | (muted ? JournalFormat.FLAG_MUTED : 0)
+                | (rsiReady ? JournalFormat.FLAG_RSI_READY : 0);
+        lock.lock();
+        try {
+            short id = symbolId(symbol);
+            if (!reserve(JournalFormat.BODY_HEADER + 8 * 5 + 2)) return;
+            int start = JournalFormat.begin(active, JournalFormat.EVALUATION, System.currentTimeMillis(), id);
+            active.putDouble(price).putDouble(referencePrice).putDouble(rsi).putDouble(changePct).putLong(barCount)
+                    .put((byte) signal.ordinal()).put((byte) flags);
+            JournalFormat.finish(active, start, crc);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ✅ `rule` es el índice de la regla (-1 si no es una regla); `notification` el id del mensaje en la cola (-1 si no se encoló)
+    public void alert(String symbol, Alert kind, int rule, Outcome outcome, double magnitude, long notification, String message) {
+        if (!running) return;
+        byte[] text = JournalFormat.text(message);
+        lock.lock();
+        try {
+            short id = symbolId(symbol);
+            if (!reserve(JournalFormat.BODY_HEADER + 1 + 4 + 1 + 8 + 8 + JournalFormat.textSize(text))) return;
+            int start = JournalFormat.begin(active, JournalFormat.ALERT, System.currentTimeMillis(), id);
+            active.put((byte) kind.ordinal()).putInt(rule).put((byte) outcome.ordinal())
+                    .putDouble(magnitude).putLong(notification);
+            JournalFormat.putText(active, text);
+            JournalFormat.finish(active, start, crc);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ✅ Mensajes [firstId, lastId] de la cola; `status` es el código HTTP (-1 si no hubo respuesta)
+    public void delivery(Delivery kind, long firstId, long lastId, int attempt, int status, long latencyMillis) {
+        if (!running) return;
+        lock.lock();
+        try {
+            if (!reserve(JournalFormat.BODY_HEADER + 1 + 8 + 8 + 4 + 4 + 8)) return;
+            int start = JournalFormat.begin(active, JournalFormat.DELIVERY, System.currentTimeMillis(), JournalFormat.NO_SYMBOL);
+            active.put((byte) kind.ordinal()).putLong(firstId).putLong(lastId).putInt(attempt).putInt(status)
+                    .putLong(latencyMillis);
+            JournalFormat.finish(active, start, crc);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ✅ Reconstrucción de indicadores tras una recarga: los ticks REBUILD van a un estado aparte
+    // que sólo sustituye al vivo en el SWAP (igual que hace BitcoinPriceService con el lock del símbolo)
+    public void rebuildBegin(String symbol) {
+        rebuild(symbol, JournalFormat.REBUILD_BEGIN);
+    }
+
+    public void rebuildSwap(String symbol) {
+        rebuild(symbol, JournalFormat.REBUILD_SWAP);
+    }
+
+    private void rebuild(String symbol, byte phase) {
+        if (!running) return;
+        lock.lock();
+        try {
+            short id = symbolId(symbol);
+            if (!reserve(JournalFormat.BODY_HEADER + 1)) return;
+            int start = JournalFormat.begin(active, JournalFormat.REBUILD, System.currentTimeMillis(), id);
+            active.put(phase);
+            JournalFormat.finish(active, start, crc);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ✅ Con el lock y antes de reservar el registro que lo usa: la primera vez que aparece un símbolo
+    // se escribe su definición.
+    private short symbolId(String symbol) {
+        Short id = symbolIds.get(symbol);
+        if (id != null) return id;
+
+        short next = (short) symbolCount;
+        byte[] name = JournalFormat.text(symbol);
+        if (reserve(JournalFormat.BODY_HEADER + JournalFormat.textSize(name))) {
+            int start = JournalFormat.begin(active, JournalFormat.SYMBOL, System.currentTimeMillis(), next);
+            JournalFormat.putText(active, name);
+            JournalFormat.finish(active, start, crc);
+        }
+        if (symbolCount == symbols.length) symbols = Arrays.copyOf(symbols, symbolCount * 2);
+        symbols[symbolCount++] = symbol;
+        symbolIds.put(symbol, next);
+        return next;
+    }
+
+    // ✅ Con el lock. Espera a que el escritor vacíe el buffer si el registro no cabe.
+    private boolean reserve(int bodySize) {
+        int needed = JournalFormat.RECORD_HEADER + bodySize;
+        while (active.remaining() < needed) {
+            if (!running) {
+                dropped.increment();
+                return false;
+            }
+            flushRequested.signal();
+            try {
+                drained.await(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment();
+                return false;
+            }
+        }
+        // ✅ Más de 3/4 lleno: no esperar al intervalo
+        if (active.position() > active.capacity() - active.capacity() / 4) flushRequested.signal();
+        return true;
+    }
+
+    // ===================================
+    // ESCRITOR (group commit)
+    // ===================================
+
+    private void runWriter() {
+        while (true) {
+            lock.lock();
+            try {
+                if (active.position() == 0) {
+                    if (!running) break;
+                    flushRequested.awaitNanos(flushIntervalNanos);
+                    if (active.position() == 0) continue;
+                }
+                ByteBuffer full = active;
+                active = flushing;
+                flushing = full;
+                committing = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                lock.unlock();
+            }
+
+            commit(flushing);
+
+            lock.lock();
+            try {
+                committing = false;
+                drained.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        closeChannel();
+    }
+
+    private void commit(ByteBuffer batch) {
+        long start = System.nanoTime();
+        batch.flip();
+        int bytes = batch.remaining();
+        try {
+            if (segmentSize + bytes > segmentBytes && segmentSize > segmentPreamble) {
+                rotate();
+            }
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            if (fsync) channel.force(false);
+            segmentSize += bytes;
+            bytesWritten.increment(bytes);
+        } catch (IOException e) {
+            dropped.increment();
+            log.error("❌ Error escribiendo el diario de eventos: {}", e.getMessage());
+        } finally {
+            batch.clear();
+            commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void rotate() throws IOException {
+        closeChannel();
+        openNextSegment();
+        deleteExpiredSegments();
+    }
+
+    // ✅ Segmento nuevo con su cabecera y el diccionario de símbolos completo
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        Path path = directory.resolve(JournalFormat.segmentName(segmentNumber));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = JournalFormat.header(System.currentTimeMillis());
+        while (header.hasRemaining()) channel.write(header);
+        segmentSize = JournalFormat.HEADER_SIZE;
+        segmentPreamble = segmentSize;
+
+        String[] known;
+        lock.lock();
+        try {
+            known = Arrays.copyOf(symbols, symbolCount);
+        } finally {
+            lock.unlock();
+        }
+        if (known.length == 0) return;
+
+        ByteBuffer dictionary = ByteBuffer.allocate(known.length * (JournalFormat.RECORD_HEADER + JournalFormat.BODY_HEADER
+                + 2 + JournalFormat.MAX_TEXT)).order(ByteOrder.LITTLE_ENDIAN);
+        long now = System.currentTimeMillis();
+        for (short id = 0; id < known.length; id++) {
+            int start = JournalFormat.begin(dictionary, JournalFormat.SYMBOL, now, id);
+            JournalFormat.putText(dictionary, JournalFormat.text(known[id]));
+            JournalFormat.finish(dictionary, start, writerCrc);
+        }
+        dictionary.flip();
+        segmentSize += dictionary.remaining();
+        segmentPreamble = segmentSize;
+        while (dictionary.hasRemaining()) channel.write(dictionary);
+    }
+
+    private long lastSegmentNumber() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(p -> JournalFormat.segmentNumber(p.getFileName().toString())).max().orElse(0);
+        }
+    }
+
+    private void deleteExpiredSegments() {
+        if (retentionDays <= 0) return;
+        long cutoff = System.currentTimeMillis() - Duration.ofDays(retentionDays).toMillis();
+        List<Path> expired = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(p -> {
+                long n = JournalFormat.segmentNumber(p.getFileName().toString());
+                return n >= 0 && n != segmentNumber;
+            }).forEach(p -> {
+                try {
+                    if (Files.getLastModifiedTime(p).toMillis() < cutoff) expired.add(p);
+                } catch (IOException ignored) {
+                    // ✅ Se reintenta en la siguiente rotación
+                }
+            });
+            for (Path p : expired) Files.deleteIfExists(p);
+        } catch (IOException e) {
+            log.warn("⚠️ No se pudieron borrar segmentos antiguos del diario: {}", e.getMessage());
+        }
+        if (!expired.isEmpty()) log.info("🧹 Diario: eliminados {} segmentos fuera de retención", expired.size());
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            log.warn("⚠️ Error cerrando el segmento {} del diario: {}", segmentNumber, e.getMessage());
+        }
+    }
+
+    // ✅ Para tests y el CLI: espera a que todo lo registrado hasta ahora esté en disco
+    public void flush() {
+        if (!running) return;
+        lock.lock();
+        try {
+            while ((active.position() > 0 || committing) && running) {
+                flushRequested.signal();
+                drained.await(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!running) return;
+        flush();
+        // ✅ Sin interrupt(): interrumpir un hilo en mitad de una E/S de FileChannel cierra el canal
+        lock.lock();
+        try {
+            running = false;
+            flushRequested.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    static SignalEvaluatorService.Signal.Type signal(int ordinal) {
+        return SIGNALS[ordinal];
+    }
+}
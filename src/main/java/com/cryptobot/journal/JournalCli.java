@@ -0,0 +1,94 @@
+package com.cryptobot.journal;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.indicator.StudyGraph;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// ✅ Post-mortem desde la línea de comandos, sin arrancar Spring: estado de cada símbolo en un instante
+// y, opcionalmente, las alertas y entregas desde otro.
+//
+//   mvn -q compile exec:java -Dexec.mainClass=com.cryptobot.journal.JournalCli \
+//       -Dexec.args="--at=2026-10-01T12:00:00Z --from=2026-10-01T09:00:00Z --symbol=bitcoin"
+//
+// Opciones: --dir (journal.directory), --at y --from (ISO-8601 o epochMillis; --at por defecto ahora), --symbol.
+public final class JournalCli {
+
+    private JournalCli() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        Path dir = Paths.get(opts.getOrDefault("dir", new BotProperties().getJournal().getDirectory()));
+        long at = opts.containsKey("at") ? parseTime(opts.get("at")) : System.currentTimeMillis();
+        long from = opts.containsKey("from") ? parseTime(opts.get("from")) : Long.MAX_VALUE;
+        String only = opts.get("symbol");
+
+        JournalReplayer replayer = new JournalReplayer(from);
+        JournalReader.Stats stats = JournalReader.replay(dir, at, replayer);
+
+        double seconds = stats.elapsedNanos() / 1e9;
+        System.out.printf("📒 %d eventos (%.1f MB, %d segmentos) hasta %s en %.2f s (%.0f eventos/s)%n",
+                stats.records(), stats.bytes() / 1e6, stats.segments(), Instant.ofEpochMilli(at), seconds,
+                stats.records() / Math.max(seconds, 1e-9));
+        if (stats.corruptSegments() > 0) {
+            System.out.printf("🩹 %d segmentos con la cola cortada (se ignoró lo posterior)%n", stats.corruptSegments());
+        }
+        System.out.printf("🔧 Configuración v%d, %d arranques%n%n", replayer.configVersion(), replayer.restarts());
+
+        for (String line : replayer.trace()) {
+            if (only == null || line.contains(" " + only + " ") || line.contains(" " + only + ":")
+                    || line.contains("📨") || line.contains("🔧")) {
+                System.out.println(line);
+            }
+        }
+        if (!replayer.trace().isEmpty()) System.out.println();
+
+        replayer.symbols().forEach((id, s) -> {
+            if (only != null && !only.equals(id)) return;
+            System.out.printf("%s: precio %.2f (referencia %.2f), RSI %.2f%s, señal %s, %d velas, último tick %s%n",
+                    id, s.price(), s.referencePrice(), s.rsi(), s.rsiReady() ? "" : " (sin datos suficientes)",
+                    s.signal(), s.indicators().barCount(),
+                    s.indicators().barCount() > 0 ? Instant.ofEpochMilli(s.indicators().lastTimestamp()) : "-");
+            System.out.printf("   %d ticks, %d evaluaciones, alertas: %d enviadas, %d suprimidas, %d silenciadas, %d descartadas%n",
+                    s.ticks(), s.evaluations(), s.outcomes(EventJournal.Outcome.SENT),
+                    s.outcomes(EventJournal.Outcome.SUPPRESSED), s.outcomes(EventJournal.Outcome.MUTED),
+                    s.outcomes(EventJournal.Outcome.DROPPED));
+            StudyGraph studies = s.indicators().signalBars().studies();
+            if (!studies.keys().isEmpty()) {
+                System.out.println("   " + studies.keys().stream().sorted()
+                        .map(key -> String.format(Locale.ROOT, "%s=%.4f", key, studies.value(studies.slot(key))))
+                        .collect(Collectors.joining(", ")));
+            }
+            for (EventJournal.Alert kind : EventJournal.Alert.values()) {
+                if (s.lastFiredAt(kind) > 0) {
+                    System.out.printf("   último %s: %s (magnitud %.2f)%n", kind, Instant.ofEpochMilli(s.lastFiredAt(kind)),
+                            s.lastMagnitude(kind));
+                }
+            }
+            if (s.mismatches() > 0) {
+                System.out.printf("   ⚠️ %d evaluaciones no coinciden con los indicadores recalculados%n", s.mismatches());
+            }
+        });
+    }
+
+    private static long parseTime(String value) {
+        return value.chars().allMatch(Character::isDigit) ? Long.parseLong(value) : Instant.parse(value).toEpochMilli();
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) continue;
+            int eq = arg.indexOf('=');
+            if (eq < 0) opts.put(arg.substring(2), "true");
+            else opts.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return opts;
+    }
+}
@@ -0,0 +1,116 @@
+package com.cryptobot.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+// ✅ Formato binario del diario (little endian), compartido por EventJournal y JournalReader.
+//
+// Segmento: cabecera de 32 bytes (magic, versión, createdAtMillis) y registros seguidos:
+//   [int longitud del cuerpo][int CRC32C del cuerpo][cuerpo]
+//   cuerpo = [byte tipo][long atMillis (reloj de pared al registrar)][short símbolo][carga del tipo]
+// Los símbolos se escriben como índices; cada segmento empieza redefiniendo todos los conocidos (SYMBOL),
+// así que se puede leer sin los anteriores. Un registro con longitud imposible o CRC incorrecto marca el
+// final de los datos válidos del segmento (escritura cortada por un crash).
+final class JournalFormat {
+
+    static final int MAGIC = 0x43424A4C; // "CBJL"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_HEADER = 8;
+    static final int BODY_HEADER = 1 + 8 + 2;
+    static final int MAX_BODY = 64 * 1024;
+    static final int MAX_TEXT = 8 * 1024;
+    static final short NO_SYMBOL = -1;
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    // ✅ Tipos de registro
+    static final byte START = 1;
+    static final byte CONFIG = 2;
+    static final byte SYMBOL = 3;
+    static final byte TICK = 4;
+    static final byte EVALUATION = 5;
+    static final byte ALERT = 6;
+    static final byte DELIVERY = 7;
+    static final byte REBUILD = 8;
+
+    // ✅ Flags de EVALUATION
+    static final int FLAG_PERIODIC = 1;
+    static final int FLAG_MUTED = 2;
+    static final int FLAG_RSI_READY = 4;
+
+    // ✅ Fases de REBUILD
+    static final byte REBUILD_BEGIN = 0;
+    static final byte REBUILD_SWAP = 1;
+
+    private JournalFormat() {}
+
+    static ByteBuffer header(long createdAtMillis) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(createdAtMillis);
+        header.rewind();
+        return header;
+    }
+
+    static String segmentName(long number) {
+        return String.format("%s%010d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    }
+
+    // ✅ -1 si no es un nombre de segmento
+    static long segmentNumber(String fileName) {
+        if (!fileName.startsWith(SEGMENT_PREFIX) || !fileName.endsWith(SEGMENT_SUFFIX)) return -1;
+        try {
+            return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // ✅ Reserva la cabecera del registro y escribe la del cuerpo; devuelve la posición de inicio para finish()
+    static int begin(ByteBuffer buffer, byte type, long atMillis, short symbol) {
+        int start = buffer.position();
+        buffer.position(start + RECORD_HEADER);
+        buffer.put(type).putLong(atMillis).putShort(symbol);
+        return start;
+    }
+
+    static void finish(ByteBuffer buffer, int start, CRC32C crc) {
+        int end = buffer.position();
+        int bodyStart = start + RECORD_HEADER;
+        int limit = buffer.limit();
+        crc.reset();
+        buffer.position(bodyStart).limit(end);
+        crc.update(buffer);
+        buffer.limit(limit).position(end);
+        buffer.putInt(start, end - bodyStart);
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    static byte[] text(String value) {
+        if (value == null) return new byte[0];
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_TEXT) return bytes;
+        byte[] clipped = new byte[MAX_TEXT];
+        System.arraycopy(bytes, 0, clipped, 0, MAX_TEXT);
+        return clipped;
+    }
+
+    static void putText(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getText(ByteBuffer buffer, int position) {
+        int length = Short.toUnsignedInt(buffer.getShort(position));
+        byte[] bytes = new byte[length];
+        buffer.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int textSize(byte[] bytes) {
+        return 2 + bytes.length;
+    }
+}
@@ -0,0 +1,178 @@
+package com.cryptobot.journal;
+
+import com.cryptobot.service.SignalEvaluatorService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// ✅ Lectura secuencial del diario con bloques grandes (`BLOCK_SIZE`) y decodificación en el sitio:
+// el coste por evento es validar su CRC y leer unos pocos campos, sin crear objetos salvo en textos.
+// Se detiene en el primer evento posterior a `untilMillis`. Un registro corrupto al final de un segmento
+// (escritura cortada) termina ese segmento; la lectura sigue por el siguiente.
+public final class JournalReader {
+
+    static final int BLOCK_SIZE = 4 * 1024 * 1024;
+
+    private static final EventJournal.Origin[] ORIGINS = EventJournal.Origin.values();
+    private static final EventJournal.Alert[] ALERTS = EventJournal.Alert.values();
+    private static final EventJournal.Outcome[] OUTCOMES = EventJournal.Outcome.values();
+    private static final EventJournal.Delivery[] DELIVERIES = EventJournal.Delivery.values();
+
+    public record Stats(int segments, long records, long bytes, int corruptSegments, long lastAtMillis, long elapsedNanos) {}
+
+    private final ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C crc = new CRC32C();
+    private String[] symbols = new String[16];
+
+    private long records;
+    private long bytes;
+    private int segments;
+    private int corruptSegments;
+    private long lastAt = Long.MIN_VALUE;
+
+    public static Stats replay(Path directory, long untilMillis, JournalVisitor visitor) throws IOException {
+        return new JournalReader().read(directory, untilMillis, visitor);
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) return List.of();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> JournalFormat.segmentNumber(p.getFileName().toString()) >= 0)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Stats read(Path directory, long untilMillis, JournalVisitor visitor) throws IOException {
+        long start = System.nanoTime();
+        for (Path segment : segments(directory)) {
+            if (!readSegment(segment, untilMillis, visitor)) break;
+        }
+        return new Stats(segments, records, bytes, corruptSegments, lastAt, System.nanoTime() - start);
+    }
+
+    // ✅ false si se ha alcanzado `untilMillis` (no hace falta mirar más segmentos)
+    private boolean readSegment(Path path, long untilMillis, JournalVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            block.clear();
+            int read;
+            do {
+                read = channel.read(block);
+            } while (read >= 0 && block.hasRemaining());
+            block.flip();
+            if (block.remaining() < JournalFormat.HEADER_SIZE
+                    || block.getInt(0) != JournalFormat.MAGIC || block.getInt(4) != JournalFormat.VERSION) {
+                corruptSegments++;
+                return true;
+            }
+            if (block.getLong(8) > untilMillis) return false;
+            segments++;
+            block.position(JournalFormat.HEADER_SIZE);
+
+            while (true) {
+                int result = drain(untilMillis, visitor);
+                if (result < 0) return false;
+                if (result > 0) {
+                    corruptSegments++;
+                    return true;
+                }
+                // ✅ Lo que queda es un registro incompleto: moverlo al principio y leer más
+                block.compact();
+                read = channel.read(block);
+                block.flip();
+                if (read < 0) {
+                    if (block.hasRemaining()) corruptSegments++;
+                    return true;
+                }
+            }
+        }
+    }
+
+    // ✅ Procesa los registros completos del bloque: 0 = necesita más datos, 1 = registro corrupto, -1 = fin por tiempo
+    private int drain(long untilMillis, JournalVisitor visitor) {
+        ByteBuffer b = block;
+        while (b.remaining() >= JournalFormat.RECORD_HEADER) {
+            int pos = b.position();
+            int length = b.getInt(pos);
+            if (length < JournalFormat.BODY_HEADER || length > JournalFormat.MAX_BODY) return 1;
+            if (b.remaining() < JournalFormat.RECORD_HEADER + length) {
+                // ✅ Un registro nunca es mayor que el bloque: si no cabe entero es que falta por leer
+                return 0;
+            }
+            int body = pos + JournalFormat.RECORD_HEADER;
+            int limit = b.limit();
+            crc.reset();
+            b.position(body).limit(body + length);
+            crc.update(b);
+            b.limit(limit).position(pos);
+            if ((int) crc.getValue() != b.getInt(pos + 4)) return 1;
+
+            long at = b.getLong(body + 1);
+            if (at > untilMillis) return -1;
+            dispatch(b, b.get(body), at, b.getShort(body + 9), body + JournalFormat.BODY_HEADER, body + length, visitor);
+            lastAt = at;
+            records++;
+            bytes += JournalFormat.RECORD_HEADER + length;
+            b.position(body + length);
+        }
+        return 0;
+    }
+
+    private void dispatch(ByteBuffer b, byte type, long at, short symbolId, int p, int end, JournalVisitor visitor) {
+        switch (type) {
+            case JournalFormat.START -> visitor.onStart(at);
+            case JournalFormat.SYMBOL -> {
+                if (symbolId >= symbols.length) symbols = Arrays.copyOf(symbols, Math.max(symbols.length * 2, symbolId + 1));
+                symbols[symbolId] = JournalFormat.getText(b, p);
+            }
+            case JournalFormat.CONFIG -> {
+                int framesAt = p + 36 + 2 + Short.toUnsignedInt(b.getShort(p + 36));
+                int studiesAt = framesAt + 2 + Short.toUnsignedInt(b.getShort(framesAt));
+                String signal = JournalFormat.getText(b, p + 36);
+                String frames = JournalFormat.getText(b, framesAt);
+                // ✅ Los CONFIG anteriores a los indicadores de StudyGraph no llevan la lista
+                String studies = studiesAt < end ? JournalFormat.getText(b, studiesAt) : null;
+                visitor.onConfig(at, b.getLong(p), b.getInt(p + 8), b.getInt(p + 12), b.getInt(p + 16),
+                        b.getInt(p + 20), b.getInt(p + 24), b.getDouble(p + 28), signal,
+                        frames.isEmpty() ? List.of() : List.of(frames.split(",")),
+                        studies == null ? null : studies.isEmpty() ? List.of() : List.of(studies.split(";")));
+            }
+            case JournalFormat.TICK -> visitor.onTick(at, symbol(symbolId), b.getLong(p), b.getDouble(p + 8),
+                    b.getDouble(p + 16), ORIGINS[b.get(p + 24)]);
+            case JournalFormat.EVALUATION -> {
+                int flags = b.get(p + 41);
+                visitor.onEvaluation(at, symbol(symbolId), b.getDouble(p), b.getDouble(p + 8), b.getDouble(p + 16),
+                        (flags & JournalFormat.FLAG_RSI_READY) != 0, signal(b.get(p + 40)), b.getDouble(p + 24),
+                        b.getLong(p + 32), (flags & JournalFormat.FLAG_PERIODIC) != 0, (flags & JournalFormat.FLAG_MUTED) != 0);
+            }
+            case JournalFormat.ALERT -> visitor.onAlert(at, symbol(symbolId), ALERTS[b.get(p)], b.getInt(p + 1),
+                    OUTCOMES[b.get(p + 5)], b.getDouble(p + 6), b.getLong(p + 14), JournalFormat.getText(b, p + 22));
+            case JournalFormat.DELIVERY -> visitor.onDelivery(at, DELIVERIES[b.get(p)], b.getLong(p + 1), b.getLong(p + 9),
+                    b.getInt(p + 17), b.getInt(p + 21), b.getLong(p + 25));
+            case JournalFormat.REBUILD -> {
+                if (b.get(p) == JournalFormat.REBUILD_BEGIN) visitor.onRebuildBegin(at, symbol(symbolId));
+                else visitor.onRebuildSwap(at, symbol(symbolId));
+            }
+            default -> {
+                // ✅ Tipo desconocido (versión posterior del formato): se salta
+            }
+        }
+    }
+
+    private String symbol(short id) {
+        return id >= 0 && id < symbols.length && symbols[id] != null ? symbols[id] : "#" + id;
+    }
+
+    private static SignalEvaluatorService.Signal.Type signal(int ordinal) {
+        return EventJournal.signal(ordinal);
+    }
+}
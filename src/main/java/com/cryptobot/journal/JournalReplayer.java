@@ -0,0 +1,213 @@
+package com.cryptobot.journal;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.config.ConfigSnapshot;
+import com.cryptobot.indicator.IndicatorState;
+import com.cryptobot.indicator.Timeframe;
+import com.cryptobot.service.SignalEvaluatorService;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// ✅ Reconstruye el estado de BitcoinPriceService a partir del diario: los indicadores se recalculan con los
+// mismos ticks y la misma configuración (mismo resultado que en vivo), y lastPrice / lastRsi / lastSignalType y
+// el último aviso de cada tipo salen de las evaluaciones y alertas registradas. Cada evaluación se contrasta con
+// los indicadores recalculados: una discrepancia indica un tick que no llegó al diario.
+//
+// Un START (reinicio del proceso) vacía el estado, como ocurrió en vivo; el arranque en caliente llega
+// después como ticks WARM_START.
+public final class JournalReplayer implements JournalVisitor {
+
+    private static final double RSI_TOLERANCE = 1e-9;
+
+    // ✅ Estado reconstruido de un símbolo
+    public static final class Symbol {
+        private IndicatorState indicators;
+        private IndicatorState rebuilding;
+        private double price;
+        private double referencePrice = 0.0;
+        private double rsi = 50.0;
+        private boolean rsiReady;
+        private SignalEvaluatorService.Signal.Type signal = SignalEvaluatorService.Signal.Type.HOLD;
+        private double changePct = Double.NaN;
+        private long evaluatedAtMillis;
+        private long ticks;
+        private long evaluations;
+        private long mismatches;
+        private final long[] outcomes = new long[EventJournal.Outcome.values().length];
+        private final long[] lastFiredAt = new long[EventJournal.Alert.values().length];
+        private final double[] lastMagnitude = new double[EventJournal.Alert.values().length];
+
+        Symbol(IndicatorState indicators) {
+            this.indicators = indicators;
+        }
+
+        public IndicatorState indicators() { return indicators; }
+        public double price() { return price; }
+        public double referencePrice() { return referencePrice; }
+        public double rsi() { return rsi; }
+        public boolean rsiReady() { return rsiReady; }
+        public SignalEvaluatorService.Signal.Type signal() { return signal; }
+        public double changePct() { return changePct; }
+        public long evaluatedAtMillis() { return evaluatedAtMillis; }
+        public long ticks() { return ticks; }
+        public long evaluations() { return evaluations; }
+        public long mismatches() { return mismatches; }
+        public long outcomes(EventJournal.Outcome outcome) { return outcomes[outcome.ordinal()]; }
+        // ✅ 0 si ese tipo no ha avisado desde el último arranque (estado de AlertSuppressor)
+        public long lastFiredAt(EventJournal.Alert kind) { return lastFiredAt[kind.ordinal()]; }
+        public double lastMagnitude(EventJournal.Alert kind) { return lastMagnitude[kind.ordinal()]; }
+    }
+
+    private final Map<String, Symbol> symbols = new LinkedHashMap<>();
+    private final long traceFromMillis;
+    private final List<String> trace = new ArrayList<>();
+
+    private long configVersion;
+    private int rsiPeriod;
+    private int minDataPoints;
+    private int historySize;
+    private Timeframe signalTimeframe;
+    private List<Timeframe> timeframes;
+    private List<String> studies;
+    private int restarts;
+
+    public JournalReplayer() {
+        this(Long.MAX_VALUE);
+    }
+
+    // ✅ Las alertas, entregas, recargas y reinicios desde `traceFromMillis` se guardan como texto (ver trace())
+    public JournalReplayer(long traceFromMillis) {
+        this.traceFromMillis = traceFromMillis;
+        applyConfig(ConfigSnapshot.from(0, new BotProperties()));
+    }
+
+    public Map<String, Symbol> symbols() { return symbols; }
+    public Symbol symbol(String id) { return symbols.get(id); }
+    public List<String> trace() { return trace; }
+    public long configVersion() { return configVersion; }
+    public int restarts() { return restarts; }
+
+    @Override
+    public void onStart(long at) {
+        symbols.clear();
+        restarts++;
+        trace(at, "🚀 Arranque");
+    }
+
+    @Override
+    public void onConfig(long at, long version, int rsiPeriod, int minDataPoints, int historySize,
+                         int overboughtLevel, int oversoldLevel, double priceChangeThreshold,
+                         String signalTimeframe, List<String> timeframes, List<String> studies) {
+        this.configVersion = version;
+        this.rsiPeriod = rsiPeriod;
+        this.minDataPoints = minDataPoints;
+        this.historySize = historySize;
+        this.signalTimeframe = Timeframe.parse(signalTimeframe);
+        this.timeframes = timeframes.stream().map(Timeframe::parse).toList();
+        // ✅ null: diario anterior a indicator.studies, se mantienen los de la configuración por defecto
+        if (studies != null) this.studies = studies;
+        trace(at, String.format(Locale.ROOT, "🔧 Configuración v%d: RSI %d en %s %s, niveles %d/%d, umbral %.2f%%",
+                version, rsiPeriod, signalTimeframe, timeframes, oversoldLevel, overboughtLevel, priceChangeThreshold));
+    }
+
+    private void applyConfig(ConfigSnapshot c) {
+        configVersion = c.version();
+        rsiPeriod = c.rsiPeriod();
+        minDataPoints = c.rsiMinDataPoints();
+        historySize = c.historySize();
+        signalTimeframe = c.signalTimeframe();
+        timeframes = c.timeframes();
+        studies = c.studies();
+    }
+
+    @Override
+    public void onTick(long at, String symbol, long epochMillis, double price, double volume, EventJournal.Origin origin) {
+        Symbol s = state(symbol);
+        if (origin == EventJournal.Origin.REBUILD) {
+            if (s.rebuilding != null) s.rebuilding.onTick(epochMillis, price, volume);
+            return;
+        }
+        s.indicators.onTick(epochMillis, price, volume);
+        s.ticks++;
+    }
+
+    @Override
+    public void onEvaluation(long at, String symbol, double price, double referencePrice, double rsi, boolean rsiReady,
+                             SignalEvaluatorService.Signal.Type signal, double changePct, long barCount,
+                             boolean periodic, boolean muted) {
+        Symbol s = state(symbol);
+        double replayed = s.indicators.rsi();
+        if (Double.isNaN(replayed)) replayed = 50.0;
+        if (Math.abs(replayed - rsi) > RSI_TOLERANCE || s.indicators.lastPrice() != price) {
+            s.mismatches++;
+        }
+        s.price = price;
+        s.referencePrice = referencePrice;
+        s.rsi = rsi;
+        s.rsiReady = rsiReady;
+        s.signal = signal;
+        s.changePct = changePct;
+        s.evaluatedAtMillis = at;
+        s.evaluations++;
+    }
+
+    @Override
+    public void onAlert(long at, String symbol, EventJournal.Alert kind, int rule, EventJournal.Outcome outcome,
+                        double magnitude, long notification, String message) {
+        Symbol s = state(symbol);
+        s.outcomes[outcome.ordinal()]++;
+        // ✅ Todo lo que no es SUPPRESSED pasó por AlertSuppressor (también lo silenciado o descartado en la cola)
+        if (outcome != EventJournal.Outcome.SUPPRESSED) {
+            s.lastFiredAt[kind.ordinal()] = at;
+            s.lastMagnitude[kind.ordinal()] = magnitude;
+        }
+        String what = kind == EventJournal.Alert.RULE ? "RULE#" + rule : kind.name();
+        String text = message.isEmpty() ? "" : " \"" + message.replace('\n', ' ') + "\"";
+        trace(at, String.format(Locale.ROOT, "🔔 %s %s %s%s%s", symbol, what, outcome,
+                notification >= 0 ? " msg#" + notification : "", text));
+    }
+
+    @Override
+    public void onDelivery(long at, EventJournal.Delivery kind, long firstId, long lastId, int attempt, int status,
+                           long latencyMillis) {
+        String ids = firstId == lastId ? "msg#" + firstId : "msg#" + firstId + "-" + lastId;
+        trace(at, String.format(Locale.ROOT, "📨 %s %s intento %d, HTTP %d, %d ms", ids, kind, attempt, status, latencyMillis));
+    }
+
+    @Override
+    public void onRebuildBegin(long at, String symbol) {
+        state(symbol).rebuilding = newState();
+        trace(at, "🔁 " + symbol + ": reconstrucción iniciada");
+    }
+
+    @Override
+    public void onRebuildSwap(long at, String symbol) {
+        Symbol s = state(symbol);
+        if (s.rebuilding == null) return;
+        s.indicators = s.rebuilding;
+        s.rebuilding = null;
+        trace(at, "🔁 " + symbol + ": indicadores sustituidos");
+    }
+
+    private Symbol state(String symbol) {
+        Symbol s = symbols.get(symbol);
+        if (s == null) {
+            s = new Symbol(newState());
+            symbols.put(symbol, s);
+        }
+        return s;
+    }
+
+    private IndicatorState newState() {
+        return new IndicatorState(rsiPeriod, historySize, minDataPoints, signalTimeframe, timeframes, studies);
+    }
+
+    private void trace(long at, String line) {
+        if (at >= traceFromMillis) trace.add(Instant.ofEpochMilli(at) + " " + line);
+    }
+}
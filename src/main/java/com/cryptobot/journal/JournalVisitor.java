@@ -0,0 +1,32 @@
+package com.cryptobot.journal;
+
+import com.cryptobot.service.SignalEvaluatorService;
+
+import java.util.List;
+
+// ✅ Recibe los eventos del diario en orden, como primitivos (sin un objeto por evento).
+// `at` es el reloj de pared en el momento de registrarlo; `symbol` ya viene resuelto a su id.
+public interface JournalVisitor {
+
+    default void onStart(long at) {}
+
+    default void onConfig(long at, long version, int rsiPeriod, int minDataPoints, int historySize,
+                          int overboughtLevel, int oversoldLevel, double priceChangeThreshold,
+                          String signalTimeframe, List<String> timeframes, List<String> studies) {}
+
+    default void onTick(long at, String symbol, long epochMillis, double price, double volume, EventJournal.Origin origin) {}
+
+    default void onEvaluation(long at, String symbol, double price, double referencePrice, double rsi, boolean rsiReady,
+                              SignalEvaluatorService.Signal.Type signal, double changePct, long barCount,
+                              boolean periodic, boolean muted) {}
+
+    default void onAlert(long at, String symbol, EventJournal.Alert kind, int rule, EventJournal.Outcome outcome,
+                         double magnitude, long notification, String message) {}
+
+    default void onDelivery(long at, EventJournal.Delivery kind, long firstId, long lastId, int attempt, int status,
+                            long latencyMillis) {}
+
+    default void onRebuildBegin(long at, String symbol) {}
+
+    default void onRebuildSwap(long at, String symbol) {}
+}
@@ -0,0 +1,83 @@
+package com.cryptobot.model;
+
+import java.time.Instant;
+
+// ✅ Serie de market_chart en columnas primitivas (sin un objeto por punto).
+// Los arrays pertenecen a esta instancia y no se exponen: desde fuera es de sólo lectura.
+// market_caps y total_volumes van alineados por índice con prices (CoinGecko los devuelve así);
+// si alguno viene más corto, los índices que faltan devuelven NaN.
+public final class MarketChart {
+
+    public static final MarketChart EMPTY = new MarketChart(new long[0], new double[0], new double[0], new double[0], 0, 0, 0);
+
+    private final long[] times;
+    private final double[] prices;
+    private final double[] marketCaps;
+    private final double[] volumes;
+    private final int size;
+    private final int marketCapCount;
+    private final int volumeCount;
+
+    public MarketChart(long[] times, double[] prices, double[] marketCaps, double[] volumes,
+                       int size, int marketCapCount, int volumeCount) {
+        this.times = times;
+        this.prices = prices;
+        this.marketCaps = marketCaps;
+        this.volumes = volumes;
+        this.size = size;
+        this.marketCapCount = marketCapCount;
+        this.volumeCount = volumeCount;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public long time(int i) { return times[check(i)]; }
+    public double price(int i) { return prices[check(i)]; }
+    public double marketCap(int i) { return check(i) < marketCapCount ? marketCaps[i] : Double.NaN; }
+    public double volume(int i) { return check(i) < volumeCount ? volumes[i] : Double.NaN; }
+
+    public long lastTime() { return time(size - 1); }
+    public double lastPrice() { return price(size - 1); }
+
+    // ✅ Aplica una serie más reciente (p.ej. de market_chart/range) sobre ésta. El delta manda en el tramo
+    // que cubre: los puntos propios desde su primer timestamp se sustituyen (revisiones tardías incluidas),
+    // se eliminan duplicados y timestamps fuera de orden, y se descarta lo anterior a `keepSinceMillis`.
+    public MarketChart merge(MarketChart delta, long keepSinceMillis) {
+        long boundary = delta.isEmpty() ? Long.MAX_VALUE : delta.times[0];
+        int capacity = size + delta.size;
+        long[] t = new long[capacity];
+        double[] p = new double[capacity];
+        double[] caps = new double[capacity];
+        double[] vols = new double[capacity];
+
+        int n = 0;
+        long last = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            long ts = times[i];
+            if (ts < keepSinceMillis || ts >= boundary || ts <= last) continue;
+            t[n] = ts; p[n] = prices[i]; caps[n] = marketCap(i); vols[n] = volume(i);
+            last = ts;
+            n++;
+        }
+        for (int i = 0; i < delta.size; i++) {
+            long ts = delta.times[i];
+            if (ts < keepSinceMillis || ts <= last) continue;
+            t[n] = ts; p[n] = delta.prices[i]; caps[n] = delta.marketCap(i); vols[n] = delta.volume(i);
+            last = ts;
+            n++;
+        }
+        return new MarketChart(t, p, caps, vols, n, n, n);
+    }
+
+    public PricePoint point(int i) {
+        return new PricePoint(Instant.ofEpochMilli(time(i)), price(i));
+    }
+
+    private int check(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Índice " + i + " fuera de rango (size=" + size + ")");
+        }
+        return i;
+    }
+}
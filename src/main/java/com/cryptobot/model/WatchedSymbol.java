@@ -0,0 +1,29 @@
+package com.cryptobot.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// ✅ Símbolo vigilado: id de CoinGecko (p.ej. "bitcoin") y etiqueta corta para mensajes (p.ej. "BTC")
+public record WatchedSymbol(String id, String label) {
+
+    // ✅ Formato "id:LABEL" o sólo "id" (la etiqueta será el id en mayúsculas)
+    public static WatchedSymbol parse(String entry) {
+        String trimmed = entry.trim();
+        int sep = trimmed.indexOf(':');
+        if (sep < 0) {
+            return new WatchedSymbol(trimmed, trimmed.toUpperCase(Locale.ROOT));
+        }
+        return new WatchedSymbol(trimmed.substring(0, sep).trim(), trimmed.substring(sep + 1).trim());
+    }
+
+    public static List<WatchedSymbol> parseAll(List<String> entries) {
+        List<WatchedSymbol> symbols = new ArrayList<>(entries.size());
+        for (String entry : entries) {
+            if (entry != null && !entry.isBlank()) {
+                symbols.add(parse(entry));
+            }
+        }
+        return List.copyOf(symbols);
+    }
+}
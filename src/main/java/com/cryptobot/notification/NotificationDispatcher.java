@@ -0,0 +1,202 @@
+package com.cryptobot.notification;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.execution.Threads;
+import com.cryptobot.journal.EventJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ✅ Cola acotada de notificaciones con un único consumidor dedicado.
+// submit() nunca bloquea el hilo de evaluación (salvo con la política BLOCK y su timeout).
+// Los mensajes que llegan durante el cooldown de WhatsApp se agrupan en un solo envío.
+// Cada mensaje recibe un id creciente con el que el diario de eventos enlaza alertas, descartes y entregas.
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    public enum OverflowPolicy { DROP_NEWEST, DROP_OLDEST, BLOCK }
+
+    private record Pending(long id, String message, long enqueuedNanos) {}
+
+    private final WhatsAppNotifier notifier;
+    private final BotProperties config;
+    private final BlockingQueue<Pending> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final Thread worker;
+    private final EventJournal journal;
+    private final AtomicLong nextId = new AtomicLong();
+
+    private final Timer deliveryLatency;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter dropped;
+    private final Counter merged;
+
+    private volatile boolean running = true;
+    private long lastSentNanos;
+    private boolean sentOnce = false;
+
+    public NotificationDispatcher(WhatsAppNotifier notifier, BotProperties config, EventJournal journal, MeterRegistry registry) {
+        this.notifier = notifier;
+        this.config = config;
+        this.journal = journal;
+
+        BotProperties.WhatsApp.Dispatcher cfg = config.getWhatsapp().getDispatcher();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, cfg.getQueueCapacity()));
+        this.overflowPolicy = OverflowPolicy.valueOf(cfg.getOverflowPolicy().trim().toUpperCase(Locale.ROOT));
+
+        // ✅ Métricas de la cola
+        Gauge.builder("notification_queue_depth", queue, BlockingQueue::size)
+                .description("Mensajes pendientes en la cola de notificaciones")
+                .register(registry);
+        this.deliveryLatency = Timer.builder("notification_delivery_latency")
+                .description("Tiempo desde que se encola un mensaje hasta que se entrega a WhatsApp")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.delivered = Counter.builder("notification_delivered_total").register(registry);
+        this.failed = Counter.builder("notification_failed_total").register(registry);
+        this.dropped = Counter.builder("notification_dropped_total").register(registry);
+        this.merged = Counter.builder("notification_merged_total")
+                .description("Mensajes agrupados en un envío previo durante el cooldown")
+                .register(registry);
+
+        // ✅ Los reintentos de WhatsAppNotifier duermen en este hilo: con hilos virtuales no ocupan uno de plataforma
+        this.worker = Threads.start("whatsapp-dispatcher", Threads.virtual(config), this::runLoop);
+    }
+
+    // ✅ Devuelve false si el mensaje se ha descartado por la política de desbordamiento
+    public boolean submit(String message) {
+        return enqueue(message) >= 0;
+    }
+
+    // ✅ Id del mensaje encolado, o -1 si se ha descartado
+    public long enqueue(String message) {
+        Pending pending = new Pending(nextId.incrementAndGet(), message, System.nanoTime());
+
+        switch (overflowPolicy) {
+            case DROP_NEWEST -> {
+                if (queue.offer(pending)) return pending.id();
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(pending)) {
+                    Pending oldest = queue.poll();
+                    if (oldest != null) {
+                        dropped.increment();
+                        journal.delivery(EventJournal.Delivery.DROPPED, oldest.id(), oldest.id(), 0, -1, 0);
+                        log.warn("⚠️ Cola de notificaciones llena, descartado el mensaje más antiguo");
+                    }
+                }
+                return pending.id();
+            }
+            case BLOCK -> {
+                try {
+                    long timeoutMs = config.getWhatsapp().getDispatcher().getBlockTimeoutMs();
+                    if (queue.offer(pending, timeoutMs, TimeUnit.MILLISECONDS)) return pending.id();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        dropped.increment();
+        journal.delivery(EventJournal.Delivery.DROPPED, pending.id(), pending.id(), 0, -1, 0);
+        log.warn("⚠️ Cola de notificaciones llena, mensaje descartado");
+        return -1;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void runLoop() {
+        List<Pending> batch = new ArrayList<>();
+        while (running) {
+            try {
+                batch.add(queue.take());
+                collectDuringCooldown(batch);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                if (!running) break;
+            } catch (Exception e) {
+                log.error("❌ Error en el dispatcher de notificaciones: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // ✅ Mientras dura el cooldown se siguen recogiendo mensajes para enviarlos juntos
+    private void collectDuringCooldown(List<Pending> batch) throws InterruptedException {
+        int maxBatch = Math.max(1, config.getWhatsapp().getDispatcher().getMaxBatchSize());
+        long cooldownNanos = TimeUnit.MILLISECONDS.toNanos(config.getWhatsapp().getRateLimit().getCooldownMs());
+        long readyAt = sentOnce ? lastSentNanos + cooldownNanos : System.nanoTime();
+
+        while (batch.size() < maxBatch) {
+            long remaining = readyAt - System.nanoTime();
+            Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) break;
+            batch.add(next);
+        }
+
+        long remaining = readyAt - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    private void deliver(List<Pending> batch) {
+        String payload = merge(batch);
+        long firstId = batch.get(0).id();
+        long lastId = batch.get(batch.size() - 1).id();
+        boolean ok = notifier.deliver(payload, firstId, lastId);
+        long doneNanos = System.nanoTime();
+        journal.delivery(ok ? EventJournal.Delivery.DELIVERED : EventJournal.Delivery.FAILED, firstId, lastId, 0, -1,
+                TimeUnit.NANOSECONDS.toMillis(doneNanos - batch.get(0).enqueuedNanos()));
+
+        // ✅ Sólo un envío que llega a WhatsApp abre el cooldown y cuenta en la latencia; los fallos van aparte
+        if (ok) {
+            lastSentNanos = doneNanos;
+            sentOnce = true;
+            delivered.increment();
+            if (batch.size() > 1) merged.increment(batch.size() - 1);
+            for (Pending p : batch) {
+                deliveryLatency.record(doneNanos - p.enqueuedNanos(), TimeUnit.NANOSECONDS);
+            }
+        } else {
+            failed.increment(batch.size());
+        }
+    }
+
+    private String merge(List<Pending> batch) {
+        if (batch.size() == 1) return batch.get(0).message();
+
+        String separator = config.getWhatsapp().getDispatcher().getSeparator();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) sb.append(separator);
+            sb.append(batch.get(i).message());
+        }
+        return sb.toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        worker.interrupt();
+    }
+}
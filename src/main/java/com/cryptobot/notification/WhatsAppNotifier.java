@@ -1,71 +1,76 @@
 package com.cryptobot.notification;
 
 import com.cryptobot.config.BotProperties;
-import org.springframework.http.*;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import com.cryptobot.http.OutboundHttp;
+import com.cryptobot.journal.EventJournal;
+import com.cryptobot.service.PipelineMetrics;
+import com.cryptobot.service.PipelineMetrics.Event;
+import com.cryptobot.service.PipelineMetrics.Stage;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.RestClientResponseException;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 public class WhatsAppNotifier {
 
-    private final RestTemplate restTemplate;
+    private static final Logger log = LoggerFactory.getLogger(WhatsAppNotifier.class);
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final OutboundHttp http;
     private final BotProperties config;
+    private final PipelineMetrics metrics;
+    private final EventJournal journal;
 
     // ✅ Control de rate limiting
-    private Instant lastMessageSent = null;
     private final AtomicInteger messagesThisHour = new AtomicInteger(0);
     private Instant hourStartTime = Instant.now();
 
-    public WhatsAppNotifier(BotProperties config) {
+    public WhatsAppNotifier(BotProperties config, PipelineMetrics metrics, EventJournal journal, OutboundHttp http) {
         this.config = config;
-        
-        // ✅ Configurar RestTemplate con timeout desde properties
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        int timeoutMs = config.getWhatsapp().getHttp().getTimeoutMs();
-        factory.setConnectTimeout(timeoutMs);
-        factory.setReadTimeout(timeoutMs);
-        
-        this.restTemplate = new RestTemplate(factory);
+        this.metrics = metrics;
+        this.journal = journal;
+        // ✅ Cliente HTTP compartido (conexión keep-alive con la API); el timeout de properties es el plazo por intento
+        this.http = http;
     }
 
-    public void sendMessage(String message) {
+    // ✅ Envío efectivo (bloqueante, con reintentos). Sólo lo invoca el NotificationDispatcher,
+    // que es quien aplica el cooldown entre mensajes y agrupa los pendientes.
+    // Los envíos agrupan mensajes de varios símbolos, así que su latencia se etiqueta como "all".
+    // [firstId, lastId] son los ids de la cola que agrupa el envío (para el diario de eventos).
+    public boolean deliver(String message, long firstId, long lastId) {
+        long start = metrics.start();
         try {
             // ✅ Verificar rate limiting
             if (!checkRateLimit()) {
-                System.out.println("⚠️ Rate limit alcanzado, mensaje no enviado");
-                return;
-            }
-
-            // ✅ Cooldown entre mensajes
-            if (lastMessageSent != null) {
-                long cooldownMs = config.getWhatsapp().getRateLimit().getCooldownMs();
-                long timeSinceLastMs = Duration.between(lastMessageSent, Instant.now()).toMillis();
-                
-                if (timeSinceLastMs < cooldownMs) {
-                    long waitMs = cooldownMs - timeSinceLastMs;
-                    System.out.println("⏳ Cooldown activo, esperando " + (waitMs / 1000) + "s");
-                    Thread.sleep(waitMs);
-                }
+                journal.delivery(EventJournal.Delivery.RATE_LIMITED, firstId, lastId, 0, -1, 0);
+                log.warn("⚠️ Rate limit alcanzado, mensaje no enviado");
+                return false;
             }
 
             // ✅ Intentar enviar con reintentos
-            boolean sent = sendWithRetry(message);
-            
+            boolean sent = sendWithRetry(message, firstId, lastId);
+
             if (sent) {
-                lastMessageSent = Instant.now();
                 messagesThisHour.incrementAndGet();
-                System.out.println("✅ Mensaje WhatsApp enviado correctamente");
+                log.info("✅ Mensaje WhatsApp enviado correctamente");
             }
+            return sent;
 
         } catch (Exception e) {
-            System.err.println("❌ Error enviando mensaje WhatsApp: " + e.getMessage());
+            log.error("❌ Error enviando mensaje WhatsApp: {}", e.getMessage());
+            return false;
+        } finally {
+            metrics.record(Stage.DELIVERY, PipelineMetrics.ALL, start);
         }
     }
 
@@ -81,66 +86,82 @@ public class WhatsAppNotifier {
         return messagesThisHour.get() < maxPerHour;
     }
 
-    private boolean sendWithRetry(String message) {
+    private boolean sendWithRetry(String message, long firstId, long lastId) {
         int maxAttempts = config.getWhatsapp().getRetry().getMaxAttempts();
         int initialDelay = config.getWhatsapp().getRetry().getInitialDelayMs();
         int maxDelay = config.getWhatsapp().getRetry().getMaxDelayMs();
 
         for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            long attemptStart = System.currentTimeMillis();
             try {
                 // ✅ Construir URL desde config
-                String url = String.format("%s/%s/messages/chat",
+                URI url = URI.create(String.format("%s/%s/messages/chat",
                         config.getWhatsapp().getApi().getUrl(),
-                        config.getWhatsapp().getInstance().getId());
-
-                // ✅ Preparar headers
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_JSON);
-
-                // ✅ Preparar body
-                Map<String, String> body = new HashMap<>();
-                body.put("token", config.getWhatsapp().getApi().getToken());
-                body.put("to", config.getWhatsapp().getRecipient().getPhone());
-                body.put("body", message);
-
-                HttpEntity<Map<String, String>> request = new HttpEntity<>(body, headers);
-
-                // ✅ Enviar request
-                ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
-
-                if (response.getStatusCode().is2xxSuccessful()) {
+                        config.getWhatsapp().getInstance().getId()));
+
+                // ✅ Enviar request (los 4xx/5xx llegan como RestClientResponseException)
+                int status = http.postJson(url, body(message),
+                        Duration.ofMillis(config.getWhatsapp().getHttp().getTimeoutMs()),
+                        (code, response) -> code);
+
+                boolean ok = status >= 200 && status < 300;
+                journal.delivery(ok ? EventJournal.Delivery.ATTEMPT_OK : EventJournal.Delivery.ATTEMPT_FAILED,
+                        firstId, lastId, attempt + 1, status,
+                        System.currentTimeMillis() - attemptStart);
+                if (ok) {
                     return true;
                 }
 
-                System.err.println("⚠️ WhatsApp API respuesta no exitosa: " + response.getStatusCode());
+                log.warn("⚠️ WhatsApp API respuesta no exitosa: {}", status);
 
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
             } catch (Exception e) {
-                System.err.println("⚠️ Intento " + (attempt + 1) + "/" + maxAttempts + " falló: " + e.getMessage());
+                int status = e instanceof RestClientResponseException r ? r.getStatusCode().value() : -1;
+                journal.delivery(EventJournal.Delivery.ATTEMPT_FAILED, firstId, lastId, attempt + 1, status,
+                        System.currentTimeMillis() - attemptStart);
+                log.warn("⚠️ Intento {}/{} falló: {}", attempt + 1, maxAttempts, e.getMessage());
 
                 // ✅ Detectar errores específicos
                 if (e.getMessage() != null) {
                     if (e.getMessage().contains("429")) {
-                        System.err.println("⚠️ WhatsApp rate limit detectado");
+                        log.warn("⚠️ WhatsApp rate limit detectado");
                     } else if (e.getMessage().contains("502") || e.getMessage().contains("Bad Gateway")) {
-                        System.err.println("⚠️ WhatsApp API 502 (Bad Gateway)");
+                        log.warn("⚠️ WhatsApp API 502 (Bad Gateway)");
                     }
                 }
+            }
 
-                // ✅ Backoff exponencial
-                if (attempt < maxAttempts - 1) {
-                    try {
-                        long delay = Math.min(initialDelay * (long) Math.pow(2, attempt), maxDelay);
-                        System.out.println("⏳ Reintentando en " + (delay / 1000) + " segundos...");
-                        Thread.sleep(delay);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        return false;
-                    }
+            // ✅ Backoff exponencial, igual tras una excepción que tras una respuesta no 2xx
+            if (attempt < maxAttempts - 1) {
+                try {
+                    long delay = Math.min(initialDelay * (long) Math.pow(2, attempt), maxDelay);
+                    metrics.count(Event.NOTIFICATION_RETRY, PipelineMetrics.ALL);
+                    log.info("⏳ Reintentando en {} segundos...", delay / 1000);
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return false;
                 }
             }
         }
 
-        System.err.println("❌ Todos los intentos de envío WhatsApp fallaron");
+        metrics.count(Event.NOTIFICATION_RETRIES_EXHAUSTED, PipelineMetrics.ALL);
+        log.error("❌ Todos los intentos de envío WhatsApp fallaron");
         return false;
     }
-}
\ No newline at end of file
+
+    // ✅ {"token": ..., "to": ..., "body": ...}
+    private String body(String message) throws IOException {
+        StringWriter out = new StringWriter(message.length() + 128);
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("token", config.getWhatsapp().getApi().getToken());
+            json.writeStringField("to", config.getWhatsapp().getRecipient().getPhone());
+            json.writeStringField("body", message);
+            json.writeEndObject();
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,365 @@
+package com.cryptobot.rule;
+
+import com.cryptobot.indicator.OhlcvBuffer;
+import com.cryptobot.indicator.RsiIndicator;
+import com.cryptobot.indicator.TimeframeBars;
+
+// ✅ Árbol de evaluación de las reglas: una clase especializada por operación, de modo que en cada tick
+// no se interpreta texto ni se despacha por tipo de operador. Los nodos con la misma forma canónica (`key`)
+// son la misma instancia en todas las reglas; los que calculan indicadores (Memo) guardan su valor en el
+// contexto del símbolo y se calculan una sola vez por tick aunque aparezcan en cien reglas.
+final class Expr {
+
+    private Expr() {}
+
+    // ===================================
+    // BASES
+    // ===================================
+
+    abstract static class Num {
+        final String key;
+        Num(String key) { this.key = key; }
+        abstract double eval(RuleContext ctx);
+    }
+
+    // ✅ `stateful`: contiene un cruce, que necesita evaluarse en todos los ticks para recordar el valor anterior
+    abstract static class Cond {
+        final String key;
+        final boolean stateful;
+        Cond(String key, boolean stateful) {
+            this.key = key;
+            this.stateful = stateful;
+        }
+        abstract boolean test(RuleContext ctx);
+    }
+
+    // ✅ Valor memorizado por tick en ctx.values[slot]
+    abstract static class Memo extends Num {
+        final int slot;
+        Memo(String key, int slot) {
+            super(key);
+            this.slot = slot;
+        }
+
+        @Override
+        final double eval(RuleContext ctx) {
+            if (ctx.stamps[slot] == ctx.generation) return ctx.values[slot];
+            double v = compute(ctx);
+            ctx.values[slot] = v;
+            ctx.stamps[slot] = ctx.generation;
+            return v;
+        }
+
+        abstract double compute(RuleContext ctx);
+    }
+
+    // ===================================
+    // VALORES
+    // ===================================
+
+    static final class Const extends Num {
+        final double value;
+        Const(double value) {
+            super(format(value));
+            this.value = value;
+        }
+        @Override double eval(RuleContext ctx) { return value; }
+    }
+
+    static final class Price extends Num {
+        Price() { super("price"); }
+        @Override double eval(RuleContext ctx) { return ctx.indicators.lastPrice(); }
+    }
+
+    // ✅ RSI con el período configurado: el que ya mantiene TimeframeBars en streaming, O(1)
+    static final class Rsi extends Memo {
+        final int frame;
+        Rsi(String key, int slot, int frame) {
+            super(key, slot);
+            this.frame = frame;
+        }
+        @Override double compute(RuleContext ctx) { return ctx.frames[frame].rsi(); }
+    }
+
+    // ✅ RSI de Wilder con otro período, recalculado sobre las velas en memoria (incluida la que está en formación)
+    static final class WilderRsi extends Memo {
+        final int frame;
+        final int period;
+        WilderRsi(String key, int slot, int frame, int period) {
+            super(key, slot);
+            this.frame = frame;
+            this.period = period;
+        }
+
+        @Override
+        double compute(RuleContext ctx) {
+            TimeframeBars bars = ctx.frames[frame];
+            OhlcvBuffer closed = bars.closed();
+            int n = closed.size() + (bars.isForming() ? 1 : 0);
+            if (n <= period) return Double.NaN;
+
+            double prev = closeAt(bars, 0);
+            double avgGain = 0;
+            double avgLoss = 0;
+            for (int i = 1; i < n; i++) {
+                double close = closeAt(bars, i);
+                double change = close - prev;
+                double gain = Math.max(change, 0);
+                double loss = Math.max(-change, 0);
+                if (i <= period) {
+                    avgGain += gain / period;
+                    avgLoss += loss / period;
+                } else {
+                    avgGain = (avgGain * (period - 1) + gain) / period;
+                    avgLoss = (avgLoss * (period - 1) + loss) / period;
+                }
+                prev = close;
+            }
+            return RsiIndicator.toRsi(avgGain, avgLoss);
+        }
+
+        private static double closeAt(TimeframeBars bars, int i) {
+            OhlcvBuffer closed = bars.closed();
+            return i < closed.size() ? closed.close(i) : bars.formingClose();
+        }
+    }
+
+    // ✅ Salida de StudyGraph (EMA, MACD, Bollinger...): el grafo ya la calcula una vez por tick
+    static final class Study extends Num {
+        final int study;
+        Study(String key, int study) { super(key); this.study = study; }
+        @Override double eval(RuleContext ctx) { return ctx.studyGraphs[study].value(ctx.studySlots[study]); }
+    }
+
+    // ✅ Cambio porcentual del último precio respecto al cierre de la vela que contenía `ahora - ventana`
+    // (búsqueda binaria en la temporalidad más fina que cubre la ventana); NaN si no hay histórico suficiente
+    static final class PctChange extends Memo {
+        final int frame;
+        final long windowMillis;
+        PctChange(String key, int slot, int frame, long windowMillis) {
+            super(key, slot);
+            this.frame = frame;
+            this.windowMillis = windowMillis;
+        }
+
+        @Override
+        double compute(RuleContext ctx) {
+            TimeframeBars bars = ctx.frames[frame];
+            OhlcvBuffer closed = bars.closed();
+            long target = ctx.now - windowMillis;
+
+            int lo = 0;
+            int hi = closed.size() - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (closed.openTime(mid) <= target) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            if (found < 0) return Double.NaN;
+
+            double reference = closed.close(found);
+            if (reference == 0.0) return Double.NaN;
+            return (bars.lastPrice() - reference) / reference * 100;
+        }
+    }
+
+    // ✅ Máximo, mínimo y volumen de la vela en formación
+    static final class High extends Num {
+        final int frame;
+        High(String key, int frame) { super(key); this.frame = frame; }
+        @Override double eval(RuleContext ctx) {
+            TimeframeBars bars = ctx.frames[frame];
+            return bars.isForming() ? bars.formingHigh() : Double.NaN;
+        }
+    }
+
+    static final class Low extends Num {
+        final int frame;
+        Low(String key, int frame) { super(key); this.frame = frame; }
+        @Override double eval(RuleContext ctx) {
+            TimeframeBars bars = ctx.frames[frame];
+            return bars.isForming() ? bars.formingLow() : Double.NaN;
+        }
+    }
+
+    static final class Volume extends Num {
+        final int frame;
+        Volume(String key, int frame) { super(key); this.frame = frame; }
+        @Override double eval(RuleContext ctx) {
+            TimeframeBars bars = ctx.frames[frame];
+            return bars.isForming() ? bars.formingVolume() : Double.NaN;
+        }
+    }
+
+    // ===================================
+    // ARITMÉTICA
+    // ===================================
+
+    static final class Neg extends Num {
+        final Num operand;
+        Neg(Num operand) { super("-" + operand.key); this.operand = operand; }
+        @Override double eval(RuleContext ctx) { return -operand.eval(ctx); }
+    }
+
+    static final class Add extends Num {
+        final Num left, right;
+        Add(Num left, Num right) { super(binary(left, "+", right)); this.left = left; this.right = right; }
+        @Override double eval(RuleContext ctx) { return left.eval(ctx) + right.eval(ctx); }
+    }
+
+    static final class Sub extends Num {
+        final Num left, right;
+        Sub(Num left, Num right) { super(binary(left, "-", right)); this.left = left; this.right = right; }
+        @Override double eval(RuleContext ctx) { return left.eval(ctx) - right.eval(ctx); }
+    }
+
+    static final class Mul extends Num {
+        final Num left, right;
+        Mul(Num left, Num right) { super(binary(left, "*", right)); this.left = left; this.right = right; }
+        @Override double eval(RuleContext ctx) { return left.eval(ctx) * right.eval(ctx); }
+    }
+
+    static final class Div extends Num {
+        final Num left, right;
+        Div(Num left, Num right) { super(binary(left, "/", right)); this.left = left; this.right = right; }
+        @Override double eval(RuleContext ctx) { return left.eval(ctx) / right.eval(ctx); }
+    }
+
+    // ===================================
+    // COMPARACIONES (con NaN siempre son falsas, salvo !=)
+    // ===================================
+
+    static final class Lt extends Cond {
+        final Num left, right;
+        Lt(Num left, Num right) { super(binary(left, "<", right), false); this.left = left; this.right = right; }
+        @Override boolean test(RuleContext ctx) { return left.eval(ctx) < right.eval(ctx); }
+    }
+
+    static final class Le extends Cond {
+        final Num left, right;
+        Le(Num left, Num right) { super(binary(left, "<=", right), false); this.left = left; this.right = right; }
+        @Override boolean test(RuleContext ctx) { return left.eval(ctx) <= right.eval(ctx); }
+    }
+
+    static final class Gt extends Cond {
+        final Num left, right;
+        Gt(Num left, Num right) { super(binary(left, ">", right), false); this.left = left; this.right = right; }
+        @Override boolean test(RuleContext ctx) { return left.eval(ctx) > right.eval(ctx); }
+    }
+
+    static final class Ge extends Cond {
+        final Num left, right;
+        Ge(Num left, Num right) { super(binary(left, ">=", right), false); this.left = left; this.right = right; }
+        @Override boolean test(RuleContext ctx) { return left.eval(ctx) >= right.eval(ctx); }
+    }
+
+    static final class Eq extends Cond {
+        final Num left, right;
+        Eq(Num left, Num right) { super(binary(left, "==", right), false); this.left = left; this.right = right; }
+        @Override boolean test(RuleContext ctx) { return left.eval(ctx) == right.eval(ctx); }
+    }
+
+    static final class Ne extends Cond {
+        final Num left, right;
+        Ne(Num left, Num right) { super(binary(left, "!=", right), false); this.left = left; this.right = right; }
+        @Override boolean test(RuleContext ctx) { return left.eval(ctx) != right.eval(ctx); }
+    }
+
+    // ✅ Cruce entre la evaluación anterior y la actual (misma semántica que SignalRules: antes estrictamente
+    // a un lado, ahora en el nivel o al otro). Se memoriza por tick para que compartirlo no lo avance dos veces.
+    abstract static class Cross extends Cond {
+        final Num left, right;
+        final int slot;
+        final int state;
+        Cross(String op, Num left, Num right, int slot, int state) {
+            super(binary(left, " " + op + " ", right), true);
+            this.left = left;
+            this.right = right;
+            this.slot = slot;
+            this.state = state;
+        }
+
+        @Override
+        final boolean test(RuleContext ctx) {
+            if (ctx.stamps[slot] == ctx.generation) return ctx.values[slot] != 0;
+            double l = left.eval(ctx);
+            double r = right.eval(ctx);
+            boolean crossed = crossed(ctx.prevLeft[state], ctx.prevRight[state], l, r);
+            ctx.prevLeft[state] = l;
+            ctx.prevRight[state] = r;
+            ctx.values[slot] = crossed ? 1 : 0;
+            ctx.stamps[slot] = ctx.generation;
+            return crossed;
+        }
+
+        abstract boolean crossed(double prevLeft, double prevRight, double left, double right);
+    }
+
+    static final class CrossBelow extends Cross {
+        CrossBelow(Num left, Num right, int slot, int state) { super("crosses_below", left, right, slot, state); }
+        @Override boolean crossed(double pl, double pr, double l, double r) { return pl > pr && l <= r; }
+    }
+
+    static final class CrossAbove extends Cross {
+        CrossAbove(Num left, Num right, int slot, int state) { super("crosses_above", left, right, slot, state); }
+        @Override boolean crossed(double pl, double pr, double l, double r) { return pl < pr && l >= r; }
+    }
+
+    // ===================================
+    // LÓGICA
+    // ===================================
+
+    static final class Bool extends Cond {
+        final boolean value;
+        Bool(boolean value) { super(Boolean.toString(value), false); this.value = value; }
+        @Override boolean test(RuleContext ctx) { return value; }
+    }
+
+    // ✅ Sin cortocircuito si algún lado tiene cruces: deben ver todos los ticks
+    static final class And extends Cond {
+        final Cond left, right;
+        And(Cond left, Cond right) {
+            super(binary(left, " and ", right), left.stateful || right.stateful);
+            this.left = left;
+            this.right = right;
+        }
+        @Override boolean test(RuleContext ctx) {
+            return stateful ? left.test(ctx) & right.test(ctx) : left.test(ctx) && right.test(ctx);
+        }
+    }
+
+    static final class Or extends Cond {
+        final Cond left, right;
+        Or(Cond left, Cond right) {
+            super(binary(left, " or ", right), left.stateful || right.stateful);
+            this.left = left;
+            this.right = right;
+        }
+        @Override boolean test(RuleContext ctx) {
+            return stateful ? left.test(ctx) | right.test(ctx) : left.test(ctx) || right.test(ctx);
+        }
+    }
+
+    static final class Not extends Cond {
+        final Cond operand;
+        Not(Cond operand) { super("not " + operand.key, operand.stateful); this.operand = operand; }
+        @Override boolean test(RuleContext ctx) { return !operand.test(ctx); }
+    }
+
+    private static String binary(Num left, String op, Num right) {
+        return "(" + left.key + op + right.key + ")";
+    }
+
+    private static String binary(Cond left, String op, Cond right) {
+        return "(" + left.key + op + right.key + ")";
+    }
+
+    static String format(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+}
@@ -0,0 +1,26 @@
+package com.cryptobot.rule;
+
+// ✅ Regla compilada: "nombre: expresión" de `rules.definitions`
+public final class Rule {
+
+    private final int index;
+    private final String name;
+    private final String source;
+    final Expr.Cond condition;
+
+    Rule(int index, String name, String source, Expr.Cond condition) {
+        this.index = index;
+        this.name = name;
+        this.source = source;
+        this.condition = condition;
+    }
+
+    public int index() { return index; }
+    public String name() { return name; }
+    public String source() { return source; }
+
+    @Override
+    public String toString() {
+        return name + ": " + source;
+    }
+}
@@ -0,0 +1,540 @@
+package com.cryptobot.rule;
+
+import com.cryptobot.indicator.StudyGraph;
+import com.cryptobot.indicator.Timeframe;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// ✅ Compila reglas "nombre: expresión" a un árbol de Expr. Gramática:
+//
+//   condición   := y ('or' y)*
+//   y           := no ('and' no)*
+//   no          := 'not' no | '(' condición ')' | comparación
+//   comparación := suma (< | <= | > | >= | == | != | crosses_above | crosses_below) suma
+//   suma        := producto (('+' | '-') producto)*
+//   producto    := unario (('*' | '/') unario)*
+//   unario      := '-' unario | número | '(' suma ')' | función
+//
+// Funciones (la temporalidad por defecto es la de señales):
+//   price | rsi([período,] [tf]) | pct_change(ventana) | high([tf]) | low([tf]) | volume([tf])
+//   ema(p [,tf]) | sma(p [,tf]) | macd / macd_signal / macd_hist([f, s, g] [,tf])
+//   bb_upper / bb_middle / bb_lower([p [,k]] [,tf]) | atr([p] [,tf]) | stoch_rsi / stoch_rsi_d([r, s, k, d] [,tf])
+//   vwap([tf])
+// Estas últimas salen de StudyGraph: si están en `indicator.studies` se reutiliza el cálculo compartido;
+// si no, cada símbolo mantiene un grafo propio sembrado con las velas en memoria.
+//
+// Las temporalidades deben estar en `indicator.timeframes`. Los errores se detectan aquí (al arrancar)
+// con la posición en el texto, nunca durante la evaluación. Una instancia por compilación: no es thread-safe.
+public final class RuleCompiler {
+
+    private final Timeframe signalTimeframe;
+    private final List<Timeframe> timeframes;
+    private final int rsiPeriod;
+    private final int historySize;
+
+    // ✅ Nodos ya creados por forma canónica: misma subexpresión = misma instancia en todas las reglas
+    private final Map<String, Expr.Num> nums = new HashMap<>();
+    private final Map<String, Expr.Cond> conds = new HashMap<>();
+    private final List<Timeframe> frames = new ArrayList<>();
+    private final List<RuleSet.StudyRef> studies = new ArrayList<>();
+    private int memoSlots;
+    private int crossSlots;
+
+    public RuleCompiler(Timeframe signalTimeframe, List<Timeframe> timeframes, int rsiPeriod, int historySize) {
+        List<Timeframe> all = new ArrayList<>(timeframes);
+        if (!all.contains(signalTimeframe)) all.add(signalTimeframe);
+        all.sort(Comparator.comparingLong(Timeframe::millis));
+
+        this.signalTimeframe = signalTimeframe;
+        this.timeframes = all;
+        this.rsiPeriod = rsiPeriod;
+        this.historySize = historySize;
+    }
+
+    public RuleSet compile(List<String> definitions) {
+        nums.clear();
+        conds.clear();
+        frames.clear();
+        studies.clear();
+        memoSlots = 0;
+        crossSlots = 0;
+
+        List<Rule> rules = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (String definition : definitions) {
+            if (definition == null || definition.isBlank()) continue;
+
+            int colon = definition.indexOf(':');
+            String name = colon < 0 ? "" : definition.substring(0, colon).trim();
+            if (name.isEmpty() || !name.matches("[A-Za-z0-9_.-]+")) {
+                throw new IllegalArgumentException("Regla sin nombre válido (formato \"nombre: expresión\"): " + definition);
+            }
+            if (!names.add(name)) {
+                throw new IllegalArgumentException("Regla duplicada: " + name);
+            }
+
+            String source = definition.substring(colon + 1).trim();
+            Expr.Cond condition = new Parser(name, source).parseRule();
+            rules.add(new Rule(rules.size(), name, source, condition));
+        }
+        return new RuleSet(rules, frames.toArray(new Timeframe[0]), studies, memoSlots, crossSlots, nums.size() + conds.size());
+    }
+
+    // ===================================
+    // CONSTRUCCIÓN DE NODOS (con plegado de constantes y reutilización)
+    // ===================================
+
+    private Expr.Num num(String key, Supplier<Expr.Num> factory) {
+        Expr.Num existing = nums.get(key);
+        if (existing != null) return existing;
+        Expr.Num created = factory.get();
+        nums.put(key, created);
+        return created;
+    }
+
+    private Expr.Num intern(Expr.Num node) {
+        return num(node.key, () -> node);
+    }
+
+    private Expr.Cond intern(Expr.Cond node) {
+        Expr.Cond existing = conds.putIfAbsent(node.key, node);
+        return existing != null ? existing : node;
+    }
+
+    private Expr.Num constant(double value) {
+        return intern(new Expr.Const(value));
+    }
+
+    private Expr.Num arithmetic(char op, Expr.Num left, Expr.Num right) {
+        if (left instanceof Expr.Const l && right instanceof Expr.Const r) {
+            return constant(switch (op) {
+                case '+' -> l.value + r.value;
+                case '-' -> l.value - r.value;
+                case '*' -> l.value * r.value;
+                default -> l.value / r.value;
+            });
+        }
+        return intern(switch (op) {
+            case '+' -> new Expr.Add(left, right);
+            case '-' -> new Expr.Sub(left, right);
+            case '*' -> new Expr.Mul(left, right);
+            default -> new Expr.Div(left, right);
+        });
+    }
+
+    private Expr.Num negate(Expr.Num operand) {
+        if (operand instanceof Expr.Const c) return constant(-c.value);
+        return intern(new Expr.Neg(operand));
+    }
+
+    private Expr.Cond compare(String op, Expr.Num left, Expr.Num right) {
+        String key = "(" + left.key + (op.startsWith("crosses") ? " " + op + " " : op) + right.key + ")";
+        Expr.Cond existing = conds.get(key);
+        if (existing != null) return existing;
+
+        if (left instanceof Expr.Const l && right instanceof Expr.Const r && !op.startsWith("crosses")) {
+            return intern(new Expr.Bool(switch (op) {
+                case "<" -> l.value < r.value;
+                case "<=" -> l.value <= r.value;
+                case ">" -> l.value > r.value;
+                case ">=" -> l.value >= r.value;
+                case "==" -> l.value == r.value;
+                default -> l.value != r.value;
+            }));
+        }
+        Expr.Cond created = switch (op) {
+            case "<" -> new Expr.Lt(left, right);
+            case "<=" -> new Expr.Le(left, right);
+            case ">" -> new Expr.Gt(left, right);
+            case ">=" -> new Expr.Ge(left, right);
+            case "==" -> new Expr.Eq(left, right);
+            case "!=" -> new Expr.Ne(left, right);
+            case "crosses_below" -> new Expr.CrossBelow(left, right, memoSlots++, crossSlots++);
+            default -> new Expr.CrossAbove(left, right, memoSlots++, crossSlots++);
+        };
+        conds.put(key, created);
+        return created;
+    }
+
+    private int frame(Timeframe timeframe) {
+        int index = frames.indexOf(timeframe);
+        if (index >= 0) return index;
+        frames.add(timeframe);
+        return frames.size() - 1;
+    }
+
+    // ===================================
+    // ANÁLISIS LÉXICO Y SINTÁCTICO
+    // ===================================
+
+    private enum Kind { NUMBER, DURATION, IDENT, OP, LPAREN, RPAREN, COMMA, END }
+
+    private record Token(Kind kind, String text, double number, int pos) {}
+
+    private static final class ParseError extends IllegalArgumentException {
+        final int pos;
+        ParseError(String message, int pos) {
+            super(message);
+            this.pos = pos;
+        }
+    }
+
+    private final class Parser {
+        private final String name;
+        private final String source;
+        private List<Token> tokens;
+        private int cursor = 0;
+
+        Parser(String name, String source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        Expr.Cond parseRule() {
+            try {
+                tokens = tokenize(source);
+                if (peek().kind() == Kind.END) throw error("expresión vacía", peek());
+                Expr.Cond condition = condition();
+                if (peek().kind() != Kind.END) throw error("texto inesperado '" + peek().text() + "'", peek());
+                return condition;
+            } catch (ParseError e) {
+                throw new IllegalArgumentException("Regla '" + name + "': " + e.getMessage()
+                        + " (posición " + (e.pos + 1) + " en \"" + source + "\")");
+            }
+        }
+
+        private Expr.Cond condition() {
+            Expr.Cond left = and();
+            while (keyword("or")) {
+                left = intern(new Expr.Or(left, and()));
+            }
+            return left;
+        }
+
+        private Expr.Cond and() {
+            Expr.Cond left = not();
+            while (keyword("and")) {
+                left = intern(new Expr.And(left, not()));
+            }
+            return left;
+        }
+
+        private Expr.Cond not() {
+            if (keyword("not")) {
+                return intern(new Expr.Not(not()));
+            }
+            // ✅ '(' puede abrir una condición o una expresión numérica: se prueba la condición y, si no
+            // encaja, se vuelve atrás (los nodos ya creados se reutilizan, crearlos es idempotente)
+            if (peek().kind() == Kind.LPAREN) {
+                int mark = cursor;
+                try {
+                    next();
+                    Expr.Cond inner = condition();
+                    expect(Kind.RPAREN, "')'");
+                    return inner;
+                } catch (ParseError asCondition) {
+                    cursor = mark;
+                    try {
+                        return comparison();
+                    } catch (ParseError asComparison) {
+                        throw asComparison.pos >= asCondition.pos ? asComparison : asCondition;
+                    }
+                }
+            }
+            return comparison();
+        }
+
+        private Expr.Cond comparison() {
+            Expr.Num left = sum();
+            Token op = peek();
+            boolean comparator = op.kind() == Kind.OP && !"+-*/".contains(op.text());
+            boolean cross = op.kind() == Kind.IDENT
+                    && (op.text().equals("crosses_below") || op.text().equals("crosses_above"));
+            if (!comparator && !cross) {
+                throw error("se esperaba un comparador (<, <=, >, >=, ==, !=, crosses_above, crosses_below)", op);
+            }
+            next();
+            return compare(op.text(), left, sum());
+        }
+
+        private Expr.Num sum() {
+            Expr.Num left = product();
+            while (peek().kind() == Kind.OP && (peek().text().equals("+") || peek().text().equals("-"))) {
+                char op = next().text().charAt(0);
+                left = arithmetic(op, left, product());
+            }
+            return left;
+        }
+
+        private Expr.Num product() {
+            Expr.Num left = unary();
+            while (peek().kind() == Kind.OP && (peek().text().equals("*") || peek().text().equals("/"))) {
+                char op = next().text().charAt(0);
+                left = arithmetic(op, left, unary());
+            }
+            return left;
+        }
+
+        private Expr.Num unary() {
+            Token t = next();
+            switch (t.kind()) {
+                case OP:
+                    if (t.text().equals("-")) return negate(unary());
+                    break;
+                case NUMBER:
+                    return constant(t.number());
+                case LPAREN: {
+                    Expr.Num inner = sum();
+                    expect(Kind.RPAREN, "')'");
+                    return inner;
+                }
+                case IDENT:
+                    return function(t);
+                default:
+                    break;
+            }
+            throw error("se esperaba un número, una función o '('", t);
+        }
+
+        private Expr.Num function(Token nameToken) {
+            String fn = nameToken.text();
+            List<Token> args = new ArrayList<>();
+            if (peek().kind() == Kind.LPAREN) {
+                next();
+                if (peek().kind() != Kind.RPAREN) {
+                    do {
+                        Token arg = next();
+                        if (arg.kind() != Kind.NUMBER && arg.kind() != Kind.DURATION) {
+                            throw error("los argumentos deben ser números o duraciones (14, 1h...)", arg);
+                        }
+                        args.add(arg);
+                    } while (accept(Kind.COMMA));
+                }
+                expect(Kind.RPAREN, "')'");
+            }
+
+            switch (fn) {
+                case "price": {
+                    arity(nameToken, args, 0, 0);
+                    return num("price", Expr.Price::new);
+                }
+                case "rsi": {
+                    arity(nameToken, args, 0, 2);
+                    int period = rsiPeriod;
+                    Timeframe tf = signalTimeframe;
+                    for (Token arg : args) {
+                        if (arg.kind() == Kind.NUMBER) period = period(arg);
+                        else tf = timeframe(arg);
+                    }
+                    int f = frame(tf);
+                    String key = "rsi(" + period + "," + tf.label() + ")";
+                    if (period == rsiPeriod) {
+                        return num(key, () -> new Expr.Rsi(key, memoSlots++, f));
+                    }
+                    if (period >= historySize) {
+                        throw error("período " + period + " mayor que indicator.history-size (" + historySize + ")", args.get(0));
+                    }
+                    int p = period;
+                    return num(key, () -> new Expr.WilderRsi(key, memoSlots++, f, p));
+                }
+                case "pct_change": {
+                    arity(nameToken, args, 1, 1);
+                    Token arg = args.get(0);
+                    long window = duration(arg);
+                    Timeframe tf = finestCovering(window, arg);
+                    int f = frame(tf);
+                    String key = "pct_change(" + window + "ms," + tf.label() + ")";
+                    return num(key, () -> new Expr.PctChange(key, memoSlots++, f, window));
+                }
+                case "high":
+                case "low":
+                case "volume": {
+                    arity(nameToken, args, 0, 1);
+                    Timeframe tf = args.isEmpty() ? signalTimeframe : timeframe(args.get(0));
+                    int f = frame(tf);
+                    String key = fn + "(" + tf.label() + ")";
+                    return num(key, () -> switch (fn) {
+                        case "high" -> new Expr.High(key, f);
+                        case "low" -> new Expr.Low(key, f);
+                        default -> new Expr.Volume(key, f);
+                    });
+                }
+                default:
+                    return study(nameToken, args);
+            }
+        }
+
+        // ✅ Argumentos numéricos = parámetros del indicador; una duración = temporalidad
+        private Expr.Num study(Token nameToken, List<Token> args) {
+            String fn = nameToken.text();
+            Timeframe tf = signalTimeframe;
+            List<Double> params = new ArrayList<>();
+            Token tfToken = null;
+            for (Token arg : args) {
+                if (arg.kind() == Kind.NUMBER) {
+                    params.add(arg.number());
+                } else if (tfToken == null) {
+                    tfToken = arg;
+                    tf = timeframe(arg);
+                } else {
+                    throw error(fn + " admite una sola temporalidad", arg);
+                }
+            }
+            StudyGraph.Output output;
+            try {
+                output = StudyGraph.output(fn, params.stream().mapToDouble(Double::doubleValue).toArray());
+            } catch (IllegalArgumentException e) {
+                throw error(e.getMessage(), nameToken);
+            }
+            if (output == null) throw error("función desconocida '" + fn + "'", nameToken);
+
+            int f = frame(tf);
+            String key = output.key() + "@" + tf.label();
+            return num(key, () -> {
+                studies.add(new RuleSet.StudyRef(f, output.family(), output.key()));
+                return new Expr.Study(key, studies.size() - 1);
+            });
+        }
+
+        private void arity(Token fn, List<Token> args, int min, int max) {
+            if (args.size() < min || args.size() > max) {
+                throw error(fn.text() + " admite entre " + min + " y " + max + " argumentos", fn);
+            }
+        }
+
+        private int period(Token arg) {
+            double value = arg.number();
+            if (value < 1 || value != Math.rint(value)) {
+                throw error("el período debe ser un entero positivo", arg);
+            }
+            return (int) value;
+        }
+
+        private Timeframe timeframe(Token arg) {
+            if (arg.kind() != Kind.DURATION) throw error("se esperaba una temporalidad (1m, 5m, 15m, 1h, 4h, 1d)", arg);
+            Timeframe tf;
+            try {
+                tf = Timeframe.parse(arg.text());
+            } catch (IllegalArgumentException e) {
+                throw error("temporalidad desconocida '" + arg.text() + "'", arg);
+            }
+            if (!timeframes.contains(tf)) {
+                throw error("temporalidad " + tf.label() + " no está en indicator.timeframes", arg);
+            }
+            return tf;
+        }
+
+        private long duration(Token arg) {
+            if (arg.kind() != Kind.DURATION) throw error("se esperaba una duración (30m, 4h, 1d...)", arg);
+            String text = arg.text();
+            char unit = text.charAt(text.length() - 1);
+            long unitMillis = switch (unit) {
+                case 'm' -> 60_000L;
+                case 'h' -> 3_600_000L;
+                case 'd' -> 86_400_000L;
+                default -> throw error("unidad de duración desconocida en '" + text + "' (m, h, d)", arg);
+            };
+            long amount;
+            try {
+                amount = Long.parseLong(text.substring(0, text.length() - 1));
+            } catch (NumberFormatException e) {
+                throw error("duración inválida '" + text + "'", arg);
+            }
+            if (amount <= 0) throw error("la duración debe ser positiva", arg);
+            return amount * unitMillis;
+        }
+
+        // ✅ La temporalidad más fina cuyas velas en memoria abarcan la ventana (más precisión en la referencia)
+        private Timeframe finestCovering(long window, Token arg) {
+            for (Timeframe tf : timeframes) {
+                if (tf.millis() <= window && tf.millis() * (historySize - 1) >= window) return tf;
+            }
+            throw error("ninguna temporalidad de indicator.timeframes cubre una ventana de " + arg.text()
+                    + " con indicator.history-size=" + historySize, arg);
+        }
+
+        private boolean keyword(String word) {
+            if (peek().kind() == Kind.IDENT && peek().text().equals(word)) {
+                next();
+                return true;
+            }
+            return false;
+        }
+
+        private boolean accept(Kind kind) {
+            if (peek().kind() != kind) return false;
+            next();
+            return true;
+        }
+
+        private void expect(Kind kind, String what) {
+            if (peek().kind() != kind) throw error("se esperaba " + what, peek());
+            next();
+        }
+
+        private Token peek() { return tokens.get(cursor); }
+        private Token next() {
+            Token t = tokens.get(cursor);
+            if (t.kind() != Kind.END) cursor++;
+            return t;
+        }
+
+        private ParseError error(String message, Token at) {
+            return new ParseError(message, at.pos());
+        }
+
+        private List<Token> tokenize(String s) {
+            List<Token> out = new ArrayList<>();
+            int i = 0;
+            int n = s.length();
+            while (i < n) {
+                char c = s.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (Character.isDigit(c) || (c == '.' && i + 1 < n && Character.isDigit(s.charAt(i + 1)))) {
+                    int start = i;
+                    while (i < n && (Character.isDigit(s.charAt(i)) || s.charAt(i) == '.')) i++;
+                    int numberEnd = i;
+                    while (i < n && Character.isLetter(s.charAt(i))) i++;
+                    String text = s.substring(start, i).toLowerCase(Locale.ROOT);
+                    if (i > numberEnd) {
+                        out.add(new Token(Kind.DURATION, text, Double.NaN, start));
+                    } else {
+                        try {
+                            out.add(new Token(Kind.NUMBER, text, Double.parseDouble(text), start));
+                        } catch (NumberFormatException e) {
+                            throw new ParseError("número inválido '" + text + "'", start);
+                        }
+                    }
+                } else if (Character.isLetter(c) || c == '_') {
+                    int start = i;
+                    while (i < n && (Character.isLetterOrDigit(s.charAt(i)) || s.charAt(i) == '_')) i++;
+                    out.add(new Token(Kind.IDENT, s.substring(start, i).toLowerCase(Locale.ROOT), Double.NaN, start));
+                } else if (c == '(') {
+                    out.add(new Token(Kind.LPAREN, "(", Double.NaN, i++));
+                } else if (c == ')') {
+                    out.add(new Token(Kind.RPAREN, ")", Double.NaN, i++));
+                } else if (c == ',') {
+                    out.add(new Token(Kind.COMMA, ",", Double.NaN, i++));
+                } else if ((c == '<' || c == '>' || c == '=' || c == '!') && i + 1 < n && s.charAt(i + 1) == '=') {
+                    out.add(new Token(Kind.OP, s.substring(i, i + 2), Double.NaN, i));
+                    i += 2;
+                } else if ("<>+-*/".indexOf(c) >= 0) {
+                    out.add(new Token(Kind.OP, String.valueOf(c), Double.NaN, i++));
+                } else {
+                    throw new ParseError("carácter inesperado '" + c + "'", i);
+                }
+            }
+            out.add(new Token(Kind.END, "fin", Double.NaN, n));
+            return out;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.cryptobot.rule;
+
+import com.cryptobot.indicator.IndicatorState;
+import com.cryptobot.indicator.StudyGraph;
+import com.cryptobot.indicator.TimeframeBars;
+
+import java.util.Arrays;
+
+// ✅ Estado de las reglas de un símbolo: valores memorizados del tick en curso, valores anteriores de
+// los cruces y resultado de cada regla. Se crea una vez por (RuleSet, símbolo) y evaluar no reserva memoria.
+// Como el IndicatorState, sólo lo usa quien tiene el lock de evaluación del símbolo.
+public final class RuleContext {
+
+    final RuleSet ruleSet;
+    final IndicatorState indicators;
+    final TimeframeBars[] frames;
+
+    // ✅ Indicadores de StudyGraph: los configurados se leen del grafo compartido de la temporalidad;
+    // el resto, de un grafo seguidor privado por temporalidad (se pone al día con las velas cerradas)
+    final StudyGraph[] studyGraphs;
+    final int[] studySlots;
+
+    // ✅ Nodo memorizado válido si stamps[slot] == generation (sin limpiar arrays entre ticks)
+    final double[] values;
+    final long[] stamps;
+    long generation = 0;
+    long now;
+
+    final double[] prevLeft;
+    final double[] prevRight;
+
+    private final boolean[] results;
+    private final boolean[] previous;
+
+    RuleContext(RuleSet ruleSet, IndicatorState indicators) {
+        this.ruleSet = ruleSet;
+        this.indicators = indicators;
+        this.frames = new TimeframeBars[ruleSet.frames.length];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = indicators.bars(ruleSet.frames[i]);
+        }
+        this.studyGraphs = new StudyGraph[ruleSet.studies.length];
+        this.studySlots = new int[ruleSet.studies.length];
+        StudyGraph[] followers = new StudyGraph[frames.length];
+        for (int i = 0; i < studyGraphs.length; i++) {
+            RuleSet.StudyRef ref = ruleSet.studies[i];
+            StudyGraph graph = frames[ref.frame()].studies();
+            if (!graph.has(ref.key())) {
+                if (followers[ref.frame()] == null) followers[ref.frame()] = StudyGraph.follow(frames[ref.frame()]);
+                graph = followers[ref.frame()];
+                graph.add(ref.family());
+            }
+            studyGraphs[i] = graph;
+            studySlots[i] = graph.slot(ref.key());
+        }
+        this.values = new double[ruleSet.memoSlots];
+        this.stamps = new long[ruleSet.memoSlots];
+        this.prevLeft = new double[ruleSet.crossSlots];
+        this.prevRight = new double[ruleSet.crossSlots];
+        Arrays.fill(prevLeft, Double.NaN);
+        Arrays.fill(prevRight, Double.NaN);
+        this.results = new boolean[ruleSet.size()];
+        this.previous = new boolean[ruleSet.size()];
+    }
+
+    void begin() {
+        generation++;
+        now = indicators.lastTimestamp();
+    }
+
+    // ✅ Devuelve true si la regla ha cambiado de resultado
+    boolean set(int rule, boolean result) {
+        previous[rule] = results[rule];
+        results[rule] = result;
+        return previous[rule] != result;
+    }
+
+    public RuleSet ruleSet() { return ruleSet; }
+    public boolean result(int rule) { return results[rule]; }
+
+    // ✅ Flancos respecto a la evaluación anterior
+    public boolean rose(int rule) { return results[rule] && !previous[rule]; }
+    public boolean fell(int rule) { return !results[rule] && previous[rule]; }
+}
@@ -0,0 +1,71 @@
+package com.cryptobot.rule;
+
+import com.cryptobot.config.ConfigListener;
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.config.ConfigSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+// ✅ Reglas de alerta declarativas (`rules.definitions`), compiladas al arrancar y en cada recarga que las afecte.
+// Una regla mal escrita impide arrancar, y en una recarga la rechaza entera (siguen las reglas anteriores).
+@Component
+public class RuleEngine implements ConfigListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleEngine.class);
+
+    private volatile RuleSet rules;
+    private ConfigSnapshot compiledFrom;
+
+    // ✅ Compilado durante la validación de una recarga, publicado si la recarga sigue adelante
+    private RuleSet pending;
+    private ConfigSnapshot pendingFor;
+
+    public RuleEngine(ConfigService configs) {
+        this.compiledFrom = configs.current();
+        this.rules = compile(compiledFrom);
+        configs.addListener(this);
+    }
+
+    public RuleSet rules() { return rules; }
+
+    @Override
+    public synchronized void validate(ConfigSnapshot next) {
+        pending = null;
+        pendingFor = null;
+        if (affectsRules(compiledFrom, next)) {
+            pending = compile(next);
+            pendingFor = next;
+        }
+    }
+
+    @Override
+    public synchronized void onConfigChange(ConfigSnapshot previous, ConfigSnapshot next) {
+        if (pendingFor == next) {
+            rules = pending;
+        }
+        compiledFrom = next;
+        pending = null;
+        pendingFor = null;
+    }
+
+    // ✅ Lanza IllegalArgumentException con la regla y la posición del error
+    static RuleSet compile(ConfigSnapshot config) {
+        if (!config.rulesEnabled()) return RuleSet.EMPTY;
+
+        long start = System.nanoTime();
+        RuleSet compiled = new RuleCompiler(config.signalTimeframe(), config.timeframes(),
+                config.rsiPeriod(), config.historySize()).compile(config.ruleDefinitions());
+        if (!compiled.isEmpty()) {
+            log.info("📐 {} reglas compiladas ({} nodos distintos) en {} µs", compiled.size(), compiled.nodeCount(),
+                    (System.nanoTime() - start) / 1_000);
+        }
+        return compiled;
+    }
+
+    private static boolean affectsRules(ConfigSnapshot current, ConfigSnapshot next) {
+        return current.rulesEnabled() != next.rulesEnabled()
+                || !current.ruleDefinitions().equals(next.ruleDefinitions())
+                || current.indicatorsDiffer(next);
+    }
+}
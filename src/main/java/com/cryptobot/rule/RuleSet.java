@@ -0,0 +1,66 @@
+package com.cryptobot.rule;
+
+import com.cryptobot.indicator.IndicatorState;
+import com.cryptobot.indicator.Timeframe;
+
+import java.util.List;
+
+// ✅ Conjunto de reglas compiladas (inmutable). Las subexpresiones repetidas entre reglas son el mismo nodo,
+// así que evaluar N reglas cuesta lo que sus nodos distintos, no la suma de sus expresiones.
+public final class RuleSet {
+
+    public static final RuleSet EMPTY = new RuleSet(List.of(), new Timeframe[0], List.of(), 0, 0, 0);
+
+    // ✅ Salida de StudyGraph que usan las reglas: temporalidad (índice en frames), familia y clave
+    record StudyRef(int frame, String family, String key) {}
+
+    private final Rule[] rules;
+    final Timeframe[] frames;
+    final StudyRef[] studies;
+    final int memoSlots;
+    final int crossSlots;
+    private final int nodeCount;
+
+    RuleSet(List<Rule> rules, Timeframe[] frames, List<StudyRef> studies, int memoSlots, int crossSlots, int nodeCount) {
+        this.rules = rules.toArray(new Rule[0]);
+        this.frames = frames;
+        this.studies = studies.toArray(new StudyRef[0]);
+        this.memoSlots = memoSlots;
+        this.crossSlots = crossSlots;
+        this.nodeCount = nodeCount;
+    }
+
+    // ✅ false si el estado no tiene alguna temporalidad que usan las reglas (p.ej. mientras se reconstruye
+    // tras una recarga que la ha añadido)
+    public boolean supports(IndicatorState indicators) {
+        for (Timeframe tf : frames) {
+            if (!indicators.hasTimeframe(tf)) return false;
+        }
+        return true;
+    }
+
+    public RuleContext newContext(IndicatorState indicators) {
+        return new RuleContext(this, indicators);
+    }
+
+    // ✅ Evalúa todas las reglas sobre el estado actual del símbolo. Devuelve true si alguna cambió de resultado.
+    public boolean evaluate(RuleContext ctx) {
+        if (ctx.ruleSet != this) {
+            throw new IllegalArgumentException("El contexto pertenece a otro conjunto de reglas");
+        }
+        ctx.begin();
+        boolean changed = false;
+        for (int i = 0; i < rules.length; i++) {
+            changed |= ctx.set(i, rules[i].condition.test(ctx));
+        }
+        return changed;
+    }
+
+    public int size() { return rules.length; }
+    public boolean isEmpty() { return rules.length == 0; }
+    public Rule rule(int index) { return rules[index]; }
+    public List<Rule> rules() { return List.of(rules); }
+
+    // ✅ Nodos distintos tras compartir subexpresiones
+    public int nodeCount() { return nodeCount; }
+}
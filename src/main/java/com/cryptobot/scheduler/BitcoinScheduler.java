@@ -1,29 +1,72 @@
 package com.cryptobot.scheduler;
 
 import com.cryptobot.config.BotProperties;
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.model.WatchedSymbol;
 import com.cryptobot.service.BitcoinPriceService;
+import com.cryptobot.service.EvaluationSnapshot;
+import com.cryptobot.service.PipelineMetrics;
+import com.cryptobot.service.WatchlistEvaluator;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
+// ✅ Ciclos de consulta de la watchlist.
+// Con bitcoin.scheduler.adaptive.enabled (por defecto) cada símbolo tiene su propio plazo, que PollingPlan ajusta
+// a la volatilidad y al presupuesto de consultas; el ciclo se reprograma para el siguiente plazo vencido.
+// Si no, el cron de siempre. En ningún caso se duerme un hilo: el jitter y el cooldown son plazos en el TaskScheduler,
+// y la evaluación corre en el hilo coordinador de WatchlistEvaluator, nunca en el del TaskScheduler (compartido).
 @Component
 public class BitcoinScheduler {
 
+    private static final Logger log = LoggerFactory.getLogger(BitcoinScheduler.class);
+
+    private final WatchlistEvaluator watchlistEvaluator;
     private final BitcoinPriceService priceService;
+    private final PipelineMetrics metrics;
     private final BotProperties config;
+    private final ConfigService configs;
+    private final TaskScheduler taskScheduler;
+
+    // ✅ Plazo más cercano entre 2 ciclos adaptativos (evita bucles si varios plazos caen juntos)
+    private static final long MIN_GAP_MS = 1_000;
+
+    // ✅ Modo adaptativo: plan por símbolo y siguiente ciclo programado (sólo los toca el propio ciclo)
+    private PollingPlan plan;
+    private volatile ScheduledFuture<?> next;
+    private volatile boolean stopped = false;
 
     // ✅ Control de estado
-    private Instant lastFailure = null;
-    private Instant lastSuccess = null;
+    // ✅ Los anota el hilo coordinador al terminar cada ciclo y los lee el del TaskScheduler
+    private volatile Instant lastFailure = null;
+    private volatile Instant lastSuccess = null;
     private boolean firstRun = true;
     private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
 
-    public BitcoinScheduler(BitcoinPriceService priceService, BotProperties config) {
+    public BitcoinScheduler(WatchlistEvaluator watchlistEvaluator, BitcoinPriceService priceService,
+                            PipelineMetrics metrics, BotProperties config, ConfigService configs,
+                            TaskScheduler taskScheduler) {
+        this.watchlistEvaluator = watchlistEvaluator;
         this.priceService = priceService;
+        this.metrics = metrics;
         this.config = config;
+        this.configs = configs;
+        this.taskScheduler = taskScheduler;
     }
 
     private long randomJitter() {
@@ -31,64 +74,169 @@ public class BitcoinScheduler {
         return (long) (Math.random() * maxJitter * 1000);
     }
 
-    private boolean isInCooldown() {
-        if (lastFailure == null) return false;
-
-        Duration timeSinceFailure = Duration.between(lastFailure, Instant.now());
+    // ✅ Cooldown exponencial si hay fallos consecutivos
+    private Instant cooldownEnd() {
         long cooldownSeconds = config.getBitcoin().getScheduler().getCooldownMinutes() * 60L;
-
-        // ✅ Cooldown exponencial si hay fallos consecutivos
         if (consecutiveFailures.get() > 0) {
             cooldownSeconds *= Math.min(consecutiveFailures.get(), 4);
         }
+        return lastFailure.plusSeconds(cooldownSeconds);
+    }
 
-        return timeSinceFailure.getSeconds() < cooldownSeconds;
+    private boolean isInCooldown() {
+        return lastFailure != null && Instant.now().isBefore(cooldownEnd());
     }
 
     @Scheduled(cron = "${bitcoin.scheduler.cron}")
     public void run() {
+        // ✅ Con el modo adaptativo el cron no hace nada
+        if (config.getBitcoin().getScheduler().getAdaptive().isEnabled()) return;
+
+        // ✅ Saltar primera ejecución (salvo si el histórico en disco ya dejó el RSI listo)
+        if (firstRun && config.getBitcoin().getScheduler().isSkipFirstRun() && !priceService.isWarm()) {
+            firstRun = false;
+            log.info("⏭️ Saltando primera ejecución tras el arranque");
+            return;
+        }
+        firstRun = false;
+
+        // ✅ Verificar cooldown
+        if (isInCooldown()) {
+            log.info("⏳ Cooldown activo. Tiempo restante: ~{} minutos",
+                    Duration.between(Instant.now(), cooldownEnd()).toMinutes());
+            return;
+        }
+
+        // ✅ Jitter como plazo en el scheduler, sin dormir el hilo
+        long jitter = randomJitter();
+        log.debug("⏱️ Aplicando jitter de {} segundos", jitter / 1000);
+        taskScheduler.schedule(() -> cycle(null), Instant.now().plusMillis(jitter));
+    }
+
+    // ✅ Arranque del modo adaptativo. Como skip-first-run con el cron, sin histórico caliente la primera consulta
+    // espera el intervalo inicial.
+    @EventListener(ApplicationReadyEvent.class)
+    public void startAdaptive() {
+        BotProperties.Bitcoin.Scheduler scheduler = config.getBitcoin().getScheduler();
+        BotProperties.Bitcoin.Scheduler.Adaptive adaptive = scheduler.getAdaptive();
+        if (!adaptive.isEnabled() || plan != null) return;
+
+        long now = System.currentTimeMillis();
+        long first = scheduler.isSkipFirstRun() && !priceService.isWarm()
+                ? now + adaptive.getInitialIntervalSeconds() * 1000L
+                : now;
+        List<String> ids = priceService.getWatchlist().stream().map(WatchedSymbol::id).toList();
+        plan = new PollingPlan(adaptive, scheduler.getMaxJitterSeconds() * 1000L, ids, first);
+        firstRun = false;
+        log.info("🎚️ Consulta adaptativa de {} símbolos: cada {}-{} s según volatilidad, hasta {} consultas/min",
+                ids.size(), adaptive.getMinIntervalSeconds(), adaptive.getMaxIntervalSeconds(), adaptive.getBudgetPerMinute());
+        schedule(first);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        ScheduledFuture<?> pending = next;
+        if (pending != null) pending.cancel(false);
+    }
+
+    private void schedule(long atMillis) {
+        long at = Math.max(atMillis, System.currentTimeMillis() + MIN_GAP_MS);
+        next = taskScheduler.schedule(this::poll, Instant.ofEpochMilli(at));
+    }
+
+    // ✅ Ciclo adaptativo: consulta sólo los símbolos vencidos, mide su volatilidad y reprograma.
+    // La evaluación corre en el hilo coordinador del evaluador; el siguiente ciclo se programa al terminar.
+    private void poll() {
+        long nextAt = System.currentTimeMillis();
         try {
-            // ✅ Saltar primera ejecución
-            if (firstRun && config.getBitcoin().getScheduler().isSkipFirstRun()) {
-                firstRun = false;
-                System.out.println("⏭️ Saltando primera ejecución tras el arranque");
+            if (isInCooldown()) {
+                Instant end = cooldownEnd();
+                log.info("⏳ Cooldown activo. Tiempo restante: ~{} minutos", Duration.between(Instant.now(), end).toMinutes());
+                nextAt = end.toEpochMilli();
                 return;
             }
-            firstRun = false;
 
-            // ✅ Verificar cooldown
-            if (isInCooldown()) {
-                int minutesRemaining = (int) Duration.between(Instant.now(),
-                        lastFailure.plusSeconds(config.getBitcoin().getScheduler().getCooldownMinutes() * 60L)).toMinutes();
-                System.out.println("⏳ Cooldown activo. Tiempo restante: ~" + minutesRemaining + " minutos");
+            List<String> due = plan.due(System.currentTimeMillis());
+            if (!due.isEmpty()) {
+                cycle(due).whenComplete((ignored, error) -> replan(due));
                 return;
             }
+            nextAt = plan.nextDeadline();
+        } catch (RuntimeException e) {
+            log.error("❌ ERROR en el ciclo adaptativo: {}", e.getMessage(), e);
+        }
+        if (!stopped) schedule(nextAt);
+    }
+
+    private void replan(List<String> due) {
+        long nextAt = System.currentTimeMillis();
+        try {
+            long now = System.currentTimeMillis();
+            // ✅ Todos los símbolos aportan a la volatilidad (los ticks del stream también publican snapshot)
+            for (WatchedSymbol symbol : priceService.getWatchlist()) {
+                EvaluationSnapshot snapshot = priceService.snapshot(symbol);
+                if (snapshot.hasData()) plan.observe(symbol.id(), snapshot.price(), snapshot.evaluatedAtMillis());
+            }
+            plan.replan(configs.current().priceChangeThreshold());
+            for (String id : due) plan.polled(id, now);
+            log.debug("🎚️ Intervalos de consulta (ms): {}", plan.intervals());
+            nextAt = plan.nextDeadline();
+        } catch (RuntimeException e) {
+            log.error("❌ ERROR en el ciclo adaptativo: {}", e.getMessage(), e);
+        } finally {
+            if (!stopped) schedule(nextAt);
+        }
+    }
 
-            // ✅ Aplicar jitter
-            long jitter = randomJitter();
-            System.out.println("⏱️ Aplicando jitter de " + (jitter / 1000) + " segundos");
-            Thread.sleep(jitter);
+    // ✅ Lanza la evaluación (null = toda la watchlist) sin bloquear al que llama; el resultado se anota al terminar
+    private CompletableFuture<Void> cycle(Collection<String> ids) {
+        // ✅ La latencia del ciclo no incluye el jitter
+        log.debug("🚀 Ejecutando consulta de precios de la watchlist...");
+        long start = metrics.start();
+        try {
+            return watchlistEvaluator.evaluateAsync(ids).handle((result, error) -> {
+                metrics.record(PipelineMetrics.Stage.CYCLE, PipelineMetrics.ALL, start);
+                record(result, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            // ✅ Evaluador ya cerrado (apagado de la aplicación)
+            record(null, e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
 
-            // ✅ Ejecutar
-            System.out.println("🚀 Ejecutando consulta de precio Bitcoin...");
-            priceService.process();
+    private void record(WatchlistEvaluator.Result result, Throwable error) {
+        if (error != null) {
+            failed(error);
+            return;
+        }
+        log.info("📊 Watchlist: {}/{} OK, {} con error, {} timeout, {} omitidos",
+                result.succeeded(), result.total(), result.failed(), result.timedOut(), result.skipped());
 
-            // ✅ Registrar éxito
-            lastSuccess = Instant.now();
-            consecutiveFailures.set(0);
-            System.out.println("✅ Consulta exitosa a las " + lastSuccess);
+        // ✅ Sólo cuenta como fallo del scheduler si han fallado todos los símbolos
+        if (result.allFailed()) {
+            failed(new IllegalStateException("Todos los símbolos de la watchlist fallaron"));
+            return;
+        }
 
-        } catch (Exception e) {
-            lastFailure = Instant.now();
-            int failures = consecutiveFailures.incrementAndGet();
+        // ✅ Registrar éxito
+        lastSuccess = Instant.now();
+        consecutiveFailures.set(0);
+        log.debug("✅ Consulta exitosa a las {}", lastSuccess);
+    }
 
-            System.err.println("❌ ERROR en scheduler BTC (fallo #" + failures + "): " + e.getMessage());
+    private void failed(Throwable e) {
+        lastFailure = Instant.now();
+        int failures = consecutiveFailures.incrementAndGet();
 
-            if (failures <= 3) {
-                e.printStackTrace();
-            } else {
-                System.err.println("⚠️ Múltiples fallos consecutivos. Aumentando cooldown.");
-            }
+        // ✅ Traza completa sólo en los primeros fallos; después basta el mensaje
+        if (failures <= 3) {
+            log.error("❌ ERROR en scheduler BTC (fallo #{}): {}", failures, e.getMessage(), e);
+        } else {
+            log.error("❌ ERROR en scheduler BTC (fallo #{}): {}", failures, e.getMessage());
+            log.warn("⚠️ Múltiples fallos consecutivos. Aumentando cooldown.");
         }
     }
 
@@ -96,8 +244,7 @@ public class BitcoinScheduler {
     public void healthCheck() {
         if (lastSuccess != null) {
             Duration timeSinceSuccess = Duration.between(lastSuccess, Instant.now());
-            System.out.println("🏥 Health Check - Última ejecución exitosa hace "
-                    + timeSinceSuccess.toMinutes() + " minutos");
+            log.info("🏥 Health Check - Última ejecución exitosa hace {} minutos", timeSinceSuccess.toMinutes());
         }
 
         // ✅ Resetear fallos después de X horas
@@ -106,7 +253,7 @@ public class BitcoinScheduler {
             int resetHours = config.getBitcoin().getScheduler().getResetFailuresAfterHours();
             
             if (timeSinceFailure.toHours() >= resetHours) {
-                System.out.println("🔄 Reseteando contador de fallos consecutivos");
+                log.info("🔄 Reseteando contador de fallos consecutivos");
                 consecutiveFailures.set(0);
             }
         }
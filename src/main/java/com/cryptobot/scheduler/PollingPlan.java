@@ -0,0 +1,189 @@
+package com.cryptobot.scheduler;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.service.SignalRules;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// ✅ Intervalo de consulta por símbolo según su volatilidad realizada.
+// La volatilidad es la varianza por minuto del % de cambio entre consultas (el mismo % que checkPriceChange),
+// suavizada con una media exponencial de vida media `volatility-half-life-minutes`. El intervalo es el tiempo
+// en el que se espera un movimiento de `threshold-fraction` × umbral de alerta de precio:
+//     intervalo = (fracción × umbral)² / varianza por minuto, acotado a [min, max]
+// Si la suma de consultas por minuto supera `budget-per-minute`, el presupuesto se reparte por prioridad
+// (reparto max-min ponderado: nadie recibe más de lo que pide y lo sobrante pasa a los demás).
+// El máximo es una garantía: un símbolo nunca espera más de `max-interval-seconds`, aunque se pase el presupuesto.
+// No es thread-safe: sólo lo usa el ciclo del scheduler, que nunca se solapa consigo mismo.
+final class PollingPlan {
+
+    private static final double MS_PER_MINUTE = 60_000.0;
+
+    static final class Entry {
+        final String id;
+        final double priority;
+        double variancePerMinute = Double.NaN;
+        double lastPrice = Double.NaN;
+        long lastMillis;
+        long intervalMs;
+        long dueAt;
+
+        Entry(String id, double priority, long intervalMs, long dueAt) {
+            this.id = id;
+            this.priority = priority;
+            this.intervalMs = intervalMs;
+            this.dueAt = dueAt;
+        }
+    }
+
+    private final BotProperties.Bitcoin.Scheduler.Adaptive config;
+    private final long maxJitterMs;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    PollingPlan(BotProperties.Bitcoin.Scheduler.Adaptive config, long maxJitterMs, List<String> ids, long firstDueAt) {
+        this.config = config;
+        this.maxJitterMs = maxJitterMs;
+        for (String id : ids) {
+            double priority = Math.max(config.getPriorities().getOrDefault(id, 1.0), 1e-3);
+            entries.put(id, new Entry(id, priority, initialMs(), firstDueAt));
+        }
+    }
+
+    // ✅ Precio observado tras una consulta (o un tick del stream): actualiza la varianza del símbolo
+    void observe(String id, double price, long atMillis) {
+        Entry e = entries.get(id);
+        if (e == null || !(price > 0) || atMillis <= e.lastMillis) return;
+        if (!Double.isNaN(e.lastPrice)) {
+            double change = SignalRules.priceChangePct(e.lastPrice, price);
+            double minutes = Math.max((atMillis - e.lastMillis) / MS_PER_MINUTE, 1e-3);
+            if (!Double.isNaN(change)) {
+                double sample = change * change / minutes;
+                if (Double.isNaN(e.variancePerMinute)) {
+                    e.variancePerMinute = sample;
+                } else {
+                    double halfLife = Math.max(config.getVolatilityHalfLifeMinutes(), 1e-3);
+                    double alpha = 1 - Math.pow(0.5, minutes / halfLife);
+                    e.variancePerMinute += alpha * (sample - e.variancePerMinute);
+                }
+            }
+        }
+        e.lastPrice = price;
+        e.lastMillis = atMillis;
+    }
+
+    // ✅ Recalcula los intervalos con el umbral de alerta vigente (recargable) y el presupuesto global
+    void replan(double priceChangeThresholdPct) {
+        double target = Math.abs(priceChangeThresholdPct) * config.getThresholdFraction();
+        double minMs = minMs();
+        double maxMs = maxMs();
+
+        List<Entry> list = new ArrayList<>(entries.values());
+        double[] desired = new double[list.size()];
+        for (int i = 0; i < desired.length; i++) {
+            Entry e = list.get(i);
+            double ms;
+            if (Double.isNaN(e.variancePerMinute)) {
+                ms = initialMs();
+            } else if (e.variancePerMinute <= 0 || target <= 0) {
+                ms = target <= 0 ? minMs : maxMs;
+            } else {
+                ms = target * target / e.variancePerMinute * MS_PER_MINUTE;
+            }
+            // ✅ Consultas por minuto que pide el símbolo
+            desired[i] = MS_PER_MINUTE / Math.min(Math.max(ms, minMs), maxMs);
+        }
+
+        double[] granted = allocate(desired, list, config.getBudgetPerMinute());
+        for (int i = 0; i < granted.length; i++) {
+            Entry e = list.get(i);
+            long interval = (long) Math.min(Math.max(MS_PER_MINUTE / granted[i], minMs), maxMs);
+            // ✅ Si la volatilidad sube, adelantar la próxima consulta (no esperar al intervalo anterior)
+            if (interval < e.intervalMs && e.lastMillis > 0) {
+                e.dueAt = Math.min(e.dueAt, e.lastMillis + interval);
+            }
+            e.intervalMs = interval;
+        }
+    }
+
+    // ✅ Reparto max-min ponderado por prioridad; con presupuesto de sobra cada uno recibe lo que pide
+    static double[] allocate(double[] desired, List<Entry> entries, double budget) {
+        double[] granted = desired.clone();
+        double total = 0;
+        for (double d : desired) total += d;
+        if (budget <= 0 || total <= budget) return granted;
+
+        boolean[] settled = new boolean[desired.length];
+        double remaining = budget;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            double weights = 0;
+            for (int i = 0; i < desired.length; i++) {
+                if (!settled[i]) weights += entries.get(i).priority;
+            }
+            if (weights == 0) break;
+            for (int i = 0; i < desired.length; i++) {
+                if (settled[i]) continue;
+                double share = remaining * entries.get(i).priority / weights;
+                if (desired[i] <= share) {
+                    granted[i] = desired[i];
+                    remaining -= desired[i];
+                    settled[i] = true;
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                for (int i = 0; i < desired.length; i++) {
+                    if (!settled[i]) granted[i] = remaining * entries.get(i).priority / weights;
+                }
+            }
+        }
+        return granted;
+    }
+
+    // ✅ Símbolos cuyo plazo ya ha vencido
+    List<String> due(long nowMillis) {
+        List<String> due = new ArrayList<>();
+        for (Entry e : entries.values()) {
+            if (e.dueAt <= nowMillis) due.add(e.id);
+        }
+        return due;
+    }
+
+    // ✅ Consultado ahora: siguiente plazo a un intervalo más un desfase aleatorio
+    // (hasta max-jitter-seconds y nunca más del 10 % del intervalo) para no alinear las llamadas
+    void polled(String id, long nowMillis) {
+        Entry e = entries.get(id);
+        if (e == null) return;
+        long jitterCap = Math.min(maxJitterMs, e.intervalMs / 10);
+        long jitter = jitterCap > 0 ? ThreadLocalRandom.current().nextLong(jitterCap + 1) : 0;
+        e.dueAt = nowMillis + e.intervalMs + jitter;
+    }
+
+    // ✅ Instante de la próxima consulta pendiente
+    long nextDeadline() {
+        long next = Long.MAX_VALUE;
+        for (Entry e : entries.values()) next = Math.min(next, e.dueAt);
+        return next;
+    }
+
+    long intervalMs(String id) {
+        Entry e = entries.get(id);
+        return e == null ? -1 : e.intervalMs;
+    }
+
+    Map<String, Long> intervals() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        entries.values().forEach(e -> out.put(e.id, e.intervalMs));
+        return out;
+    }
+
+    private long minMs() { return Math.max(1, config.getMinIntervalSeconds()) * 1000L; }
+    private long maxMs() { return Math.max(config.getMinIntervalSeconds(), config.getMaxIntervalSeconds()) * 1000L; }
+    private long initialMs() {
+        return Math.min(Math.max(config.getInitialIntervalSeconds() * 1000L, minMs()), maxMs());
+    }
+}
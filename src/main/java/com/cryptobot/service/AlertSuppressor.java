@@ -0,0 +1,170 @@
+package com.cryptobot.service;
+
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.config.ConfigSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+// ✅ Supresión de alertas repetidas por (símbolo, tipo de alerta). Tres reglas:
+//  - histéresis: tras avisar, el tipo queda desarmado hasta que la condición se aleja claramente
+//    del umbral (rearm(), el llamante decide la banda de cada tipo);
+//  - intervalo mínimo: armado o no, no se repite antes de `min-interval-seconds`;
+//  - escalado: si el movimiento es `escalation-factor` veces mayor que el último avisado, se avisa
+//    aunque no se cumplan las dos anteriores.
+// El estado vive en una tabla hash de direccionamiento abierto sobre arrays primitivos
+// (clave = índice del símbolo << 16 | código): sin boxing ni un objeto por entrada.
+// Los tipos fijos usan los códigos 0..255 y las reglas declarativas (RuleEngine) 256 en adelante.
+@Component
+public class AlertSuppressor {
+
+    public enum AlertType { PRICE_UP, PRICE_DOWN, RSI_CROSS_DOWN, RSI_CROSS_UP, SIGNAL_BUY, SIGNAL_SELL }
+
+    private static final long EMPTY = -1L;
+    private static final byte ARMED = 1;
+    private static final int RULE_BASE = 1 << 8;
+
+    // ✅ Parámetros vigentes; una recarga de configuración los sustituye de golpe (el estado se conserva)
+    private record Policy(boolean enabled, long minIntervalMillis, double escalationFactor) {
+        static Policy of(ConfigSnapshot config) {
+            return new Policy(config.alertsEnabled(), config.alertMinIntervalMillis(), config.alertEscalationFactor());
+        }
+    }
+
+    private volatile Policy policy;
+
+    private long[] keys;
+    private long[] lastFiredMillis;
+    private double[] lastMagnitude;
+    private byte[] flags;
+    private int size;
+
+    @Autowired
+    public AlertSuppressor(ConfigService configs) {
+        this(Policy.of(configs.current()), 64);
+        configs.addListener((previous, next) -> policy = Policy.of(next));
+    }
+
+    AlertSuppressor(boolean enabled, long minIntervalMillis, double escalationFactor, int initialCapacity) {
+        this(new Policy(enabled, minIntervalMillis, escalationFactor), initialCapacity);
+    }
+
+    private AlertSuppressor(Policy policy, int initialCapacity) {
+        this.policy = policy;
+        allocate(Integer.highestOneBit(Math.max(16, initialCapacity - 1) << 1));
+    }
+
+    // ✅ La condición de la alerta se cumple: true si hay que avisar (y se anota el aviso)
+    public synchronized boolean tryFire(int symbol, AlertType type, double magnitude, long nowMillis) {
+        return tryFire(key(symbol, type.ordinal()), magnitude, nowMillis);
+    }
+
+    public synchronized boolean tryFireRule(int symbol, int rule, double magnitude, long nowMillis) {
+        return tryFire(key(symbol, RULE_BASE + rule), magnitude, nowMillis);
+    }
+
+    // ✅ La condición ha salido de la banda de histéresis: el próximo aviso vuelve a ser posible
+    public synchronized void rearm(int symbol, AlertType type) {
+        rearm(key(symbol, type.ordinal()));
+    }
+
+    public synchronized void rearmRule(int symbol, int rule) {
+        rearm(key(symbol, RULE_BASE + rule));
+    }
+
+    public synchronized int size() { return size; }
+
+    private boolean tryFire(long key, double magnitude, long nowMillis) {
+        Policy p = policy;
+        if (!p.enabled()) return true;
+
+        int slot = slot(key);
+        boolean armed = (flags[slot] & ARMED) != 0;
+        boolean intervalElapsed = nowMillis - lastFiredMillis[slot] >= p.minIntervalMillis();
+        double last = lastMagnitude[slot];
+        boolean escalated = last > 0 && magnitude >= last * p.escalationFactor();
+
+        if (!(armed && intervalElapsed) && !escalated) {
+            return false;
+        }
+        lastFiredMillis[slot] = nowMillis;
+        lastMagnitude[slot] = magnitude;
+        flags[slot] = 0;
+        return true;
+    }
+
+    private void rearm(long key) {
+        if (!policy.enabled()) return;
+        int slot = find(key);
+        if (slot < 0) return;
+        flags[slot] = ARMED;
+        lastMagnitude[slot] = 0;
+    }
+
+    private static long key(int symbol, int code) {
+        return ((long) symbol << 16) | code;
+    }
+
+    // ✅ Posición de la clave; -1 si no existe
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == key) return i;
+            if (keys[i] == EMPTY) return -1;
+        }
+    }
+
+    // ✅ Posición de la clave, insertándola (armada, sin avisos previos) si no existe
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) return i;
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            grow();
+            return slot(key);
+        }
+        keys[i] = key;
+        lastFiredMillis[i] = Long.MIN_VALUE / 2;
+        lastMagnitude[i] = 0;
+        flags[i] = ARMED;
+        size++;
+        return i;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldFired = lastFiredMillis;
+        double[] oldMagnitude = lastMagnitude;
+        byte[] oldFlags = flags;
+
+        allocate(oldKeys.length << 1);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY) continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (keys[i] != EMPTY) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            lastFiredMillis[i] = oldFired[j];
+            lastMagnitude[i] = oldMagnitude[j];
+            flags[i] = oldFlags[j];
+            size++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        lastFiredMillis = new long[capacity];
+        lastMagnitude = new double[capacity];
+        flags = new byte[capacity];
+        size = 0;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
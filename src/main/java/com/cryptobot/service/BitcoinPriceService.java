@@ -1,239 +1,560 @@
 package com.cryptobot.service;
 
+import com.cryptobot.cluster.ClusterService;
 import com.cryptobot.client.CoinGeckoClient;
 import com.cryptobot.config.BotProperties;
-import com.cryptobot.model.PricePoint;
-import com.cryptobot.notification.WhatsAppNotifier;
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.config.ConfigSnapshot;
+import com.cryptobot.indicator.IndicatorEngine;
+import com.cryptobot.indicator.IndicatorState;
+import com.cryptobot.journal.EventJournal;
+import com.cryptobot.journal.EventJournal.Alert;
+import com.cryptobot.journal.EventJournal.Origin;
+import com.cryptobot.journal.EventJournal.Outcome;
+import com.cryptobot.model.MarketChart;
+import com.cryptobot.model.WatchedSymbol;
+import com.cryptobot.notification.NotificationDispatcher;
+import com.cryptobot.rule.RuleContext;
+import com.cryptobot.rule.RuleEngine;
+import com.cryptobot.rule.RuleSet;
+import com.cryptobot.source.PriceRouter;
+import com.cryptobot.source.Quote;
+import com.cryptobot.service.AlertSuppressor.AlertType;
+import com.cryptobot.service.PipelineMetrics.Stage;
+import com.cryptobot.store.PriceHistoryFile;
+import com.cryptobot.store.PriceHistoryStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class BitcoinPriceService {
 
+    private static final Logger log = LoggerFactory.getLogger(BitcoinPriceService.class);
+
     private final CoinGeckoClient coinGeckoClient;
+    private final PriceRouter priceRouter;
+    private final IndicatorEngine indicatorEngine;
     private final SignalEvaluatorService signalEvaluator;
-    private final WhatsAppNotifier notifier;
-    private final BotProperties config;
-
-    // ✅ Valores iniciales seguros
-    private Double lastPrice = 0.0;
-    private Double lastRsi = 50.0;
-    private SignalEvaluatorService.Signal.Type lastSignalType =
-            SignalEvaluatorService.Signal.Type.HOLD;
-
-    // ✅ Datos expuestos para /status
-    private Double lastKnownPrice = 0.0;
-    private Double lastKnownRsi = 50.0;
-    private SignalEvaluatorService.Signal.Type lastKnownSignal =
-            SignalEvaluatorService.Signal.Type.HOLD;
-    private Instant lastExecutionTime = Instant.now();
-
-    // ✅ RSI incremental
-    private Double avgGain = null;
-    private Double avgLoss = null;
-    private Double lastRsiValue = null;
-
-    // ✅ Últimos precios
-    private final List<Double> recentPrices = new ArrayList<>();
+    private final NotificationDispatcher dispatcher;
+    private final AlertSuppressor suppressor;
+    private final RuleEngine ruleEngine;
+    private final PriceHistoryStore historyStore;
+    private final EventJournal journal;
+    private final PipelineMetrics metrics;
+    private final ClusterService cluster;
+    private final ConfigService configs;
+    private final ExecutorService rebuilder;
+    private final long maxDataAgeMillis;
+    private final long periodicIntervalMillis;
+
+    // ✅ Estado por símbolo de la watchlist
+    private final List<WatchedSymbol> watchlist;
+    private final Map<String, SymbolState> states = new ConcurrentHashMap<>();
+    private final AtomicInteger symbolIndex = new AtomicInteger();
 
     public BitcoinPriceService(CoinGeckoClient coinGeckoClient,
+                               PriceRouter priceRouter,
+                               IndicatorEngine indicatorEngine,
                                SignalEvaluatorService signalEvaluator,
-                               WhatsAppNotifier notifier,
+                               NotificationDispatcher dispatcher,
+                               AlertSuppressor suppressor,
+                               RuleEngine ruleEngine,
+                               PriceHistoryStore historyStore,
+                               EventJournal journal,
+                               PipelineMetrics metrics,
+                               ClusterService cluster,
+                               ConfigService configs,
                                BotProperties config) {
         this.coinGeckoClient = coinGeckoClient;
+        this.priceRouter = priceRouter;
+        this.indicatorEngine = indicatorEngine;
         this.signalEvaluator = signalEvaluator;
-        this.notifier = notifier;
-        this.config = config;
+        this.dispatcher = dispatcher;
+        this.suppressor = suppressor;
+        this.ruleEngine = ruleEngine;
+        this.historyStore = historyStore;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.cluster = cluster;
+        this.configs = configs;
+        this.maxDataAgeMillis = config.getPriceSource().getMaxAgeSeconds() * 1000L;
+        // ✅ Con el cron cada ciclo es periódico; con la consulta adaptativa (cada 60-1800 s) va por reloj
+        BotProperties.Bitcoin.Scheduler.Adaptive adaptive = config.getBitcoin().getScheduler().getAdaptive();
+        this.periodicIntervalMillis = adaptive.isEnabled() ? adaptive.getPeriodicIntervalMinutes() * 60_000L : 0L;
+        this.rebuilder = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "indicator-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+        List<WatchedSymbol> configured = WatchedSymbol.parseAll(config.getWatchlist().getSymbols());
+        this.watchlist = configured.isEmpty() ? List.of(new WatchedSymbol("bitcoin", "BTC")) : configured;
+
+        for (WatchedSymbol symbol : watchlist) {
+            state(symbol);
+        }
+        configs.addListener(this::onConfigChange);
     }
 
-    // ✅ Getters para /status
-    public Double getLastKnownPrice() { return lastKnownPrice; }
-    public Double getLastKnownRsi() { return lastKnownRsi; }
-    public SignalEvaluatorService.Signal.Type getLastSignalType() { return lastKnownSignal; }
-    public Instant getLastExecutionTime() { return lastExecutionTime; }
-
-    public void process() {
-        List<PricePoint> prices = safeList(coinGeckoClient.getLastHourlyPrices(48));
+    // ✅ Arranque en caliente: reconstruir indicadores desde el histórico en disco, sin red
+    @PostConstruct
+    public void warmStart() {
+        if (!historyStore.isEnabled()) return;
+
+        long start = System.nanoTime();
+        int total = 0;
+        for (WatchedSymbol symbol : watchlist) {
+            SymbolState s = state(symbol);
+            String id = symbol.id();
+            IndicatorState indicators = s.getIndicators();
+            total += historyStore.replay(id, (ts, price) -> {
+                if (indicators.onPrice(ts, price)) journal.tick(id, ts, price, 0, Origin.WARM_START);
+            });
+
+            if (indicators.barCount() > 0) {
+                double rsi = indicators.rsi();
+                s.lastPrice = indicators.lastPrice();
+                s.lastRsi = Double.isNaN(rsi) ? 50.0 : rsi;
+                s.lastSource = "warm-start";
+                s.publish(s.lastPrice, s.lastRsi, !Double.isNaN(rsi), SignalEvaluatorService.Signal.Type.HOLD,
+                        Double.NaN, indicators.barCount(), indicators.lastTimestamp(), indicators.lastTimestamp());
+                journal.evaluation(id, s.lastPrice, s.lastPrice, s.lastRsi, !Double.isNaN(rsi),
+                        SignalEvaluatorService.Signal.Type.HOLD, Double.NaN, indicators.barCount(), false, false);
+            }
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("💾 Arranque en caliente: {} precios cargados de disco en {} ms", total, elapsedMs);
+    }
 
-        if (prices.isEmpty()) {
-            System.out.println("⚠️ No hay datos de precios disponibles");
-            return;
+    // ✅ true si todos los símbolos tienen ya RSI calculable (p.ej. tras el arranque en caliente)
+    public boolean isWarm() {
+        for (WatchedSymbol symbol : watchlist) {
+            if (!state(symbol).getIndicators().isRsiReady()) return false;
         }
+        return true;
+    }
 
-        double price = prices.get(prices.size() - 1).price();
+    // ✅ Última evaluación publicada del símbolo principal (primero de la watchlist)
+    public EvaluationSnapshot snapshot() { return primary().snapshot(); }
+    public EvaluationSnapshot snapshot(WatchedSymbol symbol) { return state(symbol).snapshot(); }
 
-        // ✅ RSI incremental
-        double rsi = updateRsiIncremental(price);
+    public List<WatchedSymbol> getWatchlist() { return watchlist; }
+    public Collection<SymbolState> getSymbolStates() { return Collections.unmodifiableCollection(states.values()); }
 
-        // ✅ 1. Actualización automática
-        sendPeriodicUpdate(price, rsi);
+    public SymbolState state(WatchedSymbol symbol) {
+        return states.computeIfAbsent(symbol.id(),
+                id -> new SymbolState(symbol, symbolIndex.getAndIncrement(), indicatorEngine.state(id)));
+    }
 
-        // ✅ 2. Alerta por cambio de precio
-        checkPriceChange(price);
+    private SymbolState primary() {
+        return state(watchlist.get(0));
+    }
 
-        // ✅ 3. Alerta por cruce RSI
-        checkRSICross(rsi, price);
+    // ✅ Procesa un símbolo. Devuelve false si ya había una evaluación en curso para él.
+    public boolean process(WatchedSymbol symbol) {
+        SymbolState s = state(symbol);
+        if (!s.tryAcquire()) {
+            log.info("⏳ {} sigue en evaluación, se omite este ciclo", symbol.label());
+            return false;
+        }
+        try {
+            process(s);
+            return true;
+        } finally {
+            s.release();
+        }
+    }
 
-        // ✅ 4. Señales RSI clásicas
-        SignalEvaluatorService.Signal signal = checkClassicSignal(prices, price, rsi);
+    private void process(SymbolState s) {
+        // ✅ Estado único de indicadores: sólo se procesan los puntos nuevos
+        IndicatorState state = updatePrices(s);
 
-        // ✅ Guardar últimos valores
-        lastPrice = price;
-        lastRsi = rsi;
-        lastKnownPrice = price;
-        lastKnownRsi = rsi;
-        lastKnownSignal = signal != null ? signal.getType() : SignalEvaluatorService.Signal.Type.HOLD;
-        lastExecutionTime = Instant.now();
+        if (state.barCount() == 0) {
+            log.warn("⚠️ No hay datos de precios disponibles para {}", s.getSymbol().label());
+            return;
+        }
+
+        // ✅ La cadencia de consulta no decide la actualización periódica ni el precio de referencia:
+        // sólo cuenta como periódica la primera consulta de cada intervalo de reloj
+        long now = System.currentTimeMillis();
+        boolean periodic = now - s.lastPeriodicMillis >= periodicIntervalMillis;
+        if (periodic) s.lastPeriodicMillis = now;
+
+        evaluate(s, state, periodic);
     }
 
-    // ✅ Evita nulls en listas
-    private List<PricePoint> safeList(List<PricePoint> list) {
-        return list != null ? list : Collections.emptyList();
+    // ✅ Tick del stream en tiempo real: mismo pipeline que el cron, pero sin actualización periódica.
+    // Espera si el cron está evaluando el mismo símbolo en ese momento.
+    public void onTick(String symbolId, long epochMillis, double price, double volume) {
+        SymbolState s = states.get(symbolId);
+        if (s == null || !cluster.owns(symbolId)) return;
+
+        s.acquire();
+        try {
+            IndicatorState state = s.getIndicators();
+            long start = metrics.start();
+            boolean accepted = state.onTick(epochMillis, price, volume);
+            metrics.record(Stage.INDICATORS, symbolId, start);
+            if (!accepted) return;
+            s.lastTickMillis = System.currentTimeMillis();
+            s.lastSource = "stream";
+            journal.tick(symbolId, epochMillis, price, volume, Origin.STREAM);
+
+            // ✅ Al histórico en disco sólo un tick cada `persist-interval-ms`, no cada trade
+            if (epochMillis - s.lastPersistedMillis >= configs.current().persistIntervalMs()) {
+                historyStore.append(symbolId, epochMillis, price);
+                s.lastPersistedMillis = epochMillis;
+            }
+
+            evaluate(s, state, false);
+        } finally {
+            s.release();
+        }
     }
 
-    // ✅ RSI incremental con configuración desde properties
-    private double updateRsiIncremental(double newPrice) {
-        int recentLimit = config.getBitcoin().getPrice().getRecentPricesLimit();
-        int minDataPoints = config.getBitcoin().getRsi().getMinDataPoints();
-        int period = config.getBitcoin().getRsi().getPeriod();
+    // ✅ true si el stream ha entregado un tick reciente: el cron no necesita ir a la red
+    public boolean isStreamFresh(WatchedSymbol symbol) {
+        long lastTick = state(symbol).lastTickMillis;
+        if (lastTick == 0) return false;
+        return System.currentTimeMillis() - lastTick < configs.current().streamStaleAfterMillis();
+    }
 
-        // Guardar precio
-        recentPrices.add(newPrice);
-        if (recentPrices.size() > recentLimit) {
-            recentPrices.remove(0);
+    private void evaluate(SymbolState s, IndicatorState state, boolean periodic) {
+        long start = metrics.start();
+        // ✅ Una sola lectura de la configuración por evaluación: todas las comprobaciones ven la misma versión
+        ConfigSnapshot c = configs.current();
+        double price = state.lastPrice();
+
+        // ✅ Cluster: si el símbolo acaba de pasar a este nodo (o no ha sido nuestro sin interrupción desde
+        // la última evaluación), esta pasada sólo ceba lastPrice/lastRsi/lastSignalType. El dueño anterior
+        // ya avisó de la situación actual; así cada alerta sale una sola vez.
+        if (cluster.isEnabled()) {
+            s.muted = s.clusterEpoch < 0 || !cluster.ownedSince(s.getSymbol().id(), s.clusterEpoch);
+            s.clusterEpoch = cluster.epoch();
         }
 
-        // ✅ Si no hay suficientes datos → RSI inicial
-        if (recentPrices.size() < minDataPoints) {
-            return calculateInitialRsi();
+        // ✅ RSI neutro (50) mientras no haya datos suficientes
+        double rsi = state.rsi();
+        if (Double.isNaN(rsi)) rsi = 50.0;
+
+        // ✅ 1. Actualización automática (una por intervalo periódico, nunca desde ticks)
+        if (periodic) {
+            sendPeriodicUpdate(s, c, price, rsi);
         }
 
-        double prevPrice = recentPrices.get(recentPrices.size() - 2);
-        double change = newPrice - prevPrice;
+        // ✅ 2. Alerta por cambio de precio
+        double changePct = SignalRules.priceChangePct(s.lastPrice, price);
+        boolean priceAlert = checkPriceChange(s, c, price);
 
-        double gain = Math.max(change, 0);
-        double loss = Math.max(-change, 0);
+        // ✅ 3. Alerta por cruce RSI
+        checkRSICross(s, c, rsi, price);
 
-        // ✅ Si aún no tenemos medias → RSI inicial
-        if (avgGain == null || avgLoss == null) {
-            return calculateInitialRsi();
-        }
+        // ✅ 4. Señales RSI clásicas
+        SignalEvaluatorService.Signal signal = checkClassicSignal(s, c, state, price, rsi);
 
-        // ✅ RSI incremental con período configurable
-        avgGain = ((avgGain * (period - 1)) + gain) / period;
-        avgLoss = ((avgLoss * (period - 1)) + loss) / period;
+        // ✅ 5. Reglas declarativas
+        checkRules(s, c, state, price, rsi);
 
-        if (avgLoss == 0) {
-            lastRsiValue = 100.0;
-            return lastRsiValue;
+        // ✅ Guardar últimos valores. Con ticks o consultas adaptativas, el precio de referencia para el cambio
+        // de precio sólo se mueve en cada intervalo periódico o tras una alerta (si no, nunca se acumularía el umbral).
+        if (periodic || priceAlert) {
+            s.lastPrice = price;
         }
-
-        double rs = avgGain / avgLoss;
-        lastRsiValue = 100 - (100 / (1 + rs));
-
-        return lastRsiValue;
+        s.lastRsi = rsi;
+
+        // ✅ Publicar el resultado completo de una vez
+        SignalEvaluatorService.Signal.Type signalType = signal != null ? signal.getType() : SignalEvaluatorService.Signal.Type.HOLD;
+        long now = System.currentTimeMillis();
+        checkFreshness(s, state.lastTimestamp(), now);
+        s.publish(price, rsi, state.isRsiReady(), signalType, changePct, state.barCount(), now, state.lastTimestamp());
+        journal.evaluation(s.getSymbol().id(), price, s.lastPrice, rsi, state.isRsiReady(), signalType, changePct,
+                state.barCount(), periodic, s.muted);
+        metrics.record(Stage.SIGNALS, s.getSymbol().id(), start);
     }
 
-    // ✅ RSI inicial con configuración desde properties
-    private double calculateInitialRsi() {
-        int minDataPoints = config.getBitcoin().getRsi().getMinDataPoints();
-        int period = config.getBitcoin().getRsi().getPeriod();
+    // ✅ Histórico completo (market_chart) sólo para arrancar o tras un hueco;
+    // en régimen normal basta el último precio, que llega agrupado con el resto de símbolos en /simple/price
+    private IndicatorState updatePrices(SymbolState s) {
+        String id = s.getSymbol().id();
+        IndicatorState state = s.getIndicators();
 
-        if (recentPrices.size() < minDataPoints) {
-            return 50.0;
+        // ✅ El stream en tiempo real ya mantiene el estado al día; el cron sólo cubre sus caídas
+        if (isStreamFresh(s.getSymbol())) {
+            return state;
         }
 
-        double gains = 0;
-        double losses = 0;
+        if (!needsHistory(state)) {
+            // ✅ Varios proveedores con cobertura y circuit breakers (price-source.*)
+            long fetchStart = metrics.start();
+            Quote latest = priceRouter.latest(s.getSymbol());
+            metrics.record(Stage.FETCH, id, fetchStart);
+            if (latest != null) {
+                long ts = latest.timestampMillis();
+                long start = metrics.start();
+                boolean accepted = state.onPrice(ts, latest.price());
+                metrics.record(Stage.INDICATORS, id, start);
+                if (accepted) {
+                    s.lastSource = latest.source();
+                    historyStore.append(id, ts, latest.price());
+                    journal.tick(id, ts, latest.price(), 0, Origin.POLL);
+                }
+                return state;
+            }
+        }
 
-        for (int i = 1; i < minDataPoints; i++) {
-            double diff = recentPrices.get(i) - recentPrices.get(i - 1);
-            if (diff > 0) gains += diff;
-            else losses -= diff;
+        // ✅ market_chart registra sus propias etapas fetch/parse en el cliente
+        MarketChart prices = coinGeckoClient.getLastHourlyPrices(id, 48);
+        if (prices == null) prices = MarketChart.EMPTY;
+        if (prices.size() > 0) s.lastSource = "coingecko-chart";
+        historyStore.appendAll(id, prices);
+        // ✅ Sólo los puntos nuevos (posteriores al último procesado), O(1) por punto
+        long start = metrics.start();
+        for (int i = 0, n = prices.size(); i < n; i++) {
+            if (state.onPrice(prices.time(i), prices.price(i))) {
+                journal.tick(id, prices.time(i), prices.price(i), 0, Origin.CHART);
+            }
         }
+        metrics.record(Stage.INDICATORS, id, start);
+        return state;
+    }
 
-        avgGain = gains / period;
-        avgLoss = losses / period;
+    // ✅ Avisa una vez cuando un símbolo pasa a evaluarse con datos viejos (p.ej. caché de CoinGecko tras un 429
+    // con todos los proveedores caídos) y otra cuando se recupera
+    private void checkFreshness(SymbolState s, long dataTimestamp, long now) {
+        long ageMillis = dataTimestamp > 0 ? now - dataTimestamp : 0;
+        long ageSeconds = ageMillis / 1000;
+        boolean stale = ageMillis > maxDataAgeMillis;
+        if (stale && !s.stale) {
+            log.warn("⚠️ {} se evalúa con datos de hace {} s (fuente: {})", s.getSymbol().label(), ageSeconds,
+                    s.lastSource.isEmpty() ? "desconocida" : s.lastSource);
+        } else if (!stale && s.stale) {
+            log.info("✅ {} vuelve a tener datos frescos (fuente: {})", s.getSymbol().label(), s.lastSource);
+        }
+        s.stale = stale;
+    }
 
-        if (avgLoss == 0) return 100.0;
+    private boolean needsHistory(IndicatorState state) {
+        if (state.barCount() < configs.current().rsiMinDataPoints()) {
+            return true;
+        }
+        long gapMillis = System.currentTimeMillis() - state.lastTimestamp();
+        return gapMillis > 2 * state.barMillis();
+    }
 
-        double rs = avgGain / avgLoss;
-        lastRsiValue = 100 - (100 / (1 + rs));
+    // ✅ Con varios símbolos, cada mensaje indica a cuál se refiere.
+    // `rule` es el índice de la regla declarativa (-1 en el resto de alertas).
+    private void send(SymbolState s, Alert kind, int rule, double magnitude, String msg) {
+        if (watchlist.size() > 1) {
+            msg = "[" + s.getSymbol().label() + "] " + msg;
+        }
+        if (s.muted) {
+            journal.alert(s.getSymbol().id(), kind, rule, Outcome.MUTED, magnitude, -1, msg);
+            return;
+        }
+        long id = dispatcher.enqueue(msg);
+        journal.alert(s.getSymbol().id(), kind, rule, id >= 0 ? Outcome.SENT : Outcome.DROPPED, magnitude, id, msg);
+    }
 
-        return lastRsiValue;
+    // ✅ La condición se cumplió pero AlertSuppressor no dejó avisar (queda en el diario para los post-mortem)
+    private void suppressed(SymbolState s, Alert kind, int rule, double magnitude) {
+        journal.alert(s.getSymbol().id(), kind, rule, Outcome.SUPPRESSED, magnitude, -1, "");
     }
 
     // ✅ Actualización periódica con template desde properties
-    private void sendPeriodicUpdate(double price, double rsi) {
-        String template = config.getNotification().getTemplate().getPeriodic();
-        String msg = String.format(template, price, rsi);
-        notifier.sendMessage(msg);
+    private void sendPeriodicUpdate(SymbolState s, ConfigSnapshot c, double price, double rsi) {
+        String msg = String.format(c.periodicTemplate(), price, rsi);
+        send(s, Alert.PERIODIC, -1, 0, msg);
     }
 
-    // ✅ Alerta de cambio de precio con threshold configurable
-    private void checkPriceChange(double price) {
-        if (lastPrice == null || lastPrice == 0.0) return;
+    // ✅ Alerta de cambio de precio con threshold configurable.
+    // Devuelve true sólo si se ha avisado: con ticks, una alerta suprimida no mueve el precio de referencia.
+    private boolean checkPriceChange(SymbolState s, ConfigSnapshot c, double price) {
+        double change = SignalRules.priceChangePct(s.lastPrice, price);
+        if (Double.isNaN(change)) return false;
+
+        double threshold = c.priceChangeThreshold();
 
-        double change = ((price - lastPrice) / lastPrice) * 100;
-        double threshold = config.getBitcoin().getPrice().getChangeThreshold();
+        // ✅ Histéresis: cada dirección se rearma cuando el movimiento en ese sentido se calma
+        double rearmBelow = threshold * c.priceHysteresisRatio();
+        if (change < rearmBelow) suppressor.rearm(s.index(), AlertType.PRICE_UP);
+        if (-change < rearmBelow) suppressor.rearm(s.index(), AlertType.PRICE_DOWN);
 
-        if (Math.abs(change) >= threshold) {
-            String template = config.getNotification().getTemplate().getPriceChange();
-            String msg = String.format(template, change, price);
-            notifier.sendMessage(msg);
+        if (!SignalRules.isPriceAlert(change, threshold)) return false;
+
+        boolean up = change > 0;
+        AlertType type = up ? AlertType.PRICE_UP : AlertType.PRICE_DOWN;
+        if (!suppressor.tryFire(s.index(), type, Math.abs(change), System.currentTimeMillis())) {
+            suppressed(s, up ? Alert.PRICE_UP : Alert.PRICE_DOWN, -1, Math.abs(change));
+            return false;
         }
+
+        String msg = String.format(c.priceChangeTemplate(), change, price);
+        send(s, up ? Alert.PRICE_UP : Alert.PRICE_DOWN, -1, Math.abs(change), msg);
+        return true;
     }
 
-    // ✅ Cruces de RSI con niveles configurables
-    private void checkRSICross(double rsi, double price) {
-        if (lastRsi == null || lastRsi == 0.0) return;
+    // ✅ Cruces de RSI con niveles configurables. Tras un aviso, el cruce sólo vuelve a contar
+    // cuando el RSI se ha adentrado `rsi-hysteresis-points` en la zona (no por oscilar sobre el nivel).
+    private void checkRSICross(SymbolState s, ConfigSnapshot c, double rsi, double price) {
+        double lastRsi = s.lastRsi;
 
-        int overboughtLevel = config.getBitcoin().getRsi().getOverboughtLevel();
-        int oversoldLevel = config.getBitcoin().getRsi().getOversoldLevel();
+        int overboughtLevel = c.overboughtLevel();
+        int oversoldLevel = c.oversoldLevel();
+        double band = c.rsiHysteresisPoints();
+        long now = System.currentTimeMillis();
+
+        if (rsi >= overboughtLevel + band) suppressor.rearm(s.index(), AlertType.RSI_CROSS_DOWN);
+        if (rsi <= oversoldLevel - band) suppressor.rearm(s.index(), AlertType.RSI_CROSS_UP);
 
         // Cruce hacia abajo del nivel de sobrecompra
-        if (lastRsi > overboughtLevel && rsi <= overboughtLevel) {
-            String template = config.getNotification().getTemplate().getRsiDown70();
-            String msg = String.format(template, price, rsi);
-            notifier.sendMessage(msg);
+        if (SignalRules.crossedDownFromOverbought(lastRsi, rsi, overboughtLevel)) {
+            if (suppressor.tryFire(s.index(), AlertType.RSI_CROSS_DOWN, 0, now)) {
+                String msg = String.format(c.rsiDownTemplate(), price, rsi);
+                send(s, Alert.RSI_CROSS_DOWN, -1, 0, msg);
+            } else {
+                suppressed(s, Alert.RSI_CROSS_DOWN, -1, 0);
+            }
         }
 
         // Cruce hacia arriba del nivel de sobreventa
-        if (lastRsi < oversoldLevel && rsi >= oversoldLevel) {
-            String template = config.getNotification().getTemplate().getRsiUp30();
-            String msg = String.format(template, price, rsi);
-            notifier.sendMessage(msg);
+        if (SignalRules.crossedUpFromOversold(lastRsi, rsi, oversoldLevel)) {
+            if (suppressor.tryFire(s.index(), AlertType.RSI_CROSS_UP, 0, now)) {
+                String msg = String.format(c.rsiUpTemplate(), price, rsi);
+                send(s, Alert.RSI_CROSS_UP, -1, 0, msg);
+            } else {
+                suppressed(s, Alert.RSI_CROSS_UP, -1, 0);
+            }
         }
     }
 
-    // ✅ Señales clásicas RSI con template configurable
-    private SignalEvaluatorService.Signal checkClassicSignal(List<PricePoint> prices, double price, double rsi) {
-        SignalEvaluatorService.Signal signal = signalEvaluator.evaluateRsiSignal(prices);
+    // ✅ Señales clásicas RSI con template configurable. Un BUY/SELL que reaparece tras un HOLD
+    // momentáneo junto al nivel no se repite hasta salir de la banda (o hasta que la señal sea más profunda).
+    private SignalEvaluatorService.Signal checkClassicSignal(SymbolState s, ConfigSnapshot c, IndicatorState state,
+                                                            double price, double rsi) {
+        int overboughtLevel = c.overboughtLevel();
+        int oversoldLevel = c.oversoldLevel();
+        double band = c.rsiHysteresisPoints();
+
+        if (rsi >= oversoldLevel + band) suppressor.rearm(s.index(), AlertType.SIGNAL_BUY);
+        if (rsi <= overboughtLevel - band) suppressor.rearm(s.index(), AlertType.SIGNAL_SELL);
+
+        SignalEvaluatorService.Signal signal = signalEvaluator.evaluateRsiSignal(state);
 
         if (signal == null || !signal.isActive()) {
-            lastSignalType = SignalEvaluatorService.Signal.Type.HOLD;
+            s.lastSignalType = SignalEvaluatorService.Signal.Type.HOLD;
             return signal;
         }
 
-        if (signal.getType() == lastSignalType) {
+        if (signal.getType() == s.lastSignalType) {
             return signal;
         }
 
-        lastSignalType = signal.getType();
+        s.lastSignalType = signal.getType();
 
-        String template = config.getNotification().getTemplate().getClassicSignal();
-        String msg = String.format(template,
+        boolean buy = signal.getType() == SignalEvaluatorService.Signal.Type.BUY;
+        double depth = Math.max(buy ? oversoldLevel - rsi : rsi - overboughtLevel, 0);
+        Alert kind = buy ? Alert.SIGNAL_BUY : Alert.SIGNAL_SELL;
+        if (!suppressor.tryFire(s.index(), buy ? AlertType.SIGNAL_BUY : AlertType.SIGNAL_SELL,
+                depth, System.currentTimeMillis())) {
+            suppressed(s, kind, -1, depth);
+            return signal;
+        }
+
+        String msg = String.format(c.classicSignalTemplate(),
                 signal.getType().getMessage(),
                 price,
                 rsi
         );
 
-        notifier.sendMessage(msg);
+        send(s, kind, -1, depth, msg);
 
         return signal;
     }
-}
\ No newline at end of file
+
+    // ✅ Todas las reglas con un mismo contexto por símbolo: cada indicador se calcula una vez por tick
+    // aunque lo usen muchas reglas. Se avisa en el flanco de subida (falsa -> cierta) y la regla se rearma
+    // al dejar de cumplirse; el intervalo mínimo entre avisos es el de AlertSuppressor.
+    private void checkRules(SymbolState s, ConfigSnapshot c, IndicatorState state, double price, double rsi) {
+        RuleSet rules = ruleEngine.rules();
+        if (rules.isEmpty()) return;
+
+        RuleContext ctx = s.rules;
+        if (ctx == null || ctx.ruleSet() != rules) {
+            if (!rules.supports(state)) return;
+            ctx = s.rules = rules.newContext(state);
+        }
+        if (!rules.evaluate(ctx)) return;
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < rules.size(); i++) {
+            if (ctx.fell(i)) {
+                suppressor.rearmRule(s.index(), i);
+            } else if (ctx.rose(i)) {
+                if (suppressor.tryFireRule(s.index(), i, 0, now)) {
+                    String msg = String.format(c.ruleTemplate(), rules.rule(i).name(), rules.rule(i).source(), price, rsi);
+                    send(s, Alert.RULE, i, 0, msg);
+                } else {
+                    suppressed(s, Alert.RULE, i, 0);
+                }
+            }
+        }
+    }
+
+    // ✅ Recarga de configuración: si cambian período RSI, temporalidades o tamaño del histórico, los indicadores
+    // actuales ya no sirven. Se reconstruyen en segundo plano desde el histórico en disco mientras los actuales
+    // siguen atendiendo ticks, y se cambian con el lock del símbolo tras incorporar lo llegado entretanto.
+    private void onConfigChange(ConfigSnapshot previous, ConfigSnapshot next) {
+        if (!next.indicatorsDiffer(previous)) return;
+        log.info("🔁 Parámetros de indicadores cambiados: reconstruyendo {} símbolos en segundo plano", states.size());
+        rebuilder.execute(() -> rebuildIndicators(next));
+    }
+
+    void rebuildIndicators(ConfigSnapshot config) {
+        long start = System.nanoTime();
+        int rebuilt = 0;
+        for (SymbolState s : states.values()) {
+            // ✅ Otra recarga posterior ha vuelto a cambiar los indicadores: ésa hará su propia reconstrucción
+            if (configs.current().indicatorsDiffer(config)) return;
+
+            String id = s.getSymbol().id();
+            IndicatorState fresh = indicatorEngine.newState(config);
+            // ✅ En el diario, los puntos de la reconstrucción van a un estado aparte hasta el swap
+            PriceHistoryFile.RecordConsumer feed = (ts, price) -> {
+                if (fresh.onPrice(ts, price)) journal.tick(id, ts, price, 0, Origin.REBUILD);
+            };
+            journal.rebuildBegin(id);
+            historyStore.replay(id, feed);
+
+            s.acquire();
+            try {
+                // ✅ onPrice descarta lo ya visto: sólo entra lo guardado durante la primera pasada
+                historyStore.replay(id, feed);
+                s.replaceIndicators(fresh);
+                s.rules = null;
+                indicatorEngine.replace(id, fresh);
+                journal.rebuildSwap(id);
+            } finally {
+                s.release();
+            }
+            rebuilt++;
+        }
+        log.info("🔁 Indicadores reconstruidos para {} símbolos en {} ms (v{})", rebuilt,
+                (System.nanoTime() - start) / 1_000_000, config.version());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+}
@@ -0,0 +1,48 @@
+package com.cryptobot.service;
+
+// ✅ Resultado inmutable de la última evaluación de un símbolo.
+// Se publica con un único intercambio de referencia por ciclo: /status, las métricas y cualquier otro lector
+// ven siempre una combinación coherente de precio, RSI y señal, sin bloqueos ni reservas de memoria al leer.
+// `source` es la procedencia del último dato (proveedor, "stream", "coingecko-chart", "warm-start") y
+// `dataTimestampMillis` su instante: la diferencia con evaluatedAtMillis es la antigüedad con la que se evaluó.
+public record EvaluationSnapshot(long version,
+                                 String symbolId,
+                                 String label,
+                                 double price,
+                                 double rsi,
+                                 boolean rsiReady,
+                                 SignalEvaluatorService.Signal.Type signal,
+                                 double priceChangePct,
+                                 long barCount,
+                                 long evaluatedAtMillis,
+                                 String source,
+                                 long dataTimestampMillis) {
+
+    // ✅ Antes de la primera evaluación (versión 0): precio 0 y RSI neutro
+    static EvaluationSnapshot empty(String symbolId, String label) {
+        return new EvaluationSnapshot(0, symbolId, label, 0.0, 50.0, false,
+                SignalEvaluatorService.Signal.Type.HOLD, Double.NaN, 0, 0, "", 0);
+    }
+
+    public boolean hasData() {
+        return version > 0;
+    }
+
+    // ✅ Para el gauge btc_signal_type: 0=HOLD, 1=BUY, 2=SELL
+    public int signalCode() {
+        return switch (signal) {
+            case BUY -> 1;
+            case SELL -> 2;
+            default -> 0;
+        };
+    }
+
+    public long evaluatedAtEpochSeconds() {
+        return evaluatedAtMillis / 1000;
+    }
+
+    // ✅ Antigüedad del dato con el que se evaluó (0 sin datos)
+    public long dataAgeMillis() {
+        return dataTimestampMillis > 0 ? Math.max(0, evaluatedAtMillis - dataTimestampMillis) : 0;
+    }
+}
@@ -4,45 +4,43 @@ import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 @Service
 public class MetricsService {
 
-    private final BitcoinPriceService priceService;
-
     public MetricsService(MeterRegistry registry, BitcoinPriceService priceService) {
-        this.priceService = priceService;
+        // ✅ Los gauges leen la instantánea publicada del símbolo principal: sin boxing ni valores mezclados
+        AtomicReference<EvaluationSnapshot> snapshot = priceService.state(priceService.getWatchlist().get(0)).snapshotRef();
 
         // ✅ RSI actual
-        Gauge.builder("btc_rsi_value", () -> safeDouble(priceService.getLastKnownRsi()))
+        Gauge.builder("btc_rsi_value", snapshot, ref -> ref.get().rsi())
                 .description("RSI actual calculado por el bot")
                 .register(registry);
 
         // ✅ Precio actual
-        Gauge.builder("btc_price_usd", () -> safeDouble(priceService.getLastKnownPrice()))
+        Gauge.builder("btc_price_usd", snapshot, ref -> ref.get().price())
                 .description("Precio actual de BTC en USD")
                 .register(registry);
 
         // ✅ Tipo de señal actual (0=HOLD, 1=BUY, 2=SELL)
-        Gauge.builder("btc_signal_type", () -> {
-            return switch (priceService.getLastSignalType()) {
-                case BUY -> 1;
-                case SELL -> 2;
-                default -> 0;
-            };
-        })
-        .description("Señal actual del bot: 0=HOLD, 1=BUY, 2=SELL")
-        .register(registry);
+        Gauge.builder("btc_signal_type", snapshot, ref -> ref.get().signalCode())
+                .description("Señal actual del bot: 0=HOLD, 1=BUY, 2=SELL")
+                .register(registry);
 
         // ✅ Timestamp de última ejecución (epoch seconds)
-        Gauge.builder("bot_last_execution_timestamp", () -> {
-            if (priceService.getLastExecutionTime() == null) return 0;
-            return priceService.getLastExecutionTime().getEpochSecond();
-        })
-        .description("Última ejecución del scheduler")
-        .register(registry);
-    }
+        Gauge.builder("bot_last_execution_timestamp", snapshot, ref -> ref.get().evaluatedAtEpochSeconds())
+                .description("Última ejecución del scheduler")
+                .register(registry);
+
+        // ✅ Antigüedad del dato con el que se evaluó (p.ej. caché vieja de CoinGecko sin otros proveedores)
+        Gauge.builder("bot_data_age_seconds", snapshot, ref -> ref.get().dataAgeMillis() / 1000.0)
+                .description("Antigüedad del último precio evaluado del símbolo principal")
+                .register(registry);
 
-    private double safeDouble(Double value) {
-        return value == null ? 0.0 : value;
+        // ✅ Versión de la instantánea (crece con cada evaluación publicada)
+        Gauge.builder("bot_snapshot_version", snapshot, ref -> ref.get().version())
+                .description("Número de evaluaciones publicadas del símbolo principal")
+                .register(registry);
     }
 }
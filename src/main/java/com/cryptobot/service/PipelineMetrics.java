@@ -0,0 +1,116 @@
+package com.cryptobot.service;
+
+import com.cryptobot.config.BotProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// ✅ Latencia de cada etapa del pipeline (fetch, parse, indicadores, señales, entrega) y contadores
+// de caché y reintentos, etiquetados por símbolo. Uso: long t = metrics.start(); ...; metrics.record(Stage.X, id, t).
+// Con metrics.pipeline-enabled=false start() devuelve 0 y record()/count() salen sin tocar el reloj ni los mapas.
+@Component
+public class PipelineMetrics {
+
+    // ✅ Etiqueta de símbolo para lo que no pertenece a uno solo (ciclo completo, lotes, envíos agrupados)
+    public static final String ALL = "all";
+
+    public enum Stage {
+        CYCLE, FETCH, PARSE, INDICATORS, SIGNALS, DELIVERY;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    public enum Event {
+        CHART_CACHE_HIT("coingecko_cache_total", "cache", "market_chart", "result", "hit"),
+        CHART_CACHE_MISS("coingecko_cache_total", "cache", "market_chart", "result", "miss"),
+        CHART_CACHE_STALE("coingecko_cache_total", "cache", "market_chart", "result", "stale_fallback"),
+        PRICE_CACHE_HIT("coingecko_cache_total", "cache", "simple_price", "result", "hit"),
+        PRICE_CACHE_MISS("coingecko_cache_total", "cache", "simple_price", "result", "miss"),
+        PRICE_CACHE_STALE("coingecko_cache_total", "cache", "simple_price", "result", "stale_fallback"),
+        CHART_FETCH_FULL("coingecko_chart_fetch_total", "mode", "full"),
+        CHART_FETCH_DELTA("coingecko_chart_fetch_total", "mode", "delta"),
+        NOTIFICATION_RETRY("notification_retries_total"),
+        NOTIFICATION_RETRIES_EXHAUSTED("notification_retries_exhausted_total");
+
+        private final String meter;
+        private final String[] tags;
+
+        Event(String meter, String... tags) {
+            this.meter = meter;
+            this.tags = tags;
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final boolean percentileHistogram;
+
+    @SuppressWarnings("unchecked")
+    private final Map<String, Timer>[] timers = new Map[Stage.values().length];
+    @SuppressWarnings("unchecked")
+    private final Map<String, Counter>[] counters = new Map[Event.values().length];
+
+    @Autowired
+    public PipelineMetrics(MeterRegistry registry, BotProperties config) {
+        this(registry, config.getMetrics().isPipelineEnabled(), config.getMetrics().isPercentileHistogram());
+    }
+
+    private PipelineMetrics(MeterRegistry registry, boolean enabled, boolean percentileHistogram) {
+        this.registry = registry;
+        this.enabled = enabled && registry != null;
+        this.percentileHistogram = percentileHistogram;
+        for (int i = 0; i < timers.length; i++) timers[i] = new ConcurrentHashMap<>();
+        for (int i = 0; i < counters.length; i++) counters[i] = new ConcurrentHashMap<>();
+    }
+
+    // ✅ Sin registro: para tests y herramientas de línea de comandos
+    public static PipelineMetrics disabled() {
+        return new PipelineMetrics(null, false, false);
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public void record(Stage stage, String symbol, long startNanos) {
+        if (!enabled) return;
+        timer(stage, symbol).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void count(Event event, String symbol) {
+        if (!enabled) return;
+        counter(event, symbol).increment();
+    }
+
+    private Timer timer(Stage stage, String symbol) {
+        Map<String, Timer> bySymbol = timers[stage.ordinal()];
+        Timer timer = bySymbol.get(symbol);
+        if (timer != null) return timer;
+        return bySymbol.computeIfAbsent(symbol, s -> Timer.builder("pipeline_stage_latency")
+                .description("Duración de cada etapa del pipeline de evaluación")
+                .tag("stage", stage.tag)
+                .tag("symbol", s)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram(percentileHistogram)
+                .register(registry));
+    }
+
+    private Counter counter(Event event, String symbol) {
+        Map<String, Counter> bySymbol = counters[event.ordinal()];
+        Counter counter = bySymbol.get(symbol);
+        if (counter != null) return counter;
+        return bySymbol.computeIfAbsent(symbol, s -> Counter.builder(event.meter)
+                .tags(event.tags)
+                .tag("symbol", s)
+                .register(registry));
+    }
+}
@@ -1,25 +1,17 @@
 package com.cryptobot.service;
 
-import com.cryptobot.config.BotProperties;
-import com.cryptobot.model.PricePoint;
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.config.ConfigSnapshot;
+import com.cryptobot.indicator.IndicatorState;
 import org.springframework.stereotype.Service;
-import org.ta4j.core.BarSeries;
-import org.ta4j.core.BaseBarSeriesBuilder;
-import org.ta4j.core.indicators.RSIIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-
-import java.time.Duration;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.util.List;
 
 @Service
 public class SignalEvaluatorService {
 
-    private final BotProperties config;
+    private final ConfigService configs;
 
-    public SignalEvaluatorService(BotProperties config) {
-        this.config = config;
+    public SignalEvaluatorService(ConfigService configs) {
+        this.configs = configs;
     }
 
     public static class Signal {
@@ -49,81 +41,18 @@ public class SignalEvaluatorService {
         }
     }
 
-    public double calculateRSI(List<PricePoint> prices) {
-        int minDataPoints = config.getBitcoin().getRsi().getMinDataPoints();
-        
-        if (prices == null || prices.size() < minDataPoints) {
-            return -1;
-        }
-
-        prices.sort((a, b) -> a.dateTime().compareTo(b.dateTime()));
-
-        BarSeries series = buildBarSeries(prices);
-        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
-        
-        int rsiPeriod = config.getBitcoin().getRsi().getPeriod();
-        RSIIndicator rsiIndicator = new RSIIndicator(closePrice, rsiPeriod);
-
-        double rsi = rsiIndicator.getValue(series.getEndIndex()).doubleValue();
-        return Double.isNaN(rsi) ? -1 : rsi;
-    }
-
-    public Signal evaluateRsiSignal(List<PricePoint> prices) {
-        int minDataPoints = config.getBitcoin().getRsi().getMinDataPoints();
-        
-        if (prices == null || prices.size() < minDataPoints) {
-            double lastPrice = (prices != null && !prices.isEmpty())
-                    ? prices.get(prices.size() - 1).price()
-                    : 0;
-            return new Signal(Signal.Type.HOLD, -1, lastPrice);
-        }
-
-        prices.sort((a, b) -> a.dateTime().compareTo(b.dateTime()));
-
-        BarSeries series = buildBarSeries(prices);
-        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
-        
-        int rsiPeriod = config.getBitcoin().getRsi().getPeriod();
-        RSIIndicator rsiIndicator = new RSIIndicator(closePrice, rsiPeriod);
-
-        double rsiValue = rsiIndicator.getValue(series.getEndIndex()).doubleValue();
-        double currentPrice = prices.get(prices.size() - 1).price();
+    // ✅ Evalúa la señal sobre el estado compartido del motor de indicadores (sin reconstruir series)
+    public Signal evaluateRsiSignal(IndicatorState state) {
+        double currentPrice = state.barCount() > 0 ? state.lastPrice() : 0;
+        double rsiValue = state.rsi();
 
         if (Double.isNaN(rsiValue)) {
             return new Signal(Signal.Type.HOLD, -1, currentPrice);
         }
 
-        // ✅ Usar niveles configurables
-        int oversoldLevel = config.getBitcoin().getRsi().getOversoldLevel();
-        int overboughtLevel = config.getBitcoin().getRsi().getOverboughtLevel();
-
-        if (rsiValue < oversoldLevel) {
-            return new Signal(Signal.Type.BUY, rsiValue, currentPrice);
-        }
-        
-        if (rsiValue > overboughtLevel) {
-            return new Signal(Signal.Type.SELL, rsiValue, currentPrice);
-        }
-
-        return new Signal(Signal.Type.HOLD, rsiValue, currentPrice);
-    }
-
-    private BarSeries buildBarSeries(List<PricePoint> prices) {
-        BarSeries series = new BaseBarSeriesBuilder().withName("BTC-USD").build();
-
-        for (PricePoint p : prices) {
-            ZonedDateTime zdt = p.dateTime().atZone(ZoneId.of("UTC"));
-            series.addBar(
-                    Duration.ofHours(1),
-                    zdt,
-                    p.price(),
-                    p.price(),
-                    p.price(),
-                    p.price(),
-                    0
-            );
-        }
-
-        return series;
+        // ✅ Usar niveles configurables (misma regla que el backtest)
+        ConfigSnapshot config = configs.current();
+        Signal.Type type = SignalRules.toType(SignalRules.classify(rsiValue, config.oversoldLevel(), config.overboughtLevel()));
+        return new Signal(type, rsiValue, currentPrice);
     }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.cryptobot.service;
+
+// ✅ Reglas de señales y alertas como funciones puras sobre primitivos.
+// Las usan tanto la evaluación en vivo (SignalEvaluatorService, BitcoinPriceService) como el backtest,
+// de modo que ambos aplican exactamente la misma lógica.
+public final class SignalRules {
+
+    public static final int HOLD = 0;
+    public static final int BUY = 1;
+    public static final int SELL = -1;
+
+    private SignalRules() {}
+
+    // ✅ Señal clásica: BUY por debajo de sobreventa, SELL por encima de sobrecompra; NaN = HOLD
+    public static int classify(double rsi, double oversoldLevel, double overboughtLevel) {
+        if (Double.isNaN(rsi)) return HOLD;
+        if (rsi < oversoldLevel) return BUY;
+        if (rsi > overboughtLevel) return SELL;
+        return HOLD;
+    }
+
+    // ✅ Cambio porcentual respecto al precio anterior; NaN si no hay precio anterior
+    public static double priceChangePct(double lastPrice, double price) {
+        if (lastPrice == 0.0) return Double.NaN;
+        return ((price - lastPrice) / lastPrice) * 100;
+    }
+
+    public static boolean isPriceAlert(double changePct, double threshold) {
+        return Math.abs(changePct) >= threshold;
+    }
+
+    // ✅ Cruce hacia abajo del nivel de sobrecompra
+    public static boolean crossedDownFromOverbought(double lastRsi, double rsi, double overboughtLevel) {
+        return lastRsi != 0.0 && lastRsi > overboughtLevel && rsi <= overboughtLevel;
+    }
+
+    // ✅ Cruce hacia arriba del nivel de sobreventa
+    public static boolean crossedUpFromOversold(double lastRsi, double rsi, double oversoldLevel) {
+        return lastRsi != 0.0 && lastRsi < oversoldLevel && rsi >= oversoldLevel;
+    }
+
+    public static SignalEvaluatorService.Signal.Type toType(int signal) {
+        return switch (signal) {
+            case BUY -> SignalEvaluatorService.Signal.Type.BUY;
+            case SELL -> SignalEvaluatorService.Signal.Type.SELL;
+            default -> SignalEvaluatorService.Signal.Type.HOLD;
+        };
+    }
+}
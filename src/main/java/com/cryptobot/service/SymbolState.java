@@ -0,0 +1,77 @@
+package com.cryptobot.service;
+
+import com.cryptobot.indicator.IndicatorState;
+import com.cryptobot.model.WatchedSymbol;
+import com.cryptobot.rule.RuleContext;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ✅ Estado por símbolo con campos primitivos: el coste de memoria crece de forma lineal con la watchlist
+// (IndicatorState con sus buffers de tamaño fijo + unos pocos doubles).
+public final class SymbolState {
+
+    private final WatchedSymbol symbol;
+    // ✅ Índice denso del símbolo (clave compacta en AlertSuppressor)
+    private final int index;
+    // ✅ Se sustituye (con el lock de evaluación) si una recarga cambia los parámetros de los indicadores
+    private volatile IndicatorState indicators;
+    private final ReentrantLock evaluation = new ReentrantLock();
+
+    // ✅ Última evaluación publicada (lectura sin bloqueos desde /status y las métricas)
+    private final AtomicReference<EvaluationSnapshot> snapshot;
+
+    // ✅ Valores del ciclo anterior (para cambios de precio y cruces RSI)
+    double lastPrice = 0.0;
+    double lastRsi = 50.0;
+    SignalEvaluatorService.Signal.Type lastSignalType = SignalEvaluatorService.Signal.Type.HOLD;
+
+    // ✅ Stream en tiempo real: último tick recibido y último tick guardado en el histórico
+    volatile long lastTickMillis = 0;
+    long lastPersistedMillis = 0;
+    long lastPeriodicMillis = 0;
+
+    // ✅ Procedencia del último dato aceptado (proveedor de precio, "stream", "coingecko-chart"...)
+    String lastSource = "";
+    // ✅ La última evaluación usó datos más viejos que price-source.max-age-seconds
+    boolean stale = false;
+
+    // ✅ Cluster: vista en la que este nodo evaluó el símbolo por última vez, y si la evaluación
+    // en curso es sólo de cebado (recién asignado: actualiza el estado pero no envía nada)
+    long clusterEpoch = -1;
+    boolean muted = false;
+
+    // ✅ Reglas declarativas: memorias por tick y valores anteriores de los cruces (se recrea si cambia el RuleSet)
+    RuleContext rules;
+
+    SymbolState(WatchedSymbol symbol, int index, IndicatorState indicators) {
+        this.symbol = symbol;
+        this.index = index;
+        this.indicators = indicators;
+        this.snapshot = new AtomicReference<>(EvaluationSnapshot.empty(symbol.id(), symbol.label()));
+    }
+
+    public WatchedSymbol getSymbol() { return symbol; }
+    public int index() { return index; }
+    public IndicatorState getIndicators() { return indicators; }
+    void replaceIndicators(IndicatorState indicators) { this.indicators = indicators; }
+    public EvaluationSnapshot snapshot() { return snapshot.get(); }
+
+    AtomicReference<EvaluationSnapshot> snapshotRef() { return snapshot; }
+
+    // ✅ Sólo lo llama quien tiene el lock de evaluación: un único escritor, versión siempre creciente
+    EvaluationSnapshot publish(double price, double rsi, boolean rsiReady, SignalEvaluatorService.Signal.Type signal,
+                               double priceChangePct, long barCount, long evaluatedAtMillis,
+                               long dataTimestampMillis) {
+        EvaluationSnapshot next = new EvaluationSnapshot(snapshot.get().version() + 1, symbol.id(), symbol.label(),
+                price, rsi, rsiReady, signal, priceChangePct, barCount, evaluatedAtMillis, lastSource, dataTimestampMillis);
+        snapshot.set(next);
+        return next;
+    }
+
+    // ✅ Un único hilo evalúa el símbolo a la vez (un ciclo lento no se solapa con el siguiente).
+    // El cron lo intenta y se salta el ciclo si está ocupado; los ticks esperan su turno.
+    boolean tryAcquire() { return evaluation.tryLock(); }
+    void acquire() { evaluation.lock(); }
+    void release() { evaluation.unlock(); }
+}
@@ -0,0 +1,160 @@
+package com.cryptobot.service;
+
+import com.cryptobot.cluster.ClusterService;
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.execution.Threads;
+import com.cryptobot.model.WatchedSymbol;
+import com.cryptobot.source.PriceRouter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// ✅ Evalúa todos los símbolos de la watchlist en paralelo sobre un pool acotado.
+// Un símbolo lento o con errores no bloquea a los demás: cada uno tiene su propia tarea
+// y las que superan el plazo se cancelan.
+//
+// Con hilos virtuales (execution.virtual-threads) no hay pool: cada ciclo abre su propio executor con un hilo
+// por símbolo, todos a la vez y con un único plazo, y lo cierra al terminar cancelando lo que quede. Ninguna
+// tarea sobrevive al ciclo que la lanzó (concurrencia estructurada sin la API en preview de Java 21).
+@Service
+public class WatchlistEvaluator {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchlistEvaluator.class);
+
+    private final BitcoinPriceService priceService;
+    private final PriceRouter priceRouter;
+    private final ClusterService cluster;
+    private final BotProperties config;
+    private final ThreadPoolExecutor executor;
+    // ✅ Hilo que coordina cada ciclo (reparte, espera y recoge) para no bloquear el hilo del TaskScheduler
+    private final ExecutorService coordinator;
+    private final boolean virtual;
+
+    public WatchlistEvaluator(BitcoinPriceService priceService,
+                              PriceRouter priceRouter,
+                              ClusterService cluster,
+                              BotProperties config) {
+        this.priceService = priceService;
+        this.priceRouter = priceRouter;
+        this.cluster = cluster;
+        this.config = config;
+        this.virtual = Threads.virtual(config);
+
+        int parallelism = Math.max(1, config.getWatchlist().getParallelism());
+        int queueCapacity = Math.max(1, priceService.getWatchlist().size());
+        this.executor = new ThreadPoolExecutor(
+                parallelism, parallelism,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Threads.factory("watchlist-eval-", false),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.coordinator = Executors.newSingleThreadExecutor(Threads.factory("watchlist-cycle-", false));
+    }
+
+    public record Result(int total, int succeeded, int skipped, int failed, int timedOut) {
+        public boolean allFailed() { return total > 0 && failed + timedOut == total; }
+    }
+
+    public Result evaluateAll() {
+        return evaluate(null);
+    }
+
+    // ✅ Sólo los símbolos indicados (null = toda la watchlist): el scheduler adaptativo consulta los que vencen
+    public Result evaluate(Collection<String> ids) {
+        // ✅ En modo cluster sólo los símbolos que el anillo asigna a este nodo
+        List<WatchedSymbol> symbols = priceService.getWatchlist().stream()
+                .filter(symbol -> ids == null || ids.contains(symbol.id()))
+                .filter(symbol -> cluster.owns(symbol.id()))
+                .toList();
+        List<Future<Boolean>> futures = new ArrayList<>(symbols.size());
+        int failed = 0;
+
+        // ✅ Pedir todos los últimos precios a la vez: se agrupan en el mínimo número de llamadas
+        // (salvo los símbolos que el stream en tiempo real ya mantiene al día)
+        priceRouter.prefetch(symbols.stream()
+                .filter(symbol -> !priceService.isStreamFresh(symbol))
+                .toList());
+
+        ExecutorService scope = virtual ? Threads.executor("watchlist-eval-", 0, true) : executor;
+        try {
+            return awaitAll(scope, symbols, futures, failed);
+        } finally {
+            if (scope != executor) scope.shutdownNow();
+        }
+    }
+
+    // ✅ Igual que evaluate(), pero en el hilo coordinador: quien llama (el TaskScheduler) queda libre al momento.
+    // Los ciclos se encolan y corren de uno en uno.
+    public CompletableFuture<Result> evaluateAsync(Collection<String> ids) {
+        return CompletableFuture.supplyAsync(() -> evaluate(ids), coordinator);
+    }
+
+    private Result awaitAll(ExecutorService scope, List<WatchedSymbol> symbols, List<Future<Boolean>> futures, int failed) {
+        for (WatchedSymbol symbol : symbols) {
+            try {
+                futures.add(scope.submit(() -> priceService.process(symbol)));
+            } catch (RejectedExecutionException e) {
+                log.warn("⚠️ Cola de evaluación llena, se omite {}", symbol.label());
+                futures.add(null);
+                failed++;
+            }
+        }
+
+        // ✅ Plazo global proporcional a las "oleadas" necesarias para recorrer la watchlist (una con hilos virtuales)
+        int parallelism = scope == executor ? executor.getMaximumPoolSize() : Math.max(symbols.size(), 1);
+        int waves = (symbols.size() + parallelism - 1) / parallelism;
+        long timeoutMs = TimeUnit.SECONDS.toMillis(config.getWatchlist().getSymbolTimeoutSeconds());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs * Math.max(waves, 1));
+
+        int succeeded = 0;
+        int skipped = 0;
+        int timedOut = 0;
+
+        for (int i = 0; i < futures.size(); i++) {
+            Future<Boolean> future = futures.get(i);
+            if (future == null) continue;
+            WatchedSymbol symbol = symbols.get(i);
+
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                if (future.get(remaining, TimeUnit.NANOSECONDS)) succeeded++;
+                else skipped++;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                timedOut++;
+                log.warn("⏱️ Timeout evaluando {}, cancelado", symbol.label());
+            } catch (ExecutionException e) {
+                failed++;
+                log.error("❌ Error evaluando {}: {}", symbol.label(), e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.subList(i, futures.size()).forEach(f -> { if (f != null) f.cancel(true); });
+                throw new IllegalStateException("Evaluación de la watchlist interrumpida", e);
+            }
+        }
+
+        return new Result(symbols.size(), succeeded, skipped, failed, timedOut);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,63 @@
+package com.cryptobot.source;
+
+// ✅ Circuit breaker de un proveedor.
+// CERRADO: se usa. Tras `failureThreshold` fallos seguidos pasa a ABIERTO y se salta durante `openMillis`.
+// Después, SEMIABIERTO: una única petición de prueba decide si vuelve a CERRADO o a ABIERTO.
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = Math.max(0, openMillis);
+    }
+
+    // ✅ true si se puede llamar al proveedor ahora (en SEMIABIERTO, sólo a quien se lleva la prueba)
+    synchronized boolean tryAcquire(long nowMillis) {
+        if (state == State.OPEN && nowMillis - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialInFlight) yield false;
+                trialInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        trialInFlight = false;
+    }
+
+    synchronized void onFailure(long nowMillis) {
+        failures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nowMillis;
+        }
+    }
+
+    // ✅ Petición cancelada (perdió la carrera de cobertura): no dice nada del proveedor
+    synchronized void onAbandoned() {
+        trialInFlight = false;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
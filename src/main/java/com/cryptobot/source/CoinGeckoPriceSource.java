@@ -0,0 +1,34 @@
+package com.cryptobot.source;
+
+import com.cryptobot.client.CoinGeckoBatchFetcher;
+import com.cryptobot.model.PricePoint;
+import com.cryptobot.model.WatchedSymbol;
+
+import java.util.List;
+
+// ✅ CoinGecko /simple/price a través del agrupador por lotes (comparte caché y token bucket)
+final class CoinGeckoPriceSource implements PriceSource {
+
+    private final CoinGeckoBatchFetcher batchFetcher;
+
+    CoinGeckoPriceSource(CoinGeckoBatchFetcher batchFetcher) {
+        this.batchFetcher = batchFetcher;
+    }
+
+    @Override
+    public String name() { return "coingecko"; }
+
+    @Override
+    public PricePoint latest(WatchedSymbol symbol) {
+        PricePoint point = batchFetcher.fetch(symbol.id());
+        if (point == null) {
+            throw new IllegalStateException("CoinGecko sin precio para " + symbol.id());
+        }
+        return point;
+    }
+
+    @Override
+    public void prefetch(List<WatchedSymbol> symbols) {
+        batchFetcher.requestAll(symbols.stream().map(WatchedSymbol::id).toList());
+    }
+}
@@ -0,0 +1,37 @@
+package com.cryptobot.source;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// ✅ Lectura en streaming del precio en las respuestas de los exchanges: el primer campo con el nombre dado,
+// numérico o texto ("43000.12"), o el primer elemento si es un array (Kraken: "c": ["43000.1", "0.01"]).
+//   Binance  {"symbol":"BTCUSDT","price":"43000.12"}                       → price
+//   Coinbase {"data":{"amount":"43000.1","base":"BTC","currency":"USD"}}   → amount
+//   Kraken   {"error":[],"result":{"XXBTZUSD":{"a":[...],"c":["43000.1","0.01"],...}}} → c
+final class ExchangeJson {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private ExchangeJson() {}
+
+    static double firstNumber(InputStream in, String field) throws IOException {
+        try (JsonParser p = FACTORY.createParser(in)) {
+            JsonToken token;
+            while ((token = p.nextToken()) != null) {
+                if (token != JsonToken.FIELD_NAME || !field.equals(p.currentName())) continue;
+                token = p.nextToken();
+                if (token == JsonToken.START_ARRAY) token = p.nextToken();
+                if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT
+                        || token == JsonToken.VALUE_STRING) {
+                    return p.getValueAsDouble(Double.NaN);
+                }
+                return Double.NaN;
+            }
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.cryptobot.source;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.http.OutboundHttp;
+import com.cryptobot.model.PricePoint;
+import com.cryptobot.model.WatchedSymbol;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+// ✅ Último precio de la API REST pública de un exchange (Binance, Kraken, Coinbase...).
+// Estos endpoints no dan la hora del precio: se toma la de recepción.
+final class HttpPriceSource implements PriceSource {
+
+    private final String name;
+    private final BotProperties.PriceSources.Endpoint endpoint;
+    private final OutboundHttp http;
+    private final Duration deadline;
+
+    HttpPriceSource(String name, BotProperties.PriceSources.Endpoint endpoint, OutboundHttp http, Duration deadline) {
+        this.name = name;
+        this.endpoint = endpoint;
+        this.http = http;
+        this.deadline = deadline;
+    }
+
+    @Override
+    public String name() { return name; }
+
+    @Override
+    public PricePoint latest(WatchedSymbol symbol) throws Exception {
+        URI uri = OutboundHttp.expand(endpoint.getUrl(), symbolFor(symbol));
+        double price = http.get(uri, deadline, (status, body) -> ExchangeJson.firstNumber(body, endpoint.getField()));
+        if (!(price > 0) || Double.isInfinite(price)) {
+            throw new IllegalStateException(name + " sin precio válido para " + symbol.label());
+        }
+        return new PricePoint(Instant.now(), price);
+    }
+
+    String symbolFor(WatchedSymbol symbol) {
+        String override = endpoint.getSymbols().get(symbol.id());
+        if (override != null) return override;
+        return endpoint.getSymbol()
+                .replace("{LABEL}", symbol.label().toUpperCase(Locale.ROOT))
+                .replace("{id}", symbol.id());
+    }
+}
@@ -0,0 +1,30 @@
+package com.cryptobot.source;
+
+import java.util.Arrays;
+
+// ✅ Latencias de las últimas respuestas buenas de un proveedor (ventana circular) para el retraso de cobertura
+final class LatencyWindow {
+
+    private final long[] samples;
+    private int count;
+    private int next;
+
+    LatencyWindow(int size) {
+        this.samples = new long[Math.max(1, size)];
+    }
+
+    synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) count++;
+    }
+
+    // ✅ -1 sin muestras
+    synchronized long quantile(double q) {
+        if (count == 0) return -1;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(Math.min(Math.max(q, 0), 1) * count) - 1;
+        return sorted[Math.max(0, index)];
+    }
+}
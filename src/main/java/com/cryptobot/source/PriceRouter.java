@@ -0,0 +1,304 @@
+package com.cryptobot.source;
+
+import com.cryptobot.client.CoinGeckoBatchFetcher;
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.execution.Threads;
+import com.cryptobot.http.OutboundHttp;
+import com.cryptobot.model.PricePoint;
+import com.cryptobot.model.WatchedSymbol;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// ✅ Último precio de un símbolo entre varios proveedores (price-source.providers, por orden de preferencia).
+// - Cobertura (hedging): si el proveedor en curso no ha respondido cuando se cumple su percentil de latencia
+//   (price-source.hedge.percentile), se lanza el siguiente sin cancelar el primero; gana la primera respuesta buena.
+// - Conmutación: un fallo lanza el siguiente proveedor en el acto.
+// - Circuit breaker por proveedor: los que fallan seguido se saltan durante un tiempo.
+// - Una respuesta sólo es buena con precio positivo y de menos de price-source.max-age-seconds.
+// Todo dentro de un plazo total (price-source.deadline-ms); sin respuesta buena devuelve null.
+@Component
+public class PriceRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceRouter.class);
+
+    private record Attempt(Provider provider, PricePoint point, boolean hedged) {}
+
+    // ✅ Petición lanzada; `started` lo reclama quien llegue antes: la tarea al arrancar o latest() al cancelarla
+    private record Launch(Provider provider, AtomicBoolean started, Future<Attempt> future) {}
+
+    private static final class Provider {
+        final PriceSource source;
+        final CircuitBreaker breaker;
+        final LatencyWindow latency = new LatencyWindow(128);
+        final Timer timer;
+        final Counter ok;
+        final Counter failed;
+        final Counter skipped;
+        final Counter hedges;
+
+        Provider(PriceSource source, CircuitBreaker breaker, MeterRegistry registry) {
+            this.source = source;
+            this.breaker = breaker;
+            String name = source.name();
+            this.timer = Timer.builder("price_source_latency")
+                    .description("Latencia de las respuestas buenas por proveedor de precio")
+                    .tag("source", name)
+                    .register(registry);
+            this.ok = requests(registry, name, "ok");
+            this.failed = requests(registry, name, "error");
+            this.skipped = requests(registry, name, "circuit_open");
+            this.hedges = Counter.builder("price_source_hedges_total")
+                    .description("Peticiones de cobertura lanzadas a este proveedor")
+                    .tag("source", name)
+                    .register(registry);
+            Gauge.builder("price_source_circuit_state", breaker, b -> b.state().ordinal())
+                    .description("Circuit breaker del proveedor: 0=cerrado, 1=abierto, 2=semiabierto")
+                    .tag("source", name)
+                    .register(registry);
+        }
+
+        private static Counter requests(MeterRegistry registry, String name, String outcome) {
+            return Counter.builder("price_source_requests_total")
+                    .description("Peticiones de último precio por proveedor y resultado")
+                    .tags("source", name, "outcome", outcome)
+                    .register(registry);
+        }
+    }
+
+    private final BotProperties.PriceSources config;
+    private final List<Provider> providers = new ArrayList<>();
+    private final ExecutorService executor;
+
+    @Autowired
+    public PriceRouter(BotProperties config, CoinGeckoBatchFetcher batchFetcher, OutboundHttp http, MeterRegistry registry) {
+        this(config.getPriceSource(), sources(config.getPriceSource(), batchFetcher, http), registry, Threads.virtual(config));
+    }
+
+    // ✅ Con hilos de plataforma: hasta 4 peticiones en vuelo por proveedor
+    PriceRouter(BotProperties.PriceSources config, List<PriceSource> sources, MeterRegistry registry, boolean virtual) {
+        this(config, sources, registry, Threads.executor("price-source-", 4 * Math.max(1, sources.size()), virtual));
+    }
+
+    PriceRouter(BotProperties.PriceSources config, List<PriceSource> sources, MeterRegistry registry,
+                ExecutorService executor) {
+        this.config = config;
+        this.executor = executor;
+        if (sources.isEmpty()) {
+            throw new IllegalStateException("price-source.providers no tiene ningún proveedor válido");
+        }
+        long openMillis = TimeUnit.SECONDS.toMillis(config.getBreaker().getOpenSeconds());
+        for (PriceSource source : sources) {
+            providers.add(new Provider(source, new CircuitBreaker(config.getBreaker().getFailureThreshold(), openMillis), registry));
+        }
+        log.info("💱 Fuentes de precio: {}", sources.stream().map(PriceSource::name).toList());
+    }
+
+    private static List<PriceSource> sources(BotProperties.PriceSources config, CoinGeckoBatchFetcher batchFetcher,
+                                             OutboundHttp http) {
+        Duration deadline = Duration.ofMillis(config.getDeadlineMs());
+        List<PriceSource> sources = new ArrayList<>();
+        for (String name : config.getProviders()) {
+            if ("coingecko".equals(name)) {
+                sources.add(new CoinGeckoPriceSource(batchFetcher));
+                continue;
+            }
+            BotProperties.PriceSources.Endpoint endpoint = config.getEndpoints().get(name);
+            if (endpoint == null || endpoint.getUrl() == null) {
+                log.warn("⚠️ Proveedor de precio sin endpoint configurado, se ignora: {}", name);
+                continue;
+            }
+            sources.add(new HttpPriceSource(name, endpoint, http, deadline));
+        }
+        return sources;
+    }
+
+    // ✅ El primer proveedor utilizable prepara las peticiones del ciclo (CoinGecko: un único lote)
+    public void prefetch(List<WatchedSymbol> symbols) {
+        if (symbols.isEmpty()) return;
+        for (Provider provider : providers) {
+            if (provider.breaker.state() == CircuitBreaker.State.OPEN) continue;
+            provider.source.prefetch(symbols);
+            return;
+        }
+    }
+
+    public Quote latest(WatchedSymbol symbol) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getDeadlineMs());
+        CompletionService<Attempt> done = new ExecutorCompletionService<>(executor);
+        List<Launch> launched = new ArrayList<>();
+        Throwable lastError = null;
+
+        try {
+            int cursor = launch(symbol, done, launched, 0, false);
+            if (launched.isEmpty()) {
+                log.warn("⚠️ Sin precio para {}: todos los proveedores con el circuito abierto", symbol.label());
+                return null;
+            }
+            int pending = 1;
+            long hedgeAt = hedgeAt(launched);
+
+            while (true) {
+                long now = System.nanoTime();
+                if (now >= deadline) break;
+                boolean more = cursor < providers.size();
+                boolean canHedge = more && config.getHedge().isEnabled();
+
+                Future<Attempt> finished = null;
+                if (pending > 0) {
+                    long until = canHedge ? Math.min(hedgeAt, deadline) : deadline;
+                    finished = done.poll(Math.max(0, until - now), TimeUnit.NANOSECONDS);
+                }
+
+                if (finished == null) {
+                    if (!more) {
+                        if (pending == 0) break;
+                        continue;
+                    }
+                    // ✅ Sin nada en vuelo: conmutación; con algo en vuelo y su percentil cumplido: cobertura
+                    if (pending == 0 || (canHedge && System.nanoTime() >= hedgeAt)) {
+                        int before = launched.size();
+                        cursor = launch(symbol, done, launched, cursor, pending > 0);
+                        if (launched.size() > before) {
+                            pending++;
+                            hedgeAt = hedgeAt(launched);
+                        }
+                    }
+                    continue;
+                }
+
+                pending--;
+                try {
+                    Attempt attempt = finished.get();
+                    Quote quote = new Quote(attempt.point(), attempt.provider().source.name(), attempt.hedged(),
+                            System.currentTimeMillis());
+                    if (attempt.hedged()) {
+                        log.debug("🏁 Precio de {} por cobertura desde {}", symbol.label(), quote.source());
+                    }
+                    return quote;
+                } catch (ExecutionException e) {
+                    lastError = e.getCause();
+                }
+
+                // ✅ Fallo: el siguiente proveedor sin esperar al percentil
+                if (cursor < providers.size()) {
+                    int before = launched.size();
+                    cursor = launch(symbol, done, launched, cursor, pending > 0);
+                    if (launched.size() > before) {
+                        pending++;
+                        hedgeAt = hedgeAt(launched);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            // ✅ Las peticiones que han perdido la carrera no siguen consumiendo cuota ni hilos.
+            // Si aún estaban en cola no llegarán a ejecutarse: se libera aquí su turno del circuit breaker
+            // (si no, una prueba de semiabierto quedaría reservada para siempre)
+            for (Launch launch : launched) {
+                if (launch.started().compareAndSet(false, true)) {
+                    launch.future().cancel(false);
+                    launch.provider().breaker.onAbandoned();
+                } else {
+                    launch.future().cancel(true);
+                }
+            }
+        }
+
+        log.warn("⚠️ Sin precio para {} de ningún proveedor en {} ms: {}", symbol.label(), config.getDeadlineMs(),
+                lastError != null ? lastError.getMessage() : "sin respuesta");
+        return null;
+    }
+
+    // ✅ Lanza el primer proveedor desde `from` con el circuito cerrado (o con la prueba de semiabierto).
+    // Devuelve la posición siguiente al lanzado, o el final de la lista si no hay ninguno utilizable.
+    private int launch(WatchedSymbol symbol, CompletionService<Attempt> done, List<Launch> launched,
+                       int from, boolean hedged) {
+        for (int i = from; i < providers.size(); i++) {
+            Provider provider = providers.get(i);
+            if (!provider.breaker.tryAcquire(System.currentTimeMillis())) {
+                provider.skipped.increment();
+                continue;
+            }
+            if (hedged) provider.hedges.increment();
+            AtomicBoolean started = new AtomicBoolean();
+            launched.add(new Launch(provider, started, done.submit(attempt(provider, symbol, hedged, started))));
+            return i + 1;
+        }
+        return providers.size();
+    }
+
+    // ✅ Momento de cubrir al último proveedor lanzado: cuando se cumple su percentil de latencia
+    private long hedgeAt(List<Launch> launched) {
+        BotProperties.PriceSources.Hedge hedge = config.getHedge();
+        long p = launched.get(launched.size() - 1).provider().latency.quantile(hedge.getPercentile());
+        long delayMs = p < 0 ? hedge.getInitialDelayMs() : Math.max(hedge.getMinDelayMs(), p);
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+    }
+
+    private Callable<Attempt> attempt(Provider provider, WatchedSymbol symbol, boolean hedged, AtomicBoolean started) {
+        return () -> {
+            // ✅ Ya cancelada por latest() antes de arrancar: el turno del breaker ya se liberó allí
+            if (!started.compareAndSet(false, true)) {
+                throw new CancellationException(provider.source.name() + " cancelada antes de empezar");
+            }
+            long start = System.nanoTime();
+            try {
+                PricePoint point = provider.source.latest(symbol);
+                long now = System.currentTimeMillis();
+                if (point == null || !(point.price() > 0) || Double.isInfinite(point.price())) {
+                    throw new IllegalStateException(provider.source.name() + " devolvió un precio inválido");
+                }
+                long ageMs = now - point.dateTime().toEpochMilli();
+                if (ageMs > TimeUnit.SECONDS.toMillis(config.getMaxAgeSeconds())) {
+                    throw new IllegalStateException(provider.source.name() + " devolvió un precio de hace "
+                            + ageMs / 1000 + " s");
+                }
+                long elapsed = System.nanoTime() - start;
+                provider.latency.record(TimeUnit.NANOSECONDS.toMillis(elapsed));
+                provider.timer.record(elapsed, TimeUnit.NANOSECONDS);
+                provider.breaker.onSuccess();
+                provider.ok.increment();
+                return new Attempt(provider, point, hedged);
+            } catch (Exception e) {
+                // ✅ Cancelada por haber perdido la carrera: no es un fallo del proveedor
+                if (e instanceof InterruptedException || Thread.currentThread().isInterrupted()) {
+                    provider.breaker.onAbandoned();
+                    throw e;
+                }
+                provider.breaker.onFailure(System.currentTimeMillis());
+                provider.failed.increment();
+                if (provider.breaker.state() == CircuitBreaker.State.OPEN) {
+                    log.warn("🔌 Circuito abierto para {} tras fallos seguidos: {}", provider.source.name(), e.getMessage());
+                }
+                throw e;
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
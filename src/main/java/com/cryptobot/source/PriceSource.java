@@ -0,0 +1,18 @@
+package com.cryptobot.source;
+
+import com.cryptobot.model.PricePoint;
+import com.cryptobot.model.WatchedSymbol;
+
+import java.util.List;
+
+// ✅ Proveedor del último precio de un símbolo (CoinGecko, exchanges con API pública, stubs en tests).
+// Lanza excepción si no tiene un precio válido: PriceRouter lo cuenta como fallo del proveedor.
+public interface PriceSource {
+
+    String name();
+
+    PricePoint latest(WatchedSymbol symbol) throws Exception;
+
+    // ✅ Aviso de que se van a pedir estos símbolos (CoinGecko los agrupa en una sola llamada)
+    default void prefetch(List<WatchedSymbol> symbols) {}
+}
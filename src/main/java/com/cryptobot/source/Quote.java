@@ -0,0 +1,16 @@
+package com.cryptobot.source;
+
+import com.cryptobot.model.PricePoint;
+
+// ✅ Precio con procedencia: proveedor que lo dio, si llegó por una petición de cobertura y cuándo se recibió
+public record Quote(PricePoint point, String source, boolean hedged, long receivedAtMillis) {
+
+    public double price() { return point.price(); }
+
+    public long timestampMillis() { return point.dateTime().toEpochMilli(); }
+
+    // ✅ Antigüedad del dato (no de la respuesta): CoinGecko puede devolver un last_updated_at de hace minutos
+    public long ageMillis(long nowMillis) {
+        return Math.max(0, nowMillis - timestampMillis());
+    }
+}
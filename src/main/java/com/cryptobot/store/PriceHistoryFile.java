@@ -0,0 +1,226 @@
+package com.cryptobot.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// ✅ Serie temporal append-only de un símbolo en un fichero mapeado en memoria.
+//
+// Formato: cabecera de 32 bytes (magic, versión, tamaño de registro) seguida de registros de 16 bytes
+// (epochMillis: long, price: double). El fichero crece por bloques de `growRecords` registros
+// rellenos de ceros; un timestamp 0 marca el final de los datos.
+//
+// Al escribir, el precio se guarda antes que el timestamp: un registro sólo "existe" cuando su
+// timestamp está escrito. Al abrir se validan los registros (timestamps crecientes, precio finito y positivo)
+// y lo que sigue al primer registro inválido se descarta y se pone a cero (recuperación de cola tras un crash).
+// Un MappedByteBuffer no pasa de 2 GB: el fichero admite como mucho MAX_RECORDS registros (~134 M) y
+// no se abre si es más grande.
+public final class PriceHistoryFile implements Closeable {
+
+    static final int MAGIC = 0x43425048; // "CBPH"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 16;
+    static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    // ✅ Recibe cada registro como primitivos, sin crear objetos
+    @FunctionalInterface
+    public interface RecordConsumer {
+        void accept(long epochMillis, double price);
+    }
+
+    private final Path path;
+    private final int growRecords;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;       // registros que caben en el mapeo actual
+    private int count;          // registros válidos
+    private long lastTimestamp = Long.MIN_VALUE;
+    private int recoveredRecords;
+
+    public PriceHistoryFile(Path path, int growRecords) throws IOException {
+        this.path = path;
+        this.growRecords = Math.max(1, growRecords);
+        open();
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            writeHeader();
+            size = HEADER_SIZE;
+        }
+
+        // ✅ Bytes sueltos al final (escritura cortada a mitad de registro) se ignoran
+        long records = (size - HEADER_SIZE) / RECORD_SIZE;
+        if (records > MAX_RECORDS) {
+            channel.close();
+            throw new IOException("Histórico demasiado grande para mapearlo (" + size + " bytes, máximo "
+                    + offset(MAX_RECORDS) + "): " + path);
+        }
+        map((int) Math.min(Math.max(records, growRecords), MAX_RECORDS));
+        validateHeader();
+        recover();
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE);
+        header.rewind();
+        channel.write(header, 0);
+        channel.force(true);
+    }
+
+    private void validateHeader() throws IOException {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_SIZE) {
+            throw new IOException("Cabecera inválida en " + path);
+        }
+    }
+
+    private void map(int records) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, offset(records));
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        capacity = records;
+    }
+
+    private void recover() {
+        count = 0;
+        lastTimestamp = Long.MIN_VALUE;
+        for (int i = 0; i < capacity; i++) {
+            int offset = index(i);
+            long ts = buffer.getLong(offset);
+            if (ts == 0) break;
+            double price = buffer.getDouble(offset + 8);
+            if (ts <= lastTimestamp || !Double.isFinite(price) || price <= 0) break;
+            lastTimestamp = ts;
+            count++;
+        }
+
+        // ✅ Cola corrupta: poner a cero hasta el siguiente hueco para que los appends empiecen limpios
+        recoveredRecords = 0;
+        for (int i = count; i < capacity; i++) {
+            int offset = index(i);
+            if (buffer.getLong(offset) == 0 && buffer.getLong(offset + 8) == 0) break;
+            buffer.putLong(offset + 8, 0);
+            buffer.putLong(offset, 0);
+            recoveredRecords++;
+        }
+    }
+
+    // ✅ Devuelve false si el timestamp no es posterior al último guardado
+    public synchronized boolean append(long epochMillis, double price) throws IOException {
+        if (epochMillis <= lastTimestamp || epochMillis == 0 || !Double.isFinite(price) || price <= 0) {
+            return false;
+        }
+        if (count == capacity) {
+            if (capacity == MAX_RECORDS) {
+                throw new IOException("Histórico lleno (" + MAX_RECORDS + " registros): " + path);
+            }
+            map((int) Math.min((long) capacity + growRecords, MAX_RECORDS));
+        }
+        int offset = index(count);
+        buffer.putDouble(offset + 8, price);
+        buffer.putLong(offset, epochMillis); // commit
+        count++;
+        lastTimestamp = epochMillis;
+        return true;
+    }
+
+    public synchronized void forEach(RecordConsumer consumer) {
+        for (int i = 0; i < count; i++) {
+            int offset = index(i);
+            consumer.accept(buffer.getLong(offset), buffer.getDouble(offset + 8));
+        }
+    }
+
+    // ✅ Registros con timestamp >= fromMillis (búsqueda binaria: los timestamps son crecientes)
+    public synchronized void forEachSince(long fromMillis, RecordConsumer consumer) {
+        for (int i = firstIndexAtOrAfter(fromMillis); i < count; i++) {
+            int offset = index(i);
+            consumer.accept(buffer.getLong(offset), buffer.getDouble(offset + 8));
+        }
+    }
+
+    // ✅ Elimina los registros anteriores a `cutoffMillis` reescribiendo el fichero de forma atómica
+    public synchronized int retainSince(long cutoffMillis) throws IOException {
+        int first = firstIndexAtOrAfter(cutoffMillis);
+        if (first == 0) return 0;
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE);
+            header.rewind();
+            out.write(header);
+
+            ByteBuffer records = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            records.position(index(first)).limit(index(count));
+            while (records.hasRemaining()) {
+                out.write(records);
+            }
+            out.force(true);
+        }
+
+        buffer.force();
+        channel.close();
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // ✅ Siempre se vuelve a mapear (el fichero nuevo, o el anterior si el move falla):
+            // el siguiente append nunca escribe en el mapeo del fichero ya sustituido
+            open();
+        }
+        return first;
+    }
+
+    private int firstIndexAtOrAfter(long fromMillis) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buffer.getLong(index(mid)) < fromMillis) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    public synchronized void flush() {
+        buffer.force();
+    }
+
+    public synchronized int size() { return count; }
+    public synchronized long lastTimestamp() { return lastTimestamp; }
+    public synchronized long firstTimestamp() { return count == 0 ? Long.MIN_VALUE : buffer.getLong(index(0)); }
+    public int recoveredRecords() { return recoveredRecords; }
+    public Path path() { return path; }
+
+    // ✅ Posición en bytes del registro, en long para que no desborde
+    private static long offset(long index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    // ✅ Índice dentro del mapeo: cabe en int porque el mapeo nunca pasa de MAX_RECORDS
+    private static int index(int index) {
+        return Math.toIntExact(offset(index));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            buffer.force();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.cryptobot.store;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.model.MarketChart;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ✅ Histórico persistente de precios: un PriceHistoryFile por símbolo en `store.directory`.
+// Permite reconstruir el estado de indicadores al arrancar sin llamar a la red.
+@Component
+public class PriceHistoryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryStore.class);
+
+    private final BotProperties config;
+    private final Path directory;
+    private final Map<String, PriceHistoryFile> files = new ConcurrentHashMap<>();
+
+    public PriceHistoryStore(BotProperties config) {
+        this.config = config;
+        this.directory = Paths.get(config.getStore().getDirectory());
+    }
+
+    public boolean isEnabled() {
+        return config.getStore().isEnabled();
+    }
+
+    public void append(String symbol, long epochMillis, double price) {
+        if (!isEnabled()) return;
+        try {
+            file(symbol).append(epochMillis, price);
+        } catch (IOException e) {
+            log.warn("⚠️ No se pudo guardar el precio de {}: {}", symbol, e.getMessage());
+        }
+    }
+
+    public void appendAll(String symbol, MarketChart prices) {
+        if (!isEnabled() || prices.isEmpty()) return;
+        try {
+            PriceHistoryFile file = file(symbol);
+            for (int i = 0, n = prices.size(); i < n; i++) {
+                file.append(prices.time(i), prices.price(i));
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ No se pudo guardar el histórico de {}: {}", symbol, e.getMessage());
+        }
+    }
+
+    // ✅ Recorre los registros dentro de la ventana de retención; devuelve cuántos había
+    public int replay(String symbol, PriceHistoryFile.RecordConsumer consumer) {
+        if (!isEnabled()) return 0;
+        try {
+            PriceHistoryFile file = file(symbol);
+            if (file.recoveredRecords() > 0) {
+                log.warn("🩹 {}: descartados {} registros corruptos al final del histórico", symbol, file.recoveredRecords());
+            }
+            int[] replayed = {0};
+            file.forEachSince(retentionCutoff(), (ts, price) -> {
+                consumer.accept(ts, price);
+                replayed[0]++;
+            });
+            return replayed[0];
+        } catch (IOException e) {
+            log.warn("⚠️ No se pudo leer el histórico de {}: {}", symbol, e.getMessage());
+            return 0;
+        }
+    }
+
+    // ✅ Compactación periódica: elimina lo que queda fuera de la retención y fuerza los datos a disco
+    @Scheduled(cron = "${store.compaction-cron:0 15 * * * *}")
+    public void compact() {
+        long cutoff = retentionCutoff();
+        files.forEach((symbol, file) -> {
+            try {
+                int removed = file.retainSince(cutoff);
+                if (removed > 0) {
+                    log.info("🧹 {}: eliminados {} registros fuera de retención", symbol, removed);
+                }
+                file.flush();
+            } catch (IOException e) {
+                log.warn("⚠️ Error compactando histórico de {}: {}", symbol, e.getMessage());
+            }
+        });
+    }
+
+    private long retentionCutoff() {
+        return System.currentTimeMillis() - Duration.ofDays(config.getStore().getRetentionDays()).toMillis();
+    }
+
+    private PriceHistoryFile file(String symbol) throws IOException {
+        try {
+            return files.computeIfAbsent(symbol, s -> {
+                try {
+                    PriceHistoryFile file = new PriceHistoryFile(directory.resolve(fileName(s)), config.getStore().getGrowRecords());
+                    file.retainSince(retentionCutoff());
+                    return file;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String fileName(String symbol) {
+        return symbol.replaceAll("[^A-Za-z0-9_-]", "_") + ".bin";
+    }
+
+    @PreDestroy
+    public void close() {
+        files.forEach((symbol, file) -> {
+            try {
+                file.close();
+            } catch (IOException e) {
+                log.warn("⚠️ Error cerrando histórico de {}: {}", symbol, e.getMessage());
+            }
+        });
+        files.clear();
+    }
+}
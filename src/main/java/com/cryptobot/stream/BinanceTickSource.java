@@ -0,0 +1,231 @@
+package com.cryptobot.stream;
+
+import com.cryptobot.config.BotProperties;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// ✅ Trades de Binance por WebSocket (stream combinado: /stream?streams=btcusdt@aggTrade/ethusdt@aggTrade).
+// Reconexión automática con backoff exponencial; Binance cierra las conexiones cada 24h.
+public class BinanceTickSource implements TickSource {
+
+    private static final Logger log = LoggerFactory.getLogger(BinanceTickSource.class);
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final BotProperties.Stream config;
+    private final Map<String, String> idsByStreamSymbol;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService reconnector = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "binance-ws-reconnect");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile TickListener listener;
+    private volatile WebSocket webSocket;
+    private volatile boolean running = false;
+    private int attempts = 0;
+
+    public BinanceTickSource(BotProperties.Stream config) {
+        this.config = config;
+        this.idsByStreamSymbol = symbolMap(config.getSymbols());
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @Override
+    public String name() {
+        return "binance";
+    }
+
+    @Override
+    public void start(TickListener listener) {
+        this.listener = listener;
+        this.running = true;
+        connect();
+    }
+
+    private void connect() {
+        if (!running) return;
+
+        URI uri = URI.create(config.getUrl() + "?streams=" + streams());
+        log.info("🔌 Conectando al stream de Binance: {}", uri);
+
+        httpClient.newWebSocketBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .buildAsync(uri, new Handler())
+                .whenComplete((ws, error) -> {
+                    if (error != null) {
+                        log.warn("⚠️ No se pudo conectar al stream de Binance: {}", error.getMessage());
+                        scheduleReconnect();
+                    } else {
+                        attempts = 0;
+                        log.info("✅ Stream de Binance conectado ({} símbolos)", idsByStreamSymbol.size());
+                    }
+                });
+    }
+
+    private String streams() {
+        StringBuilder sb = new StringBuilder();
+        for (String symbol : idsByStreamSymbol.keySet()) {
+            if (sb.length() > 0) sb.append('/');
+            sb.append(symbol.toLowerCase(Locale.ROOT)).append('@').append(config.getChannel());
+        }
+        return sb.toString();
+    }
+
+    private void scheduleReconnect() {
+        webSocket = null;
+        if (!running) return;
+
+        long delay = Math.min(config.getReconnectMaxMs(), config.getReconnectInitialMs() << Math.min(attempts, 16));
+        attempts++;
+        log.info("🔁 Reconectando al stream de Binance en {} ms (intento {})", delay, attempts);
+        reconnector.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void handle(String message) {
+        try {
+            parseTrade(message, (streamSymbol, ts, price, qty) -> {
+                String id = idsByStreamSymbol.get(streamSymbol);
+                if (id != null) listener.onTick(id, ts, price, qty);
+            });
+        } catch (IOException e) {
+            log.debug("⚠️ Mensaje inválido del stream de Binance: {}", e.getMessage());
+        }
+    }
+
+    private class Handler implements WebSocket.Listener {
+
+        private final StringBuilder text = new StringBuilder();
+
+        @Override
+        public void onOpen(WebSocket ws) {
+            webSocket = ws;
+            ws.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            // ✅ Un mensaje puede llegar en varios fragmentos
+            text.append(data);
+            if (last) {
+                handle(text.toString());
+                text.setLength(0);
+            }
+            ws.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            log.info("🔌 Stream de Binance cerrado ({} {})", statusCode, reason);
+            scheduleReconnect();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            log.error("❌ Error en el stream de Binance: {}", error.getMessage());
+            scheduleReconnect();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        WebSocket ws = webSocket;
+        if (ws != null) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+        }
+        reconnector.shutdownNow();
+    }
+
+    @Override
+    public boolean isConnected() {
+        WebSocket ws = webSocket;
+        return ws != null && !ws.isInputClosed();
+    }
+
+    // ✅ Extrae símbolo ("s"), precio y cantidad ("p" y "q", como texto) y hora del trade ("T") de un evento trade/aggTrade,
+    // tanto en formato combinado ({"stream":..,"data":{..}}) como directo. Devuelve false si no es un trade.
+    static boolean parseTrade(String message, TickListener out) throws IOException {
+        String event = null;
+        String symbol = null;
+        String priceText = null;
+        String qtyText = null;
+        long tradeTime = 0;
+        long eventTime = 0;
+
+        try (JsonParser p = FACTORY.createParser(message)) {
+            JsonToken token;
+            while ((token = p.nextToken()) != null) {
+                if (token != JsonToken.FIELD_NAME) continue;
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "e" -> event = p.getText();
+                    case "s" -> symbol = p.getText();
+                    case "p" -> priceText = p.getText();
+                    case "q" -> qtyText = p.getText();
+                    case "T" -> tradeTime = p.getValueAsLong();
+                    case "E" -> eventTime = p.getValueAsLong();
+                    default -> {
+                        if (p.currentToken() == JsonToken.START_ARRAY) p.skipChildren();
+                    }
+                }
+            }
+        }
+
+        if (!"trade".equals(event) && !"aggTrade".equals(event)) return false;
+        if (symbol == null || priceText == null) return false;
+
+        double price;
+        double qty;
+        try {
+            price = Double.parseDouble(priceText);
+            qty = qtyText != null ? Double.parseDouble(qtyText) : 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        long ts = tradeTime > 0 ? tradeTime : eventTime;
+        if (ts <= 0 || !Double.isFinite(price) || price <= 0) return false;
+
+        out.onTick(symbol.toUpperCase(Locale.ROOT), ts, price, Double.isFinite(qty) ? qty : 0);
+        return true;
+    }
+
+    // ✅ "bitcoin:btcusdt" -> BTCUSDT => bitcoin
+    static Map<String, String> symbolMap(List<String> entries) {
+        Map<String, String> map = new HashMap<>();
+        if (entries == null) return map;
+        for (String entry : entries) {
+            if (entry == null || entry.isBlank()) continue;
+            String[] parts = entry.trim().split(":", 2);
+            if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+                log.warn("⚠️ Entrada de stream.symbols inválida: {}", entry);
+                continue;
+            }
+            map.put(parts[1].trim().toUpperCase(Locale.ROOT), parts[0].trim());
+        }
+        return map;
+    }
+}
@@ -0,0 +1,115 @@
+package com.cryptobot.stream;
+
+import com.cryptobot.config.BotProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+// ✅ Reproduce un stream grabado (un mensaje de Binance por línea) como si llegara en directo.
+// Respeta los intervalos originales divididos por `replay-speed` (<= 0: lo más rápido posible)
+// y desplaza los timestamps para que el primer tick caiga en el momento de arrancar.
+public class ReplayTickSource implements TickSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayTickSource.class);
+
+    private final Path file;
+    private final double speed;
+    private final Map<String, String> idsByStreamSymbol;
+
+    private volatile Thread thread;
+    private volatile boolean running = false;
+
+    public ReplayTickSource(BotProperties.Stream config) {
+        this(Paths.get(config.getReplayFile()), config.getReplaySpeed(), BinanceTickSource.symbolMap(config.getSymbols()));
+    }
+
+    ReplayTickSource(Path file, double speed, Map<String, String> idsByStreamSymbol) {
+        this.file = file;
+        this.speed = speed;
+        this.idsByStreamSymbol = idsByStreamSymbol;
+    }
+
+    @Override
+    public String name() {
+        return "replay";
+    }
+
+    @Override
+    public void start(TickListener listener) {
+        running = true;
+        Thread t = new Thread(() -> replay(listener), "tick-replay");
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    // ✅ Devuelve el número de ticks entregados
+    int replay(TickListener listener) {
+        long firstTs = Long.MIN_VALUE;
+        long startMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        int delivered = 0;
+
+        log.info("▶️ Reproduciendo ticks desde {} (velocidad x{})", file, speed);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            long[] tick = new long[1];
+            double[] price = new double[1];
+            double[] qty = new double[1];
+            String[] symbol = new String[1];
+
+            while (running && (line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                symbol[0] = null;
+                BinanceTickSource.parseTrade(line, (s, ts, p, q) -> {
+                    symbol[0] = s;
+                    tick[0] = ts;
+                    price[0] = p;
+                    qty[0] = q;
+                });
+                if (symbol[0] == null) continue;
+                String id = idsByStreamSymbol.get(symbol[0]);
+                if (id == null) continue;
+
+                if (firstTs == Long.MIN_VALUE) firstTs = tick[0];
+                long offsetMillis = tick[0] - firstTs;
+
+                if (speed > 0) {
+                    long dueNanos = startNanos + (long) (offsetMillis * 1_000_000L / speed);
+                    long waitNanos = dueNanos - System.nanoTime();
+                    if (waitNanos > 0) Thread.sleep(waitNanos / 1_000_000L, (int) (waitNanos % 1_000_000L));
+                }
+
+                listener.onTick(id, startMillis + offsetMillis, price[0], qty[0]);
+                delivered++;
+            }
+            log.info("⏹️ Replay terminado: {} ticks", delivered);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("❌ Error leyendo el replay {}: {}", file, e.getMessage());
+        } finally {
+            running = false;
+        }
+        return delivered;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread t = thread;
+        if (t != null) t.interrupt();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return running;
+    }
+}
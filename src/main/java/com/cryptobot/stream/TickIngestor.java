@@ -0,0 +1,101 @@
+package com.cryptobot.stream;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.service.BitcoinPriceService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// ✅ Conecta la fuente de ticks con el pipeline de evaluación.
+// El hilo de la fuente sólo encola; un único consumidor aplica los ticks en orden, de modo que
+// un WebSocket rápido nunca espera a una evaluación (ni a la evaluación del cron sobre el mismo símbolo).
+@Component
+@ConditionalOnProperty(prefix = "stream", name = "enabled", havingValue = "true")
+public class TickIngestor {
+
+    private static final Logger log = LoggerFactory.getLogger(TickIngestor.class);
+
+    private record Tick(String symbolId, long epochMillis, double price, double volume, long receivedNanos) {}
+
+    private final TickSource source;
+    private final BitcoinPriceService priceService;
+    private final BlockingQueue<Tick> queue;
+    private final Thread worker;
+
+    private final Counter received;
+    private final Counter dropped;
+    private final Timer latency;
+
+    private volatile boolean running = true;
+
+    public TickIngestor(TickSource source, BitcoinPriceService priceService, BotProperties config, MeterRegistry registry) {
+        this.source = source;
+        this.priceService = priceService;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, config.getStream().getQueueCapacity()));
+
+        Gauge.builder("tick_queue_depth", queue, BlockingQueue::size)
+                .description("Ticks pendientes de aplicar")
+                .register(registry);
+        this.received = Counter.builder("tick_received_total").register(registry);
+        this.dropped = Counter.builder("tick_dropped_total").register(registry);
+        this.latency = Timer.builder("tick_evaluation_latency")
+                .description("Tiempo desde que llega un tick hasta que termina su evaluación")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+
+        this.worker = new Thread(this::runLoop, "tick-ingest");
+        this.worker.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        worker.start();
+        source.start(this::enqueue);
+        log.info("📡 Ingesta de ticks en tiempo real activa ({})", source.name());
+    }
+
+    // ✅ Si la cola está llena se descarta el tick más antiguo: el más reciente siempre es más útil
+    private void enqueue(String symbolId, long epochMillis, double price, double volume) {
+        received.increment();
+        Tick tick = new Tick(symbolId, epochMillis, price, volume, System.nanoTime());
+        while (!queue.offer(tick)) {
+            if (queue.poll() != null) dropped.increment();
+        }
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                Tick tick = queue.take();
+                priceService.onTick(tick.symbolId(), tick.epochMillis(), tick.price(), tick.volume());
+                latency.record(System.nanoTime() - tick.receivedNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                if (!running) break;
+            } catch (Exception e) {
+                log.error("❌ Error aplicando tick: {}", e.getMessage());
+            }
+        }
+    }
+
+    public boolean isConnected() {
+        return source.isConnected();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        source.stop();
+        worker.interrupt();
+    }
+}
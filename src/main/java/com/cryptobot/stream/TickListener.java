@@ -0,0 +1,8 @@
+package com.cryptobot.stream;
+
+// ✅ Recibe cada tick como primitivos; symbolId es el id de CoinGecko del símbolo de la watchlist
+// y volume la cantidad negociada (0 si la fuente no la informa)
+@FunctionalInterface
+public interface TickListener {
+    void onTick(String symbolId, long epochMillis, double price, double volume);
+}
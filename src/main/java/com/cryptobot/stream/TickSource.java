@@ -0,0 +1,14 @@
+package com.cryptobot.stream;
+
+// ✅ Fuente de precios "push" (WebSocket, replay desde fichero...).
+// start() no bloquea: los ticks se entregan al listener desde el hilo propio de la fuente.
+public interface TickSource {
+
+    String name();
+
+    void start(TickListener listener);
+
+    void stop();
+
+    boolean isConnected();
+}
@@ -0,0 +1,24 @@
+package com.cryptobot.stream;
+
+import com.cryptobot.config.BotProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+
+// ✅ Sólo con stream.enabled=true; el resto del tiempo el bot funciona únicamente con el cron
+@Configuration
+@ConditionalOnProperty(prefix = "stream", name = "enabled", havingValue = "true")
+public class TickSourceConfig {
+
+    @Bean
+    public TickSource tickSource(BotProperties config) {
+        BotProperties.Stream stream = config.getStream();
+        return switch (stream.getSource().trim().toLowerCase(Locale.ROOT)) {
+            case "binance" -> new BinanceTickSource(stream);
+            case "replay" -> new ReplayTickSource(stream);
+            default -> throw new IllegalStateException("stream.source desconocido: " + stream.getSource());
+        };
+    }
+}
@@ -1,9 +1,10 @@
 package com.crypto.bot;
 
+import com.cryptobot.BtcBotApplication;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(classes = BtcBotApplication.class)
 class CryptobotApplicationTests {
 
 	@Test
@@ -0,0 +1,89 @@
+package com.cryptobot.backtest;
+
+import com.cryptobot.indicator.RsiIndicator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacktesterTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void kernelMatchesStreamingRsi() {
+        double[] closes = randomWalk(500, 7);
+        double[] column = RsiKernel.rsi(closes, closes.length, 14);
+
+        RsiIndicator rsi = new RsiIndicator(14);
+        for (int i = 0; i < closes.length; i++) {
+            double expected = rsi.update(closes[i]);
+            if (Double.isNaN(expected)) assertTrue(Double.isNaN(column[i]), "índice " + i);
+            else assertEquals(expected, column[i], 0.0, "índice " + i);
+        }
+    }
+
+    @Test
+    void buysOnOversoldAndSellsOnOverbought() {
+        // Caída fuerte (RSI -> 0), luego subida sostenida (RSI -> 100)
+        int n = 60;
+        long[] times = new long[n];
+        double[] closes = new double[n];
+        for (int i = 0; i < n; i++) {
+            times[i] = i * HOUR;
+            closes[i] = i < 8 ? 100 - i * 0.5 : 96.5 + (i - 7) * 2;
+        }
+        PriceColumns bars = new PriceColumns(times, closes, n);
+        BacktestParams params = new BacktestParams(5, 30, 70, 50.0, 6, 0);
+
+        BacktestResult result = Backtester.run(bars, params, true);
+
+        assertEquals(1, result.trades());
+        assertEquals(1, result.wins());
+        assertEquals(1.0, result.hitRate());
+        assertEquals(1, result.buySignals());
+        assertEquals(1, result.sellSignals());
+        BacktestResult.Trade trade = result.tradeLog().get(0);
+        assertEquals("SELL", trade.exitReason());
+        assertEquals(closes[5], trade.entryPrice(), "entra en la primera vela con RSI válido");
+        assertTrue(trade.exitPrice() > trade.entryPrice());
+        assertEquals((trade.exitPrice() / trade.entryPrice() - 1) * 100, result.totalReturnPct(), 1e-9);
+        assertTrue(result.maxDrawdownPct() > 0);
+    }
+
+    @Test
+    void strongDropClosesPositionAndResampleKeepsLastPricePerBar() {
+        long[] times = {0, 10, HOUR - 1, HOUR, HOUR + 5, 2 * HOUR};
+        double[] closes = {1, 2, 3, 4, 5, 6};
+        PriceColumns hourly = new PriceColumns(times, closes, times.length).resample(HOUR);
+        assertEquals(3, hourly.size());
+        assertEquals(3, hourly.close(0));
+        assertEquals(5, hourly.close(1));
+        assertEquals(HOUR, hourly.time(1));
+
+        long[] t = new long[30];
+        double[] c = new double[30];
+        for (int i = 0; i < 30; i++) {
+            t[i] = i * HOUR;
+            c[i] = i < 10 ? 100 - i : (i < 20 ? 91 : 80);
+        }
+        BacktestParams params = new BacktestParams(3, 30, 70, 5.0, 4, 0);
+        BacktestResult result = Backtester.run(new PriceColumns(t, c, 30), params, true);
+
+        assertEquals("DROP", result.tradeLog().get(0).exitReason());
+        assertEquals(20 * HOUR, result.tradeLog().get(0).exitTime());
+        assertTrue(result.priceAlerts() >= 1);
+    }
+
+    private static double[] randomWalk(int n, long seed) {
+        Random random = new Random(seed);
+        double[] out = new double[n];
+        double price = 40_000;
+        for (int i = 0; i < n; i++) {
+            price *= 1 + (random.nextGaussian() * 0.01);
+            out[i] = price;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,81 @@
+package com.cryptobot.backtest;
+
+import com.cryptobot.indicator.Timeframe;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParameterSweepTest {
+
+    @Test
+    void parsesListsAndRanges() {
+        ParameterGrid grid = ParameterGrid.parse("7,14, 21", "20:30:5", "70", "0.5:1.5:0.5");
+        assertArrayEquals(new int[]{7, 14, 21}, grid.periods());
+        assertArrayEquals(new int[]{20, 25, 30}, grid.oversoldLevels());
+        assertArrayEquals(new double[]{0.5, 1.0, 1.5}, grid.changeThresholds());
+        assertEquals(9, grid.combinationsPerPeriod());
+        assertEquals(27, grid.size());
+
+        assertThrows(IllegalArgumentException.class, () -> ParameterGrid.parse("7:3:1", "30", "70", "1"));
+        assertThrows(IllegalArgumentException.class, () -> ParameterGrid.parse("7.5", "30", "70", "1"));
+    }
+
+    @Test
+    void parallelSweepMatchesSequentialBruteForce() {
+        int n = 3000;
+        long[] times = new long[n];
+        double[] closes = new double[n];
+        Random random = new Random(5);
+        double price = 100;
+        for (int i = 0; i < n; i++) {
+            price *= 1 + random.nextGaussian() * 0.02;
+            times[i] = i * 3_600_000L;
+            closes[i] = price;
+        }
+        PriceColumns bars = new PriceColumns(times, closes, n);
+        ParameterGrid grid = ParameterGrid.parse("5:20:1", "15:40:5", "60:85:5", "1:5:1");
+        BacktestParams base = new BacktestParams(14, 30, 70, 1, 15, 10);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ParameterSweep.Result result;
+        try {
+            result = ParameterSweep.run(bars, grid, base, ParameterSweep.Objective.RETURN, 0, 5, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(grid.size(), result.evaluated());
+        List<BacktestResult> best = result.best();
+        assertEquals(5, best.size());
+        for (int i = 1; i < best.size(); i++) {
+            assertTrue(best.get(i - 1).totalReturnPct() >= best.get(i).totalReturnPct());
+        }
+
+        // Fuerza bruta secuencial con el backtest normal
+        double bestReturn = Double.NEGATIVE_INFINITY;
+        for (int period : grid.periods()) {
+            for (int os : grid.oversoldLevels()) {
+                for (int ob : grid.overboughtLevels()) {
+                    for (double th : grid.changeThresholds()) {
+                        BacktestResult r = Backtester.run(bars, new BacktestParams(period, os, ob, th, 15, 10), false);
+                        bestReturn = Math.max(bestReturn, r.totalReturnPct());
+                    }
+                }
+            }
+        }
+        assertEquals(bestReturn, best.get(0).totalReturnPct(), 1e-9);
+
+        // ✅ Sin global las claves (de toda la watchlist) salen comentadas
+        String commented = ParameterSweep.toProperties("bitcoin", Timeframe.H1, best.get(0), false);
+        assertTrue(commented.contains("\n# bitcoin.rsi.period=" + best.get(0).params().rsiPeriod()));
+        assertTrue(commented.contains("\n# signal.timeframe=1h"));
+
+        String properties = ParameterSweep.toProperties("bitcoin", Timeframe.H1, best.get(0), true);
+        assertTrue(properties.contains("\nbitcoin.rsi.period=" + best.get(0).params().rsiPeriod()));
+        assertTrue(properties.contains("\nsignal.timeframe=1h"));
+    }
+}
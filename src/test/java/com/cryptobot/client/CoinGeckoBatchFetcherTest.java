@@ -0,0 +1,127 @@
+package com.cryptobot.client;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.model.PricePoint;
+import com.cryptobot.service.PipelineMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoinGeckoBatchFetcherTest {
+
+    // ✅ Stub local de /simple/price: precio = longitud del id, registra cada llamada
+    private final List<List<String>> calls = new CopyOnWriteArrayList<>();
+    private final CoinGeckoBatchFetcher.SimplePriceTransport stub = ids -> {
+        calls.add(List.copyOf(ids));
+        Map<String, PricePoint> out = new HashMap<>();
+        for (String id : ids) out.put(id, new PricePoint(Instant.now(), id.length()));
+        return out;
+    };
+
+    @Test
+    void coalescesConcurrentRequestsIntoFewCalls() throws Exception {
+        BotProperties config = new BotProperties();
+        config.getCoingecko().getBatch().setMaxIdsPerCall(250);
+        config.getCoingecko().getBatch().setLingerMs(500);
+        CoinGeckoBatchFetcher fetcher = new CoinGeckoBatchFetcher(config, new TokenBucket(10, 60), stub);
+
+        List<CompletableFuture<PricePoint>> futures = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 6; t++) {
+            int offset = t * 100;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    synchronized (futures) {
+                        futures.add(fetcher.request("coin-" + (offset + i)));
+                        futures.add(fetcher.request("coin-" + (offset + i))); // duplicado
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        for (CompletableFuture<PricePoint> f : futures) {
+            assertNotNull(f.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(3, calls.size());
+        assertEquals(600, calls.stream().mapToInt(List::size).sum());
+        assertTrue(calls.stream().allMatch(c -> c.size() <= 250));
+
+        // ✅ Segunda petición dentro del TTL: sale de la caché del símbolo sin llamar
+        assertTrue(fetcher.request("coin-1").isDone());
+        assertEquals(3, calls.size());
+        fetcher.shutdown();
+    }
+
+    @Test
+    void asyncChunksInFlightAreNotFetchedAgain() throws Exception {
+        BotProperties config = new BotProperties();
+        config.getCoingecko().getBatch().setMaxIdsPerCall(2);
+        config.getCoingecko().getBatch().setLingerMs(10);
+        // ✅ Stub lento: cada lote tarda mucho más que el linger, así que los trozos siguen en curso en el siguiente flush.
+        // La llamada se anota al entrar y el pool tiene hilos de sobra: un reenvío se vería en cuanto se lanzase.
+        CoinGeckoBatchFetcher.SimplePriceTransport slow = ids -> {
+            Map<String, PricePoint> out = stub.fetch(ids);
+            Thread.sleep(300);
+            return out;
+        };
+        CoinGeckoBatchFetcher fetcher = new CoinGeckoBatchFetcher(config, new TokenBucket(20, 60), slow,
+                PipelineMetrics.disabled(), Executors.newFixedThreadPool(12));
+        try {
+            List<String> ids = List.of("a", "bb", "ccc", "dddd", "eeeee", "ffffff");
+            List<CompletableFuture<PricePoint>> futures = new ArrayList<>(fetcher.requestAll(ids).values());
+            Thread.sleep(100);
+            // ✅ Pedidos otra vez mientras su lote está en curso: se unen a él
+            futures.addAll(fetcher.requestAll(ids).values());
+
+            for (CompletableFuture<PricePoint> f : futures) {
+                assertNotNull(f.get(5, TimeUnit.SECONDS));
+            }
+            Thread.sleep(100);
+
+            assertEquals(3, calls.size(), "llamadas: " + calls);
+            for (String id : ids) {
+                assertEquals(1, calls.stream().filter(c -> c.contains(id)).count(), id);
+            }
+        } finally {
+            fetcher.shutdown();
+        }
+    }
+
+    @Test
+    void failsFastWhenRateLimited() throws Exception {
+        BotProperties config = new BotProperties();
+        config.getCoingecko().getBatch().setLingerMs(1);
+        config.getCoingecko().getBatch().setRequestTimeoutSeconds(1);
+        TokenBucket bucket = new TokenBucket(1, 1);
+        bucket.pause(Duration.ofMinutes(5));
+        CoinGeckoBatchFetcher fetcher = new CoinGeckoBatchFetcher(config, bucket, stub);
+
+        assertNull(fetcher.fetch("bitcoin"));
+        assertTrue(calls.isEmpty());
+        fetcher.shutdown();
+    }
+
+    @Test
+    void tokenBucketLimitsBurst() {
+        TokenBucket bucket = new TokenBucket(3, 1);
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+}
@@ -0,0 +1,131 @@
+package com.cryptobot.client;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.model.MarketChart;
+import com.cryptobot.service.PipelineMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoinGeckoClientTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private static MarketChart chart(double price) {
+        return new MarketChart(new long[]{1_000L}, new double[]{price}, new double[0], new double[0], 1, 0, 0);
+    }
+
+    private static MarketChart chart(long[] times, double[] prices) {
+        return new MarketChart(times, prices, new double[0], new double[0], times.length, 0, 0);
+    }
+
+    private static BotProperties config(int ttlSeconds) {
+        BotProperties config = new BotProperties();
+        config.getCoingecko().getCache().setTtlSeconds(ttlSeconds);
+        config.getCoingecko().getRateLimit().setCapacity(100);
+        return config;
+    }
+
+    @Test
+    void concurrentColdCallersShareOneFetch() throws Exception {
+        BotProperties config = config(600);
+        CoinGeckoClient client = new CoinGeckoClient(config, new CoinGeckoRateLimiter(config), (id, from) -> {
+            calls.incrementAndGet();
+            Thread.sleep(200);
+            return chart(100);
+        }, PipelineMetrics.disabled());
+
+        List<Thread> threads = new ArrayList<>();
+        List<MarketChart> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread t = new Thread(() -> {
+                MarketChart c = client.getLastHourlyPrices("bitcoin", 48);
+                synchronized (results) { results.add(c); }
+            });
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) t.join();
+
+        assertEquals(1, calls.get());
+        assertEquals(8, results.size());
+        assertTrue(results.stream().allMatch(c -> c.size() == 1 && c.price(0) == 100));
+
+        // ✅ Dentro del TTL sale de la caché sin llamar
+        client.getLastHourlyPrices("bitcoin", 48);
+        assertEquals(1, calls.get());
+        client.shutdown();
+    }
+
+    @Test
+    void servesStaleImmediatelyAndRevalidatesOnce() throws Exception {
+        BotProperties config = config(0);
+        CountDownLatch release = new CountDownLatch(1);
+        CoinGeckoClient client = new CoinGeckoClient(config, new CoinGeckoRateLimiter(config), (id, from) -> {
+            if (calls.incrementAndGet() > 1) {
+                release.await(5, TimeUnit.SECONDS);
+                return chart(200);
+            }
+            return chart(100);
+        }, PipelineMetrics.disabled());
+
+        assertEquals(100, client.getLastHourlyPrices("bitcoin", 48).price(0));
+
+        // ✅ Con TTL 0 todo está caducado: se sirve lo anterior sin esperar a la recarga bloqueada
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(100, client.getLastHourlyPrices("bitcoin", 48).price(0));
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        // ✅ La recarga en vuelo es única: refresh() devuelve la misma
+        CompletableFuture<MarketChart> flight = client.refresh("bitcoin");
+        assertSame(flight, client.refresh("bitcoin"));
+        release.countDown();
+        flight.get(5, TimeUnit.SECONDS);
+        assertEquals(2, calls.get());
+        assertEquals(200, client.getLastHourlyPrices("bitcoin", 48).price(0));
+        client.shutdown();
+    }
+
+    @Test
+    void fetchesOnlyPointsAfterHighWaterMarkAndMergesRevisions() throws Exception {
+        BotProperties config = config(0);
+        config.getCoingecko().getDelta().setRevisionWindowMinutes(10);
+        long hour = 3_600_000L;
+        long base = System.currentTimeMillis() - 5 * hour;
+        // ✅ Lo escribe el hilo de recarga y lo lee el del test
+        List<Long> froms = new CopyOnWriteArrayList<>();
+
+        CoinGeckoClient client = new CoinGeckoClient(config, new CoinGeckoRateLimiter(config), (id, from) -> {
+            froms.add(from);
+            if (from == 0) {
+                return chart(new long[]{base, base + hour, base + 2 * hour}, new double[]{100, 101, 102});
+            }
+            // ✅ Revisión del último punto (102 -> 103) más un punto nuevo
+            return chart(new long[]{base + 2 * hour, base + 3 * hour}, new double[]{103, 104});
+        }, PipelineMetrics.disabled());
+
+        assertEquals(3, client.getLastHourlyPrices("bitcoin", 48).size());
+        // ✅ La primera carga tiene que haber salido del mapa: si no, refresh() la devolvería sin pedir el delta
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (client.refreshing("bitcoin") && System.nanoTime() < until) Thread.sleep(5);
+        assertFalse(client.refreshing("bitcoin"));
+        MarketChart merged = client.refresh("bitcoin").get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(0L, base + 2 * hour - 600_000L), froms);
+        assertEquals(4, merged.size());
+        assertEquals(101, merged.price(1));
+        assertEquals(103, merged.price(2));
+        assertEquals(104, merged.lastPrice());
+        client.shutdown();
+    }
+}
@@ -0,0 +1,91 @@
+package com.cryptobot.client;
+
+import com.cryptobot.model.MarketChart;
+import com.cryptobot.model.PricePoint;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoinGeckoJsonTest {
+
+    @Test
+    void parsesMarketChartColumns() throws IOException {
+        StringBuilder json = new StringBuilder("{\"extra\":{\"a\":[1,2]},\"prices\":[");
+        for (int i = 0; i < 200; i++) {
+            if (i > 0) json.append(',');
+            json.append('[').append(1_700_000_000_000L + i * 3_600_000L).append(',').append(40_000 + i).append(".5]");
+        }
+        json.append("],\"market_caps\":[[1700000000000,8.1E11],[1700003600000,null]],\"total_volumes\":[[1700000000000,2.5E10]]}");
+
+        MarketChart chart = CoinGeckoJson.parseMarketChart(json.toString().getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(200, chart.size());
+        assertEquals(1_700_000_000_000L, chart.time(0));
+        assertEquals(40_000.5, chart.price(0));
+        assertEquals(40_199.5, chart.lastPrice());
+        assertEquals(8.1E11, chart.marketCap(0));
+        assertTrue(Double.isNaN(chart.marketCap(1)));
+        assertTrue(Double.isNaN(chart.marketCap(2)));
+        assertEquals(2.5E10, chart.volume(0));
+        assertTrue(Double.isNaN(chart.volume(1)));
+    }
+
+    @Test
+    void rejectsPayloadWithoutPrices() {
+        byte[] json = "{\"error\":\"rate limited\"}".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> CoinGeckoJson.parseMarketChart(json));
+    }
+
+    @Test
+    void skipsEmptyAndIncompletePairs() throws IOException {
+        byte[] json = ("{\"prices\":[[],[1700000000000,40000.5],[1700003600000],[],[1700007200000,40002.5]],"
+                + "\"total_volumes\":[[]]}").getBytes(StandardCharsets.UTF_8);
+
+        MarketChart chart = CoinGeckoJson.parseMarketChart(json);
+
+        assertEquals(2, chart.size());
+        assertEquals(1_700_000_000_000L, chart.time(0));
+        assertEquals(40_000.5, chart.price(0));
+        assertEquals(1_700_007_200_000L, chart.time(1));
+        assertEquals(40_002.5, chart.price(1));
+        assertTrue(Double.isNaN(chart.volume(0)));
+    }
+
+    @Test
+    void skipsNullPricesAndKeepsColumnsAligned() throws IOException {
+        byte[] json = ("{\"prices\":[[1700000000000,40000.5],[1700003600000,null],[1700007200000,40002.5]],"
+                + "\"market_caps\":[[1700000000000,8.1E11],[1700003600000,8.2E11],[1700007200000,8.3E11]],"
+                + "\"total_volumes\":[[1700000000000,null],[1700003600000,2.6E10],[1700007200000,2.7E10]]}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        MarketChart chart = CoinGeckoJson.parseMarketChart(json);
+
+        // ✅ El punto sin precio desaparece; market_caps y total_volumes siguen casando con los precios que quedan
+        assertEquals(2, chart.size());
+        assertEquals(1_700_007_200_000L, chart.time(1));
+        assertEquals(40_002.5, chart.price(1));
+        assertEquals(8.1E11, chart.marketCap(0));
+        assertEquals(8.3E11, chart.marketCap(1));
+        assertTrue(Double.isNaN(chart.volume(0)));
+        assertEquals(2.7E10, chart.volume(1));
+    }
+
+    @Test
+    void parsesSimplePrice() throws IOException {
+        String json = "{\"bitcoin\":{\"usd\":43000.1,\"last_updated_at\":1700000000},"
+                + "\"ethereum\":{\"eur\":2000,\"usd\":2200}, \"unknown\":{}}";
+
+        Map<String, PricePoint> prices = CoinGeckoJson.parseSimplePrice(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "usd");
+
+        assertEquals(2, prices.size());
+        assertEquals(43000.1, prices.get("bitcoin").price());
+        assertEquals(1_700_000_000L, prices.get("bitcoin").dateTime().getEpochSecond());
+        assertEquals(2200, prices.get("ethereum").price());
+    }
+}
@@ -0,0 +1,68 @@
+package com.cryptobot.cluster;
+
+import com.cryptobot.config.BotProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private ClusterService node(String id) {
+        BotProperties config = new BotProperties();
+        config.getCluster().setEnabled(true);
+        config.getCluster().setNodeId(id);
+        config.getCluster().setDirectory(dir.toString());
+        config.getCluster().setStartupGraceMs(0);
+        return new ClusterService(config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void eachSymbolHasExactlyOneOwnerAndMovesWhenANodeLeaves() {
+        ClusterService a = node("node-a");
+        ClusterService b = node("node-b");
+        List<String> symbols = IntStream.range(0, 200).mapToObj(i -> "coin-" + i).toList();
+
+        // ✅ Antes del primer latido no hay anillo: nadie es dueño de nada
+        assertFalse(a.owns("coin-0"));
+
+        a.tick();
+        b.tick();
+        a.tick();
+        assertEquals(List.of("node-a", "node-b"), a.members());
+
+        long ownedByA = symbols.stream().filter(a::owns).count();
+        long ownedByB = symbols.stream().filter(b::owns).count();
+        assertEquals(symbols.size(), ownedByA + ownedByB);
+        assertTrue(symbols.stream().noneMatch(s -> a.owns(s) && b.owns(s)));
+        assertTrue(ownedByA > 0 && ownedByB > 0);
+
+        // ✅ Salida ordenada: el otro nodo se queda con todo en el siguiente latido
+        String movedSymbol = symbols.stream().filter(b::owns).findFirst().orElseThrow();
+        String keptSymbol = symbols.stream().filter(a::owns).findFirst().orElseThrow();
+        long epochBefore = a.epoch();
+        b.shutdown();
+        a.tick();
+
+        assertEquals(List.of("node-a"), a.members());
+        assertTrue(symbols.stream().allMatch(a::owns));
+        assertTrue(a.ownedSince(keptSymbol, epochBefore));
+        assertFalse(a.ownedSince(movedSymbol, epochBefore));
+        assertTrue(a.ownedSince(movedSymbol, a.epoch()));
+    }
+
+    @Test
+    void disabledOwnsEverything() {
+        ClusterService single = new ClusterService(new BotProperties(), new SimpleMeterRegistry());
+        assertTrue(single.owns("bitcoin"));
+        assertTrue(single.ownedSince("bitcoin", -1));
+    }
+}
@@ -0,0 +1,43 @@
+package com.cryptobot.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashRingTest {
+
+    @Test
+    void spreadsKeysEvenlyAcrossNodes() {
+        HashRing ring = new HashRing(List.of("a", "b", "c"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30_000; i++) {
+            counts.merge(ring.owner("coin-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(count > 8_000 && count < 12_000, "reparto desigual: " + counts);
+        }
+    }
+
+    @Test
+    void removingANodeOnlyMovesItsKeys() {
+        HashRing before = new HashRing(List.of("a", "b", "c"), 128);
+        HashRing after = new HashRing(List.of("a", "b"), 128);
+
+        for (int i = 0; i < 10_000; i++) {
+            String key = "coin-" + i;
+            String owner = before.owner(key);
+            if (!owner.equals("c")) {
+                assertEquals(owner, after.owner(key));
+            } else {
+                assertNotEquals("c", after.owner(key));
+            }
+        }
+        assertNull(new HashRing(List.of(), 128).owner("bitcoin"));
+    }
+}
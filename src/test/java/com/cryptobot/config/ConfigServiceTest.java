@@ -0,0 +1,110 @@
+package com.cryptobot.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private ConfigService service(Path file) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("commandLineArgs",
+                Map.of("bitcoin.rsi.period", "21")));
+        environment.getPropertySources().addLast(new MapPropertySource("Config resource 'class path resource [application.properties]'",
+                Map.of("bitcoin.price.change-threshold", "1.0", "bitcoin.rsi.overbought-level", "75")));
+
+        BotProperties config = new BotProperties();
+        config.getReload().setFiles(List.of(file.toString()));
+        config.getReload().setDebounceMs(50);
+        return new ConfigService(config, environment);
+    }
+
+    @Test
+    void reloadRereadsFilesWithStartupPrecedence() throws Exception {
+        Path file = dir.resolve("application.properties");
+        Files.writeString(file, "bitcoin.price.change-threshold=2.5\nbitcoin.rsi.period=10\n");
+        ConfigService configs = service(file);
+
+        ConfigSnapshot initial = configs.current();
+        assertEquals(2.5, initial.priceChangeThreshold());
+        assertEquals(75, initial.overboughtLevel());
+        // ✅ La línea de comandos sigue ganando al fichero
+        assertEquals(21, initial.rsiPeriod());
+
+        AtomicReference<ConfigSnapshot> seen = new AtomicReference<>();
+        configs.addListener((previous, next) -> seen.set(next));
+
+        assertFalse(configs.reload("test").changed(), "sin cambios no hay versión nueva");
+        assertNull(seen.get());
+
+        Files.writeString(file, "bitcoin.price.change-threshold=4\nnotification.template.periodic=P %.0f %.1f\n");
+        ConfigService.ReloadResult result = configs.reload("test");
+
+        assertTrue(result.changed());
+        assertEquals(initial.version() + 1, result.version());
+        assertSame(configs.current(), seen.get());
+        assertEquals(4.0, configs.current().priceChangeThreshold());
+        assertEquals("P %.0f %.1f", configs.current().periodicTemplate());
+        assertFalse(configs.current().indicatorsDiffer(initial));
+    }
+
+    @Test
+    void invalidReloadIsRejectedAndPreviousSnapshotKept() throws Exception {
+        Path file = dir.resolve("application.properties");
+        Files.writeString(file, "bitcoin.price.change-threshold=2.5\n");
+        ConfigService configs = service(file);
+        ConfigSnapshot before = configs.current();
+
+        configs.addListener(new ConfigListener() {
+            @Override
+            public void validate(ConfigSnapshot next) {
+                if (next.priceChangeThreshold() < 0) throw new IllegalArgumentException("umbral negativo");
+            }
+
+            @Override
+            public void onConfigChange(ConfigSnapshot previous, ConfigSnapshot next) {
+                fail("no debe publicarse");
+            }
+        });
+
+        Files.writeString(file, "bitcoin.price.change-threshold=-1\n");
+        assertEquals("umbral negativo", configs.reload("test").error());
+
+        Files.writeString(file, "signal.timeframe=7h\n");
+        assertNotNull(configs.reload("test").error());
+
+        assertSame(before, configs.current());
+    }
+
+    @Test
+    void fileChangeTriggersReload() throws Exception {
+        Path file = dir.resolve("application.properties");
+        Files.writeString(file, "bitcoin.price.change-threshold=2.5\n");
+        ConfigService configs = service(file);
+        configs.start();
+        try {
+            Files.writeString(file, "bitcoin.price.change-threshold=3.5\nindicator.history-size=512\n");
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (configs.current().priceChangeThreshold() != 3.5 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(3.5, configs.current().priceChangeThreshold());
+            assertEquals(512, configs.current().historySize());
+        } finally {
+            configs.shutdown();
+        }
+    }
+}
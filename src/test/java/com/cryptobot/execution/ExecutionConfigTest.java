@@ -0,0 +1,76 @@
+package com.cryptobot.execution;
+
+import com.cryptobot.config.BotProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionConfigTest {
+
+    @Test
+    void blockedScheduledTaskDoesNotStallTheOthers() throws Exception {
+        BotProperties config = new BotProperties();
+        TaskScheduler scheduler = new ExecutionConfig().taskScheduler(config);
+        ThreadPoolTaskScheduler pool = assertInstanceOf(ThreadPoolTaskScheduler.class, scheduler);
+        pool.initialize();
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch healthChecks = new CountDownLatch(3);
+            // ✅ Un ciclo colgado en una petición lenta...
+            pool.schedule(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, pool.getClock().instant());
+            // ✅ ...y el resto de tareas sigue corriendo
+            pool.scheduleAtFixedRate(healthChecks::countDown, Duration.ofMillis(10));
+            assertTrue(healthChecks.await(5, TimeUnit.SECONDS));
+            release.countDown();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void virtualThreadsOnlyWhenTheJvmHasThem() throws Exception {
+        BotProperties config = new BotProperties();
+        config.getExecution().setVirtualThreads(true);
+        assertEquals(Threads.virtualAvailable(), Threads.virtual(config));
+
+        // ✅ 2000 tareas bloqueadas a la vez: con hilos virtuales no hace falta un pool de 2000
+        int tasks = Threads.virtualAvailable() ? 2000 : 4;
+        ExecutorService executor = Threads.executor("test-", tasks, Threads.virtual(config));
+        try {
+            CountDownLatch started = new CountDownLatch(tasks);
+            CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < tasks; i++) {
+                executor.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            release.countDown();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Thread worker = Threads.start("worker", false, () -> {});
+        worker.join();
+        assertEquals("worker", worker.getName());
+        assertTrue(worker.isDaemon());
+    }
+}
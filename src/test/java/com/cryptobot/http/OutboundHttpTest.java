@@ -0,0 +1,157 @@
+package com.cryptobot.http;
+
+import com.cryptobot.config.BotProperties;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundHttpTest {
+
+    private static final Duration DEADLINE = Duration.ofSeconds(5);
+
+    private HttpServer server;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/gzip", exchange -> {
+            byte[] plain = "{\"bitcoin\":{\"usd\":42000.5}}".getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(zipped)) {
+                gzip.write(plain);
+            }
+            boolean accepted = String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding")).contains("gzip");
+            byte[] body = accepted ? zipped.toByteArray() : plain;
+            if (accepted) exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            active.decrementAndGet();
+            exchange.sendResponseHeaders(200, 2);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("ok".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/hang", exchange -> {
+            try {
+                Thread.sleep(2_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.createContext("/limited", exchange -> {
+            byte[] body = "{\"status\":{\"error_code\":429}}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(429, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private static String text(int status, InputStream body) throws IOException {
+        return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void gzipResponsesAreDecodedBeforeTheReader() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OutboundHttp http = new OutboundHttp(new BotProperties(), registry);
+
+        assertEquals("{\"bitcoin\":{\"usd\":42000.5}}", http.get(uri("/gzip"), DEADLINE, OutboundHttpTest::text));
+        assertEquals(1, registry.get("http_client_request_latency").tag("outcome", "2xx").timer().count());
+    }
+
+    @Test
+    void concurrentCallsToOneHostAreCapped() throws Exception {
+        BotProperties config = new BotProperties();
+        config.getHttp().setMaxConcurrentPerHost(2);
+        OutboundHttp http = new OutboundHttp(config, new SimpleMeterRegistry());
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<String>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(callers.submit(() -> {
+                    go.await();
+                    return http.get(uri("/slow"), DEADLINE, OutboundHttpTest::text);
+                }));
+            }
+            go.countDown();
+            for (Future<String> call : calls) {
+                assertEquals("ok", call.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertTrue(maxActive.get() <= 2, "máximo en vuelo: " + maxActive.get());
+    }
+
+    @Test
+    void rateLimitAndDeadlineSurfaceAsBefore() {
+        OutboundHttp http = new OutboundHttp(new BotProperties(), new SimpleMeterRegistry());
+
+        // ✅ Igual que con RestTemplate: los llamadores siguen capturando TooManyRequests
+        HttpClientErrorException.TooManyRequests e = assertThrows(HttpClientErrorException.TooManyRequests.class,
+                () -> http.get(uri("/limited"), DEADLINE, OutboundHttpTest::text));
+        assertTrue(e.getResponseBodyAsString().contains("429"));
+
+        long start = System.nanoTime();
+        assertThrows(HttpTimeoutException.class, () -> http.get(uri("/hang"), Duration.ofMillis(200), OutboundHttpTest::text));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void templatesExpandLikeRestTemplate() {
+        assertEquals(URI.create("https://api.example.com/simple/price?ids=bitcoin,ethereum&vs_currencies=usd"),
+                OutboundHttp.expand("https://api.example.com/simple/price?ids={ids}&vs_currencies=usd", "bitcoin,ethereum"));
+    }
+}
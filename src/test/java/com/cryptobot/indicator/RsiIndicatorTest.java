@@ -0,0 +1,101 @@
+package com.cryptobot.indicator;
+
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeriesBuilder;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RsiIndicatorTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @Test
+    void convergesToTa4jReference() {
+        double[] closes = randomWalk(500, 42);
+
+        RsiIndicator rsi = new RsiIndicator(14);
+        for (double c : closes) rsi.update(c);
+
+        BarSeries series = new BaseBarSeriesBuilder().withName("ref").build();
+        Instant t = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 0; i < closes.length; i++) {
+            series.addBar(Duration.ofHours(1), t.plusMillis(i * HOUR).atZone(ZoneOffset.UTC),
+                    closes[i], closes[i], closes[i], closes[i], 0);
+        }
+        double expected = new RSIIndicator(new ClosePriceIndicator(series), 14)
+                .getValue(series.getEndIndex()).doubleValue();
+
+        assertEquals(expected, rsi.value(), 1e-6);
+    }
+
+    @Test
+    void notReadyUntilPeriodChangesSeen() {
+        RsiIndicator rsi = new RsiIndicator(14);
+        double[] closes = randomWalk(15, 7);
+        for (int i = 0; i < 14; i++) {
+            rsi.update(closes[i]);
+            assertFalse(rsi.isReady());
+            assertTrue(Double.isNaN(rsi.value()));
+        }
+        rsi.update(closes[14]);
+        assertTrue(rsi.isReady());
+        assertFalse(Double.isNaN(rsi.value()));
+    }
+
+    @Test
+    void peekMatchesUpdateWithoutMutating() {
+        RsiIndicator rsi = new RsiIndicator(14);
+        double[] closes = randomWalk(60, 3);
+        for (int i = 0; i < closes.length - 1; i++) rsi.update(closes[i]);
+
+        double before = rsi.value();
+        double peeked = rsi.peek(closes[closes.length - 1]);
+        assertEquals(before, rsi.value());
+        assertEquals(peeked, rsi.update(closes[closes.length - 1]), 1e-12);
+    }
+
+    @Test
+    void stateKeepsFormingBarAndSkipsSeenPoints() {
+        IndicatorState state = new IndicatorState(14, 64, 15, HOUR);
+        long t0 = Instant.parse("2024-01-01T00:05:00Z").toEpochMilli();
+        double[] closes = randomWalk(20, 11);
+        for (int i = 0; i < closes.length; i++) {
+            assertTrue(state.onPrice(t0 + i * HOUR, closes[i]));
+        }
+        assertEquals(20, state.barCount());
+
+        // Punto repetido o antiguo: se ignora
+        assertFalse(state.onPrice(t0, 1.0));
+
+        // Precio no finito: se ignora sin tocar la vela en curso
+        assertFalse(state.onPrice(t0 + 19 * HOUR + 30_000, Double.NaN));
+        assertFalse(state.onPrice(t0 + 19 * HOUR + 30_000, Double.POSITIVE_INFINITY));
+        assertEquals(closes[19], state.lastPrice());
+
+        // Mismo bucket horario: sustituye el cierre de la vela en curso, no añade vela
+        double rsiBefore = state.rsi();
+        assertTrue(state.onPrice(t0 + 19 * HOUR + 60_000, closes[19] * 1.05));
+        assertEquals(20, state.barCount());
+        assertEquals(closes[19] * 1.05, state.lastPrice());
+        assertTrue(state.rsi() > rsiBefore);
+    }
+
+    private static double[] randomWalk(int n, long seed) {
+        Random random = new Random(seed);
+        double[] out = new double[n];
+        double price = 40_000;
+        for (int i = 0; i < n; i++) {
+            price *= 1 + (random.nextGaussian() * 0.01);
+            out[i] = price;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,239 @@
+package com.cryptobot.indicator;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudyGraphTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long T0 = Instant.parse("2024-01-01T20:00:00Z").toEpochMilli();
+
+    private static double price(int i) {
+        return 100 + 10 * Math.sin(i / 23.0) + 3 * Math.cos(i / 5.0) + (i * 7919 % 13) * 0.1;
+    }
+
+    @Test
+    void streamingValuesMatchRecomputationIncludingFormingBar() {
+        IndicatorState state = new IndicatorState(14, 1024, 15, Timeframe.M1, List.of(Timeframe.M1),
+                List.of("ema(9)", "sma(20)", "macd", "bollinger(20,2.5)", "atr", "stoch_rsi", "vwap"));
+        TimeframeBars bars = state.bars(Timeframe.M1);
+        StudyGraph follower = StudyGraph.follow(bars);
+        follower.add("ema(30)");
+
+        // ✅ 3 ticks por minuto durante ~7 h, cruzando la medianoche UTC (sesión del VWAP)
+        for (int i = 0; i < 1200; i++) {
+            state.onTick(T0 + i * 20_000L, price(i), 1 + i % 4);
+            if (i % 97 == 0 || i == 1199) {
+                Series s = Series.of(bars);
+                assertClose(ema(s.close, 9), state.study(Timeframe.M1, "ema(9)"));
+                assertClose(sma(s.close, 20), state.study(Timeframe.M1, "sma(20)"));
+                double[] line = minus(emaSeries(s.close, 12), emaSeries(s.close, 26));
+                double signal = ema(line, 9);
+                assertClose(last(line), state.study(Timeframe.M1, "macd(12,26,9)"));
+                assertClose(signal, state.study(Timeframe.M1, "macd_signal(12,26,9)"));
+                assertClose(last(line) - signal, state.study(Timeframe.M1, "macd_hist(12,26,9)"));
+                assertClose(sma(s.close, 20) + 2.5 * std(s.close, 20), state.study(Timeframe.M1, "bb_upper(20,2.5)"));
+                assertClose(sma(s.close, 20) - 2.5 * std(s.close, 20), state.study(Timeframe.M1, "bb_lower(20,2.5)"));
+                assertClose(atr(s, 14), state.study(Timeframe.M1, "atr(14)"));
+                double[] k = smaSeries(stochSeries(rsiSeries(s.close, 14), 14), 3);
+                assertClose(last(k), state.study(Timeframe.M1, "stoch_rsi(14,14,3,3)"));
+                assertClose(sma(k, 3), state.study(Timeframe.M1, "stoch_rsi_d(14,14,3,3)"));
+                assertClose(vwap(s), state.study(Timeframe.M1, "vwap"));
+                assertClose(ema(s.close, 30), follower.value(follower.slot("ema(30)")));
+            }
+        }
+        assertTrue(state.study(Timeframe.M1, "stoch_rsi(14,14,3,3)") >= 0);
+        assertTrue(Double.isNaN(state.study(Timeframe.M1, "ema(50)")), "no configurado");
+    }
+
+    @Test
+    void followerAddedLateReplaysBufferAndResyncsAfterReset() {
+        IndicatorState state = new IndicatorState(14, 64, 15, Timeframe.M1, List.of(Timeframe.M1), List.of());
+        TimeframeBars bars = state.bars(Timeframe.M1);
+        for (int i = 0; i < 300; i++) {
+            state.onTick(T0 + i * MINUTE, price(i), 1);
+        }
+        StudyGraph follower = StudyGraph.follow(bars);
+        follower.add("sma(10)");
+        int slot = follower.slot("sma(10)");
+        assertClose(sma(Series.of(bars).close, 10), follower.value(slot));
+
+        // ✅ Más velas de las que caben en el buffer entre dos consultas: vuelve a sembrarse con el buffer
+        for (int i = 300; i < 500; i++) {
+            state.onTick(T0 + i * MINUTE, price(i), 1);
+        }
+        assertClose(sma(Series.of(bars).close, 10), follower.value(slot));
+
+        state.reset();
+        state.onTick(T0, 1.0, 1);
+        assertTrue(Double.isNaN(follower.value(slot)));
+    }
+
+    @Test
+    void specsAreCanonicalAndValidated() {
+        assertEquals("macd(12,26,9)", StudyGraph.canonical("MACD"));
+        assertEquals("bollinger(20,2.5)", StudyGraph.canonical("bollinger(20, 2.5)"));
+        assertEquals("atr(7)", StudyGraph.canonical("atr(7)"));
+        assertEquals(new StudyGraph.Output("bollinger(20,2)", "bb_upper(20,2)"), StudyGraph.output("bb_upper", new double[0]));
+        assertNull(StudyGraph.output("rsi", new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> StudyGraph.canonical("ema"));
+        assertThrows(IllegalArgumentException.class, () -> StudyGraph.canonical("macd(26,12,9)"));
+        assertThrows(IllegalArgumentException.class, () -> StudyGraph.canonical("sma(2.5)"));
+        assertThrows(IllegalArgumentException.class, () -> StudyGraph.canonical("ichimoku"));
+    }
+
+    // ===================================
+    // Recalculo directo sobre las velas (cerradas + en formación)
+    // ===================================
+
+    private record Series(long[] time, double[] high, double[] low, double[] close, double[] volume) {
+        static Series of(TimeframeBars bars) {
+            OhlcvBuffer closed = bars.closed();
+            int n = closed.size() + (bars.isForming() ? 1 : 0);
+            Series s = new Series(new long[n], new double[n], new double[n], new double[n], new double[n]);
+            for (int i = 0; i < closed.size(); i++) {
+                s.time[i] = closed.openTime(i);
+                s.high[i] = closed.high(i);
+                s.low[i] = closed.low(i);
+                s.close[i] = closed.close(i);
+                s.volume[i] = closed.volume(i);
+            }
+            if (bars.isForming()) {
+                s.time[n - 1] = bars.formingOpenTime();
+                s.high[n - 1] = bars.formingHigh();
+                s.low[n - 1] = bars.formingLow();
+                s.close[n - 1] = bars.formingClose();
+                s.volume[n - 1] = bars.formingVolume();
+            }
+            return s;
+        }
+    }
+
+    private static void assertClose(double expected, double actual) {
+        if (Double.isNaN(expected)) {
+            assertTrue(Double.isNaN(actual), "esperado NaN, obtenido " + actual);
+        } else {
+            assertEquals(expected, actual, 1e-9 * Math.max(1, Math.abs(expected)));
+        }
+    }
+
+    private static double last(double[] x) {
+        return x.length == 0 ? Double.NaN : x[x.length - 1];
+    }
+
+    private static double[] valid(double[] x) {
+        return Arrays.stream(x).filter(v -> !Double.isNaN(v)).toArray();
+    }
+
+    private static double[] minus(double[] a, double[] b) {
+        double[] out = new double[a.length];
+        for (int i = 0; i < a.length; i++) out[i] = a[i] - b[i];
+        return out;
+    }
+
+    // ✅ EMA sembrada con la media de los primeros `p` valores válidos; NaN antes
+    private static double[] emaSeries(double[] x, int p) {
+        double[] out = new double[x.length];
+        Arrays.fill(out, Double.NaN);
+        double e = 0;
+        int count = 0;
+        for (int i = 0; i < x.length; i++) {
+            if (Double.isNaN(x[i])) continue;
+            count++;
+            if (count < p) {
+                e += x[i];
+            } else if (count == p) {
+                e = (e + x[i]) / p;
+                out[i] = e;
+            } else {
+                e += 2.0 / (p + 1) * (x[i] - e);
+                out[i] = e;
+            }
+        }
+        return out;
+    }
+
+    private static double ema(double[] x, int p) {
+        double[] v = valid(x);
+        return v.length < p ? Double.NaN : last(emaSeries(v, p));
+    }
+
+    private static double sma(double[] x, int p) {
+        double[] v = valid(x);
+        if (v.length < p) return Double.NaN;
+        double sum = 0;
+        for (int i = v.length - p; i < v.length; i++) sum += v[i];
+        return sum / p;
+    }
+
+    private static double[] smaSeries(double[] x, int p) {
+        double[] v = valid(x);
+        double[] out = new double[v.length];
+        for (int i = 0; i < v.length; i++) out[i] = sma(Arrays.copyOf(v, i + 1), p);
+        return out;
+    }
+
+    private static double std(double[] x, int p) {
+        if (x.length < p) return Double.NaN;
+        double mean = sma(x, p);
+        double sum = 0;
+        for (int i = x.length - p; i < x.length; i++) sum += (x[i] - mean) * (x[i] - mean);
+        return Math.sqrt(sum / p);
+    }
+
+    private static double atr(Series s, int p) {
+        if (s.close.length < p) return Double.NaN;
+        double atr = 0;
+        for (int i = 0; i < s.close.length; i++) {
+            double tr = i == 0 ? s.high[0] - s.low[0]
+                    : Math.max(s.high[i] - s.low[i], Math.max(Math.abs(s.high[i] - s.close[i - 1]), Math.abs(s.low[i] - s.close[i - 1])));
+            if (i < p) atr += tr / p;
+            else atr = (atr * (p - 1) + tr) / p;
+        }
+        return atr;
+    }
+
+    private static double[] rsiSeries(double[] close, int p) {
+        RsiIndicator rsi = new RsiIndicator(p);
+        double[] out = new double[close.length];
+        for (int i = 0; i < close.length; i++) out[i] = rsi.update(close[i]);
+        return out;
+    }
+
+    private static double[] stochSeries(double[] x, int p) {
+        double[] v = valid(x);
+        double[] out = new double[v.length];
+        for (int i = 0; i < v.length; i++) {
+            if (i < p - 1) {
+                out[i] = Double.NaN;
+                continue;
+            }
+            double lo = Double.MAX_VALUE;
+            double hi = -Double.MAX_VALUE;
+            for (int j = i - p + 1; j <= i; j++) {
+                lo = Math.min(lo, v[j]);
+                hi = Math.max(hi, v[j]);
+            }
+            out[i] = hi == lo ? 50.0 : 100.0 * (v[i] - lo) / (hi - lo);
+        }
+        return out;
+    }
+
+    private static double vwap(Series s) {
+        int n = s.close.length;
+        long day = Math.floorDiv(s.time[n - 1], 86_400_000L);
+        double pv = 0;
+        double vol = 0;
+        for (int i = 0; i < n; i++) {
+            if (Math.floorDiv(s.time[i], 86_400_000L) != day) continue;
+            pv += (s.high[i] + s.low[i] + s.close[i]) / 3 * s.volume[i];
+            vol += s.volume[i];
+        }
+        return vol > 0 ? pv / vol : Double.NaN;
+    }
+}
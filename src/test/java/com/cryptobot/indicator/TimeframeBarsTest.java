@@ -0,0 +1,75 @@
+package com.cryptobot.indicator;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeframeBarsTest {
+
+    @Test
+    void buildsOhlcvBarsOnEveryTimeframeFromOneStream() {
+        IndicatorState state = new IndicatorState(14, 64, 15, Timeframe.H1, List.of(Timeframe.M1, Timeframe.M5, Timeframe.H1));
+        long t0 = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+        // 10 minutos con un tick cada 30 s: precio 100 + i, volumen 1
+        for (int i = 0; i < 20; i++) {
+            assertTrue(state.onTick(t0 + i * 30_000L, 100 + i, 1));
+        }
+
+        TimeframeBars m1 = state.bars(Timeframe.M1);
+        assertEquals(9, m1.closed().size());
+        assertEquals(t0, m1.closed().openTime(0));
+        assertEquals(100, m1.closed().open(0));
+        assertEquals(101, m1.closed().close(0));
+        assertEquals(2, m1.closed().volume(0));
+        assertEquals(t0 + 9 * 60_000L, m1.formingOpenTime());
+
+        TimeframeBars m5 = state.bars(Timeframe.M5);
+        assertEquals(1, m5.closed().size());
+        assertEquals(100, m5.closed().low(0));
+        assertEquals(109, m5.closed().high(0));
+        assertEquals(10, m5.closed().volume(0));
+        assertEquals(110, m5.formingOpen());
+        assertEquals(119, m5.formingClose());
+
+        TimeframeBars h1 = state.bars(Timeframe.H1);
+        assertTrue(h1.isForming());
+        assertEquals(0, h1.closed().size());
+        assertEquals(1, state.barCount());
+        assertEquals(20, h1.formingVolume());
+        assertEquals(119, state.lastPrice());
+
+        assertFalse(state.hasTimeframe(Timeframe.D1));
+        assertThrows(IllegalArgumentException.class, () -> state.bars(Timeframe.D1));
+    }
+
+    @Test
+    void signalTimeframeIsAddedWhenMissingAndDrivesRsi() {
+        IndicatorState state = new IndicatorState(2, 16, 3, Timeframe.H4, List.of(Timeframe.H1));
+        long t0 = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+        long h = 3_600_000L;
+        double[] prices = {100, 101, 102, 103, 104, 103, 102, 101, 102, 103, 104, 105};
+        for (int i = 0; i < prices.length; i++) state.onPrice(t0 + i * h, prices[i]);
+
+        assertTrue(state.hasTimeframe(Timeframe.H4));
+        assertEquals(3, state.barCount());
+        assertEquals(12, state.bars(Timeframe.H1).barCount());
+        assertEquals(Timeframe.H4.millis(), state.barMillis());
+        assertEquals(103, state.bars(Timeframe.H4).closed().high(0));
+        assertEquals(104, state.bars(Timeframe.H4).closed().open(1));
+        assertEquals(101, state.bars(Timeframe.H4).closed().low(1));
+        assertFalse(Double.isNaN(state.rsi()));
+        assertNotEquals(state.rsi(), state.rsi(Timeframe.H1));
+    }
+
+    @Test
+    void parsesTimeframeLabelsAndLegacyHours() {
+        assertEquals(Timeframe.M15, Timeframe.parse(" 15M "));
+        assertEquals(Timeframe.D1, Timeframe.ofHours(24));
+        assertThrows(IllegalArgumentException.class, () -> Timeframe.parse("2h"));
+        assertThrows(IllegalArgumentException.class, () -> Timeframe.ofHours(3));
+    }
+}
@@ -0,0 +1,166 @@
+package com.cryptobot.journal;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.config.ConfigSnapshot;
+import com.cryptobot.indicator.IndicatorEngine;
+import com.cryptobot.indicator.IndicatorState;
+import com.cryptobot.service.SignalEvaluatorService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJournalTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @TempDir
+    Path dir;
+
+    private EventJournal journal(BotProperties config) {
+        config.getJournal().setDirectory(dir.toString());
+        config.getJournal().setSegmentSizeMb(1);
+        config.getJournal().setBufferKb(64);
+        config.getJournal().setFlushIntervalMs(5);
+        config.getJournal().setFsync(false);
+        EventJournal journal = new EventJournal(config, ConfigService.fixed(config), new SimpleMeterRegistry());
+        journal.start();
+        return journal;
+    }
+
+    private static double price(int i) {
+        return 40_000 + 500 * Math.sin(i / 37.0) + (i % 13) * 7;
+    }
+
+    @Test
+    void replayRebuildsIndicatorsAtAnyPointInTime() throws Exception {
+        BotProperties config = new BotProperties();
+        EventJournal journal = journal(config);
+        IndicatorEngine engine = new IndicatorEngine(ConfigService.fixed(config));
+        ConfigSnapshot c = ConfigService.fixed(config).current();
+        IndicatorState btc = engine.newState(c);
+        IndicatorState eth = engine.newState(c);
+
+        // ✅ ~1,3 MB de ticks: varios segmentos y el buffer de 64 KB lleno muchas veces
+        int half = 15_000;
+        double rsiAtMiddle = 0;
+        long middle = 0;
+        for (int i = 0; i < 2 * half; i++) {
+            long ts = 1_700_000_000_000L + i * MINUTE;
+            if (btc.onPrice(ts, price(i))) journal.tick("bitcoin", ts, price(i), 0, EventJournal.Origin.STREAM);
+            if (eth.onTick(ts, price(i) / 20, 3.5)) journal.tick("ethereum", ts, price(i) / 20, 3.5, EventJournal.Origin.STREAM);
+            if (i == half - 1) {
+                journal.evaluation("bitcoin", btc.lastPrice(), btc.lastPrice(), btc.rsi(), btc.isRsiReady(),
+                        SignalEvaluatorService.Signal.Type.SELL, 1.5, btc.barCount(), true, false);
+                journal.alert("bitcoin", EventJournal.Alert.SIGNAL_SELL, -1, EventJournal.Outcome.SENT, 2.0, 7, "VENDER");
+                journal.flush();
+                rsiAtMiddle = btc.rsi();
+                Thread.sleep(20);
+                middle = System.currentTimeMillis();
+                Thread.sleep(20);
+            }
+        }
+        journal.alert("bitcoin", EventJournal.Alert.PRICE_UP, -1, EventJournal.Outcome.SUPPRESSED, 3.0, -1, "");
+        journal.evaluation("bitcoin", btc.lastPrice(), btc.lastPrice(), btc.rsi(), btc.isRsiReady(),
+                SignalEvaluatorService.Signal.Type.HOLD, 0.1, btc.barCount(), false, false);
+        journal.shutdown();
+
+        JournalReplayer full = new JournalReplayer();
+        JournalReader.Stats stats = JournalReader.replay(dir, Long.MAX_VALUE, full);
+        assertTrue(stats.segments() > 1, "el diario rota de segmento");
+        assertEquals(0, stats.corruptSegments());
+
+        JournalReplayer.Symbol bitcoin = full.symbol("bitcoin");
+        assertEquals(btc.rsi(), bitcoin.indicators().rsi());
+        assertEquals(btc.barCount(), bitcoin.indicators().barCount());
+        assertEquals(eth.rsi(), full.symbol("ethereum").indicators().rsi());
+        assertEquals(0, bitcoin.mismatches());
+        assertEquals(SignalEvaluatorService.Signal.Type.HOLD, bitcoin.signal());
+        assertEquals(1, bitcoin.outcomes(EventJournal.Outcome.SUPPRESSED));
+        assertTrue(bitcoin.lastFiredAt(EventJournal.Alert.SIGNAL_SELL) > 0);
+        assertEquals(0, bitcoin.lastFiredAt(EventJournal.Alert.PRICE_UP), "lo suprimido no cuenta como aviso");
+
+        // ✅ Estado tal y como estaba a mitad de la grabación
+        JournalReplayer atMiddle = new JournalReplayer(0);
+        JournalReader.replay(dir, middle, atMiddle);
+        JournalReplayer.Symbol past = atMiddle.symbol("bitcoin");
+        assertEquals(rsiAtMiddle, past.indicators().rsi());
+        assertEquals(SignalEvaluatorService.Signal.Type.SELL, past.signal());
+        assertEquals(0, past.mismatches());
+        assertTrue(atMiddle.trace().stream().anyMatch(l -> l.contains("SIGNAL_SELL SENT msg#7")));
+    }
+
+    @Test
+    void rebuildTicksOnlyReplaceLiveStateOnSwap() throws Exception {
+        BotProperties config = new BotProperties();
+        EventJournal journal = journal(config);
+        for (int i = 0; i < 50; i++) {
+            journal.tick("bitcoin", i * MINUTE, price(i), 0, EventJournal.Origin.POLL);
+        }
+        journal.rebuildBegin("bitcoin");
+        for (int i = 0; i < 10; i++) {
+            journal.tick("bitcoin", i * MINUTE, 1.0, 0, EventJournal.Origin.REBUILD);
+        }
+        journal.flush();
+        long beforeSwap = System.currentTimeMillis();
+        Thread.sleep(20);
+        journal.rebuildSwap("bitcoin");
+        journal.shutdown();
+
+        JournalReplayer before = new JournalReplayer();
+        JournalReader.replay(dir, beforeSwap, before);
+        assertEquals(price(49), before.symbol("bitcoin").indicators().lastPrice());
+
+        JournalReplayer after = new JournalReplayer();
+        JournalReader.replay(dir, Long.MAX_VALUE, after);
+        assertEquals(1.0, after.symbol("bitcoin").indicators().lastPrice());
+    }
+
+    @Test
+    void tornTailIsSkippedAndRestartOpensNewSegment() throws Exception {
+        BotProperties config = new BotProperties();
+        EventJournal journal = journal(config);
+        for (int i = 0; i < 100; i++) {
+            journal.tick("bitcoin", i * MINUTE, price(i), 0, EventJournal.Origin.STREAM);
+        }
+        journal.shutdown();
+
+        // ✅ Simula un crash a mitad del último registro
+        List<Path> segments = JournalReader.segments(dir);
+        assertEquals(1, segments.size());
+        try (FileChannel channel = FileChannel.open(segments.get(0), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+
+        EventJournal restarted = journal(config);
+        restarted.tick("bitcoin", 500 * MINUTE, 123.0, 0, EventJournal.Origin.STREAM);
+        restarted.shutdown();
+
+        JournalReplayer replayer = new JournalReplayer();
+        JournalReader.Stats stats = JournalReader.replay(dir, Long.MAX_VALUE, replayer);
+        assertEquals(2, stats.segments());
+        assertEquals(1, stats.corruptSegments());
+        assertEquals(2, replayer.restarts());
+        // ✅ Tras el reinicio, el estado empieza vacío (como en vivo) con sólo el tick nuevo
+        assertEquals(1, replayer.symbol("bitcoin").ticks());
+        assertEquals(123.0, replayer.symbol("bitcoin").indicators().lastPrice());
+    }
+
+    @Test
+    void disabledJournalWritesNothing() throws IOException {
+        BotProperties config = new BotProperties();
+        config.getJournal().setEnabled(false);
+        EventJournal journal = journal(config);
+        journal.tick("bitcoin", MINUTE, 1.0, 0, EventJournal.Origin.STREAM);
+        journal.shutdown();
+        assertTrue(JournalReader.segments(dir).isEmpty());
+    }
+}
@@ -0,0 +1,169 @@
+package com.cryptobot.notification;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.journal.EventJournal;
+import com.cryptobot.service.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationDispatcherTest {
+
+    // ✅ WhatsApp local: apunta cada envío y, si se le pide, se queda bloqueado en el primero
+    private static final class StubNotifier extends WhatsAppNotifier {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch gate;
+        final AtomicInteger failures = new AtomicInteger();
+
+        StubNotifier(BotProperties config, EventJournal journal, boolean blockFirst) {
+            super(config, PipelineMetrics.disabled(), journal, null);
+            this.gate = new CountDownLatch(blockFirst ? 1 : 0);
+        }
+
+        @Override
+        public boolean deliver(String message, long firstId, long lastId) {
+            entered.countDown();
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) return false;
+            sent.add(message);
+            return true;
+        }
+    }
+
+    private static BotProperties config(int capacity, String policy, long cooldownMs) {
+        BotProperties config = new BotProperties();
+        config.getWhatsapp().getRateLimit().setCooldownMs(cooldownMs);
+        config.getWhatsapp().getDispatcher().setQueueCapacity(capacity);
+        config.getWhatsapp().getDispatcher().setOverflowPolicy(policy);
+        config.getWhatsapp().getDispatcher().setSeparator("|");
+        return config;
+    }
+
+    // ✅ Diario sin arrancar: no escribe nada
+    private static EventJournal journal(BotProperties config) {
+        return new EventJournal(config, ConfigService.fixed(config), new SimpleMeterRegistry());
+    }
+
+    // ✅ Espera a las métricas: el dispatcher las anota después de que deliver() vuelva
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < until) Thread.sleep(5);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static void awaitDelivered(SimpleMeterRegistry registry, int count) throws InterruptedException {
+        awaitUntil(() -> registry.get("notification_delivered_total").counter().count() == count);
+    }
+
+    @Test
+    void messagesArrivingDuringCooldownAreMergedIntoOneDelivery() throws Exception {
+        BotProperties config = config(10, "DROP_OLDEST", 300);
+        StubNotifier notifier = new StubNotifier(config, journal(config), false);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        NotificationDispatcher dispatcher = new NotificationDispatcher(notifier, config, journal(config), registry);
+        try {
+            assertTrue(dispatcher.submit("a"));
+            awaitDelivered(registry, 1);
+
+            // ✅ Dentro del cooldown del primer envío: b y c salen juntos al terminar
+            assertTrue(dispatcher.submit("b"));
+            assertTrue(dispatcher.submit("c"));
+            awaitDelivered(registry, 2);
+
+            assertEquals(List.of("a", "b|c"), notifier.sent);
+            // ✅ La latencia es lo último que se anota de un envío
+            awaitUntil(() -> registry.get("notification_delivery_latency").timer().count() == 3);
+            assertEquals(1, registry.get("notification_merged_total").counter().count());
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void failedDeliveryDoesNotStartTheCooldown() throws Exception {
+        BotProperties config = config(10, "DROP_OLDEST", 60_000);
+        StubNotifier notifier = new StubNotifier(config, journal(config), false);
+        notifier.failures.set(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        NotificationDispatcher dispatcher = new NotificationDispatcher(notifier, config, journal(config), registry);
+        try {
+            assertTrue(dispatcher.submit("a"));
+            awaitUntil(() -> registry.get("notification_failed_total").counter().count() == 1);
+
+            // ✅ Nada llegó a WhatsApp: "b" sale enseguida, sin esperar el minuto de cooldown
+            assertTrue(dispatcher.submit("b"));
+            awaitDelivered(registry, 1);
+            assertEquals(List.of("b"), notifier.sent);
+            // ✅ La latencia sólo cuenta envíos entregados
+            awaitUntil(() -> registry.get("notification_delivery_latency").timer().count() == 1);
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void fullQueueDropsTheOldestMessage() throws Exception {
+        BotProperties config = config(2, "DROP_OLDEST", 0);
+        StubNotifier notifier = new StubNotifier(config, journal(config), true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        NotificationDispatcher dispatcher = new NotificationDispatcher(notifier, config, journal(config), registry);
+        try {
+            // ✅ El consumidor se queda enviando "1": la cola admite dos más
+            dispatcher.submit("1");
+            assertTrue(notifier.entered.await(5, TimeUnit.SECONDS));
+            assertTrue(dispatcher.submit("2"));
+            assertTrue(dispatcher.submit("3"));
+            assertTrue(dispatcher.submit("4"), "DROP_OLDEST siempre acepta el nuevo");
+
+            assertEquals(2, dispatcher.queueDepth());
+            assertEquals(2, registry.get("notification_queue_depth").gauge().value());
+            assertEquals(1, registry.get("notification_dropped_total").counter().count());
+
+            notifier.gate.countDown();
+            awaitDelivered(registry, 2);
+            assertEquals(List.of("1", "3|4"), notifier.sent);
+        } finally {
+            notifier.gate.countDown();
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void fullQueueRejectsTheNewestMessage() throws Exception {
+        BotProperties config = config(2, "DROP_NEWEST", 0);
+        StubNotifier notifier = new StubNotifier(config, journal(config), true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        NotificationDispatcher dispatcher = new NotificationDispatcher(notifier, config, journal(config), registry);
+        try {
+            dispatcher.submit("1");
+            assertTrue(notifier.entered.await(5, TimeUnit.SECONDS));
+            assertTrue(dispatcher.submit("2"));
+            assertTrue(dispatcher.submit("3"));
+            assertEquals(-1, dispatcher.enqueue("4"));
+
+            assertEquals(2, dispatcher.queueDepth());
+            assertEquals(1, registry.get("notification_dropped_total").counter().count());
+
+            notifier.gate.countDown();
+            awaitDelivered(registry, 2);
+            assertEquals(List.of("1", "2|3"), notifier.sent);
+        } finally {
+            notifier.gate.countDown();
+            dispatcher.shutdown();
+        }
+    }
+}
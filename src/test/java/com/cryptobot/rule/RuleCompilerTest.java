@@ -0,0 +1,167 @@
+package com.cryptobot.rule;
+
+import com.cryptobot.indicator.IndicatorState;
+import com.cryptobot.indicator.Timeframe;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleCompilerTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long BASE = 1_700_000_000_000L / HOUR * HOUR;
+    private static final List<Timeframe> FRAMES = List.of(Timeframe.M1, Timeframe.H1);
+
+    private static RuleCompiler compiler(int rsiPeriod) {
+        return new RuleCompiler(Timeframe.H1, FRAMES, rsiPeriod, 256);
+    }
+
+    private static IndicatorState state(int rsiPeriod) {
+        return new IndicatorState(rsiPeriod, 256, rsiPeriod + 1, Timeframe.H1, FRAMES);
+    }
+
+    @Test
+    void evaluatesArithmeticComparisonsAndCrossesOnEdges() {
+        RuleSet rules = compiler(14).compile(List.of(
+                "caro: price * 2 - 10 > 190",
+                "cruce: price crosses_below 100"));
+        IndicatorState state = state(14);
+        RuleContext ctx = rules.newContext(state);
+
+        state.onPrice(BASE, 101);
+        rules.evaluate(ctx);
+        assertTrue(ctx.result(0));
+        assertFalse(ctx.result(1), "sin evaluación anterior no hay cruce");
+
+        state.onPrice(BASE + MINUTE, 99);
+        rules.evaluate(ctx);
+        assertTrue(ctx.fell(0));
+        assertTrue(ctx.rose(1));
+
+        state.onPrice(BASE + 2 * MINUTE, 98);
+        rules.evaluate(ctx);
+        assertFalse(ctx.result(1), "seguir por debajo no es volver a cruzar");
+
+        state.onPrice(BASE + 3 * MINUTE, 101);
+        rules.evaluate(ctx);
+        state.onPrice(BASE + 4 * MINUTE, 99);
+        rules.evaluate(ctx);
+        assertTrue(ctx.rose(1));
+    }
+
+    @Test
+    void pctChangeUsesFinestTimeframeCoveringTheWindow() {
+        RuleSet rules = compiler(14).compile(List.of(
+                "caida: pct_change(4h) < -3",
+                "caida-diaria: pct_change(1d) < -3"));
+        IndicatorState state = state(14);
+        RuleContext ctx = rules.newContext(state);
+
+        for (int i = 0; i < 300; i++) state.onPrice(BASE + i * MINUTE, 100);
+        state.onPrice(BASE + 300 * MINUTE, 96);
+        rules.evaluate(ctx);
+
+        assertTrue(ctx.result(0));
+        // ✅ 1d se resuelve sobre velas de 1h y sólo hay 5h de histórico: NaN, nunca cierta
+        assertFalse(ctx.result(1));
+        assertEquals(-4.0, ((Expr.Lt) rules.rule(0).condition).left.eval(ctx), 1e-9);
+    }
+
+    @Test
+    void sharesCommonSubexpressionsAcrossRules() {
+        RuleSet rules = compiler(14).compile(List.of(
+                "a: rsi(14, 1h) > 70",
+                "b: rsi(1h) < 30 or rsi(14, 1h) > 70 and pct_change(4h) < -3",
+                "c: rsi(7, 1h) > 50 and pct_change(4h) < -3"));
+
+        // ✅ Sólo tres indicadores memorizados: rsi(14,1h), pct_change(4h) y rsi(7,1h)
+        assertEquals(3, rules.memoSlots);
+        Expr.Or b = (Expr.Or) rules.rule(1).condition;
+        Expr.And c = (Expr.And) rules.rule(2).condition;
+        assertSame(rules.rule(0).condition, ((Expr.And) b.right).left);
+        assertSame(((Expr.And) b.right).right, c.right);
+    }
+
+    @Test
+    void wilderRsiWithOtherPeriodMatchesStreamingRsi() {
+        RuleSet recomputed = compiler(14).compile(List.of("r: rsi(7, 1h) > 50"));
+        RuleSet streaming = compiler(7).compile(List.of("r: rsi(7, 1h) > 50"));
+        assertInstanceOf(Expr.WilderRsi.class, ((Expr.Gt) recomputed.rule(0).condition).left);
+        assertInstanceOf(Expr.Rsi.class, ((Expr.Gt) streaming.rule(0).condition).left);
+
+        IndicatorState a = state(14);
+        IndicatorState b = state(7);
+        RuleContext ctxA = recomputed.newContext(a);
+        RuleContext ctxB = streaming.newContext(b);
+
+        Random random = new Random(42);
+        double price = 100;
+        for (int i = 0; i < 60; i++) {
+            price *= 1 + (random.nextDouble() - 0.5) * 0.04;
+            a.onPrice(BASE + i * HOUR + 30 * MINUTE, price);
+            b.onPrice(BASE + i * HOUR + 30 * MINUTE, price);
+            recomputed.evaluate(ctxA);
+            streaming.evaluate(ctxB);
+
+            double expected = ((Expr.Gt) streaming.rule(0).condition).left.eval(ctxB);
+            double actual = ((Expr.Gt) recomputed.rule(0).condition).left.eval(ctxA);
+            if (Double.isNaN(expected)) {
+                assertTrue(Double.isNaN(actual), "vela " + i);
+            } else {
+                assertEquals(expected, actual, 1e-9, "vela " + i);
+            }
+        }
+    }
+
+    @Test
+    void studyFunctionsReuseConfiguredGraphOrFollowTheBars() {
+        RuleSet rules = compiler(14).compile(List.of(
+                "cruce: ema(9, 1m) crosses_above ema(21, 1m)",
+                "tendencia: macd_hist(1m) > 0 and price > bb_middle(20, 2, 1m)"));
+        IndicatorState shared = new IndicatorState(14, 256, 15, Timeframe.H1, FRAMES, List.of("ema(9)", "macd"));
+        IndicatorState plain = state(14);
+        RuleContext withGraph = rules.newContext(shared);
+        RuleContext followed = rules.newContext(plain);
+        assertSame(shared.bars(Timeframe.M1).studies(), withGraph.studyGraphs[0], "ema(9) está configurada");
+        assertNotSame(shared.bars(Timeframe.M1).studies(), withGraph.studyGraphs[1], "ema(21) no");
+
+        // ✅ Bajada y subida: la EMA corta cruza por encima de la larga al girar
+        boolean crossed = false;
+        for (int i = 0; i < 120; i++) {
+            double price = i < 60 ? 200 - i : 140 + 2 * (i - 60);
+            shared.onPrice(BASE + i * MINUTE, price);
+            plain.onPrice(BASE + i * MINUTE, price);
+            rules.evaluate(withGraph);
+            rules.evaluate(followed);
+            assertEquals(withGraph.result(0), followed.result(0), "minuto " + i);
+            assertEquals(withGraph.result(1), followed.result(1), "minuto " + i);
+            crossed |= withGraph.rose(0);
+        }
+        assertTrue(crossed);
+        assertTrue(withGraph.result(1));
+
+        IllegalArgumentException bad = assertThrows(IllegalArgumentException.class,
+                () -> compiler(14).compile(List.of("mala: macd(26, 12, 9) > 0")));
+        assertTrue(bad.getMessage().contains("'mala'"), bad.getMessage());
+    }
+
+    @Test
+    void reportsErrorsWithRuleNameAndPosition() {
+        IllegalArgumentException unknownFrame = assertThrows(IllegalArgumentException.class,
+                () -> compiler(14).compile(List.of("mala: rsi(14, 4h) > 70")));
+        assertTrue(unknownFrame.getMessage().contains("'mala'"));
+        assertTrue(unknownFrame.getMessage().contains("4h"));
+
+        IllegalArgumentException incomplete = assertThrows(IllegalArgumentException.class,
+                () -> compiler(14).compile(List.of("corta: price >")));
+        assertTrue(incomplete.getMessage().contains("posición 8"), incomplete.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> compiler(14).compile(List.of("price > 1")));
+        assertThrows(IllegalArgumentException.class, () -> compiler(14).compile(List.of("x: foo(1) > 1")));
+        assertThrows(IllegalArgumentException.class, () -> compiler(14).compile(List.of("x: price > 1", "x: price < 1")));
+    }
+}
@@ -0,0 +1,87 @@
+package com.cryptobot.scheduler;
+
+import com.cryptobot.config.BotProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PollingPlanTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private static BotProperties.Bitcoin.Scheduler.Adaptive adaptive(double budget) {
+        BotProperties.Bitcoin.Scheduler.Adaptive adaptive = new BotProperties.Bitcoin.Scheduler.Adaptive();
+        adaptive.setBudgetPerMinute(budget);
+        return adaptive;
+    }
+
+    // ✅ Cada 5 minutos el precio sube y baja `movePct` alternativamente
+    private static void feed(PollingPlan plan, String id, double movePct, int points) {
+        double price = 100;
+        for (int i = 0; i < points; i++) {
+            price *= i % 2 == 0 ? 1 + movePct / 100 : 1 / (1 + movePct / 100);
+            plan.observe(id, price, (i + 1) * 5 * MINUTE);
+        }
+    }
+
+    @Test
+    void volatileSymbolsArePolledFasterThanQuietOnes() {
+        PollingPlan plan = new PollingPlan(adaptive(0), 0, List.of("calm", "wild", "new"), 0);
+        feed(plan, "calm", 0.01, 20);
+        feed(plan, "wild", 1.0, 20);
+        plan.replan(1.0);
+
+        assertEquals(60_000, plan.intervalMs("wild"), "acotado al mínimo");
+        assertEquals(1_800_000, plan.intervalMs("calm"), "acotado al máximo");
+        assertEquals(300_000, plan.intervalMs("new"), "sin datos: intervalo inicial");
+
+        // ✅ Un umbral de alerta 4 veces más amplio permite consultar 16 veces menos
+        PollingPlan mid = new PollingPlan(adaptive(0), 0, List.of("btc"), 0);
+        feed(mid, "btc", 0.45, 20);
+        mid.replan(1.0);
+        long tight = mid.intervalMs("btc");
+        mid.replan(4.0);
+        assertEquals(16.0, (double) mid.intervalMs("btc") / tight, 0.01);
+    }
+
+    @Test
+    void budgetIsSharedByPriorityAndSurplusIsRedistributed() {
+        BotProperties.Bitcoin.Scheduler.Adaptive config = adaptive(2);
+        config.setPriorities(Map.of("a", 2.0));
+        PollingPlan plan = new PollingPlan(config, 0, List.of("a", "b", "c", "d"), 0);
+        feed(plan, "a", 2.0, 10);
+        feed(plan, "b", 2.0, 10);
+        feed(plan, "c", 2.0, 10);
+        feed(plan, "d", 0.01, 10);
+        plan.replan(1.0);
+
+        // ✅ d pide 1/30 por minuto y lo obtiene; el resto (1.967/min) se reparte 2:1:1 entre a, b y c
+        assertEquals(1_800_000, plan.intervalMs("d"));
+        double rest = 2 - 1.0 / 30;
+        assertEquals(60_000 / (rest / 2), plan.intervalMs("a"), 1);
+        assertEquals(60_000 / (rest / 4), plan.intervalMs("b"), 1);
+        assertEquals(plan.intervalMs("b"), plan.intervalMs("c"));
+    }
+
+    @Test
+    void deadlinesAdvanceWithPollsAndTightenWhenVolatilityJumps() {
+        PollingPlan plan = new PollingPlan(adaptive(0), 10_000, List.of("a", "b"), 1_000);
+        assertEquals(List.of(), plan.due(999));
+        assertEquals(List.of("a", "b"), plan.due(1_000));
+
+        plan.polled("a", 1_000);
+        plan.polled("b", 1_000);
+        long next = plan.nextDeadline();
+        assertTrue(next >= 301_000 && next <= 311_000, "intervalo inicial + jitter acotado: " + next);
+
+        // ✅ Un movimiento brusco adelanta la próxima consulta sin esperar al plazo ya programado
+        plan.observe("a", 100, 1_000);
+        plan.observe("a", 103, 61_000);
+        plan.replan(1.0);
+        assertEquals(60_000, plan.intervalMs("a"));
+        assertEquals(List.of("a"), plan.due(121_000));
+    }
+}
@@ -0,0 +1,69 @@
+package com.cryptobot.service;
+
+import com.cryptobot.service.AlertSuppressor.AlertType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertSuppressorTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void suppressesRepeatsUntilRearmedAndIntervalElapsed() {
+        AlertSuppressor suppressor = new AlertSuppressor(true, 30 * MINUTE, 1.5, 16);
+
+        assertTrue(suppressor.tryFire(0, AlertType.PRICE_UP, 1.2, 0));
+        // ✅ Misma magnitud en el siguiente ciclo: suprimida (desarmada y dentro del intervalo)
+        assertFalse(suppressor.tryFire(0, AlertType.PRICE_UP, 1.3, 5 * MINUTE));
+        // ✅ Pasado el intervalo pero sin salir de la banda: sigue suprimida
+        assertFalse(suppressor.tryFire(0, AlertType.PRICE_UP, 1.3, 40 * MINUTE));
+
+        suppressor.rearm(0, AlertType.PRICE_UP);
+        assertTrue(suppressor.tryFire(0, AlertType.PRICE_UP, 1.1, 45 * MINUTE));
+
+        // ✅ Otro tipo y otro símbolo no comparten estado
+        assertTrue(suppressor.tryFire(0, AlertType.PRICE_DOWN, 1.1, 45 * MINUTE));
+        assertTrue(suppressor.tryFire(1, AlertType.PRICE_UP, 1.1, 45 * MINUTE));
+    }
+
+    @Test
+    void escalationBypassesIntervalAndHysteresis() {
+        AlertSuppressor suppressor = new AlertSuppressor(true, 30 * MINUTE, 1.5, 16);
+
+        assertTrue(suppressor.tryFire(7, AlertType.PRICE_DOWN, 2.0, 0));
+        assertFalse(suppressor.tryFire(7, AlertType.PRICE_DOWN, 2.9, MINUTE));
+        assertTrue(suppressor.tryFire(7, AlertType.PRICE_DOWN, 3.0, 2 * MINUTE));
+        // ✅ El listón sube con cada escalado
+        assertFalse(suppressor.tryFire(7, AlertType.PRICE_DOWN, 4.0, 3 * MINUTE));
+        // ✅ Sin magnitud (cruces RSI) no hay escalado posible
+        assertTrue(suppressor.tryFire(7, AlertType.RSI_CROSS_DOWN, 0, 0));
+        assertFalse(suppressor.tryFire(7, AlertType.RSI_CROSS_DOWN, 0, MINUTE));
+    }
+
+    @Test
+    void keepsStateForThousandsOfSymbolsAcrossResizes() {
+        AlertSuppressor suppressor = new AlertSuppressor(true, 30 * MINUTE, 1.5, 16);
+        AlertType[] types = AlertType.values();
+
+        for (int symbol = 0; symbol < 5_000; symbol++) {
+            for (AlertType type : types) {
+                assertTrue(suppressor.tryFire(symbol, type, 1.0, 0));
+            }
+        }
+        assertEquals(5_000 * types.length, suppressor.size());
+        for (int symbol = 0; symbol < 5_000; symbol++) {
+            for (AlertType type : types) {
+                assertFalse(suppressor.tryFire(symbol, type, 1.0, MINUTE));
+            }
+        }
+    }
+
+    @Test
+    void disabledAlwaysFires() {
+        AlertSuppressor suppressor = new AlertSuppressor(false, 30 * MINUTE, 1.5, 16);
+        assertTrue(suppressor.tryFire(0, AlertType.SIGNAL_BUY, 1, 0));
+        assertTrue(suppressor.tryFire(0, AlertType.SIGNAL_BUY, 1, 0));
+        assertEquals(0, suppressor.size());
+    }
+}
@@ -0,0 +1,108 @@
+package com.cryptobot.service;
+
+import com.cryptobot.client.CoinGeckoClient;
+import com.cryptobot.client.CoinGeckoRateLimiter;
+import com.cryptobot.cluster.ClusterService;
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.config.ConfigService;
+import com.cryptobot.indicator.IndicatorEngine;
+import com.cryptobot.journal.EventJournal;
+import com.cryptobot.model.MarketChart;
+import com.cryptobot.model.PricePoint;
+import com.cryptobot.model.WatchedSymbol;
+import com.cryptobot.notification.NotificationDispatcher;
+import com.cryptobot.notification.WhatsAppNotifier;
+import com.cryptobot.rule.RuleEngine;
+import com.cryptobot.source.PriceRouter;
+import com.cryptobot.source.Quote;
+import com.cryptobot.store.PriceHistoryStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitcoinPriceServiceTest {
+
+    private static final WatchedSymbol BTC = new WatchedSymbol("bitcoin", "BTC");
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void adaptivePollsSendOnePeriodicUpdatePerIntervalAndKeepTheReferencePrice() {
+        BotProperties config = new BotProperties();
+        config.getStore().setEnabled(false);
+        config.getBitcoin().getPrice().setChangeThreshold(1.0);
+        config.getPriceSource().setProviders(List.of("coingecko"));
+        config.getNotification().getTemplate().setPeriodic("PERIODIC %.0f %.2f");
+        config.getNotification().getTemplate().setPriceChange("CHANGE %.2f %.0f");
+        ConfigService configs = ConfigService.fixed(config);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EventJournal journal = new EventJournal(config, configs, registry);
+
+        // ✅ Histórico plano de 48 h hasta hace un minuto: RSI listo y sin huecos
+        long now = System.currentTimeMillis();
+        long[] times = new long[48];
+        double[] prices = new double[48];
+        for (int i = 0; i < 48; i++) {
+            times[i] = now - 60_000L - (47 - i) * HOUR;
+            prices[i] = 100;
+        }
+        double[] none = new double[48];
+        Arrays.fill(none, Double.NaN);
+        MarketChart chart = new MarketChart(times, prices, none, none, 48, 0, 0);
+        CoinGeckoClient history = new CoinGeckoClient(config, new CoinGeckoRateLimiter(config), PipelineMetrics.disabled(), null) {
+            @Override
+            public MarketChart getLastHourlyPrices(String coinId, int hours) {
+                return chart;
+            }
+        };
+
+        // ✅ Una cotización por segundo a partir de hace 30 s: marcas de tiempo siempre crecientes
+        AtomicReference<Double> price = new AtomicReference<>(100.0);
+        AtomicLong quoteTime = new AtomicLong(now - 30_000L);
+        PriceRouter router = new PriceRouter(config, null, null, registry) {
+            @Override
+            public Quote latest(WatchedSymbol symbol) {
+                Instant ts = Instant.ofEpochMilli(quoteTime.addAndGet(1_000L));
+                return new Quote(new PricePoint(ts, price.get()), "stub", false, System.currentTimeMillis());
+            }
+        };
+
+        List<String> sent = new CopyOnWriteArrayList<>();
+        NotificationDispatcher dispatcher = new NotificationDispatcher(
+                new WhatsAppNotifier(config, PipelineMetrics.disabled(), journal, null), config, journal, registry) {
+            @Override
+            public long enqueue(String message) {
+                sent.add(message);
+                return sent.size();
+            }
+        };
+
+        BitcoinPriceService service = new BitcoinPriceService(history, router, new IndicatorEngine(configs),
+                new SignalEvaluatorService(configs), dispatcher, new AlertSuppressor(configs), new RuleEngine(configs),
+                new PriceHistoryStore(config), journal, PipelineMetrics.disabled(), new ClusterService(config, registry),
+                configs, config);
+        try {
+            // ✅ Seis consultas adaptativas dentro de los mismos 30 minutos; el precio sube un 0,3 % en cada una
+            for (int i = 0; i < 6; i++) {
+                price.set(100 * (1 + 0.003 * i));
+                assertTrue(service.process(BTC));
+            }
+
+            assertEquals(1, sent.stream().filter(m -> m.startsWith("PERIODIC")).count(), "mensajes: " + sent);
+            // ✅ La referencia sigue en el precio de la consulta periódica: el 1,2 % acumulado sí avisa
+            assertEquals(1, sent.stream().filter(m -> m.startsWith("CHANGE")).count(), "mensajes: " + sent);
+        } finally {
+            service.shutdown();
+            dispatcher.shutdown();
+            router.shutdown();
+            history.shutdown();
+        }
+    }
+}
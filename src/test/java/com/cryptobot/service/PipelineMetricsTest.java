@@ -0,0 +1,50 @@
+package com.cryptobot.service;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.service.PipelineMetrics.Event;
+import com.cryptobot.service.PipelineMetrics.Stage;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineMetricsTest {
+
+    @Test
+    void recordsStageLatencyAndCountersPerSymbol() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PipelineMetrics metrics = new PipelineMetrics(registry, new BotProperties());
+
+        for (int i = 0; i < 3; i++) {
+            metrics.record(Stage.SIGNALS, "bitcoin", metrics.start());
+        }
+        metrics.record(Stage.SIGNALS, "ethereum", metrics.start());
+        metrics.count(Event.CHART_CACHE_HIT, "bitcoin");
+        metrics.count(Event.CHART_CACHE_STALE, "bitcoin");
+        metrics.count(Event.CHART_CACHE_STALE, "bitcoin");
+
+        Timer btc = registry.get("pipeline_stage_latency").tags("stage", "signals", "symbol", "bitcoin").timer();
+        Timer eth = registry.get("pipeline_stage_latency").tags("stage", "signals", "symbol", "ethereum").timer();
+        assertEquals(3, btc.count());
+        assertEquals(1, eth.count());
+        assertEquals(1.0, registry.get("coingecko_cache_total")
+                .tags("cache", "market_chart", "result", "hit", "symbol", "bitcoin").counter().count());
+        assertEquals(2.0, registry.get("coingecko_cache_total")
+                .tags("cache", "market_chart", "result", "stale_fallback", "symbol", "bitcoin").counter().count());
+    }
+
+    @Test
+    void disabledRegistersNothing() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BotProperties config = new BotProperties();
+        config.getMetrics().setPipelineEnabled(false);
+        PipelineMetrics metrics = new PipelineMetrics(registry, config);
+
+        assertEquals(0L, metrics.start());
+        metrics.record(Stage.FETCH, "bitcoin", metrics.start());
+        metrics.count(Event.NOTIFICATION_RETRY, PipelineMetrics.ALL);
+
+        assertTrue(registry.getMeters().isEmpty());
+    }
+}
@@ -0,0 +1,179 @@
+package com.cryptobot.source;
+
+import com.cryptobot.config.BotProperties;
+import com.cryptobot.model.PricePoint;
+import com.cryptobot.model.WatchedSymbol;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceRouterTest {
+
+    private static final WatchedSymbol BTC = new WatchedSymbol("bitcoin", "BTC");
+
+    // ✅ Proveedor local: responde `price` tras `delayMs`, o falla si price <= 0
+    private record Stub(String name, long delayMs, double price, long ageMs, AtomicInteger calls) implements PriceSource {
+        Stub(String name, long delayMs, double price) {
+            this(name, delayMs, price, 0, new AtomicInteger());
+        }
+
+        @Override
+        public PricePoint latest(WatchedSymbol symbol) throws Exception {
+            calls.incrementAndGet();
+            Thread.sleep(delayMs);
+            if (price <= 0) throw new IllegalStateException(name + " caído");
+            return new PricePoint(Instant.now().minusMillis(ageMs), price);
+        }
+    }
+
+    private static BotProperties.PriceSources config() {
+        BotProperties.PriceSources config = new BotProperties.PriceSources();
+        config.setDeadlineMs(3_000);
+        config.getHedge().setInitialDelayMs(50);
+        config.getBreaker().setFailureThreshold(2);
+        config.getBreaker().setOpenSeconds(60);
+        return config;
+    }
+
+    @Test
+    void slowPrimaryIsHedgedAndTheFirstGoodAnswerWins() {
+        Stub slow = new Stub("coingecko", 2_000, 100);
+        Stub fast = new Stub("binance", 10, 101);
+        PriceRouter router = new PriceRouter(config(), List.of(slow, fast), new SimpleMeterRegistry(), false);
+        try {
+            long start = System.nanoTime();
+            Quote quote = router.latest(BTC);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            assertEquals("binance", quote.source());
+            assertTrue(quote.hedged());
+            assertEquals(101, quote.price());
+            assertTrue(elapsedMs < 1_000, "sin esperar al proveedor lento: " + elapsedMs + " ms");
+        } finally {
+            router.shutdown();
+        }
+    }
+
+    @Test
+    void failingProviderFailsOverAndItsCircuitOpens() {
+        Stub broken = new Stub("coingecko", 0, -1);
+        Stub backup = new Stub("kraken", 0, 99);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PriceRouter router = new PriceRouter(config(), List.of(broken, backup), registry, false);
+        try {
+            for (int i = 0; i < 5; i++) {
+                Quote quote = router.latest(BTC);
+                assertEquals("kraken", quote.source());
+                assertFalse(quote.hedged(), "conmutación tras un fallo, no cobertura");
+            }
+            // ✅ Tras 2 fallos seguidos el circuito se abre y ya no se le llama
+            assertEquals(2, broken.calls().get());
+            assertEquals(3, registry.get("price_source_requests_total")
+                    .tags("source", "coingecko", "outcome", "circuit_open").counter().count());
+            assertEquals(CircuitBreaker.State.OPEN.ordinal(),
+                    registry.get("price_source_circuit_state").tag("source", "coingecko").gauge().value());
+        } finally {
+            router.shutdown();
+        }
+    }
+
+    @Test
+    void staleAnswersDoNotCountAndNothingGoodReturnsNull() {
+        BotProperties.PriceSources config = config();
+        config.setMaxAgeSeconds(60);
+        Stub stale = new Stub("coingecko", 0, 100, 10 * 60_000, new AtomicInteger());
+        Stub fresh = new Stub("coinbase", 0, 102);
+        PriceRouter router = new PriceRouter(config, List.of(stale, fresh), new SimpleMeterRegistry(), false);
+        try {
+            Quote quote = router.latest(BTC);
+            assertEquals("coinbase", quote.source());
+            assertTrue(quote.ageMillis(System.currentTimeMillis()) < 1_000);
+        } finally {
+            router.shutdown();
+        }
+
+        PriceRouter down = new PriceRouter(config, List.of(new Stub("a", 0, -1), new Stub("b", 0, -1)),
+                new SimpleMeterRegistry(), false);
+        try {
+            assertNull(down.latest(BTC));
+        } finally {
+            down.shutdown();
+        }
+    }
+
+    @Test
+    void halfOpenTrialCancelledBeforeStartingIsReleased() throws Exception {
+        BotProperties.PriceSources config = config();
+        config.setDeadlineMs(200);
+        config.getBreaker().setFailureThreshold(1);
+        config.getBreaker().setOpenSeconds(0);
+        AtomicReference<Double> price = new AtomicReference<>(-1.0);
+        PriceSource flaky = new PriceSource() {
+            @Override
+            public String name() {
+                return "coingecko";
+            }
+
+            @Override
+            public PricePoint latest(WatchedSymbol symbol) {
+                if (price.get() <= 0) throw new IllegalStateException("coingecko caído");
+                return new PricePoint(Instant.now(), price.get());
+            }
+        };
+        // ✅ Un único hilo: bloqueándolo, la prueba de semiabierto se queda en cola
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        PriceRouter router = new PriceRouter(config, List.of(flaky), new SimpleMeterRegistry(), executor);
+        CountDownLatch gate = new CountDownLatch(1);
+        try {
+            assertNull(router.latest(BTC), "primer fallo: circuito abierto");
+
+            executor.submit(() -> {
+                gate.await();
+                return null;
+            });
+            assertNull(router.latest(BTC), "la prueba no llega a empezar antes del plazo");
+
+            // ✅ La prueba cancelada no deja el proveedor fuera para siempre
+            gate.countDown();
+            price.set(100.0);
+            Quote quote = router.latest(BTC);
+            assertNotNull(quote);
+            assertEquals("coingecko", quote.source());
+        } finally {
+            gate.countDown();
+            router.shutdown();
+        }
+    }
+
+    @Test
+    void exchangeResponsesAndSymbolsAreMapped() throws Exception {
+        assertEquals(43000.12, ExchangeJson.firstNumber(json("{\"symbol\":\"BTCUSDT\",\"price\":\"43000.12\"}"), "price"));
+        assertEquals(43000.1, ExchangeJson.firstNumber(
+                json("{\"data\":{\"amount\":\"43000.1\",\"base\":\"BTC\",\"currency\":\"USD\"}}"), "amount"));
+        assertEquals(43000.5, ExchangeJson.firstNumber(json("{\"error\":[],\"result\":{\"XXBTZUSD\":"
+                + "{\"a\":[\"43001.0\",\"1\",\"1.0\"],\"c\":[\"43000.5\",\"0.01\"]}}}"), "c"));
+        assertTrue(Double.isNaN(ExchangeJson.firstNumber(json("{\"error\":[\"EQuery:Unknown asset pair\"]}"), "c")));
+
+        BotProperties.PriceSources endpoints = new BotProperties.PriceSources();
+        HttpPriceSource kraken = new HttpPriceSource("kraken", endpoints.getEndpoints().get("kraken"), null, null);
+        HttpPriceSource binance = new HttpPriceSource("binance", endpoints.getEndpoints().get("binance"), null, null);
+        assertEquals("XBTUSD", kraken.symbolFor(BTC));
+        assertEquals("ETHUSD", kraken.symbolFor(new WatchedSymbol("ethereum", "eth")));
+        assertEquals("BTCUSDT", binance.symbolFor(BTC));
+    }
+
+    private static ByteArrayInputStream json(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
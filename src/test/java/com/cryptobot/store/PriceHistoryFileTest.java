@@ -0,0 +1,98 @@
+package com.cryptobot.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceHistoryFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void persistsAcrossReopenAndGrowsBeyondInitialMapping() throws IOException {
+        Path path = dir.resolve("bitcoin.bin");
+        try (PriceHistoryFile file = new PriceHistoryFile(path, 8)) {
+            for (int i = 1; i <= 100; i++) {
+                assertTrue(file.append(i * 1000L, 40_000 + i));
+            }
+            assertFalse(file.append(50_000L, 1.0), "timestamps antiguos se rechazan");
+        }
+
+        try (PriceHistoryFile file = new PriceHistoryFile(path, 8)) {
+            assertEquals(100, file.size());
+            assertEquals(100_000L, file.lastTimestamp());
+            List<Double> prices = new ArrayList<>();
+            file.forEach((ts, price) -> prices.add(price));
+            assertEquals(40_001.0, prices.get(0));
+            assertEquals(40_100.0, prices.get(99));
+            assertTrue(file.append(101_000L, 1.0));
+        }
+    }
+
+    @Test
+    void recoversFromTornTail() throws IOException {
+        Path path = dir.resolve("eth.bin");
+        try (PriceHistoryFile file = new PriceHistoryFile(path, 16)) {
+            for (int i = 1; i <= 10; i++) file.append(i * 1000L, 2_000 + i);
+        }
+
+        // ✅ Simula un crash: registro 11 con timestamp "viejo" y basura a continuación
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer garbage = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+            garbage.putLong(5_000L).putDouble(1.0).putLong(99_000L).putDouble(Double.NaN).flip();
+            ch.write(garbage, PriceHistoryFile.HEADER_SIZE + 10L * PriceHistoryFile.RECORD_SIZE);
+        }
+
+        try (PriceHistoryFile file = new PriceHistoryFile(path, 16)) {
+            assertEquals(10, file.size());
+            assertEquals(2, file.recoveredRecords());
+            assertTrue(file.append(11_000L, 2_011));
+        }
+        try (PriceHistoryFile file = new PriceHistoryFile(path, 16)) {
+            assertEquals(11, file.size());
+        }
+    }
+
+    @Test
+    void retentionDropsOldRecords() throws IOException {
+        Path path = dir.resolve("sol.bin");
+        try (PriceHistoryFile file = new PriceHistoryFile(path, 4)) {
+            for (int i = 1; i <= 20; i++) file.append(i * 1000L, 100 + i);
+            assertEquals(10, file.retainSince(11_000L));
+            assertEquals(10, file.size());
+            assertEquals(11_000L, file.firstTimestamp());
+            assertTrue(file.append(21_000L, 121));
+        }
+        try (PriceHistoryFile file = new PriceHistoryFile(path, 4)) {
+            assertEquals(11, file.size());
+        }
+    }
+
+    @Test
+    void refusesFilesTooLargeToMap() throws IOException {
+        // ✅ Fichero disperso de más de 2 GB con cabecera válida: no se puede mapear entero
+        Path path = dir.resolve("huge.bin");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(PriceHistoryFile.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(PriceHistoryFile.MAGIC).putInt(PriceHistoryFile.VERSION).putInt(PriceHistoryFile.RECORD_SIZE);
+            header.rewind();
+            channel.write(header, 0);
+            channel.write(ByteBuffer.allocate(PriceHistoryFile.RECORD_SIZE),
+                    PriceHistoryFile.HEADER_SIZE + (long) (PriceHistoryFile.MAX_RECORDS + 1) * PriceHistoryFile.RECORD_SIZE);
+        }
+
+        IOException e = assertThrows(IOException.class, () -> new PriceHistoryFile(path, 4));
+        assertTrue(e.getMessage().contains("demasiado grande"), e.getMessage());
+    }
+}
@@ -0,0 +1,135 @@
+package com.cryptobot.stream;
+
+import com.cryptobot.config.BotProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinanceTickSourceTest {
+
+    private static final String TRADE_1 = "{\"stream\":\"btcusdt@aggTrade\",\"data\":{\"e\":\"aggTrade\",\"E\":1700000000100,"
+            + "\"s\":\"BTCUSDT\",\"p\":\"43250.10\",\"q\":\"0.5\",\"T\":1700000000050}}";
+    private static final String TRADE_2 = "{\"stream\":\"btcusdt@aggTrade\",\"data\":{\"e\":\"aggTrade\",\"E\":1700000001100,"
+            + "\"s\":\"BTCUSDT\",\"p\":\"43260.00\",\"q\":\"0.1\",\"T\":1700000001050}}";
+
+    // ✅ Servidor WebSocket local mínimo (RFC 6455, sólo lo que usa el cliente del JDK).
+    // 1ª conexión: un trade partido en dos fragmentos y cierre 1001. 2ª conexión: un trade entero y se queda abierta.
+    private ServerSocket server;
+    private Thread acceptor;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new ServerSocket(0, 10, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(() -> {
+            int connection = 0;
+            while (!server.isClosed()) {
+                try (Socket socket = server.accept()) {
+                    connection++;
+                    OutputStream out = handshake(socket);
+                    if (connection == 1) {
+                        int cut = TRADE_1.length() / 2;
+                        frame(out, false, 0x1, TRADE_1.substring(0, cut).getBytes(StandardCharsets.UTF_8));
+                        frame(out, true, 0x0, TRADE_1.substring(cut).getBytes(StandardCharsets.UTF_8));
+                        frame(out, true, 0x8, new byte[]{0x03, (byte) 0xE9});
+                        socket.getInputStream().read();
+                    } else {
+                        frame(out, true, 0x1, TRADE_2.getBytes(StandardCharsets.UTF_8));
+                        done.await(5, TimeUnit.SECONDS);
+                    }
+                } catch (Exception e) {
+                    // ✅ Cierre del servidor al terminar el test
+                }
+            }
+        }, "ws-test-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        done.countDown();
+        server.close();
+    }
+
+    private OutputStream handshake(Socket socket) throws Exception {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        String key = null;
+        String line = in.readLine();
+        requests.add(line);
+        while ((line = in.readLine()) != null && !line.isEmpty()) {
+            if (line.toLowerCase(Locale.ROOT).startsWith("sec-websocket-key:")) key = line.substring(18).trim();
+        }
+        byte[] sha1 = MessageDigest.getInstance("SHA-1")
+                .digest((key + "258EAFA5-E914-47DA-95CA-C5AB0DC85B11").getBytes(StandardCharsets.US_ASCII));
+        OutputStream out = socket.getOutputStream();
+        out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + Base64.getEncoder().encodeToString(sha1) + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return out;
+    }
+
+    // ✅ Trama de servidor (sin máscara)
+    private static void frame(OutputStream out, boolean fin, int opcode, byte[] payload) throws IOException {
+        out.write((fin ? 0x80 : 0) | opcode);
+        if (payload.length < 126) {
+            out.write(payload.length);
+        } else {
+            out.write(126);
+            out.write(payload.length >>> 8);
+            out.write(payload.length & 0xFF);
+        }
+        out.write(payload);
+        out.flush();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < until) Thread.sleep(5);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    void reassemblesFragmentsAndReconnectsAfterClose() throws Exception {
+        BotProperties.Stream config = new BotProperties.Stream();
+        config.setUrl("ws://127.0.0.1:" + server.getLocalPort() + "/stream");
+        config.setSymbols(List.of("bitcoin:btcusdt"));
+        config.setReconnectInitialMs(50);
+
+        List<String> ticks = new CopyOnWriteArrayList<>();
+        BinanceTickSource source = new BinanceTickSource(config);
+        try {
+            source.start((id, ts, price, qty) -> ticks.add(id + "@" + ts + "=" + price + "x" + qty));
+
+            // ✅ El primer trade sólo se entrega una vez unidos sus fragmentos; el segundo llega tras reconectar
+            awaitUntil(() -> ticks.size() == 2);
+            assertEquals(List.of("bitcoin@1700000000050=43250.1x0.5", "bitcoin@1700000001050=43260.0x0.1"), ticks);
+            assertEquals(2, requests.size());
+            assertTrue(requests.get(0).startsWith("GET /stream?streams=btcusdt@aggTrade "), requests.get(0));
+            awaitUntil(source::isConnected);
+        } finally {
+            source.stop();
+        }
+    }
+}
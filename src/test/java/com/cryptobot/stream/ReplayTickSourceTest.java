@@ -0,0 +1,66 @@
+package com.cryptobot.stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayTickSourceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void parsesCombinedAndRawTradeMessages() throws IOException {
+        List<String> seen = new ArrayList<>();
+        TickListener out = (symbol, ts, price, qty) -> seen.add(symbol + "@" + ts + "=" + price + "x" + qty);
+
+        assertTrue(BinanceTickSource.parseTrade(
+                "{\"stream\":\"btcusdt@aggTrade\",\"data\":{\"e\":\"aggTrade\",\"E\":1700000000100,\"s\":\"BTCUSDT\","
+                        + "\"a\":1,\"p\":\"43250.10\",\"q\":\"0.5\",\"f\":1,\"l\":2,\"T\":1700000000050,\"m\":true}}", out));
+        assertTrue(BinanceTickSource.parseTrade(
+                "{\"e\":\"trade\",\"E\":1700000000200,\"s\":\"ethusdt\",\"t\":9,\"p\":\"2250.5\",\"q\":\"1\"}", out));
+        assertFalse(BinanceTickSource.parseTrade("{\"result\":null,\"id\":1}", out));
+        assertFalse(BinanceTickSource.parseTrade(
+                "{\"e\":\"24hrMiniTicker\",\"E\":1700000000300,\"s\":\"BTCUSDT\",\"c\":\"43000\"}", out));
+
+        assertEquals(List.of("BTCUSDT@1700000000050=43250.1x0.5", "ETHUSDT@1700000000200=2250.5x1.0"), seen);
+    }
+
+    @Test
+    void replaysRecordedStreamPreservingSpacingAndMappingIds() throws Exception {
+        Path file = dir.resolve("ticks.jsonl");
+        Files.write(file, List.of(
+                "{\"e\":\"aggTrade\",\"s\":\"BTCUSDT\",\"p\":\"43000\",\"T\":1700000000000}",
+                "{\"e\":\"aggTrade\",\"s\":\"DOGEUSDT\",\"p\":\"0.1\",\"T\":1700000000500}",
+                "",
+                "{\"e\":\"aggTrade\",\"s\":\"BTCUSDT\",\"p\":\"43010\",\"T\":1700000001000}",
+                "{\"e\":\"aggTrade\",\"s\":\"BTCUSDT\",\"p\":\"43020\",\"T\":1700000002000}"));
+
+        List<Long> times = new ArrayList<>();
+        List<Double> prices = new ArrayList<>();
+        ReplayTickSource source = new ReplayTickSource(file, 0, Map.of("BTCUSDT", "bitcoin"));
+        source.start((id, ts, price, qty) -> {
+            assertEquals("bitcoin", id);
+            times.add(ts);
+            prices.add(price);
+        });
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (source.isConnected() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(List.of(43000.0, 43010.0, 43020.0), prices);
+        assertEquals(1000, times.get(1) - times.get(0));
+        assertEquals(2000, times.get(2) - times.get(0));
+        assertTrue(Math.abs(times.get(0) - System.currentTimeMillis()) < 5000, "timestamps desplazados al presente");
+    }
+}